@@ -0,0 +1,60 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.codec.util;
+
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding of correlation vectors with Java serialization and with raw little-endian floats.
+ *
+ * Run with {@code ./gradlew jmh}.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CorrelationVectorSerializerBenchmark {
+
+    @Param({"array", "bytes"})
+    public String serializerType;
+
+    private CorrelationVectorSerializer serializer;
+
+    private float[] vector;
+
+    private BytesRef encoded;
+
+    @Setup
+    public void setup() {
+        serializer = "array".equals(serializerType) ? new CorrelationVectorAsArraySerializer() : new CorrelationVectorAsBytesSerializer();
+        vector = new float[]{150.0f, 100.0f, 1728000.0f};
+        encoded = new BytesRef(serializer.floatToByteArray(vector));
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.floatToByteArray(vector);
+    }
+
+    @Benchmark
+    public float[] decode() {
+        return serializer.byteToFloatArray(encoded);
+    }
+}
@@ -53,6 +53,7 @@ import org.opensearch.script.ScriptService;
 import org.opensearch.securityanalytics.action.AckAlertsAction;
 import org.opensearch.securityanalytics.action.AckCorrelationAlertsAction;
 import org.opensearch.securityanalytics.action.CorrelatedFindingAction;
+import org.opensearch.securityanalytics.action.CorrelationStatsAction;
 import org.opensearch.securityanalytics.action.CreateIndexMappingsAction;
 import org.opensearch.securityanalytics.action.DeleteCorrelationRuleAction;
 import org.opensearch.securityanalytics.action.DeleteCustomLogTypeAction;
@@ -78,7 +79,17 @@ import org.opensearch.securityanalytics.action.SearchRuleAction;
 import org.opensearch.securityanalytics.action.TestS3ConnectionAction;
 import org.opensearch.securityanalytics.action.UpdateIndexMappingsAction;
 import org.opensearch.securityanalytics.action.ValidateRulesAction;
+import org.opensearch.securityanalytics.correlation.CorrelationAdmissionController;
+import org.opensearch.securityanalytics.correlation.CorrelationHistoryCompactor;
+import org.opensearch.securityanalytics.correlation.CorrelationMetrics;
+import org.opensearch.securityanalytics.correlation.ProcessedFindingsFilter;
+import org.opensearch.securityanalytics.correlation.CorrelationCounterAllocator;
+import org.opensearch.securityanalytics.correlation.CorrelationRuleCache;
+import org.opensearch.securityanalytics.correlation.CorrelationHistoryWriter;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchBatcher;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchPager;
 import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertService;
+import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertStateTable;
 import org.opensearch.securityanalytics.correlation.alert.notifications.NotificationService;
 import org.opensearch.securityanalytics.correlation.index.codec.CorrelationCodecService;
 import org.opensearch.securityanalytics.correlation.index.mapper.CorrelationVectorFieldMapper;
@@ -96,6 +107,7 @@ import org.opensearch.securityanalytics.model.Rule;
 import org.opensearch.securityanalytics.model.ThreatIntelFeedData;
 import org.opensearch.securityanalytics.resthandler.RestAcknowledgeAlertsAction;
 import org.opensearch.securityanalytics.resthandler.RestAcknowledgeCorrelationAlertsAction;
+import org.opensearch.securityanalytics.resthandler.RestCorrelationStatsAction;
 import org.opensearch.securityanalytics.resthandler.RestCreateIndexMappingsAction;
 import org.opensearch.securityanalytics.resthandler.RestDeleteCorrelationRuleAction;
 import org.opensearch.securityanalytics.resthandler.RestDeleteCustomLogTypeAction;
@@ -180,6 +192,7 @@ import org.opensearch.securityanalytics.threatIntel.transport.monitor.TransportU
 import org.opensearch.securityanalytics.transport.TransportAckCorrelationAlertsAction;
 import org.opensearch.securityanalytics.transport.TransportAcknowledgeAlertsAction;
 import org.opensearch.securityanalytics.transport.TransportCorrelateFindingAction;
+import org.opensearch.securityanalytics.transport.TransportCorrelationStatsAction;
 import org.opensearch.securityanalytics.transport.TransportCreateIndexMappingsAction;
 import org.opensearch.securityanalytics.transport.TransportDeleteCorrelationRuleAction;
 import org.opensearch.securityanalytics.transport.TransportDeleteCustomLogTypeAction;
@@ -210,8 +223,11 @@ import org.opensearch.securityanalytics.util.CorrelationIndices;
 import org.opensearch.securityanalytics.util.CorrelationRuleIndices;
 import org.opensearch.securityanalytics.util.CustomLogTypeIndices;
 import org.opensearch.securityanalytics.util.DetectorIndices;
+import org.opensearch.securityanalytics.util.PrepackagedRulesCompiler;
+import org.opensearch.securityanalytics.util.RuleConversionCache;
 import org.opensearch.securityanalytics.util.RuleIndices;
 import org.opensearch.securityanalytics.util.RuleTopicIndices;
+import org.opensearch.threadpool.ExecutorBuilder;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.watcher.ResourceWatcherService;
 import reactor.util.annotation.NonNull;
@@ -253,6 +269,7 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
     public static final String CUSTOM_LOG_TYPE_URI = PLUGINS_BASE_URI + "/logtype";
 
     public static final String CORRELATIONS_ALERTS_BASE_URI = PLUGINS_BASE_URI + "/correlationAlerts";
+    public static final String STATS_URI = PLUGINS_BASE_URI + "/stats";
     public static final String JOB_INDEX_NAME = ".opensearch-sap--job";
     public static final String JOB_TYPE = "opensearch_sap_job";
 
@@ -310,8 +327,18 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
         customLogTypeIndices = new CustomLogTypeIndices(client.admin(), clusterService);
         indexTemplateManager = new IndexTemplateManager(client, clusterService, indexNameExpressionResolver, xContentRegistry);
         mapperService = new MapperService(client, clusterService, indexNameExpressionResolver, indexTemplateManager, logTypeService);
-        ruleIndices = new RuleIndices(logTypeService, client, clusterService, threadPool);
+        RuleConversionCache ruleConversionCache = new RuleConversionCache(clusterService.getSettings());
+        ruleIndices = new RuleIndices(logTypeService, client, clusterService, threadPool, ruleConversionCache);
         correlationRuleIndices = new CorrelationRuleIndices(client, clusterService);
+        CorrelationRuleCache correlationRuleCache = new CorrelationRuleCache(client, correlationRuleIndices, xContentRegistry);
+        CorrelationSearchBatcher correlationSearchBatcher = new CorrelationSearchBatcher(client, clusterService, threadPool);
+        CorrelationSearchPager correlationSearchPager = new CorrelationSearchPager(client, clusterService, correlationSearchBatcher);
+        CorrelationHistoryWriter correlationHistoryWriter = new CorrelationHistoryWriter(client, clusterService, threadPool);
+        CorrelationCounterAllocator correlationCounterAllocator = new CorrelationCounterAllocator(client, clusterService, threadPool);
+        CorrelationAdmissionController correlationAdmissionController = new CorrelationAdmissionController(clusterService, threadPool);
+        CorrelationMetrics correlationMetrics = new CorrelationMetrics();
+        ProcessedFindingsFilter processedFindingsFilter = new ProcessedFindingsFilter(client, clusterService, threadPool, correlationHistoryWriter);
+        CorrelationHistoryCompactor correlationHistoryCompactor = new CorrelationHistoryCompactor(client, clusterService, threadPool, correlationMetrics);
         ThreatIntelFeedDataService threatIntelFeedDataService = new ThreatIntelFeedDataService(clusterService, client, indexNameExpressionResolver, xContentRegistry);
         DetectorThreatIntelService detectorThreatIntelService = new DetectorThreatIntelService(threatIntelFeedDataService, client, xContentRegistry);
         TIFJobParameterService tifJobParameterService = new TIFJobParameterService(client, clusterService);
@@ -323,6 +350,7 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
         SecurityAnalyticsRunner.getJobRunnerInstance();
         TIFSourceConfigRunner.getJobRunnerInstance().initialize(clusterService, threatIntelLockService, threadPool, saTifSourceConfigManagementService, saTifSourceConfigService);
         CorrelationAlertService correlationAlertService = new CorrelationAlertService(client, xContentRegistry);
+        CorrelationAlertStateTable correlationAlertStateTable = new CorrelationAlertStateTable(client, correlationAlertService, threadPool);
         NotificationService notificationService = new NotificationService((NodeClient) client, scriptService);
         TIFJobRunner.getJobRunnerInstance().initialize(clusterService, tifJobUpdateService, tifJobParameterService, threatIntelLockService, threadPool, detectorThreatIntelService);
         IocFindingService iocFindingService = new IocFindingService(client, clusterService, xContentRegistry);
@@ -332,7 +360,7 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
         return List.of(
                 detectorIndices, correlationIndices, correlationRuleIndices, ruleTopicIndices, customLogTypeIndices, ruleIndices, threatIntelAlertService,
                 mapperService, indexTemplateManager, builtinLogTypeLoader, builtInTIFMetadataLoader, threatIntelFeedDataService, detectorThreatIntelService,
-                correlationAlertService, notificationService,
+                correlationAlertService, correlationAlertStateTable, notificationService, correlationRuleCache, correlationSearchBatcher, correlationSearchPager, correlationHistoryWriter, correlationCounterAllocator, correlationAdmissionController, correlationMetrics, processedFindingsFilter, correlationHistoryCompactor, ruleConversionCache,
                 tifJobUpdateService, tifJobParameterService, threatIntelLockService, saTifSourceConfigService, saTifSourceConfigManagementService, stix2IOCFetchService,
                 ioCScanService, defaultTifSourceConfigLoaderService);
     }
@@ -389,7 +417,8 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
                 new RestGetIocFindingsAction(),
                 new RestTestS3ConnectionAction(),
                 new RestGetCorrelationsAlertsAction(),
-                new RestAcknowledgeCorrelationAlertsAction()
+                new RestAcknowledgeCorrelationAlertsAction(),
+                new RestCorrelationStatsAction()
         );
     }
 
@@ -467,6 +496,11 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
         return Collections.singletonList(new QuerySpec<>(CorrelationQueryBuilder.NAME, CorrelationQueryBuilder::new, CorrelationQueryBuilder::fromXContent));
     }
 
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        return List.of(CorrelationAdmissionController.executorBuilder(settings), PrepackagedRulesCompiler.executorBuilder(settings));
+    }
+
     @Override
     public List<Setting<?>> getSettings() {
         return List.of(
@@ -488,13 +522,31 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
                 SecurityAnalyticsSettings.CORRELATION_HISTORY_INDEX_MAX_AGE,
                 SecurityAnalyticsSettings.CORRELATION_HISTORY_ROLLOVER_PERIOD,
                 SecurityAnalyticsSettings.CORRELATION_HISTORY_RETENTION_PERIOD,
+                SecurityAnalyticsSettings.CORRELATION_HISTORY_COMPACTION_INTERVAL,
                 SecurityAnalyticsSettings.IOC_FINDING_HISTORY_ENABLED,
                 SecurityAnalyticsSettings.IOC_FINDING_HISTORY_MAX_DOCS,
                 SecurityAnalyticsSettings.IOC_FINDING_HISTORY_INDEX_MAX_AGE,
                 SecurityAnalyticsSettings.IOC_FINDING_HISTORY_ROLLOVER_PERIOD,
                 SecurityAnalyticsSettings.IOC_FINDING_HISTORY_RETENTION_PERIOD,
                 SecurityAnalyticsSettings.IS_CORRELATION_INDEX_SETTING,
+                SecurityAnalyticsSettings.CORRELATION_RULES_VERSION_SETTING,
                 SecurityAnalyticsSettings.CORRELATION_TIME_WINDOW,
+                SecurityAnalyticsSettings.CORRELATION_BATCH_WINDOW,
+                SecurityAnalyticsSettings.CORRELATION_BATCH_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_SEARCH_PAGE_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_SEARCH_KEEP_ALIVE,
+                SecurityAnalyticsSettings.CORRELATION_SEARCH_MAX_HITS,
+                SecurityAnalyticsSettings.CORRELATION_WRITER_FLUSH_INTERVAL,
+                SecurityAnalyticsSettings.CORRELATION_WRITER_RECENT_RECORDS_RETENTION,
+                SecurityAnalyticsSettings.CORRELATION_WRITER_BATCH_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_COUNTER_BLOCK_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_METADATA_RECONCILE_INTERVAL,
+                SecurityAnalyticsSettings.CORRELATION_MAX_IN_FLIGHT,
+                SecurityAnalyticsSettings.CORRELATION_LOAD_SHEDDING_ENABLED,
+                SecurityAnalyticsSettings.CORRELATION_DEFERRAL_TIMEOUT,
+                SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_FILTER_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_RETENTION,
+                SecurityAnalyticsSettings.RULE_CONVERSION_CACHE_SIZE,
                 SecurityAnalyticsSettings.ENABLE_AUTO_CORRELATIONS,
                 SecurityAnalyticsSettings.DEFAULT_MAPPING_SCHEMA,
                 SecurityAnalyticsSettings.ENABLE_WORKFLOW_USAGE,
@@ -550,7 +602,8 @@ public class SecurityAnalyticsPlugin extends Plugin implements ActionPlugin, Map
                 new ActionHandler<>(GetIocFindingsAction.INSTANCE, TransportGetIocFindingsAction.class),
                 new ActionHandler<>(PutTIFJobAction.INSTANCE, TransportPutTIFJobAction.class),
                 new ActionPlugin.ActionHandler<>(GetCorrelationAlertsAction.INSTANCE, TransportGetCorrelationAlertsAction.class),
-                new ActionPlugin.ActionHandler<>(AckCorrelationAlertsAction.INSTANCE, TransportAckCorrelationAlertsAction.class)
+                new ActionPlugin.ActionHandler<>(AckCorrelationAlertsAction.INSTANCE, TransportAckCorrelationAlertsAction.class),
+                new ActionPlugin.ActionHandler<>(CorrelationStatsAction.INSTANCE, TransportCorrelationStatsAction.class)
         );
     }
 
@@ -0,0 +1,100 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.HdrHistogram.Histogram;
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+/**
+ * Correlation stats of a node, the latency histograms of the correlation stages in microseconds and the counters.
+ */
+public class CorrelationNodeStats extends BaseNodeResponse implements ToXContentFragment {
+
+    private static final double[] PERCENTILES = new double[]{50.0, 90.0, 99.0};
+
+    private final Map<String, Histogram> histograms;
+
+    private final Map<String, Long> counters;
+
+    public CorrelationNodeStats(DiscoveryNode node, Map<String, Histogram> histograms, Map<String, Long> counters) {
+        super(node);
+        this.histograms = histograms;
+        this.counters = counters;
+    }
+
+    public CorrelationNodeStats(StreamInput sin) throws IOException {
+        super(sin);
+        int size = sin.readVInt();
+        this.histograms = new TreeMap<>();
+        for (int i = 0; i < size; ++i) {
+            String stage = sin.readString();
+            byte[] encoded = sin.readByteArray();
+            try {
+                histograms.put(stage, Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0L));
+            } catch (DataFormatException e) {
+                throw new IOException("failed to decode the latency histogram of stage " + stage, e);
+            }
+        }
+        this.counters = new TreeMap<>(sin.readMap(StreamInput::readString, StreamInput::readLong));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(histograms.size());
+        for (Map.Entry<String, Histogram> histogram: histograms.entrySet()) {
+            out.writeString(histogram.getKey());
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getValue().getNeededByteBufferCapacity());
+            int length = histogram.getValue().encodeIntoCompressedByteBuffer(buffer);
+            out.writeByteArray(Arrays.copyOf(buffer.array(), length));
+        }
+        out.writeMap(counters, StreamOutput::writeString, StreamOutput::writeLong);
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return histograms;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, ToXContent.Params params) throws IOException {
+        builder.field("name", getNode().getName());
+        return toXContent(builder, histograms, counters);
+    }
+
+    static XContentBuilder toXContent(XContentBuilder builder, Map<String, Histogram> histograms, Map<String, Long> counters) throws IOException {
+        builder.field("counters", counters);
+        builder.startObject("stages");
+        for (Map.Entry<String, Histogram> histogram: histograms.entrySet()) {
+            Histogram latencies = histogram.getValue();
+            builder.startObject(histogram.getKey());
+            builder.field("count", latencies.getTotalCount());
+            builder.field("mean_ms", latencies.getTotalCount() > 0L ? latencies.getMean() / 1000.0 : 0.0);
+            for (double percentile: PERCENTILES) {
+                builder.field("p" + (int) percentile + "_ms", latencies.getValueAtPercentile(percentile) / 1000.0);
+            }
+            builder.field("max_ms", latencies.getMaxValue() / 1000.0);
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+}
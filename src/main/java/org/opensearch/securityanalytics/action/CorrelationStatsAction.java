@@ -0,0 +1,16 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.action.ActionType;
+
+public class CorrelationStatsAction extends ActionType<CorrelationStatsResponse> {
+    public static final CorrelationStatsAction INSTANCE = new CorrelationStatsAction();
+    public static final String NAME = "cluster:admin/opensearch/securityanalytics/correlations/stats";
+
+    public CorrelationStatsAction() {
+        super(NAME, CorrelationStatsResponse::new);
+    }
+}
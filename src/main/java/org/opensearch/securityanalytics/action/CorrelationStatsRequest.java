@@ -0,0 +1,24 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.core.common.io.stream.StreamInput;
+
+import java.io.IOException;
+
+public class CorrelationStatsRequest extends BaseNodesRequest<CorrelationStatsRequest> {
+
+    /**
+     * @param nodesIds the nodes to get the correlation stats of, all nodes if empty
+     */
+    public CorrelationStatsRequest(String... nodesIds) {
+        super(nodesIds);
+    }
+
+    public CorrelationStatsRequest(StreamInput sin) throws IOException {
+        super(sin);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.HdrHistogram.Histogram;
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.securityanalytics.correlation.CorrelationMetrics;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Correlation stats of every node, and of the cluster by merging the histograms and summing the counters of the nodes.
+ */
+public class CorrelationStatsResponse extends BaseNodesResponse<CorrelationNodeStats> implements ToXContentFragment {
+
+    public CorrelationStatsResponse(ClusterName clusterName, List<CorrelationNodeStats> nodes, List<FailedNodeException> failures) {
+        super(clusterName, nodes, failures);
+    }
+
+    public CorrelationStatsResponse(StreamInput sin) throws IOException {
+        super(sin);
+    }
+
+    @Override
+    protected List<CorrelationNodeStats> readNodesFrom(StreamInput in) throws IOException {
+        return in.readList(CorrelationNodeStats::new);
+    }
+
+    @Override
+    protected void writeNodesTo(StreamOutput out, List<CorrelationNodeStats> nodes) throws IOException {
+        out.writeList(nodes);
+    }
+
+    public Map<String, Histogram> getClusterHistograms() {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        for (CorrelationNodeStats nodeStats: getNodes()) {
+            for (Map.Entry<String, Histogram> histogram: nodeStats.getHistograms().entrySet()) {
+                histograms.computeIfAbsent(histogram.getKey(), k -> CorrelationMetrics.newHistogram()).add(histogram.getValue());
+            }
+        }
+        return histograms;
+    }
+
+    public Map<String, Long> getClusterCounters() {
+        Map<String, Long> counters = new TreeMap<>();
+        for (CorrelationNodeStats nodeStats: getNodes()) {
+            for (Map.Entry<String, Long> counter: nodeStats.getCounters().entrySet()) {
+                counters.merge(counter.getKey(), counter.getValue(), Long::sum);
+            }
+        }
+        return counters;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, ToXContent.Params params) throws IOException {
+        builder.startObject("cluster");
+        CorrelationNodeStats.toXContent(builder, getClusterHistograms(), getClusterCounters());
+        builder.endObject();
+
+        builder.startObject("nodes");
+        for (CorrelationNodeStats nodeStats: getNodes()) {
+            builder.startObject(nodeStats.getNode().getId());
+            nodeStats.toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.common.io.stream.StreamInput;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Position of a correlation listing: the point in time it runs on, its time range and the sort values of the last
+ * correlation listed.
+ */
+public class ListCorrelationsCursor {
+
+    private final String pitId;
+
+    private final long startTimestamp;
+
+    private final long endTimestamp;
+
+    private final Object[] sortValues;
+
+    public ListCorrelationsCursor(String pitId, long startTimestamp, long endTimestamp, Object[] sortValues) {
+        this.pitId = pitId;
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.sortValues = sortValues;
+    }
+
+    public String encode() throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeString(pitId);
+            out.writeLong(startTimestamp);
+            out.writeLong(endTimestamp);
+            out.writeVInt(sortValues.length);
+            for (Object sortValue: sortValues) {
+                out.writeGenericValue(sortValue);
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(BytesReference.toBytes(out.bytes()));
+        }
+    }
+
+    public static ListCorrelationsCursor decode(String cursor) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid correlations cursor", ex);
+        }
+        try (StreamInput sin = StreamInput.wrap(bytes)) {
+            String pitId = sin.readString();
+            long startTimestamp = sin.readLong();
+            long endTimestamp = sin.readLong();
+            Object[] sortValues = new Object[sin.readVInt()];
+            for (int i = 0; i < sortValues.length; ++i) {
+                sortValues[i] = sin.readGenericValue();
+            }
+            return new ListCorrelationsCursor(pitId, startTimestamp, endTimestamp, sortValues);
+        }
+    }
+
+    public String getPitId() {
+        return pitId;
+    }
+
+    public long getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    public long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    public Object[] getSortValues() {
+        return sortValues;
+    }
+}
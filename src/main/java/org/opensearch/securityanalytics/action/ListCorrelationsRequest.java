@@ -4,8 +4,10 @@
  */
 package org.opensearch.securityanalytics.action;
 
+import org.opensearch.Version;
 import org.opensearch.action.ActionRequest;
 import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.action.ValidateActions;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
 
@@ -13,32 +15,75 @@ import java.io.IOException;
 
 public class ListCorrelationsRequest extends ActionRequest {
 
+    public static final int DEFAULT_SIZE = 1000;
+
+    public static final int MAX_SIZE = 10000;
+
+    // first version to stream the size, cursor and bucket interval, older nodes list everything in a single page
+    static final Version PAGING_VERSION = Version.V_3_0_0;
+
     private Long startTimestamp;
 
     private Long endTimestamp;
 
+    private int size;
+
+    private String cursor;
+
+    private Long bucketInterval;
+
     public ListCorrelationsRequest(Long startTimestamp, Long endTimestamp) {
+        this(startTimestamp, endTimestamp, DEFAULT_SIZE, null, null);
+    }
+
+    /**
+     * @param size number of correlations of the page
+     * @param cursor cursor of a previous page, whose time range replaces the given one
+     * @param bucketInterval interval in milliseconds of the time buckets to count the correlations of every log type
+     *                       pair in, null to not count them. Buckets cover the whole time range and come with the
+     *                       first page only
+     */
+    public ListCorrelationsRequest(Long startTimestamp, Long endTimestamp, int size, String cursor, Long bucketInterval) {
         super();
         this.startTimestamp = startTimestamp;
         this.endTimestamp = endTimestamp;
+        this.size = size;
+        this.cursor = cursor;
+        this.bucketInterval = bucketInterval;
     }
 
     public ListCorrelationsRequest(StreamInput sin) throws IOException {
-        this(
-                sin.readLong(),
-                sin.readLong()
-        );
+        this(sin.readLong(), sin.readLong());
+        if (sin.getVersion().onOrAfter(PAGING_VERSION)) {
+            this.size = sin.readInt();
+            this.cursor = sin.readOptionalString();
+            this.bucketInterval = sin.readOptionalLong();
+        } else {
+            this.size = MAX_SIZE;
+        }
     }
 
     @Override
     public ActionRequestValidationException validate() {
-        return null;
+        ActionRequestValidationException validationException = null;
+        if (size < 0 || size > MAX_SIZE) {
+            validationException = ValidateActions.addValidationError("size must be between 0 and " + MAX_SIZE, validationException);
+        }
+        if (bucketInterval != null && bucketInterval <= 0L) {
+            validationException = ValidateActions.addValidationError("bucket interval must be positive", validationException);
+        }
+        return validationException;
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeLong(startTimestamp);
         out.writeLong(endTimestamp);
+        if (out.getVersion().onOrAfter(PAGING_VERSION)) {
+            out.writeInt(size);
+            out.writeOptionalString(cursor);
+            out.writeOptionalLong(bucketInterval);
+        }
     }
 
     public Long getStartTimestamp() {
@@ -48,4 +93,16 @@ public class ListCorrelationsRequest extends ActionRequest {
     public Long getEndTimestamp() {
         return endTimestamp;
     }
-}
\ No newline at end of file
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public Long getBucketInterval() {
+        return bucketInterval;
+    }
+}
@@ -10,38 +10,81 @@ import org.opensearch.core.common.io.stream.StreamOutput;
 import org.opensearch.core.xcontent.ToXContentObject;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.securityanalytics.model.CorrelatedFinding;
+import org.opensearch.securityanalytics.model.CorrelationBucket;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * A page of correlations, with the cursor of the next page if there is one. The buckets of the listing, if requested,
+ * count the correlations of the whole time range and are only part of the first page, next pages carry none.
+ */
 public class ListCorrelationsResponse extends ActionResponse implements ToXContentObject {
 
     private List<CorrelatedFinding> correlatedFindings;
 
+    private String nextCursor;
+
+    private List<CorrelationBucket> buckets;
+
     protected static final String FINDINGS = "findings";
+    protected static final String NEXT_CURSOR = "next_cursor";
+    protected static final String BUCKETS = "buckets";
 
     public ListCorrelationsResponse(List<CorrelatedFinding> correlatedFindings) {
+        this(correlatedFindings, null, null);
+    }
+
+    public ListCorrelationsResponse(List<CorrelatedFinding> correlatedFindings, String nextCursor, List<CorrelationBucket> buckets) {
         super();
         this.correlatedFindings = correlatedFindings;
+        this.nextCursor = nextCursor;
+        this.buckets = buckets;
     }
 
     public ListCorrelationsResponse(StreamInput sin) throws IOException {
-        this(
-                Collections.unmodifiableList(sin.readList(CorrelatedFinding::new))
-        );
+        this(Collections.unmodifiableList(sin.readList(CorrelatedFinding::new)));
+        if (sin.getVersion().onOrAfter(ListCorrelationsRequest.PAGING_VERSION)) {
+            this.nextCursor = sin.readOptionalString();
+            this.buckets = sin.readBoolean() ? Collections.unmodifiableList(sin.readList(CorrelationBucket::new)) : null;
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeCollection(correlatedFindings);
+        if (out.getVersion().onOrAfter(ListCorrelationsRequest.PAGING_VERSION)) {
+            out.writeOptionalString(nextCursor);
+            out.writeBoolean(buckets != null);
+            if (buckets != null) {
+                out.writeCollection(buckets);
+            }
+        }
     }
 
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject()
-                .field(FINDINGS, correlatedFindings)
-                .endObject();
-        return builder;
+                .field(FINDINGS, correlatedFindings);
+        if (nextCursor != null) {
+            builder.field(NEXT_CURSOR, nextCursor);
+        }
+        if (buckets != null) {
+            builder.field(BUCKETS, buckets);
+        }
+        return builder.endObject();
+    }
+
+    public List<CorrelatedFinding> getCorrelatedFindings() {
+        return correlatedFindings;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public List<CorrelationBucket> getBuckets() {
+        return buckets;
     }
-}
\ No newline at end of file
+}
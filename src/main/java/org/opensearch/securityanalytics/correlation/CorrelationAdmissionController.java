@@ -0,0 +1,252 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
+import org.opensearch.common.util.concurrent.OpenSearchRejectedExecutionException;
+import org.opensearch.commons.alerting.model.DocLevelQuery;
+import org.opensearch.commons.alerting.model.Finding;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.FixedExecutorBuilder;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Node-level admission control of finding correlations.
+ *
+ * Correlations run on the dedicated {@link #CORRELATION_THREAD_POOL} and at most
+ * {@link SecurityAnalyticsSettings#CORRELATION_MAX_IN_FLIGHT} of them are in flight at once. Once saturated, findings
+ * are rejected, except low severity findings which are deferred while {@link SecurityAnalyticsSettings#CORRELATION_LOAD_SHEDDING_ENABLED}
+ * is set, and correlated once the node is back under half of its limit. A finding still deferred after
+ * {@link SecurityAnalyticsSettings#CORRELATION_DEFERRAL_TIMEOUT} is rejected, so its publisher is not kept waiting while
+ * the node stays loaded.
+ */
+public class CorrelationAdmissionController {
+
+    private static final Logger log = LogManager.getLogger(CorrelationAdmissionController.class);
+
+    public static final String CORRELATION_THREAD_POOL = "security_analytics_correlation";
+
+    private static final String CORRELATION_THREAD_POOL_SETTINGS_PREFIX = "plugins.security_analytics.thread_pool.correlation";
+
+    private static final int CORRELATION_THREAD_POOL_QUEUE_SIZE = 1000;
+
+    // rule levels of the findings which are deferred first under load
+    private static final Set<String> LOW_SEVERITY_LEVELS = Set.of("informational", "low");
+
+    private final ThreadPool threadPool;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Queue<DeferredCorrelation> deferred = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger deferredSize = new AtomicInteger();
+
+    private final AtomicLong admittedCount = new AtomicLong();
+
+    private final AtomicLong deferredCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private volatile int maxInFlight;
+
+    private volatile boolean loadSheddingEnabled;
+
+    private volatile TimeValue deferralTimeout;
+
+    public CorrelationAdmissionController(ClusterService clusterService, ThreadPool threadPool) {
+        this.threadPool = threadPool;
+
+        this.maxInFlight = SecurityAnalyticsSettings.CORRELATION_MAX_IN_FLIGHT.get(clusterService.getSettings());
+        this.loadSheddingEnabled = SecurityAnalyticsSettings.CORRELATION_LOAD_SHEDDING_ENABLED.get(clusterService.getSettings());
+        this.deferralTimeout = SecurityAnalyticsSettings.CORRELATION_DEFERRAL_TIMEOUT.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_MAX_IN_FLIGHT, it -> maxInFlight = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_LOAD_SHEDDING_ENABLED, it -> loadSheddingEnabled = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_DEFERRAL_TIMEOUT, it -> deferralTimeout = it);
+    }
+
+    /**
+     * The correlation thread pool, sized with {@code plugins.security_analytics.thread_pool.correlation.size} and
+     * {@code plugins.security_analytics.thread_pool.correlation.queue_size}.
+     */
+    public static ExecutorBuilder<?> executorBuilder(Settings settings) {
+        return new FixedExecutorBuilder(
+                settings,
+                CORRELATION_THREAD_POOL,
+                OpenSearchExecutors.allocatedProcessors(settings),
+                CORRELATION_THREAD_POOL_QUEUE_SIZE,
+                CORRELATION_THREAD_POOL_SETTINGS_PREFIX
+        );
+    }
+
+    /**
+     * Runs the correlation of the finding on the correlation thread pool once admitted. The correlation receives a
+     * {@link Releasable} which must be closed once it completes. Rejected correlations are handed to onRejected.
+     */
+    public void submit(Finding finding, Consumer<Releasable> correlation, Consumer<Exception> onRejected) {
+        Runnable task = () -> dispatch(correlation, onRejected);
+
+        if (tryAcquire()) {
+            admittedCount.incrementAndGet();
+            task.run();
+            return;
+        }
+
+        if (loadSheddingEnabled && isLowSeverity(finding)) {
+            if (deferredSize.incrementAndGet() <= maxInFlight) {
+                deferredCount.incrementAndGet();
+                // the task is run by whichever correlation releases its slot, under the context of the submitter
+                DeferredCorrelation deferredCorrelation = new DeferredCorrelation(threadPool.getThreadContext().preserveContext(task));
+                deferredCorrelation.timeout = threadPool.schedule(() -> expire(deferredCorrelation, finding, onRejected),
+                        deferralTimeout, ThreadPool.Names.GENERIC);
+                deferred.add(deferredCorrelation);
+                // the in-flight correlations may all have completed in between
+                drainDeferred();
+                return;
+            }
+            deferredSize.decrementAndGet();
+        }
+
+        rejectedCount.incrementAndGet();
+        onRejected.accept(new OpenSearchRejectedExecutionException(String.format(Locale.ROOT,
+                "rejected correlation of finding [%s], node is correlating [%d] findings", finding.getId(), inFlight.get())));
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getDeferredSize() {
+        return deferredSize.get();
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount.get();
+    }
+
+    public long getDeferredCount() {
+        return deferredCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void dispatch(Consumer<Releasable> correlation, Consumer<Exception> onRejected) {
+        AtomicBoolean released = new AtomicBoolean();
+        Releasable releasable = () -> {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        };
+        try {
+            threadPool.executor(CORRELATION_THREAD_POOL).execute(() -> correlation.accept(releasable));
+        } catch (OpenSearchRejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            releasable.close();
+            onRejected.accept(e);
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drainDeferred();
+    }
+
+    private void drainDeferred() {
+        while (!deferred.isEmpty() && inFlight.get() < Math.max(1, maxInFlight / 2)) {
+            if (!tryAcquire()) {
+                return;
+            }
+            DeferredCorrelation deferredCorrelation = pollDeferred();
+            if (deferredCorrelation == null) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            admittedCount.incrementAndGet();
+            log.debug("Correlating deferred finding, {} findings remain deferred", deferredSize.get());
+            deferredCorrelation.task.run();
+        }
+    }
+
+    /**
+     * The oldest deferred correlation which has not expired, claimed for running.
+     */
+    private DeferredCorrelation pollDeferred() {
+        DeferredCorrelation deferredCorrelation;
+        while ((deferredCorrelation = deferred.poll()) != null) {
+            if (deferredCorrelation.claimed.compareAndSet(false, true)) {
+                deferredSize.decrementAndGet();
+                if (deferredCorrelation.timeout != null) {
+                    deferredCorrelation.timeout.cancel();
+                }
+                return deferredCorrelation;
+            }
+        }
+        return null;
+    }
+
+    private void expire(DeferredCorrelation deferredCorrelation, Finding finding, Consumer<Exception> onRejected) {
+        if (!deferredCorrelation.claimed.compareAndSet(false, true)) {
+            return;
+        }
+        deferred.remove(deferredCorrelation);
+        deferredSize.decrementAndGet();
+        rejectedCount.incrementAndGet();
+        onRejected.accept(new OpenSearchRejectedExecutionException(String.format(Locale.ROOT,
+                "rejected correlation of finding [%s], deferred for more than [%s]", finding.getId(), deferralTimeout)));
+    }
+
+    private static class DeferredCorrelation {
+        private final Runnable task;
+        // claimed by whichever of the drain and the timeout gets to it first
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile Scheduler.ScheduledCancellable timeout;
+
+        private DeferredCorrelation(Runnable task) {
+            this.task = task;
+        }
+    }
+
+    private static boolean isLowSeverity(Finding finding) {
+        if (finding.getDocLevelQueries().isEmpty()) {
+            return false;
+        }
+        for (DocLevelQuery query: finding.getDocLevelQueries()) {
+            // the first tag of the queries generated from rules is the rule level
+            if (query.getTags().isEmpty() || !LOW_SEVERITY_LEVELS.contains(query.getTags().get(0))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -9,4 +9,7 @@ public class CorrelationConstants {
     public static final String METHOD_PARAMETER_EF_CONSTRUCTION = "ef_construction";
     public static final String DIMENSION = "dimension";
     public static final String CORRELATION_CONTEXT = "correlation_ctx";
+    public static final String ENCODING = "encoding";
+    public static final String ENCODING_FLOAT = "float";
+    public static final String ENCODING_INT8 = "int8";
 }
\ No newline at end of file
@@ -0,0 +1,494 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.ResourceNotFoundException;
+import org.opensearch.action.get.GetRequest;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.routing.Preference;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.lifecycle.AbstractLifecycleComponent;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.index.engine.VersionConflictEngineException;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Node-local view of the correlation metadata documents, so correlating a finding does not read and write the same
+ * metadata document every time.
+ *
+ * Counters are handed out from blocks of {@link SecurityAnalyticsSettings#CORRELATION_COUNTER_BLOCK_SIZE} counters
+ * which every node reserves with a single conditional update of the root metadata document, so the counters of
+ * different nodes never overlap. Starting the counters over bumps the epoch of the root metadata document. The score
+ * timestamp only moves forward and is advanced in memory. While the component is started and a block or score
+ * timestamp is held, a background reconciler persists the score timestamp and picks up the counter timestamps and
+ * epochs of other nodes. A block or score timestamp left unused for a whole reconcile interval is released, so an idle
+ * node stops reading the metadata index.
+ */
+public class CorrelationCounterAllocator extends AbstractLifecycleComponent {
+
+    private static final Logger log = LogManager.getLogger(CorrelationCounterAllocator.class);
+
+    public static final long COUNTER_STEP = 50L;
+
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private final Client client;
+
+    private final ThreadPool threadPool;
+
+    private final TimeValue reconcileInterval;
+
+    private volatile TimeValue indexTimeout;
+
+    private volatile int blockSize;
+
+    private CounterBlock block = null;
+
+    private ScoreState score = null;
+
+    private boolean started = false;
+
+    private Scheduler.ScheduledCancellable scheduledReconcile = null;
+
+    public CorrelationCounterAllocator(Client client, ClusterService clusterService, ThreadPool threadPool) {
+        this.client = client;
+        this.threadPool = threadPool;
+
+        this.indexTimeout = SecurityAnalyticsSettings.INDEX_TIMEOUT.get(clusterService.getSettings());
+        this.blockSize = SecurityAnalyticsSettings.CORRELATION_COUNTER_BLOCK_SIZE.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.INDEX_TIMEOUT, it -> indexTimeout = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_COUNTER_BLOCK_SIZE, it -> blockSize = it);
+
+        this.reconcileInterval = SecurityAnalyticsSettings.CORRELATION_METADATA_RECONCILE_INTERVAL.get(clusterService.getSettings());
+    }
+
+    @Override
+    protected synchronized void doStart() {
+        started = true;
+        scheduleReconcile();
+    }
+
+    @Override
+    protected synchronized void doStop() {
+        started = false;
+        if (scheduledReconcile != null) {
+            scheduledReconcile.cancel();
+            scheduledReconcile = null;
+        }
+    }
+
+    @Override
+    protected void doClose() {
+
+    }
+
+    /**
+     * Returns the last counter handed out on this node and the timestamp it was handed out for.
+     */
+    public void current(ActionListener<CounterState> listener) {
+        CounterState state = null;
+        synchronized (this) {
+            if (block != null) {
+                block.used = true;
+                state = new CounterState(block.counter, block.timestamp);
+            }
+        }
+        if (state != null) {
+            listener.onResponse(state);
+            return;
+        }
+        loadCounterBlock(ActionListener.wrap(loaded -> current(listener), listener::onFailure));
+    }
+
+    /**
+     * Hands out the next counter for a finding at the given timestamp.
+     */
+    public void next(long findingTimestamp, ActionListener<Long> listener) {
+        Long counter = null;
+        synchronized (this) {
+            if (block != null && block.counter < block.last) {
+                block.used = true;
+                block.counter += COUNTER_STEP;
+                block.timestamp = Math.max(block.timestamp, findingTimestamp);
+                counter = block.counter;
+            }
+        }
+        if (counter != null) {
+            listener.onResponse(counter);
+            return;
+        }
+        reserve(findingTimestamp, -1L, 0, listener);
+    }
+
+    /**
+     * Starts the counters over for a finding at the given timestamp, unless another node already did so within the
+     * correlation time window, in which case the next counter after theirs is handed out.
+     */
+    public void reset(long findingTimestamp, long corrTimeWindow, ActionListener<Long> listener) {
+        reserve(findingTimestamp, corrTimeWindow, 0, listener);
+    }
+
+    /**
+     * Returns the current score timestamp without advancing it, read from the correlation metadata index so every
+     * node answers with the same one. A score timestamp advanced on this node and not persisted yet is taken into
+     * account, the ones advanced on other nodes are seen once their reconciler persisted them.
+     */
+    public void currentScoreTimestamp(ActionListener<Long> listener) {
+        searchMetadata(QueryBuilders.boolQuery().mustNot(QueryBuilders.termQuery("scoreTimestamp", 0L)), ActionListener.wrap(hit -> {
+            long scoreTimestamp = Long.parseLong(hit.getSourceAsMap().get("scoreTimestamp").toString());
+            synchronized (this) {
+                if (score != null) {
+                    scoreTimestamp = Math.max(scoreTimestamp, score.scoreTimestamp);
+                }
+            }
+            listener.onResponse(scoreTimestamp);
+        }, listener::onFailure));
+    }
+
+    /**
+     * Advances the score timestamp for a finding at the given timestamp, and returns the score timestamp to compute
+     * the timestamp feature of the finding with.
+     */
+    public void scoreTimestamp(long findingTimestamp, ActionListener<Long> listener) {
+        ScoreState current;
+        synchronized (this) {
+            current = score;
+        }
+        if (current == null) {
+            loadScore(ActionListener.wrap(loaded -> scoreTimestamp(findingTimestamp, listener), listener::onFailure));
+            return;
+        }
+
+        long newScoreTimestamp = findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL;
+        long scoreTimestamp;
+        synchronized (this) {
+            current.used = true;
+            if (newScoreTimestamp > current.scoreTimestamp) {
+                current.scoreTimestamp = newScoreTimestamp;
+                current.dirty = true;
+            }
+            scoreTimestamp = current.scoreTimestamp;
+        }
+        listener.onResponse(scoreTimestamp);
+    }
+
+    private synchronized CounterBlock counterBlock() {
+        return block;
+    }
+
+    private void loadCounterBlock(ActionListener<CounterBlock> listener) {
+        searchMetadata(QueryBuilders.matchQuery("root", true), ActionListener.wrap(hit -> {
+            Map<String, Object> source = hit.getSourceAsMap();
+            long counter = Long.parseLong(source.get("counter").toString());
+            long timestamp = Long.parseLong(source.get("timestamp").toString());
+            CounterBlock loaded;
+            synchronized (this) {
+                if (block == null) {
+                    // nothing reserved yet, the next counter reserves a block
+                    block = new CounterBlock(hit.getId(), epoch(source), counter, counter, timestamp);
+                    scheduleReconcile();
+                }
+                loaded = block;
+            }
+            listener.onResponse(loaded);
+        }, listener::onFailure));
+    }
+
+    private void loadScore(ActionListener<ScoreState> listener) {
+        searchMetadata(QueryBuilders.boolQuery().mustNot(QueryBuilders.termQuery("scoreTimestamp", 0L)), ActionListener.wrap(hit -> {
+            long scoreTimestamp = Long.parseLong(hit.getSourceAsMap().get("scoreTimestamp").toString());
+            ScoreState loaded;
+            synchronized (this) {
+                if (score == null) {
+                    score = new ScoreState(hit.getId(), scoreTimestamp);
+                    scheduleReconcile();
+                }
+                loaded = score;
+            }
+            listener.onResponse(loaded);
+        }, listener::onFailure));
+    }
+
+    private void searchMetadata(QueryBuilder queryBuilder, ActionListener<SearchHit> listener) {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(queryBuilder);
+        searchSourceBuilder.fetchSource(true);
+        searchSourceBuilder.size(1);
+        SearchRequest searchRequest = new SearchRequest();
+        searchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
+        searchRequest.source(searchSourceBuilder);
+        searchRequest.preference(Preference.PRIMARY_FIRST.type());
+        searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
+
+        client.search(searchRequest, ActionListener.wrap(response -> {
+            if (response.getHits().getHits().length == 0) {
+                listener.onFailure(new ResourceNotFoundException("Failed to find hits in correlation metadata index"));
+                return;
+            }
+            listener.onResponse(response.getHits().getHits()[0]);
+        }, listener::onFailure));
+    }
+
+    /**
+     * Reserves a block of counters with a conditional update of the root metadata document. A non-negative time window
+     * starts the counters over if nobody did so within the window.
+     */
+    private void reserve(long findingTimestamp, long corrTimeWindow, int attempt, ActionListener<Long> listener) {
+        CounterBlock current = counterBlock();
+        if (current == null) {
+            loadCounterBlock(ActionListener.wrap(loaded -> reserve(findingTimestamp, corrTimeWindow, attempt, listener), listener::onFailure));
+            return;
+        }
+
+        client.get(new GetRequest(CorrelationIndices.CORRELATION_METADATA_INDEX, current.id), ActionListener.wrap(getResponse -> {
+            if (!getResponse.isExists()) {
+                synchronized (this) {
+                    block = null;
+                }
+                listener.onFailure(new ResourceNotFoundException("Failed to find root document in correlation metadata index"));
+                return;
+            }
+            Map<String, Object> source = getResponse.getSourceAsMap();
+            long docCounter = Long.parseLong(source.get("counter").toString());
+            long docTimestamp = Long.parseLong(source.get("timestamp").toString());
+            long docEpoch = epoch(source);
+
+            long start;
+            long timestamp;
+            long epoch;
+            if (corrTimeWindow >= 0L && (docCounter == 0L || findingTimestamp - docTimestamp > corrTimeWindow)) {
+                start = COUNTER_STEP;
+                timestamp = findingTimestamp;
+                epoch = docEpoch + 1L;
+            } else {
+                start = docCounter + COUNTER_STEP;
+                timestamp = Math.max(docTimestamp, findingTimestamp);
+                epoch = docEpoch;
+            }
+            long last = start + COUNTER_STEP * (blockSize - 1);
+
+            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
+                    .id(current.id)
+                    .source(rootDocument(last, timestamp, epoch))
+                    .timeout(indexTimeout)
+                    .setIfSeqNo(getResponse.getSeqNo())
+                    .setIfPrimaryTerm(getResponse.getPrimaryTerm());
+
+            client.index(indexRequest, ActionListener.wrap(indexResponse -> {
+                synchronized (this) {
+                    block = new CounterBlock(current.id, epoch, start, last, timestamp);
+                    scheduleReconcile();
+                }
+                listener.onResponse(start);
+            }, e -> {
+                if (ExceptionsHelper.unwrapCause(e) instanceof VersionConflictEngineException && attempt + 1 < MAX_UPDATE_ATTEMPTS) {
+                    // another node reserved a block concurrently
+                    reserve(findingTimestamp, corrTimeWindow, attempt + 1, listener);
+                } else {
+                    listener.onFailure(e);
+                }
+            }));
+        }, listener::onFailure));
+    }
+
+    private synchronized void scheduleReconcile() {
+        if (started && scheduledReconcile == null && (block != null || score != null)) {
+            scheduledReconcile = threadPool.schedule(this::reconcile, reconcileInterval, ThreadPool.Names.GENERIC);
+        }
+    }
+
+    private void reconcile() {
+        CounterBlock currentBlock;
+        ScoreState currentScore;
+        synchronized (this) {
+            scheduledReconcile = null;
+            if (block != null && !block.used) {
+                // idle, the next counter loads the root metadata document again
+                block = null;
+            }
+            if (score != null && !score.used && !score.dirty) {
+                score = null;
+            }
+            currentBlock = block;
+            currentScore = score;
+            if (currentBlock != null) {
+                currentBlock.used = false;
+            }
+            if (currentScore != null) {
+                currentScore.used = false;
+            }
+            scheduleReconcile();
+        }
+
+        if (currentBlock != null) {
+            client.get(new GetRequest(CorrelationIndices.CORRELATION_METADATA_INDEX, currentBlock.id), ActionListener.wrap(getResponse -> {
+                synchronized (this) {
+                    if (block != currentBlock) {
+                        return;
+                    }
+                    if (!getResponse.isExists()) {
+                        block = null;
+                        return;
+                    }
+                    Map<String, Object> source = getResponse.getSourceAsMap();
+                    long docTimestamp = Long.parseLong(source.get("timestamp").toString());
+                    if (epoch(source) != currentBlock.epoch) {
+                        // another node started the counters over, reserve a fresh block next time
+                        block = null;
+                    } else {
+                        currentBlock.timestamp = Math.max(currentBlock.timestamp, docTimestamp);
+                    }
+                }
+            }, e -> log.debug("[CORRELATIONS] Failed to reconcile correlation counters", e)));
+        }
+
+        if (currentScore != null) {
+            reconcileScore(currentScore, 0);
+        }
+    }
+
+    private void reconcileScore(ScoreState currentScore, int attempt) {
+        client.get(new GetRequest(CorrelationIndices.CORRELATION_METADATA_INDEX, currentScore.id), ActionListener.wrap(getResponse -> {
+            if (!getResponse.isExists()) {
+                synchronized (this) {
+                    if (score == currentScore) {
+                        score = null;
+                    }
+                }
+                return;
+            }
+            long docScoreTimestamp = Long.parseLong(getResponse.getSourceAsMap().get("scoreTimestamp").toString());
+
+            long scoreTimestamp;
+            synchronized (this) {
+                if (docScoreTimestamp >= currentScore.scoreTimestamp) {
+                    currentScore.scoreTimestamp = docScoreTimestamp;
+                    currentScore.dirty = false;
+                    return;
+                }
+                if (!currentScore.dirty) {
+                    return;
+                }
+                scoreTimestamp = currentScore.scoreTimestamp;
+            }
+
+            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
+                    .id(currentScore.id)
+                    .source(scoreDocument(scoreTimestamp))
+                    .timeout(indexTimeout)
+                    .setIfSeqNo(getResponse.getSeqNo())
+                    .setIfPrimaryTerm(getResponse.getPrimaryTerm());
+            client.index(indexRequest, ActionListener.wrap(indexResponse -> {
+                synchronized (this) {
+                    if (currentScore.scoreTimestamp == scoreTimestamp) {
+                        currentScore.dirty = false;
+                    }
+                }
+            }, e -> {
+                if (ExceptionsHelper.unwrapCause(e) instanceof VersionConflictEngineException && attempt + 1 < MAX_UPDATE_ATTEMPTS) {
+                    reconcileScore(currentScore, attempt + 1);
+                } else {
+                    log.debug("[CORRELATIONS] Failed to persist correlation score timestamp", e);
+                }
+            }));
+        }, e -> log.debug("[CORRELATIONS] Failed to reconcile correlation score timestamp", e)));
+    }
+
+    private static long epoch(Map<String, Object> source) {
+        // root documents written before epochs were introduced are in the first one
+        Object epoch = source.get("epoch");
+        return epoch != null ? Long.parseLong(epoch.toString()) : 0L;
+    }
+
+    private static XContentBuilder rootDocument(long counter, long timestamp, long epoch) throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        builder.field("root", true);
+        builder.field("counter", counter);
+        builder.field("finding1", "");
+        builder.field("finding2", "");
+        builder.field("logType", "");
+        builder.field("timestamp", timestamp);
+        builder.field("scoreTimestamp", 0L);
+        builder.field("epoch", epoch);
+        builder.endObject();
+        return builder;
+    }
+
+    private static XContentBuilder scoreDocument(long scoreTimestamp) throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        builder.field("scoreTimestamp", scoreTimestamp);
+        builder.field("root", false);
+        builder.endObject();
+        return builder;
+    }
+
+    public static class CounterState {
+        private final long counter;
+        private final long timestamp;
+
+        CounterState(long counter, long timestamp) {
+            this.counter = counter;
+            this.timestamp = timestamp;
+        }
+
+        public long getCounter() {
+            return counter;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private static class CounterBlock {
+        private final String id;
+        // epoch of the root metadata document the block was reserved in
+        private final long epoch;
+        // last counter handed out
+        private long counter;
+        // last counter of the reserved block
+        private final long last;
+        private long timestamp;
+        private boolean used = true;
+
+        private CounterBlock(String id, long epoch, long counter, long last, long timestamp) {
+            this.id = id;
+            this.epoch = epoch;
+            this.counter = counter;
+            this.last = last;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static class ScoreState {
+        private final String id;
+        private long scoreTimestamp;
+        private boolean dirty = false;
+        private boolean used = true;
+
+        private ScoreState(String id, long scoreTimestamp) {
+            this.id = id;
+            this.scoreTimestamp = scoreTimestamp;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.admin.indices.forcemerge.ForceMergeRequest;
+import org.opensearch.action.admin.indices.stats.IndicesStatsRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.delete.DeleteRequest;
+import org.opensearch.action.search.CreatePitAction;
+import org.opensearch.action.search.CreatePitRequest;
+import org.opensearch.action.search.DeletePitAction;
+import org.opensearch.action.search.DeletePitRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterStateListener;
+import org.opensearch.cluster.metadata.IndexAbstraction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.PointInTimeBuilder;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.sort.SortOrder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodic compaction of the correlation history indices, run on the cluster manager every
+ * {@link SecurityAnalyticsSettings#CORRELATION_HISTORY_COMPACTION_INTERVAL}.
+ *
+ * Re-published and re-correlated findings leave several finding records per finding and several identical edges per
+ * finding pair. The compaction keeps one finding record per finding and log type, and one edge per finding pair, log
+ * type and set of correlation rules, the one with the latest timestamp and highest counter, and deletes the others.
+ * The orphan placeholder of a finding which was correlated later is deleted in favor of the finding record written
+ * along with its edges. The deleted records of the rolled over history indices are expunged, those of the write index
+ * are left to its regular merges. The number of records deleted and the bytes reclaimed are logged and reported in
+ * the correlation stats.
+ */
+public class CorrelationHistoryCompactor implements ClusterStateListener {
+
+    private static final Logger log = LogManager.getLogger(CorrelationHistoryCompactor.class);
+
+    private static final int PAGE_SIZE = 1000;
+
+    private static final TimeValue KEEP_ALIVE = TimeValue.timeValueMinutes(5L);
+
+    private final Client client;
+
+    private final ClusterService clusterService;
+
+    private final ThreadPool threadPool;
+
+    private final CorrelationMetrics correlationMetrics;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile TimeValue compactionInterval;
+
+    private volatile boolean isClusterManager = false;
+
+    private Scheduler.Cancellable scheduledCompaction = null;
+
+    public CorrelationHistoryCompactor(Client client, ClusterService clusterService, ThreadPool threadPool, CorrelationMetrics correlationMetrics) {
+        this.client = client;
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.correlationMetrics = correlationMetrics;
+
+        this.compactionInterval = SecurityAnalyticsSettings.CORRELATION_HISTORY_COMPACTION_INTERVAL.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_HISTORY_COMPACTION_INTERVAL, it -> {
+            compactionInterval = it;
+            reschedule();
+        });
+        clusterService.addListener(this);
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (this.isClusterManager != event.localNodeClusterManager()) {
+            this.isClusterManager = event.localNodeClusterManager();
+            reschedule();
+        }
+    }
+
+    private synchronized void reschedule() {
+        if (scheduledCompaction != null) {
+            scheduledCompaction.cancel();
+            scheduledCompaction = null;
+        }
+        if (isClusterManager && compactionInterval.millis() > 0L) {
+            scheduledCompaction = threadPool.scheduleWithFixedDelay(() -> compact(ActionListener.wrap(response -> {}, e ->
+                    log.error("Failed to compact the correlation history", e))), compactionInterval, ThreadPool.Names.MANAGEMENT);
+        }
+    }
+
+    /**
+     * Compacts the correlation history indices, unless a compaction is already running.
+     */
+    public void compact(ActionListener<Void> listener) {
+        if (!clusterService.state().metadata().hasAlias(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX) || !running.compareAndSet(false, true)) {
+            listener.onResponse(null);
+            return;
+        }
+        ActionListener<Void> compactionListener = ActionListener.runBefore(listener, () -> running.set(false));
+
+        storeSize(ActionListener.wrap(sizeBefore -> {
+            CreatePitRequest createPitRequest = new CreatePitRequest(KEEP_ALIVE, false, CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
+            client.execute(CreatePitAction.INSTANCE, createPitRequest, ActionListener.wrap(createPitResponse -> {
+                String pitId = createPitResponse.getId();
+                Set<String> compactedIndices = new HashSet<>();
+                deleteSupersededRecords(pitId, null, new SupersededRecords(), compactedIndices, 0L, ActionListener.wrap(deleted -> {
+                    deletePit(pitId);
+                    expungeDeletes(deleted, compactedIndices, sizeBefore, compactionListener);
+                }, e -> {
+                    deletePit(pitId);
+                    compactionListener.onFailure(e);
+                }));
+            }, compactionListener::onFailure));
+        }, compactionListener::onFailure));
+    }
+
+    private void deleteSupersededRecords(String pitId, Object[] searchAfter, SupersededRecords supersededRecords, Set<String> compactedIndices,
+                                         long deleted, ActionListener<Long> listener) {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        // the root and metadata records carry no finding
+        searchSourceBuilder.query(QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery("root", false))
+                .mustNot(QueryBuilders.termQuery("finding1", "")));
+        searchSourceBuilder.fetchSource(new String[]{"finding1", "finding2", "logType", "corrRules", "counter"}, null);
+        searchSourceBuilder.size(PAGE_SIZE);
+        searchSourceBuilder.sort("finding1", SortOrder.ASC);
+        searchSourceBuilder.sort("finding2", SortOrder.ASC);
+        searchSourceBuilder.sort("logType", SortOrder.ASC);
+        searchSourceBuilder.sort("timestamp", SortOrder.DESC);
+        searchSourceBuilder.sort("counter", SortOrder.DESC);
+        searchSourceBuilder.trackTotalHits(false);
+        searchSourceBuilder.pointInTimeBuilder(new PointInTimeBuilder(pitId).setKeepAlive(KEEP_ALIVE));
+        if (searchAfter != null) {
+            searchSourceBuilder.searchAfter(searchAfter);
+        }
+        SearchRequest searchRequest = new SearchRequest();
+        searchRequest.source(searchSourceBuilder);
+
+        client.search(searchRequest, ActionListener.wrap(response -> {
+            SearchHit[] hits = response.getHits().getHits();
+            List<Record> superseded = new ArrayList<>();
+            for (SearchHit hit: hits) {
+                Map<String, Object> source = hit.getSourceAsMap();
+                @SuppressWarnings("unchecked")
+                Collection<String> rules = source.get("corrRules") != null ? (Collection<String>) source.get("corrRules") : List.of();
+                superseded.addAll(supersededRecords.add(new Record(hit.getIndex(), hit.getId(), source.get("finding1").toString(),
+                        source.get("finding2").toString(), Objects.toString(source.get("logType"), ""), rules,
+                        Long.parseLong(source.get("counter").toString()))));
+            }
+            boolean lastPage = hits.length < PAGE_SIZE;
+            if (lastPage) {
+                superseded.addAll(supersededRecords.flush());
+            }
+
+            ActionListener<Long> nextPage = ActionListener.wrap(deletedNow -> {
+                if (lastPage) {
+                    listener.onResponse(deleted + deletedNow);
+                } else {
+                    deleteSupersededRecords(pitId, hits[hits.length - 1].getSortValues(), supersededRecords, compactedIndices, deleted + deletedNow, listener);
+                }
+            }, listener::onFailure);
+
+            if (superseded.isEmpty()) {
+                nextPage.onResponse(0L);
+                return;
+            }
+            BulkRequest bulkRequest = new BulkRequest();
+            for (Record record: superseded) {
+                bulkRequest.add(new DeleteRequest(record.index, record.id));
+            }
+            client.bulk(bulkRequest, ActionListener.wrap(bulkResponse -> {
+                long deletedNow = 0L;
+                for (BulkItemResponse item: bulkResponse.getItems()) {
+                    if (!item.isFailed()) {
+                        compactedIndices.add(item.getIndex());
+                        ++deletedNow;
+                    }
+                }
+                if (bulkResponse.hasFailures()) {
+                    log.debug("Failed to delete superseded correlation records: {}", bulkResponse.buildFailureMessage());
+                }
+                nextPage.onResponse(deletedNow);
+            }, listener::onFailure));
+        }, listener::onFailure));
+    }
+
+    private void expungeDeletes(long deleted, Set<String> compactedIndices, long sizeBefore, ActionListener<Void> listener) {
+        if (deleted == 0L) {
+            log.debug("No superseded correlation records to compact");
+            listener.onResponse(null);
+            return;
+        }
+
+        // merging the write index would have to be redone as soon as it is written again
+        IndexAbstraction writeAlias = clusterService.state().metadata().getIndicesLookup().get(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX);
+        if (writeAlias != null && writeAlias.getWriteIndex() != null) {
+            compactedIndices.remove(writeAlias.getWriteIndex().getIndex().getName());
+        }
+        if (compactedIndices.isEmpty()) {
+            onCompacted(deleted, sizeBefore, listener);
+            return;
+        }
+
+        ForceMergeRequest forceMergeRequest = new ForceMergeRequest(compactedIndices.toArray(new String[0]));
+        forceMergeRequest.onlyExpungeDeletes(true);
+        client.admin().indices().forceMerge(forceMergeRequest, ActionListener.wrap(forceMergeResponse ->
+                onCompacted(deleted, sizeBefore, listener), listener::onFailure));
+    }
+
+    private void onCompacted(long deleted, long sizeBefore, ActionListener<Void> listener) {
+        storeSize(ActionListener.wrap(sizeAfter -> {
+            long reclaimed = Math.max(0L, sizeBefore - sizeAfter);
+            log.info("Compacted the correlation history, deleted {} superseded records and reclaimed {} bytes", deleted, reclaimed);
+            correlationMetrics.add(CorrelationMetrics.COMPACTION_DELETED_RECORDS_COUNT, deleted);
+            correlationMetrics.add(CorrelationMetrics.COMPACTION_RECLAIMED_BYTES_COUNT, reclaimed);
+            listener.onResponse(null);
+        }, listener::onFailure));
+    }
+
+    private void storeSize(ActionListener<Long> listener) {
+        IndicesStatsRequest statsRequest = new IndicesStatsRequest();
+        statsRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
+        statsRequest.clear().store(true);
+        client.admin().indices().stats(statsRequest, ActionListener.wrap(response ->
+                listener.onResponse(response.getTotal().getStore().getSizeInBytes()), listener::onFailure));
+    }
+
+    private void deletePit(String pitId) {
+        client.execute(DeletePitAction.INSTANCE, new DeletePitRequest(List.of(pitId)), ActionListener.wrap(response -> {}, e ->
+                log.warn("Failed to delete point in time of the correlation history compaction", e)));
+    }
+
+    /**
+     * A correlation history record, as much of it as the compaction needs.
+     */
+    static class Record {
+        private final String index;
+        private final String id;
+        private final String finding1;
+        private final String finding2;
+        private final String logType;
+        private final Set<String> rules;
+        private final long counter;
+
+        Record(String index, String id, String finding1, String finding2, String logType, Collection<String> rules, long counter) {
+            this.index = index;
+            this.id = id;
+            this.finding1 = finding1;
+            this.finding2 = finding2;
+            this.logType = logType;
+            this.rules = new HashSet<>(rules);
+            this.counter = counter;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        private boolean isFindingRecord() {
+            return finding2.isEmpty();
+        }
+    }
+
+    /**
+     * Tells the superseded records apart while the records are visited sorted by finding, finding pair and log type,
+     * latest first. The first edge of every finding pair, log type and set of correlation rules is kept. The finding
+     * records of a finding are held until its edges are visited: the finding record written along with its edges has
+     * the counter the edges were derived from, and is kept over the orphan placeholders of the finding.
+     */
+    static class SupersededRecords {
+        private String finding1 = null;
+        private final List<Record> findingRecords = new ArrayList<>();
+        private final Set<List<Object>> edges = new HashSet<>();
+        private final Set<Long> edgeCounters = new HashSet<>();
+
+        /**
+         * Visits the next record, returns the records known to be superseded so far.
+         */
+        List<Record> add(Record record) {
+            List<Record> superseded = new ArrayList<>();
+            if (!record.finding1.equals(finding1)) {
+                superseded.addAll(flush());
+                finding1 = record.finding1;
+            }
+
+            if (record.isFindingRecord()) {
+                findingRecords.add(record);
+            } else {
+                edgeCounters.add(record.counter);
+                if (!edges.add(List.of(record.finding2, record.logType, record.rules))) {
+                    superseded.add(record);
+                }
+            }
+            return superseded;
+        }
+
+        /**
+         * Ends the visit of the current finding, returns its superseded finding records.
+         */
+        List<Record> flush() {
+            List<Record> superseded = new ArrayList<>();
+            Map<String, Record> kept = new HashMap<>();
+            // the correlated finding records first, in visit order
+            for (Record record: findingRecords) {
+                if (edgeCounters.contains(correlationCounter(record.counter))) {
+                    kept.putIfAbsent(record.logType, record);
+                }
+            }
+            for (Record record: findingRecords) {
+                kept.putIfAbsent(record.logType, record);
+                if (kept.get(record.logType) != record) {
+                    superseded.add(record);
+                }
+            }
+
+            finding1 = null;
+            findingRecords.clear();
+            edges.clear();
+            edgeCounters.clear();
+            return superseded;
+        }
+
+        /**
+         * The counter of the edges written along with a finding record of the given counter, derived the way
+         * {@link VectorEmbeddingsEngine} does.
+         */
+        private static long correlationCounter(long counter) {
+            return (long) ((2.0f * ((float) counter) - 50.0f) / 2.0f);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Node-level buffered writer of the correlation history index.
+ *
+ * Correlation records are collected into bulk requests, sent once {@link SecurityAnalyticsSettings#CORRELATION_WRITER_BATCH_SIZE}
+ * records are buffered or {@link SecurityAnalyticsSettings#CORRELATION_WRITER_FLUSH_INTERVAL} elapsed, and become
+ * searchable with the regular refreshes of the index instead of forcing a refresh per finding. The records written
+ * through this node stay readable from memory from the moment they are buffered until
+ * {@link SecurityAnalyticsSettings#CORRELATION_WRITER_RECENT_RECORDS_RETENTION} after the flush interval, so findings
+ * correlated before the bulk request is sent, or before the next refresh, still see them.
+ */
+public class CorrelationHistoryWriter {
+
+    private static final Logger log = LogManager.getLogger(CorrelationHistoryWriter.class);
+
+    private static final String FINDING_RECORD = "finding";
+
+    private static final String CORRELATION_RECORD = "finding-finding";
+
+    private final Client client;
+
+    private final ThreadPool threadPool;
+
+    private final Map<String, RecentRecord> recentFindingRecords = new ConcurrentHashMap<>();
+
+    private final Map<Long, RecentRecord> recentCorrelationRecords = new ConcurrentHashMap<>();
+
+    private final Queue<RecentRecord> recentRecordsByAge = new ConcurrentLinkedQueue<>();
+
+    private PendingBulk pendingBulk = null;
+
+    private volatile TimeValue flushInterval;
+
+    private volatile int batchSize;
+
+    private volatile TimeValue recentRecordsRetention;
+
+    public CorrelationHistoryWriter(Client client, ClusterService clusterService, ThreadPool threadPool) {
+        this.client = client;
+        this.threadPool = threadPool;
+
+        this.flushInterval = SecurityAnalyticsSettings.CORRELATION_WRITER_FLUSH_INTERVAL.get(clusterService.getSettings());
+        this.batchSize = SecurityAnalyticsSettings.CORRELATION_WRITER_BATCH_SIZE.get(clusterService.getSettings());
+        this.recentRecordsRetention = SecurityAnalyticsSettings.CORRELATION_WRITER_RECENT_RECORDS_RETENTION.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_WRITER_FLUSH_INTERVAL, it -> flushInterval = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_WRITER_BATCH_SIZE, it -> batchSize = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_WRITER_RECENT_RECORDS_RETENTION, it -> recentRecordsRetention = it);
+    }
+
+    /**
+     * Buffers the correlation records, completing the listener once the bulk request carrying them is acknowledged.
+     */
+    public void index(List<IndexRequest> indexRequests, ActionListener<Void> listener) {
+        if (indexRequests.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        TimeValue interval = flushInterval;
+        rememberRecords(indexRequests, interval);
+
+        PendingBulk flushNow = null;
+        synchronized (this) {
+            if (pendingBulk == null) {
+                pendingBulk = new PendingBulk();
+                if (interval.millis() > 0L) {
+                    PendingBulk scheduled = pendingBulk;
+                    threadPool.schedule(() -> flush(scheduled), interval, ThreadPool.Names.GENERIC);
+                }
+            }
+            pendingBulk.add(indexRequests, listener);
+
+            if (interval.millis() <= 0L || pendingBulk.size() >= batchSize) {
+                flushNow = pendingBulk;
+                pendingBulk = null;
+            }
+        }
+
+        if (flushNow != null) {
+            flushNow.send();
+        }
+    }
+
+    /**
+     * Returns the source of the finding record of the finding recently written through this node, if any.
+     */
+    public Optional<Map<String, Object>> findingRecord(String findingId) {
+        return recentSource(recentFindingRecords.get(findingId));
+    }
+
+    /**
+     * Returns the source of a correlation record with the counter recently written through this node, if any.
+     */
+    public Optional<Map<String, Object>> correlationRecord(long counter) {
+        return recentSource(recentCorrelationRecords.get(counter));
+    }
+
+    private Optional<Map<String, Object>> recentSource(RecentRecord record) {
+        if (record == null || record.expiresAt < threadPool.relativeTimeInMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(record.source);
+    }
+
+    private void flush(PendingBulk bulk) {
+        synchronized (this) {
+            if (pendingBulk != bulk) {
+                // already sent because it reached the batch size
+                return;
+            }
+            pendingBulk = null;
+        }
+        bulk.send();
+    }
+
+    private void rememberRecords(List<IndexRequest> indexRequests, TimeValue interval) {
+        long now = threadPool.relativeTimeInMillis();
+        RecentRecord oldest;
+        while ((oldest = recentRecordsByAge.peek()) != null && oldest.expiresAt < now) {
+            recentRecordsByAge.poll();
+            recentFindingRecords.remove(oldest.key, oldest);
+            recentCorrelationRecords.remove(oldest.key, oldest);
+        }
+
+        // readable while buffered, then until the index is refreshed after the flush
+        long expiresAt = now + interval.millis() + recentRecordsRetention.millis();
+        for (IndexRequest indexRequest: indexRequests) {
+            Map<String, Object> source = indexRequest.sourceAsMap();
+            Object recordType = source.get("recordType");
+            if (FINDING_RECORD.equals(recordType) && source.get("finding1") != null) {
+                String findingId = source.get("finding1").toString();
+                RecentRecord record = new RecentRecord(findingId, source, expiresAt);
+                recentFindingRecords.put(findingId, record);
+                recentRecordsByAge.add(record);
+            } else if (CORRELATION_RECORD.equals(recordType) && source.get("counter") != null) {
+                long counter = Long.parseLong(source.get("counter").toString());
+                RecentRecord record = new RecentRecord(counter, source, expiresAt);
+                recentCorrelationRecords.put(counter, record);
+                recentRecordsByAge.add(record);
+            }
+        }
+    }
+
+    private class PendingBulk {
+        private final BulkRequest bulkRequest = new BulkRequest();
+        private final List<Integer> offsets = new ArrayList<>();
+        private final List<ActionListener<Void>> listeners = new ArrayList<>();
+
+        void add(List<IndexRequest> indexRequests, ActionListener<Void> listener) {
+            offsets.add(bulkRequest.numberOfActions());
+            listeners.add(listener);
+            for (IndexRequest indexRequest: indexRequests) {
+                bulkRequest.add(indexRequest);
+            }
+        }
+
+        int size() {
+            return bulkRequest.numberOfActions();
+        }
+
+        void send() {
+            client.bulk(bulkRequest, new ActionListener<>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    BulkItemResponse[] items = response.getItems();
+                    for (int i = 0; i < listeners.size(); ++i) {
+                        int from = offsets.get(i);
+                        int to = i + 1 < offsets.size() ? offsets.get(i + 1) : items.length;
+
+                        boolean failed = false;
+                        for (int idx = from; idx < to; ++idx) {
+                            if (items[idx].isFailed()) {
+                                log.error("[CORRELATIONS] Failed to write correlation record: {}", items[idx].getFailureMessage());
+                                failed = true;
+                            }
+                        }
+                        try {
+                            if (failed) {
+                                listeners.get(i).onFailure(new OpenSearchStatusException("Correlation of finding failed", RestStatus.INTERNAL_SERVER_ERROR));
+                            } else {
+                                listeners.get(i).onResponse(null);
+                            }
+                        } catch (Exception e) {
+                            log.error("[CORRELATIONS] Exception encountered while handling buffered correlation write response", e);
+                        }
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    for (ActionListener<Void> listener: listeners) {
+                        listener.onFailure(e);
+                    }
+                }
+            });
+        }
+    }
+
+    private static class RecentRecord {
+        private final Object key;
+        private final Map<String, Object> source;
+        private final long expiresAt;
+
+        private RecentRecord(Object key, Map<String, Object> source, long expiresAt) {
+            this.key = key;
+            this.source = source;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
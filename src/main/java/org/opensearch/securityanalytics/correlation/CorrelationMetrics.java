@@ -0,0 +1,111 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node-level latency histograms and counters of the correlation engine.
+ *
+ * Every stage records its latency in microseconds into an HDR {@link Recorder}, which is wait-free for the recording
+ * threads. The recorded intervals are folded into a cumulative histogram per stage only when the stats are read.
+ */
+public class CorrelationMetrics {
+
+    public static final String AUTO_CORRELATIONS = "join.auto_correlations";
+    public static final String RULES_LOOKUP = "join.rules_lookup";
+    public static final String VALID_DOCUMENTS = "join.valid_documents";
+    public static final String FINDINGS_BY_TIMESTAMP = "join.findings_by_timestamp";
+    public static final String DOCS_WITH_FILTER_KEYS = "join.docs_with_filter_keys";
+    public static final String CORRELATED_FINDINGS = "join.correlated_findings";
+    public static final String METADATA_SCORE_TIMESTAMP = "metadata.score_timestamp";
+    public static final String VECTOR_INSERT = "vector.insert";
+    public static final String ALERTS_SCHEDULE = "alerts.schedule";
+    public static final String CORRELATION_TOTAL = "correlation.total";
+
+    public static final String CORRELATIONS_COUNT = "correlations";
+    public static final String CORRELATION_FAILURES_COUNT = "correlation_failures";
+    public static final String DUPLICATE_FINDINGS_COUNT = "duplicate_findings";
+    public static final String ALERTS_INDEXED_COUNT = "alerts_indexed";
+    public static final String ALERT_FAILURES_COUNT = "alert_failures";
+    public static final String COMPACTION_DELETED_RECORDS_COUNT = "compaction.deleted_records";
+    public static final String COMPACTION_RECLAIMED_BYTES_COUNT = "compaction.reclaimed_bytes";
+
+    // latencies above the highest trackable value are recorded as the highest trackable value
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10L);
+
+    static final int SIGNIFICANT_VALUE_DIGITS = 2;
+
+    private final Map<String, StageHistogram> stages = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public long startNanos() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the latency of the stage started at startNanos, returns the current time so consecutive stages can be
+     * chained.
+     */
+    public long record(String stage, long startNanos) {
+        long now = System.nanoTime();
+        long micros = Math.max(0L, TimeUnit.NANOSECONDS.toMicros(now - startNanos));
+        stages.computeIfAbsent(stage, k -> new StageHistogram()).recorder.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        return now;
+    }
+
+    public void increment(String counter) {
+        add(counter, 1L);
+    }
+
+    public void add(String counter, long delta) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * A copy of the cumulative latency histogram, in microseconds, of every stage recorded on this node.
+     */
+    public Map<String, Histogram> histograms() {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        for (Map.Entry<String, StageHistogram> stage: stages.entrySet()) {
+            histograms.put(stage.getKey(), stage.getValue().snapshot());
+        }
+        return histograms;
+    }
+
+    public Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> counter: counters.entrySet()) {
+            values.put(counter.getKey(), counter.getValue().sum());
+        }
+        return values;
+    }
+
+    public static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_VALUE_DIGITS);
+    }
+
+    private static class StageHistogram {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_VALUE_DIGITS);
+
+        private final Histogram cumulative = newHistogram();
+
+        private Histogram interval;
+
+        private synchronized Histogram snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            cumulative.add(interval);
+            return cumulative.copy();
+        }
+    }
+}
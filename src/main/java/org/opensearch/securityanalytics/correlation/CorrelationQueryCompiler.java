@@ -0,0 +1,229 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compiles the query_string of a {@link org.opensearch.securityanalytics.model.CorrelationQuery} into structured query DSL.
+ *
+ * Field clauses ({@code field:value}, {@code field:"some phrase"}) combined with a single boolean operator per
+ * parenthesized group, and negated with NOT, are compiled into match, match_phrase and bool queries, so the shards do
+ * not parse the query string again for every finding. Any other syntax (wildcards, ranges, fuzziness, boosts, escapes,
+ * mixed operators in one group, ...) keeps the query_string query, which retains its exact semantics.
+ */
+public final class CorrelationQueryCompiler {
+
+    private static final String SPECIAL_CHARACTERS = "*?~^[]{}/\\!<>=+&|\"";
+
+    private final String query;
+
+    private final List<String> tokens;
+
+    private int position = 0;
+
+    private CorrelationQueryCompiler(String query) {
+        this.query = query;
+        this.tokens = tokenize(query);
+    }
+
+    /**
+     * Compiles the query string, returns null for a missing query.
+     *
+     * @throws IllegalArgumentException if the query string is malformed
+     */
+    public static QueryBuilder compile(String query) {
+        if (query == null) {
+            return null;
+        }
+        if (query.isBlank()) {
+            throw new IllegalArgumentException("correlation query cannot be empty");
+        }
+
+        try {
+            CorrelationQueryCompiler compiler = new CorrelationQueryCompiler(query);
+            QueryBuilder compiled = compiler.parseGroup();
+            if (compiler.position != compiler.tokens.size()) {
+                throw compiler.malformed("unexpected )");
+            }
+            return compiled;
+        } catch (UnsupportedSyntaxException e) {
+            return QueryBuilders.queryStringQuery(query);
+        }
+    }
+
+    private QueryBuilder parseGroup() {
+        List<QueryBuilder> clauses = new ArrayList<>();
+        List<Boolean> negated = new ArrayList<>();
+        String operator = null;
+
+        while (true) {
+            boolean negate = false;
+            if ("NOT".equals(peek())) {
+                ++position;
+                negate = true;
+            }
+            clauses.add(parseClause());
+            negated.add(negate);
+
+            String next = peek();
+            if (next == null || ")".equals(next)) {
+                break;
+            }
+
+            String clauseOperator = "OR";
+            if ("AND".equals(next) || "&&".equals(next)) {
+                clauseOperator = "AND";
+                ++position;
+            } else if ("OR".equals(next) || "||".equals(next)) {
+                ++position;
+            }
+            // clauses without an operator in between are combined with the default OR operator of query_string
+            if (operator != null && !operator.equals(clauseOperator)) {
+                throw new UnsupportedSyntaxException();
+            }
+            operator = clauseOperator;
+            if (peek() == null || ")".equals(peek())) {
+                throw malformed("missing clause after " + next);
+            }
+        }
+
+        if (clauses.size() == 1 && !negated.get(0)) {
+            return clauses.get(0);
+        }
+
+        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery();
+        for (int idx = 0; idx < clauses.size(); ++idx) {
+            if (negated.get(idx)) {
+                if ("OR".equals(operator)) {
+                    throw new UnsupportedSyntaxException();
+                }
+                queryBuilder.mustNot(clauses.get(idx));
+            } else if ("OR".equals(operator)) {
+                queryBuilder.should(clauses.get(idx));
+            } else {
+                queryBuilder.must(clauses.get(idx));
+            }
+        }
+        return queryBuilder;
+    }
+
+    private QueryBuilder parseClause() {
+        String token = peek();
+        if (token == null || ")".equals(token)) {
+            throw malformed("missing clause");
+        }
+        ++position;
+
+        if ("(".equals(token)) {
+            QueryBuilder group = parseGroup();
+            if (!")".equals(peek())) {
+                throw malformed("missing )");
+            }
+            ++position;
+            return group;
+        }
+        if ("AND".equals(token) || "OR".equals(token) || "NOT".equals(token) || "&&".equals(token) || "||".equals(token)) {
+            throw malformed("unexpected " + token);
+        }
+        return parseTerm(token);
+    }
+
+    private static QueryBuilder parseTerm(String token) {
+        int separator = token.indexOf(':');
+        if (separator <= 0 || separator == token.length() - 1) {
+            // default field searches and field-only clauses are left to query_string
+            throw new UnsupportedSyntaxException();
+        }
+        String field = token.substring(0, separator);
+        String value = token.substring(separator + 1);
+        if (containsSpecialCharacter(field) || field.startsWith("-") || field.startsWith("_exists_")) {
+            throw new UnsupportedSyntaxException();
+        }
+
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            String phrase = value.substring(1, value.length() - 1);
+            if (phrase.indexOf('"') >= 0) {
+                throw new UnsupportedSyntaxException();
+            }
+            return QueryBuilders.matchPhraseQuery(field, phrase);
+        }
+        if (containsSpecialCharacter(value) || value.indexOf(':') >= 0 || value.startsWith("-")) {
+            throw new UnsupportedSyntaxException();
+        }
+        return QueryBuilders.matchQuery(field, value);
+    }
+
+    private static boolean containsSpecialCharacter(String value) {
+        for (int idx = 0; idx < value.length(); ++idx) {
+            if (SPECIAL_CHARACTERS.indexOf(value.charAt(idx)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String peek() {
+        return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException(String.format(Locale.ROOT, "malformed correlation query [%s]: %s", query, reason));
+    }
+
+    private static List<String> tokenize(String query) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        int depth = 0;
+        for (int idx = 0; idx < query.length(); ++idx) {
+            char c = query.charAt(idx);
+            if (c == '\\') {
+                throw new UnsupportedSyntaxException();
+            } else if (c == '"') {
+                int end = query.indexOf('"', idx + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException(String.format(Locale.ROOT, "malformed correlation query [%s]: unterminated quote", query));
+                }
+                token.append(query, idx, end + 1);
+                idx = end;
+            } else if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+                if (token.length() > 0) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+                if (c == '(') {
+                    ++depth;
+                    tokens.add("(");
+                } else if (c == ')') {
+                    if (--depth < 0) {
+                        throw new IllegalArgumentException(String.format(Locale.ROOT, "malformed correlation query [%s]: unexpected )", query));
+                    }
+                    tokens.add(")");
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        if (depth != 0) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "malformed correlation query [%s]: missing )", query));
+        }
+        return tokens;
+    }
+
+    private static class UnsupportedSyntaxException extends RuntimeException {
+        private UnsupportedSyntaxException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.lucene.search.join.ScoreMode;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.routing.Preference;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.xcontent.LoggingDeprecationHandler;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.index.query.NestedQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.model.CorrelationQuery;
+import org.opensearch.securityanalytics.model.CorrelationRule;
+import org.opensearch.securityanalytics.util.CorrelationRuleIndices;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-local cache of parsed correlation rules keyed by log category, and of their compiled correlation queries keyed
+ * by rule id and version.
+ *
+ * The cache is tagged with {@link CorrelationRuleIndices#correlationRulesVersion()}, which is bumped through the
+ * cluster state whenever a correlation rule is indexed or deleted, so every node drops its cached rules on the next
+ * lookup after a change.
+ */
+public class CorrelationRuleCache {
+
+    private final Client client;
+
+    private final CorrelationRuleIndices correlationRuleIndices;
+
+    private final NamedXContentRegistry xContentRegistry;
+
+    private volatile CachedRules cachedRules = new CachedRules(null);
+
+    public CorrelationRuleCache(Client client, CorrelationRuleIndices correlationRuleIndices, NamedXContentRegistry xContentRegistry) {
+        this.client = client;
+        this.correlationRuleIndices = correlationRuleIndices;
+        this.xContentRegistry = xContentRegistry;
+    }
+
+    public void getCorrelationRules(String category, ActionListener<List<CorrelationRule>> listener) {
+        String version = correlationRuleIndices.correlationRulesVersion();
+        CachedRules current = cachedRules;
+        if (version == null || !version.equals(current.version)) {
+            current = new CachedRules(version);
+            cachedRules = current;
+        }
+
+        List<CorrelationRule> rules = current.rulesByCategory.get(category);
+        if (rules != null) {
+            listener.onResponse(rules);
+            return;
+        }
+
+        NestedQueryBuilder queryBuilder = QueryBuilders.nestedQuery(
+                "correlate",
+                QueryBuilders.matchQuery("correlate.category", category),
+                ScoreMode.None
+        );
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(queryBuilder);
+        searchSourceBuilder.fetchSource(true);
+        // compiled queries are keyed by rule version
+        searchSourceBuilder.version(true);
+
+        SearchRequest searchRequest = new SearchRequest();
+        searchRequest.indices(CorrelationRule.CORRELATION_RULE_INDEX);
+        searchRequest.source(searchSourceBuilder);
+        searchRequest.preference(Preference.PRIMARY_FIRST.type());
+        searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
+
+        CachedRules snapshot = current;
+        client.search(searchRequest, ActionListener.wrap(response -> {
+            if (response.isTimedOut()) {
+                listener.onFailure(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
+                return;
+            }
+
+            List<CorrelationRule> correlationRules = new ArrayList<>();
+            for (SearchHit hit: response.getHits()) {
+                XContentParser xcp = XContentType.JSON.xContent().createParser(
+                        xContentRegistry,
+                        LoggingDeprecationHandler.INSTANCE,
+                        hit.getSourceAsString());
+                correlationRules.add(CorrelationRule.parse(xcp, hit.getId(), hit.getVersion()));
+            }
+            correlationRules = Collections.unmodifiableList(correlationRules);
+
+            if (snapshot.version != null) {
+                snapshot.rulesByCategory.put(category, correlationRules);
+            }
+            listener.onResponse(correlationRules);
+        }, listener::onFailure));
+    }
+
+    /**
+     * Returns the compiled queries of the rule, in the order of its correlation queries, compiled once per rule id and
+     * version.
+     */
+    public List<QueryBuilder> getCompiledQueries(CorrelationRule rule) {
+        CachedRules current = cachedRules;
+        if (current.version == null || rule.getId() == null) {
+            return compile(rule);
+        }
+        return current.compiledQueries.computeIfAbsent(rule.getId() + "#" + rule.getVersion(), key -> compile(rule));
+    }
+
+    private static List<QueryBuilder> compile(CorrelationRule rule) {
+        List<QueryBuilder> compiledQueries = new ArrayList<>();
+        for (CorrelationQuery query: rule.getCorrelationQueries()) {
+            try {
+                compiledQueries.add(CorrelationQueryCompiler.compile(query.getQuery()));
+            } catch (IllegalArgumentException e) {
+                // rules indexed before their queries were validated fail on the shards as they used to
+                compiledQueries.add(QueryBuilders.queryStringQuery(query.getQuery()));
+            }
+        }
+        return Collections.unmodifiableList(compiledQueries);
+    }
+
+    private static class CachedRules {
+        private final String version;
+        private final Map<String, List<CorrelationRule>> rulesByCategory = new ConcurrentHashMap<>();
+        private final Map<String, List<QueryBuilder>> compiledQueries = new ConcurrentHashMap<>();
+
+        private CachedRules(String version) {
+            this.version = version;
+        }
+    }
+}
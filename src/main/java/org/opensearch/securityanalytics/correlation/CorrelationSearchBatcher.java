@@ -0,0 +1,167 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.support.ContextPreservingActionListener;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces the multi-search round trips issued by concurrently running correlations into a single multi-search per
+ * detector type.
+ *
+ * Requests submitted for the same key within {@link SecurityAnalyticsSettings#CORRELATION_BATCH_WINDOW} are sent
+ * together once the window elapses or {@link SecurityAnalyticsSettings#CORRELATION_BATCH_SIZE} search requests are
+ * pending, and the combined response is split back per caller. With a zero window every request is sent as-is.
+ * Batched searches run under the system context, each caller's listener is completed under the thread context the
+ * caller submitted its request with.
+ */
+public class CorrelationSearchBatcher {
+
+    private static final Logger log = LogManager.getLogger(CorrelationSearchBatcher.class);
+
+    private final Client client;
+
+    private final ThreadPool threadPool;
+
+    private final Map<String, PendingBatch> pendingBatches = new HashMap<>();
+
+    private volatile TimeValue batchWindow;
+
+    private volatile int batchSize;
+
+    public CorrelationSearchBatcher(Client client, ClusterService clusterService, ThreadPool threadPool) {
+        this.client = client;
+        this.threadPool = threadPool;
+
+        this.batchWindow = SecurityAnalyticsSettings.CORRELATION_BATCH_WINDOW.get(clusterService.getSettings());
+        this.batchSize = SecurityAnalyticsSettings.CORRELATION_BATCH_SIZE.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_BATCH_WINDOW, it -> batchWindow = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_BATCH_SIZE, it -> batchSize = it);
+    }
+
+    public void multiSearch(String key, MultiSearchRequest request, ActionListener<MultiSearchResponse> listener) {
+        TimeValue window = batchWindow;
+        if (window.millis() <= 0L) {
+            client.multiSearch(request, listener);
+            return;
+        }
+
+        PendingBatch flushNow = null;
+        synchronized (pendingBatches) {
+            PendingBatch batch = pendingBatches.get(key);
+            if (batch == null) {
+                batch = new PendingBatch();
+                pendingBatches.put(key, batch);
+
+                PendingBatch scheduled = batch;
+                threadPool.schedule(() -> flush(key, scheduled), window, ThreadPool.Names.GENERIC);
+            }
+            // the batch is sent and answered under another context, each caller's listener runs under its own
+            batch.add(request, new ContextPreservingActionListener<>(threadPool.getThreadContext().newRestorableContext(false), listener));
+
+            if (batch.size() >= batchSize) {
+                pendingBatches.remove(key);
+                flushNow = batch;
+            }
+        }
+
+        if (flushNow != null) {
+            flushNow.send();
+        }
+    }
+
+    public void search(String key, SearchRequest request, ActionListener<SearchResponse> listener) {
+        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        mSearchRequest.add(request);
+        multiSearch(key, mSearchRequest, ActionListener.wrap(response -> {
+            MultiSearchResponse.Item item = response.getResponses()[0];
+            if (item.isFailure()) {
+                listener.onFailure(item.getFailure());
+            } else {
+                listener.onResponse(item.getResponse());
+            }
+        }, listener::onFailure));
+    }
+
+    private void flush(String key, PendingBatch batch) {
+        synchronized (pendingBatches) {
+            if (pendingBatches.get(key) != batch) {
+                // already flushed because it reached the batch size
+                return;
+            }
+            pendingBatches.remove(key);
+        }
+        batch.send();
+    }
+
+    private class PendingBatch {
+        private final MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        private final List<Integer> offsets = new ArrayList<>();
+        private final List<ActionListener<MultiSearchResponse>> listeners = new ArrayList<>();
+
+        void add(MultiSearchRequest request, ActionListener<MultiSearchResponse> listener) {
+            offsets.add(mSearchRequest.requests().size());
+            listeners.add(listener);
+            for (SearchRequest searchRequest: request.requests()) {
+                mSearchRequest.add(searchRequest);
+            }
+        }
+
+        int size() {
+            return mSearchRequest.requests().size();
+        }
+
+        void send() {
+            // the batch holds the searches of several callers, so it runs under the system context instead of the
+            // context of whichever caller, or scheduled flush, sends it
+            try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+                doSend();
+            }
+        }
+
+        private void doSend() {
+            client.multiSearch(mSearchRequest, new ActionListener<>() {
+                @Override
+                public void onResponse(MultiSearchResponse response) {
+                    MultiSearchResponse.Item[] items = response.getResponses();
+                    for (int i = 0; i < listeners.size(); ++i) {
+                        int from = offsets.get(i);
+                        int to = i + 1 < offsets.size() ? offsets.get(i + 1) : items.length;
+                        try {
+                            listeners.get(i).onResponse(new MultiSearchResponse(Arrays.copyOfRange(items, from, to), response.getTook().millis()));
+                        } catch (Exception e) {
+                            log.error("[CORRELATIONS] Exception encountered while handling batched multi-search response", e);
+                        }
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    for (ActionListener<MultiSearchResponse> listener: listeners) {
+                        listener.onFailure(e);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.search.TotalHits;
+import org.opensearch.action.search.CreatePitAction;
+import org.opensearch.action.search.CreatePitRequest;
+import org.opensearch.action.search.DeletePitAction;
+import org.opensearch.action.search.DeletePitRequest;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.PointInTimeBuilder;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs the searches of the correlation stages to completion instead of truncating them at a single page of hits.
+ *
+ * The first page of every search is sent on its indices in one multi-search through the
+ * {@link CorrelationSearchBatcher}, so a search fitting in a page costs no more than a plain search. Only a search with
+ * a sort whose first page comes back full has a point in time opened on its indices, and is continued on it with
+ * search_after on its sort, one page at a time. The later pages see a snapshot taken after the first page, hits sorting
+ * after the first page which are still there are all returned once. Every page is handed to the consumer as it
+ * arrives. A search pages through all of its hits unless {@link SecurityAnalyticsSettings#CORRELATION_SEARCH_MAX_HITS}
+ * is set. The sort of a continued search must be a total order on its hits. Searches without a sort are expected to be
+ * bounded to a page by their query and are not continued.
+ */
+public class CorrelationSearchPager {
+
+    private static final Logger log = LogManager.getLogger(CorrelationSearchPager.class);
+
+    private final Client client;
+
+    private final CorrelationSearchBatcher correlationSearchBatcher;
+
+    private volatile int pageSize;
+
+    private volatile int maxHits;
+
+    private volatile TimeValue keepAlive;
+
+    public CorrelationSearchPager(Client client, ClusterService clusterService, CorrelationSearchBatcher correlationSearchBatcher) {
+        this.client = client;
+        this.correlationSearchBatcher = correlationSearchBatcher;
+
+        this.pageSize = SecurityAnalyticsSettings.CORRELATION_SEARCH_PAGE_SIZE.get(clusterService.getSettings());
+        this.maxHits = SecurityAnalyticsSettings.CORRELATION_SEARCH_MAX_HITS.get(clusterService.getSettings());
+        this.keepAlive = SecurityAnalyticsSettings.CORRELATION_SEARCH_KEEP_ALIVE.get(clusterService.getSettings());
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_SEARCH_PAGE_SIZE, it -> pageSize = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_SEARCH_MAX_HITS, it -> maxHits = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_SEARCH_KEEP_ALIVE, it -> keepAlive = it);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Runs every search to completion, handing each page of hits to the consumer, and completes the listener with the
+     * failure of every search, null for a successful one. The consumer is never called concurrently.
+     */
+    public void multiSearch(String key, List<SearchRequest> searchRequests, PageConsumer consumer, ActionListener<Exception[]> listener) {
+        Exception[] failures = new Exception[searchRequests.size()];
+        if (searchRequests.isEmpty()) {
+            listener.onResponse(failures);
+            return;
+        }
+
+        List<PendingSearch> searches = new ArrayList<>();
+        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        for (int idx = 0; idx < searchRequests.size(); ++idx) {
+            PendingSearch search = new PendingSearch(idx, searchRequests.get(idx), this.pageSize, this.maxHits, this.keepAlive);
+            searches.add(search);
+            mSearchRequest.add(search.nextPage());
+        }
+
+        correlationSearchBatcher.multiSearch(key, mSearchRequest, ActionListener.wrap(items -> {
+            MultiSearchResponse.Item[] responses = items.getResponses();
+            List<PendingSearch> pendingSearches = new ArrayList<>();
+
+            try {
+                for (int i = 0; i < responses.length; ++i) {
+                    PendingSearch search = searches.get(i);
+                    if (responses[i].isFailure()) {
+                        failures[search.idx] = responses[i].getFailure();
+                        continue;
+                    }
+
+                    SearchHit[] hits = responses[i].getResponse().getHits().getHits();
+                    if (search.accept(hits, consumer)) {
+                        pendingSearches.add(search);
+                        continue;
+                    }
+                    if (!search.isSorted() && hits.length >= search.requestedHits) {
+                        TotalHits totalHits = responses[i].getResponse().getHits().getTotalHits();
+                        if (totalHits != null && totalHits.value > hits.length) {
+                            log.warn("[CORRELATIONS] Unsorted correlation search on indices {} truncated to {} of {} hits",
+                                    Arrays.toString(search.searchRequest.indices()), hits.length, totalHits.value);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                listener.onFailure(e);
+                return;
+            }
+
+            continueSearches(pendingSearches.iterator(), consumer, failures, listener);
+        }, listener::onFailure));
+    }
+
+    private void continueSearches(Iterator<PendingSearch> pendingSearches, PageConsumer consumer,
+                                  Exception[] failures, ActionListener<Exception[]> listener) {
+        if (!pendingSearches.hasNext()) {
+            listener.onResponse(failures);
+            return;
+        }
+
+        PendingSearch pendingSearch = pendingSearches.next();
+        ActionListener<Void> searchListener = ActionListener.wrap(response -> {
+            deletePit(pendingSearch);
+            continueSearches(pendingSearches, consumer, failures, listener);
+        }, e -> {
+            deletePit(pendingSearch);
+            if (e instanceof PageConsumerException) {
+                listener.onFailure((Exception) e.getCause());
+                return;
+            }
+            failures[pendingSearch.idx] = e;
+            continueSearches(pendingSearches, consumer, failures, listener);
+        });
+        openPit(pendingSearch, ActionListener.wrap(pit -> searchAfter(pendingSearch, consumer, searchListener), searchListener::onFailure));
+    }
+
+    private void openPit(PendingSearch pendingSearch, ActionListener<Void> listener) {
+        CreatePitRequest createPitRequest = new CreatePitRequest(pendingSearch.keepAlive, false, pendingSearch.searchRequest.indices());
+        createPitRequest.setIndicesOptions(pendingSearch.searchRequest.indicesOptions());
+        client.execute(CreatePitAction.INSTANCE, createPitRequest, ActionListener.wrap(createPitResponse -> {
+            pendingSearch.pitId = createPitResponse.getId();
+            listener.onResponse(null);
+        }, listener::onFailure));
+    }
+
+    private void searchAfter(PendingSearch pendingSearch, PageConsumer consumer, ActionListener<Void> listener) {
+        client.search(pendingSearch.nextPage(), ActionListener.wrap(response -> {
+            boolean hasNextPage;
+            try {
+                hasNextPage = pendingSearch.accept(response.getHits().getHits(), consumer);
+            } catch (Exception e) {
+                listener.onFailure(new PageConsumerException(e));
+                return;
+            }
+
+            if (!hasNextPage) {
+                listener.onResponse(null);
+                return;
+            }
+            searchAfter(pendingSearch, consumer, listener);
+        }, listener::onFailure));
+    }
+
+    private void deletePit(PendingSearch search) {
+        if (search.pitId != null) {
+            deletePit(search.pitId);
+            search.pitId = null;
+        }
+    }
+
+    private void deletePit(String pitId) {
+        client.execute(DeletePitAction.INSTANCE, new DeletePitRequest(List.of(pitId)), ActionListener.wrap(response -> {}, e ->
+                log.warn("[CORRELATIONS] Failed to delete point in time of a correlation search", e)));
+    }
+
+    /**
+     * Consumer of a page of hits of the search at the given position of the submitted searches.
+     */
+    @FunctionalInterface
+    public interface PageConsumer {
+        void accept(int searchIdx, SearchHit[] hits) throws Exception;
+    }
+
+    private static class PendingSearch {
+        private final int idx;
+        private final SearchRequest searchRequest;
+        private final int pageSize;
+        private final int maxHits;
+        private final TimeValue keepAlive;
+        private String pitId;
+        private Object[] sortValues;
+        private int consumedHits;
+        private int requestedHits;
+
+        private PendingSearch(int idx, SearchRequest searchRequest, int pageSize, int maxHits, TimeValue keepAlive) {
+            this.idx = idx;
+            this.searchRequest = searchRequest;
+            this.pageSize = pageSize;
+            this.maxHits = maxHits;
+            this.keepAlive = keepAlive;
+        }
+
+        private boolean isSorted() {
+            return searchRequest.source().sorts() != null && !searchRequest.source().sorts().isEmpty();
+        }
+
+        /**
+         * The request of the next page, on the point in time of the search if it has one.
+         */
+        private SearchRequest nextPage() {
+            requestedHits = maxHits > 0 ? Math.min(pageSize, maxHits - consumedHits) : pageSize;
+            if (pitId == null) {
+                searchRequest.source().size(requestedHits);
+                return searchRequest;
+            }
+
+            SearchSourceBuilder searchSourceBuilder = searchRequest.source().shallowCopy()
+                    .size(requestedHits)
+                    .pointInTimeBuilder(new PointInTimeBuilder(pitId).setKeepAlive(keepAlive));
+            if (sortValues != null) {
+                searchSourceBuilder.searchAfter(sortValues);
+            }
+            SearchRequest request = new SearchRequest();
+            request.source(searchSourceBuilder);
+            request.setCancelAfterTimeInterval(searchRequest.getCancelAfterTimeInterval());
+            return request;
+        }
+
+        /**
+         * Hands the page to the consumer, returns whether the search has a next page to fetch.
+         */
+        private boolean accept(SearchHit[] hits, PageConsumer consumer) throws Exception {
+            consumer.accept(idx, hits);
+            consumedHits += hits.length;
+            if (!isSorted() || hits.length < requestedHits) {
+                return false;
+            }
+            if (maxHits > 0 && consumedHits >= maxHits) {
+                log.warn("[CORRELATIONS] Correlation search on indices {} stopped after {} hits",
+                        Arrays.toString(searchRequest.indices()), consumedHits);
+                return false;
+            }
+            sortValues = hits[hits.length - 1].getSortValues();
+            return true;
+        }
+    }
+
+    private static class PageConsumerException extends RuntimeException {
+        private PageConsumerException(Exception cause) {
+            super(cause);
+        }
+    }
+}
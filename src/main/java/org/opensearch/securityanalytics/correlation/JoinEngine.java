@@ -9,46 +9,53 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.join.ScoreMode;
 import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.support.IndicesOptions;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.metadata.MappingMetadata;
 import org.opensearch.cluster.routing.Preference;
+import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.commons.alerting.model.DocLevelQuery;
 import org.opensearch.core.action.ActionListener;
-import org.opensearch.action.search.MultiSearchRequest;
-import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.core.index.Index;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.client.Client;
-import org.opensearch.common.xcontent.LoggingDeprecationHandler;
-import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.commons.alerting.action.PublishFindingsRequest;
 import org.opensearch.commons.alerting.model.Finding;
 import org.opensearch.commons.authuser.User;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
-import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.common.document.DocumentField;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.index.IndexSettings;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.MatchQueryBuilder;
-import org.opensearch.index.query.NestedQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.index.query.RangeQueryBuilder;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.sort.SortOrder;
 import org.opensearch.securityanalytics.config.monitors.DetectorMonitorConfig;
-import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertService;
+import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertStateTable;
 import org.opensearch.securityanalytics.correlation.alert.CorrelationRuleScheduler;
 import org.opensearch.securityanalytics.correlation.alert.notifications.NotificationService;
 import org.opensearch.securityanalytics.logtype.LogTypeService;
+import org.opensearch.securityanalytics.mapper.MapperUtils;
 import org.opensearch.securityanalytics.model.CorrelationQuery;
 import org.opensearch.securityanalytics.model.CorrelationRule;
 import org.opensearch.securityanalytics.model.CorrelationRuleTrigger;
 import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.transport.TransportCorrelateFindingAction;
+import org.opensearch.securityanalytics.util.AutoCorrelationsIndex;
 import org.opensearch.securityanalytics.util.AutoCorrelationsRepo;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -73,19 +80,46 @@ public class JoinEngine {
 
     private final LogTypeService logTypeService;
 
-    private final CorrelationAlertService correlationAlertService;
+    private final CorrelationAlertStateTable correlationAlertStateTable;
 
     private final NotificationService notificationService;
 
+    private final CorrelationRuleCache correlationRuleCache;
+
+    private final CorrelationSearchPager correlationSearchPager;
+
+    private final ClusterService clusterService;
+
+    private final IndexNameExpressionResolver indexNameExpressionResolver;
+
     private volatile TimeValue indexTimeout;
 
     private static final Logger log = LogManager.getLogger(JoinEngine.class);
 
+    private static final int DEFAULT_MAX_TERMS_COUNT = IndexSettings.MAX_TERMS_COUNT_SETTING.getDefault(Settings.EMPTY);
+
+    private static final String TEXT = "text";
+
+    private static final String FIELDS = "fields";
+
+    private static final String KEYWORD = "keyword";
+
+    // unique per finding, so a total order for paging through findings indices
+    private static final String FINDING_ID_FIELD = "id";
+
+    private final CorrelationMetrics correlationMetrics;
+
+    // start of the join stage in progress, the stages of a finding run one after the other
+    private long stageStartNanos;
+
     private final User user;
 
     public JoinEngine(Client client, PublishFindingsRequest request, NamedXContentRegistry xContentRegistry,
                       long corrTimeWindow, TimeValue indexTimeout, TransportCorrelateFindingAction.AsyncCorrelateFindingAction correlateFindingAction,
-                      LogTypeService logTypeService, boolean enableAutoCorrelations, CorrelationAlertService correlationAlertService, NotificationService notificationService, User user) {
+                      LogTypeService logTypeService, boolean enableAutoCorrelations, CorrelationAlertStateTable correlationAlertStateTable, NotificationService notificationService,
+                      CorrelationRuleCache correlationRuleCache, CorrelationSearchPager correlationSearchPager,
+                      ClusterService clusterService, IndexNameExpressionResolver indexNameExpressionResolver,
+                      CorrelationMetrics correlationMetrics, User user) {
         this.client = client;
         this.request = request;
         this.xContentRegistry = xContentRegistry;
@@ -94,12 +128,18 @@ public class JoinEngine {
         this.correlateFindingAction = correlateFindingAction;
         this.logTypeService = logTypeService;
         this.enableAutoCorrelations = enableAutoCorrelations;
-        this.correlationAlertService = correlationAlertService;
+        this.correlationAlertStateTable = correlationAlertStateTable;
         this.notificationService = notificationService;
+        this.correlationRuleCache = correlationRuleCache;
+        this.correlationSearchPager = correlationSearchPager;
+        this.clusterService = clusterService;
+        this.indexNameExpressionResolver = indexNameExpressionResolver;
+        this.correlationMetrics = correlationMetrics;
         this.user = user;
     }
 
     public void onSearchDetectorResponse(Detector detector, Finding finding) {
+        stageStartNanos = correlationMetrics.startNanos();
         try {
             if (enableAutoCorrelations) {
                 generateAutoCorrelations(detector, finding);
@@ -113,14 +153,19 @@ public class JoinEngine {
 
     @SuppressWarnings("unchecked")
     private void generateAutoCorrelations(Detector detector, Finding finding) throws IOException {
-        Map<String, Set<String>> autoCorrelations = AutoCorrelationsRepo.autoCorrelationsAsMap();
+        AutoCorrelationsIndex autoCorrelations = AutoCorrelationsRepo.autoCorrelationsIndex();
         long findingTimestamp = finding.getTimestamp().toEpochMilli();
 
         Set<String> tags = new HashSet<>();
         for (DocLevelQuery query : finding.getDocLevelQueries()) {
             tags.addAll(query.getTags().stream().filter(tag -> tag.startsWith("attack.")).collect(Collectors.toList()));
         }
-        Set<String> validIntrusionSets = AutoCorrelationsRepo.validIntrusionSets(autoCorrelations, tags);
+        BitSet validIntrusionSets = autoCorrelations.intrusionSets(tags);
+        Set<String> candidateTags = autoCorrelations.candidateTags(tags);
+        if (candidateTags.isEmpty()) {
+            onAutoCorrelations(detector, finding, Map.of());
+            return;
+        }
 
         MatchQueryBuilder queryBuilder = QueryBuilders.matchQuery("source", "Sigma");
 
@@ -131,82 +176,78 @@ public class JoinEngine {
         SearchRequest request = new SearchRequest();
         request.source(searchSourceBuilder);
         logTypeService.searchLogTypes(request, ActionListener.wrap(response -> {
-            MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+            List<SearchRequest> searchRequests = new ArrayList<>();
             SearchHit[] logTypes = response.getHits().getHits();
             List<String> logTypeNames = new ArrayList<>();
             for (SearchHit logType: logTypes) {
                 String logTypeName = logType.getSourceAsMap().get("name").toString();
                 logTypeNames.add(logTypeName);
 
-                RangeQueryBuilder rangeQueryBuilder = QueryBuilders.rangeQuery("timestamp")
-                        .gte(findingTimestamp - corrTimeWindow)
-                        .lte(findingTimestamp + corrTimeWindow);
+                // only findings sharing a tag, or an intrusion set, with the finding can be auto-correlated, so
+                // filter candidates on the findings index instead of transferring the whole time window
+                // queries.tags is analyzed text, tags are matched exactly on its keyword sub-field
+                BoolQueryBuilder candidateQueryBuilder = QueryBuilders.boolQuery()
+                        .filter(QueryBuilders.rangeQuery("timestamp")
+                                .gte(findingTimestamp - corrTimeWindow)
+                                .lte(findingTimestamp + corrTimeWindow))
+                        .filter(QueryBuilders.nestedQuery(
+                                "queries",
+                                QueryBuilders.termsQuery("queries.tags.keyword", candidateTags),
+                                ScoreMode.None
+                        ))
+                        .mustNot(QueryBuilders.termQuery("_id", finding.getId()));
 
                 SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
-                sourceBuilder.query(rangeQueryBuilder);
-                sourceBuilder.size(10000);
-                sourceBuilder.fetchField("queries");
+                sourceBuilder.query(candidateQueryBuilder);
+                sourceBuilder.sort(FINDING_ID_FIELD, SortOrder.ASC);
+                sourceBuilder.fetchSource(new String[]{"queries.tags"}, null);
                 SearchRequest searchRequest = new SearchRequest();
                 searchRequest.indices(DetectorMonitorConfig.getAllFindingsIndicesPattern(logTypeName));
                 searchRequest.source(sourceBuilder);
                 searchRequest.preference(Preference.PRIMARY_FIRST.type());
                 searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
-                mSearchRequest.add(searchRequest);
+                searchRequests.add(searchRequest);
             }
 
-            if (!mSearchRequest.requests().isEmpty()) {
-                client.multiSearch(mSearchRequest, ActionListener.wrap(items -> {
-                    MultiSearchResponse.Item[] responses = items.getResponses();
-
-                    Map<String, List<String>> autoCorrelationsMap = new HashMap<>();
-                    int idx = 0;
-                    for (MultiSearchResponse.Item item : responses) {
-                        if (item.isFailure()) {
-                            log.info(item.getFailureMessage());
-                            continue;
-                        }
-                        String logTypeName = logTypeNames.get(idx);
-
-                        SearchHit[] findings = item.getResponse().getHits().getHits();
-
-                        for (SearchHit foundFinding : findings) {
-                            if (!foundFinding.getId().equals(finding.getId())) {
-                                Set<String> findingTags = new HashSet<>();
-                                List<Map<String, Object>> queries = (List<Map<String, Object>>) foundFinding.getSourceAsMap().get("queries");
-                                for (Map<String, Object> query : queries) {
-                                    List<String> queryTags = (List<String>) query.get("tags");
-                                    findingTags.addAll(queryTags.stream().filter(queryTag -> queryTag.startsWith("attack.")).collect(Collectors.toList()));
-                                }
+            if (!searchRequests.isEmpty()) {
+                Map<String, List<String>> autoCorrelationsMap = new HashMap<>();
+                correlationSearchPager.multiSearch(detector.getDetectorType().toLowerCase(Locale.ROOT), searchRequests, (idx, findings) -> {
+                    String logTypeName = logTypeNames.get(idx);
+
+                    for (SearchHit foundFinding : findings) {
+                        if (!foundFinding.getId().equals(finding.getId())) {
+                            Set<String> findingTags = new HashSet<>();
+                            List<Map<String, Object>> queries = (List<Map<String, Object>>) foundFinding.getSourceAsMap().get("queries");
+                            for (Map<String, Object> query : queries) {
+                                List<String> queryTags = (List<String>) query.get("tags");
+                                findingTags.addAll(queryTags.stream().filter(queryTag -> queryTag.startsWith("attack.")).collect(Collectors.toList()));
+                            }
 
-                                boolean canCorrelate = false;
-                                for (String tag: tags) {
-                                    if (findingTags.contains(tag)) {
-                                        canCorrelate = true;
-                                        break;
-                                    }
+                            boolean canCorrelate = false;
+                            for (String tag: tags) {
+                                if (findingTags.contains(tag)) {
+                                    canCorrelate = true;
+                                    break;
                                 }
+                            }
 
-                                Set<String> foundIntrusionSets = AutoCorrelationsRepo.validIntrusionSets(autoCorrelations, findingTags);
-                                for (String validIntrusionSet: validIntrusionSets) {
-                                    if (foundIntrusionSets.contains(validIntrusionSet)) {
-                                        canCorrelate = true;
-                                        break;
-                                    }
-                                }
+                            if (!canCorrelate) {
+                                canCorrelate = autoCorrelations.intersects(findingTags, validIntrusionSets);
+                            }
 
-                                if (canCorrelate) {
-                                    if (autoCorrelationsMap.containsKey(logTypeName)) {
-                                        autoCorrelationsMap.get(logTypeName).add(foundFinding.getId());
-                                    } else {
-                                        List<String> autoCorrelatedFindings = new ArrayList<>();
-                                        autoCorrelatedFindings.add(foundFinding.getId());
-                                        autoCorrelationsMap.put(logTypeName, autoCorrelatedFindings);
-                                    }
+                            if (canCorrelate) {
+                                if (autoCorrelationsMap.containsKey(logTypeName)) {
+                                    autoCorrelationsMap.get(logTypeName).add(foundFinding.getId());
+                                } else {
+                                    List<String> autoCorrelatedFindings = new ArrayList<>();
+                                    autoCorrelatedFindings.add(foundFinding.getId());
+                                    autoCorrelationsMap.put(logTypeName, autoCorrelatedFindings);
                                 }
                             }
                         }
-                        ++idx;
                     }
+                }, ActionListener.wrap(failures -> {
+                    logFailures(failures);
                     onAutoCorrelations(detector, finding, autoCorrelationsMap);
                 }, this::onFailure));
             } else {
@@ -216,45 +257,16 @@ public class JoinEngine {
     }
 
     private void onAutoCorrelations(Detector detector, Finding finding, Map<String, List<String>> autoCorrelations) {
+        stageCompleted(CorrelationMetrics.AUTO_CORRELATIONS);
         String detectorType = detector.getDetectorType().toLowerCase(Locale.ROOT);
         List<String> indices = detector.getInputs().get(0).getIndices();
         List<String> relatedDocIds = finding.getCorrelatedDocIds();
 
-        NestedQueryBuilder queryBuilder = QueryBuilders.nestedQuery(
-                "correlate",
-                QueryBuilders.matchQuery("correlate.category", detectorType),
-                ScoreMode.None
-        );
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(queryBuilder);
-        searchSourceBuilder.fetchSource(true);
-
-        SearchRequest searchRequest = new SearchRequest();
-        searchRequest.indices(CorrelationRule.CORRELATION_RULE_INDEX);
-        searchRequest.source(searchSourceBuilder);
-        searchRequest.preference(Preference.PRIMARY_FIRST.type());
-        searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
-
-        client.search(searchRequest, ActionListener.wrap(response -> {
-            if (response.isTimedOut()) {
-                onFailure(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-            }
-
-            Iterator<SearchHit> hits = response.getHits().iterator();
-            List<CorrelationRule> correlationRules = new ArrayList<>();
-            while (hits.hasNext()) {
-                SearchHit hit = hits.next();
-
-                XContentParser xcp = XContentType.JSON.xContent().createParser(
-                        xContentRegistry,
-                        LoggingDeprecationHandler.INSTANCE,
-                        hit.getSourceAsString());
-
-                CorrelationRule rule = CorrelationRule.parse(xcp, hit.getId(), hit.getVersion());
-                correlationRules.add(rule);
-            }
+        correlationRuleCache.getCorrelationRules(detectorType, ActionListener.wrap(correlationRules -> {
+            stageCompleted(CorrelationMetrics.RULES_LOOKUP);
             getValidDocuments(detectorType, indices, correlationRules, relatedDocIds, autoCorrelations);
         }, e -> {
+            stageCompleted(CorrelationMetrics.RULES_LOOKUP);
             try {
                 log.error("[CORRELATIONS] Exception encountered while searching correlation rule index for finding id {}",
                         finding.getId(), e);
@@ -269,69 +281,87 @@ public class JoinEngine {
      * this method checks if the finding to be correlated has valid related docs(or not) which match join criteria.
      */
     private void getValidDocuments(String detectorType, List<String> indices, List<CorrelationRule> correlationRules, List<String> relatedDocIds, Map<String, List<String>> autoCorrelations) {
-        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        List<SearchRequest> searchRequests = new ArrayList<>();
         List<CorrelationRule> validCorrelationRules = new ArrayList<>();
         List<String> validFields = new ArrayList<>();
+        List<Integer> searchRules = new ArrayList<>();
 
         for (CorrelationRule rule: correlationRules) {
-            Optional<CorrelationQuery> query = rule.getCorrelationQueries().stream()
-                    .filter(correlationQuery -> correlationQuery.getCategory().equals(detectorType)).findFirst();
+            List<QueryBuilder> compiledQueries = correlationRuleCache.getCompiledQueries(rule);
+            int queryIdx = -1;
+            for (int idx = 0; idx < rule.getCorrelationQueries().size(); ++idx) {
+                if (rule.getCorrelationQueries().get(idx).getCategory().equals(detectorType)) {
+                    queryIdx = idx;
+                    break;
+                }
+            }
+            Optional<CorrelationQuery> query = queryIdx >= 0 ? Optional.of(rule.getCorrelationQueries().get(queryIdx)) : Optional.empty();
 
             if (query.isPresent()) {
-                BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                        .filter(QueryBuilders.termsQuery("_id", relatedDocIds));
+                // a page of related doc ids per search bounds each search to a page of hits
+                for (List<String> docIds: partition(relatedDocIds, correlationSearchPager.getPageSize())) {
+                    BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
+                            .filter(QueryBuilders.termsQuery("_id", docIds));
 
-                if (query.get().getField() != null) {
-                    queryBuilder = queryBuilder.must(QueryBuilders.existsQuery(query.get().getField()));
-                } else {
-                    queryBuilder = queryBuilder.must(QueryBuilders.queryStringQuery(query.get().getQuery()));
-                }
-                SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                searchSourceBuilder.query(queryBuilder);
-                searchSourceBuilder.fetchSource(false);
-                if (query.get().getField() != null) {
-                    searchSourceBuilder.fetchField(query.get().getField());
+                    if (query.get().getField() != null) {
+                        queryBuilder = queryBuilder.must(QueryBuilders.existsQuery(query.get().getField()));
+                    } else {
+                        queryBuilder = queryBuilder.must(compiledQueries.get(queryIdx));
+                    }
+                    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+                    searchSourceBuilder.query(queryBuilder);
+                    searchSourceBuilder.fetchSource(false);
+                    if (query.get().getField() != null) {
+                        searchSourceBuilder.fetchField(query.get().getField());
+                    }
+                    SearchRequest searchRequest = new SearchRequest();
+                    searchRequest.indices(indices.toArray(new String[]{}));
+                    searchRequest.source(searchSourceBuilder);
+                    searchRequest.preference(Preference.PRIMARY_FIRST.type());
+                    searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
+
+                    searchRules.add(validCorrelationRules.size());
+                    searchRequests.add(searchRequest);
                 }
-                searchSourceBuilder.size(10000);
-                SearchRequest searchRequest = new SearchRequest();
-                searchRequest.indices(indices.toArray(new String[]{}));
-                searchRequest.source(searchSourceBuilder);
-                searchRequest.preference(Preference.PRIMARY_FIRST.type());
-                searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
-
                 validCorrelationRules.add(rule);
                 validFields.add(query.get().getField());
-                mSearchRequest.add(searchRequest);
             }
         }
 
-        if (!mSearchRequest.requests().isEmpty()) {
-            client.multiSearch(mSearchRequest, ActionListener.wrap(items -> {
-                MultiSearchResponse.Item[] responses = items.getResponses();
-                List<FilteredCorrelationRule> filteredCorrelationRules = new ArrayList<>();
-
-                int idx = 0;
-                for (MultiSearchResponse.Item response : responses) {
-                    if (response.isFailure()) {
-                        log.info(response.getFailureMessage());
-                        continue;
-                    }
+        if (!searchRequests.isEmpty()) {
+            List<FilteredCorrelationRule> validRules = new ArrayList<>();
+            for (int idx = 0; idx < validCorrelationRules.size(); ++idx) {
+                validRules.add(new FilteredCorrelationRule(validCorrelationRules.get(idx), new ArrayList<>(), validFields.get(idx)));
+            }
 
-                    if (response.getResponse().getHits().getHits().length > 0L) {
-                        filteredCorrelationRules.add(new FilteredCorrelationRule(validCorrelationRules.get(idx),
-                                response.getResponse().getHits().getHits(), validFields.get(idx)));
+            correlationSearchPager.multiSearch(detectorType, searchRequests, (idx, hits) -> {
+                FilteredCorrelationRule rule = validRules.get(searchRules.get(idx));
+                if (hits.length > 0) {
+                    rule.matched = true;
+                }
+                if (rule.field != null) {
+                    for (SearchHit hit: hits) {
+                        DocumentField value = hit.field(rule.field);
+                        if (value != null) {
+                            rule.joinValues.add(value.getValue());
+                        }
                     }
-                    ++idx;
                 }
+            }, ActionListener.wrap(failures -> {
+                logFailures(failures);
+                List<FilteredCorrelationRule> filteredCorrelationRules = validRules.stream()
+                        .filter(rule -> rule.matched).collect(Collectors.toList());
 
-                Map<String, List<CorrelationQuery>> categoryToQueriesMap = new HashMap<>();
+                Map<String, List<JoinQuery>> categoryToQueriesMap = new HashMap<>();
                 Map<String, Long> categoryToTimeWindowMap = new HashMap<>();
                 for (FilteredCorrelationRule rule: filteredCorrelationRules) {
                     List<CorrelationQuery> queries = rule.correlationRule.getCorrelationQueries();
+                    List<QueryBuilder> compiledQueries = correlationRuleCache.getCompiledQueries(rule.correlationRule);
                     Long timeWindow = rule.correlationRule.getCorrTimeWindow();
 
-                    for (CorrelationQuery query: queries) {
-                        List<CorrelationQuery> correlationQueries;
+                    for (int queryIdx = 0; queryIdx < queries.size(); ++queryIdx) {
+                        CorrelationQuery query = queries.get(queryIdx);
+                        List<JoinQuery> correlationQueries;
                         if (categoryToQueriesMap.containsKey(query.getCategory())) {
                             correlationQueries = categoryToQueriesMap.get(query.getCategory());
                         } else {
@@ -344,23 +374,10 @@ public class JoinEngine {
                         }
 
                         if (query.getField() == null) {
-                            correlationQueries.add(query);
+                            correlationQueries.add(new JoinQuery(query.getIndex(), compiledQueries.get(queryIdx)));
                         } else {
-                            SearchHit[] hits = rule.filteredDocs;
-                            StringBuilder qb = new StringBuilder(query.getField()).append(":(");
-                            for (int i = 0; i < hits.length; ++i) {
-                                String value = hits[i].field(rule.field).getValue();
-                                qb.append(value);
-                                if (i < hits.length-1) {
-                                    qb.append(" OR ");
-                                } else {
-                                    qb.append(")");
-                                }
-                            }
-                            if (query.getQuery() != null) {
-                                qb.append(" AND ").append(query.getQuery());
-                            }
-                            correlationQueries.add(new CorrelationQuery(query.getIndex(), qb.toString(), query.getCategory(), null));
+                            correlationQueries.add(new JoinQuery(query.getIndex(), fieldJoinQuery(
+                                    joinValuesQuery(query.getIndex(), query.getField(), rule.joinValues), compiledQueries.get(queryIdx))));
                         }
                         categoryToQueriesMap.put(query.getCategory(), correlationQueries);
                     }
@@ -379,58 +396,51 @@ public class JoinEngine {
      * this method searches for parent findings given the log category & correlation time window & collects all related docs
      * for them.
      */
-    private void searchFindingsByTimestamp(String detectorType, Map<String, List<CorrelationQuery>> categoryToQueriesMap, Map<String, Long> categoryToTimeWindowMap, List<CorrelationRule> correlationRules, Map<String, List<String>> autoCorrelations) {
+    private void searchFindingsByTimestamp(String detectorType, Map<String, List<JoinQuery>> categoryToQueriesMap, Map<String, Long> categoryToTimeWindowMap, List<CorrelationRule> correlationRules, Map<String, List<String>> autoCorrelations) {
+        stageCompleted(CorrelationMetrics.VALID_DOCUMENTS);
         long findingTimestamp = request.getFinding().getTimestamp().toEpochMilli();
-        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
-        List<Pair<String, List<CorrelationQuery>>> categoryToQueriesPairs = new ArrayList<>();
+        List<SearchRequest> searchRequests = new ArrayList<>();
+        List<Pair<String, List<JoinQuery>>> categoryToQueriesPairs = new ArrayList<>();
 
-        for (Map.Entry<String, List<CorrelationQuery>> categoryToQueries: categoryToQueriesMap.entrySet()) {
+        for (Map.Entry<String, List<JoinQuery>> categoryToQueries: categoryToQueriesMap.entrySet()) {
+            long timeWindow = categoryToTimeWindowMap.get(categoryToQueries.getKey());
             RangeQueryBuilder queryBuilder = QueryBuilders.rangeQuery("timestamp")
-                    .gte(findingTimestamp - categoryToTimeWindowMap.get(categoryToQueries.getKey()))
-                    .lte(findingTimestamp + categoryToTimeWindowMap.get(categoryToQueries.getKey()));
+                    .gte(findingTimestamp - timeWindow)
+                    .lte(findingTimestamp + timeWindow);
 
             SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
             searchSourceBuilder.query(queryBuilder);
             searchSourceBuilder.fetchSource(false);
-            searchSourceBuilder.size(10000);
+            searchSourceBuilder.sort(FINDING_ID_FIELD, SortOrder.ASC);
             searchSourceBuilder.fetchField("correlated_doc_ids");
             SearchRequest searchRequest = new SearchRequest();
             searchRequest.indices(DetectorMonitorConfig.getAllFindingsIndicesPattern(categoryToQueries.getKey()));
             searchRequest.source(searchSourceBuilder);
             searchRequest.preference(Preference.PRIMARY_FIRST.type());
             searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
-            mSearchRequest.add(searchRequest);
+            searchRequests.add(searchRequest);
             categoryToQueriesPairs.add(Pair.of(categoryToQueries.getKey(), categoryToQueries.getValue()));
         }
 
-        if (!mSearchRequest.requests().isEmpty()) {
-            client.multiSearch(mSearchRequest, ActionListener.wrap(items -> {
-                MultiSearchResponse.Item[] responses = items.getResponses();
-                Map<String, DocSearchCriteria> relatedDocsMap = new HashMap<>();
-
-                int idx = 0;
-                for (MultiSearchResponse.Item response : responses) {
-                    if (response.isFailure()) {
-                        log.info(response.getFailureMessage());
-                        continue;
-                    }
+        if (!searchRequests.isEmpty()) {
+            List<List<String>> relatedDocIds = new ArrayList<>();
+            for (int idx = 0; idx < searchRequests.size(); ++idx) {
+                relatedDocIds.add(new ArrayList<>());
+            }
 
-                    List<String> relatedDocIds = new ArrayList<>();
-                    SearchHit[] hits = response.getResponse().getHits().getHits();
-                    for (SearchHit hit : hits) {
-                        relatedDocIds.addAll(hit.getFields().get("correlated_doc_ids").getValues().stream()
-                                .map(Object::toString).collect(Collectors.toList()));
+            correlationSearchPager.multiSearch(detectorType, searchRequests, (idx, hits) -> {
+                for (SearchHit hit : hits) {
+                    relatedDocIds.get(idx).addAll(hit.getFields().get("correlated_doc_ids").getValues().stream()
+                            .map(Object::toString).collect(Collectors.toList()));
+                }
+            }, ActionListener.wrap(failures -> {
+                logFailures(failures);
+                Map<String, DocSearchCriteria> relatedDocsMap = new HashMap<>();
+                for (int idx = 0; idx < failures.length; ++idx) {
+                    if (failures[idx] == null) {
+                        relatedDocsMap.put(categoryToQueriesPairs.get(idx).getKey(),
+                                docSearchCriteria(categoryToQueriesPairs.get(idx).getValue(), relatedDocIds.get(idx)));
                     }
-
-                    List<CorrelationQuery> correlationQueries = categoryToQueriesPairs.get(idx).getValue();
-                    List<String> indices = correlationQueries.stream().map(CorrelationQuery::getIndex).collect(Collectors.toList());
-                    List<String> queries = correlationQueries.stream().map(CorrelationQuery::getQuery).collect(Collectors.toList());
-                    relatedDocsMap.put(categoryToQueriesPairs.get(idx).getKey(),
-                            new DocSearchCriteria(
-                                    indices,
-                                    queries,
-                                    relatedDocIds));
-                    ++idx;
                 }
                 searchDocsWithFilterKeys(detectorType, relatedDocsMap, categoryToTimeWindowMap, correlationRules, autoCorrelations);
             }, this::onFailure));
@@ -439,57 +449,168 @@ public class JoinEngine {
         }
     }
 
+    private DocSearchCriteria docSearchCriteria(List<JoinQuery> correlationQueries, List<String> relatedDocIds) {
+        List<String> indices = correlationQueries.stream().map(it -> it.index).collect(Collectors.toList());
+        List<QueryBuilder> queries = correlationQueries.stream().map(it -> it.query).collect(Collectors.toList());
+        return new DocSearchCriteria(indices, queries, relatedDocIds);
+    }
+
     /**
-     * Given the related docs from parent findings, this method filters only those related docs which match parent join criteria.
+     * Builds the join of a correlation query on a field from the query on its join values, with the correlation query's
+     * own query as a separate clause.
      */
-    private void searchDocsWithFilterKeys(String detectorType, Map<String, DocSearchCriteria> relatedDocsMap, Map<String, Long> categoryToTimeWindowMap, List<CorrelationRule> correlationRules, Map<String, List<String>> autoCorrelations) {
-        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
-        List<String> categories = new ArrayList<>();
+    static QueryBuilder fieldJoinQuery(QueryBuilder valuesQuery, QueryBuilder query) {
+        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery().filter(valuesQuery);
+        if (query != null) {
+            queryBuilder.must(query);
+        }
+        return queryBuilder;
+    }
 
-        for (Map.Entry<String, DocSearchCriteria> docSearchCriteria: relatedDocsMap.entrySet()) {
-            BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                    .filter(QueryBuilders.termsQuery("_id", docSearchCriteria.getValue().relatedDocIds));
+    private QueryBuilder joinValuesQuery(String index, String field, List<Object> values) {
+        ClusterState state = clusterService.state();
+        return joinValuesQuery(state, indexNameExpressionResolver, index, field, values, maxTermsCount(state, indexNameExpressionResolver, index));
+    }
 
-            for (String query: docSearchCriteria.getValue().queries) {
-                queryBuilder = queryBuilder.should(QueryBuilders.queryStringQuery(query));
+    /**
+     * Query on the join values of a field of the indices the index expression resolves to. Values are matched exactly
+     * with terms queries, unless the field is mapped as text in one of the indices. A text field is then matched on its
+     * keyword sub-field if all of those indices have one, and with a match query per value otherwise, which analyzes
+     * the values like the query_string joins used to.
+     */
+    static QueryBuilder joinValuesQuery(ClusterState state, IndexNameExpressionResolver indexNameExpressionResolver, String index,
+                                        String field, List<Object> values, int maxTermsCount) {
+        boolean text = false;
+        boolean keywordSubField = true;
+        Set<MappingMetadata> mappings = new HashSet<>();
+        for (Index concreteIndex: indexNameExpressionResolver.concreteIndices(state, IndicesOptions.lenientExpandOpen(), index)) {
+            MappingMetadata mapping = state.metadata().getIndexSafe(concreteIndex).mapping();
+            // indices of a pattern mostly share their mappings, each distinct one is read once
+            if (mapping == null || !mappings.add(mapping)) {
+                continue;
+            }
+            Map<String, Object> fieldMapping = fieldMapping(mapping, field);
+            if (fieldMapping != null && TEXT.equals(fieldMapping.get(MapperUtils.TYPE))) {
+                text = true;
+                keywordSubField &= fieldMapping.get(FIELDS) instanceof Map
+                        && ((Map<?, ?>) fieldMapping.get(FIELDS)).get(KEYWORD) instanceof Map
+                        && KEYWORD.equals(((Map<?, ?>) ((Map<?, ?>) fieldMapping.get(FIELDS)).get(KEYWORD)).get(MapperUtils.TYPE));
             }
-            queryBuilder.minimumShouldMatch(1).boost(1.0f);
+        }
 
-            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-            searchSourceBuilder.query(queryBuilder);
-            searchSourceBuilder.fetchSource(false);
-            searchSourceBuilder.size(10000);
-            SearchRequest searchRequest = new SearchRequest();
-            searchRequest.indices(docSearchCriteria.getValue().indices.toArray(new String[]{}));
-            searchRequest.source(searchSourceBuilder);
-            searchRequest.preference(Preference.PRIMARY_FIRST.type());
-            searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
+        if (!text) {
+            return termsQuery(field, values, maxTermsCount);
+        }
+        if (keywordSubField) {
+            return termsQuery(field + "." + KEYWORD, values, maxTermsCount);
+        }
+        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery().minimumShouldMatch(1);
+        for (Object value: values) {
+            queryBuilder.should(QueryBuilders.matchQuery(field, value));
+        }
+        return queryBuilder;
+    }
+
+    /**
+     * The mapping of the field, of the field it points to if it is an alias, null if it is not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> fieldMapping(MappingMetadata mapping, String field) {
+        Object fieldMapping = MapperUtils.getFieldMappingsFlat(mapping, List.of(field)).get(field);
+        if (fieldMapping instanceof Map && MapperUtils.ALIAS.equals(((Map<?, ?>) fieldMapping).get(MapperUtils.TYPE))) {
+            String path = (String) ((Map<?, ?>) fieldMapping).get(MapperUtils.PATH);
+            fieldMapping = MapperUtils.getFieldMappingsFlat(mapping, List.of(path)).get(path);
+        }
+        return fieldMapping instanceof Map ? (Map<String, Object>) fieldMapping : null;
+    }
 
-            categories.add(docSearchCriteria.getKey());
-            mSearchRequest.add(searchRequest);
+    /**
+     * Terms query on the values, split into terms queries of at most maxTermsCount values each.
+     */
+    static QueryBuilder termsQuery(String field, List<?> values, int maxTermsCount) {
+        if (values.size() <= maxTermsCount) {
+            return QueryBuilders.termsQuery(field, values);
         }
+        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery().minimumShouldMatch(1);
+        for (List<?> chunk: partition(values, maxTermsCount)) {
+            queryBuilder.should(QueryBuilders.termsQuery(field, chunk));
+        }
+        return queryBuilder;
+    }
 
-        if (!mSearchRequest.requests().isEmpty()) {
-            client.multiSearch(mSearchRequest, ActionListener.wrap( items -> {
-                MultiSearchResponse.Item[] responses = items.getResponses();
-                Map<String, List<String>> filteredRelatedDocIds = new HashMap<>();
+    private int maxTermsCount(String index) {
+        return maxTermsCount(clusterService.state(), indexNameExpressionResolver, index);
+    }
 
-                int idx = 0;
-                for (MultiSearchResponse.Item response : responses) {
-                    if (response.isFailure()) {
-                        log.info(response.getFailureMessage());
-                        continue;
-                    }
+    /**
+     * The smallest index.max_terms_count of the open indices the index expression resolves to, the default of the
+     * setting if it resolves to none.
+     */
+    static int maxTermsCount(ClusterState state, IndexNameExpressionResolver indexNameExpressionResolver, String index) {
+        int maxTermsCount = Integer.MAX_VALUE;
+        for (Index concreteIndex: indexNameExpressionResolver.concreteIndices(state, IndicesOptions.lenientExpandOpen(), index)) {
+            maxTermsCount = Math.min(maxTermsCount, IndexSettings.MAX_TERMS_COUNT_SETTING.get(state.metadata().getIndexSafe(concreteIndex).getSettings()));
+        }
+        return maxTermsCount == Integer.MAX_VALUE ? DEFAULT_MAX_TERMS_COUNT : maxTermsCount;
+    }
 
-                    SearchHit[] hits = response.getResponse().getHits().getHits();
-                    List<String> docIds = new ArrayList<>();
+    /**
+     * Splits the list into consecutive sublists of at most the given size, returning a single empty sublist for an
+     * empty list so callers still issue their search.
+     */
+    static <T> List<List<T>> partition(List<T> list, int size) {
+        if (list.isEmpty()) {
+            return List.of(list);
+        }
+        List<List<T>> partitions = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += size) {
+            partitions.add(list.subList(from, Math.min(list.size(), from + size)));
+        }
+        return partitions;
+    }
 
-                    for (SearchHit hit : hits) {
-                        docIds.add(hit.getId());
-                    }
-                    filteredRelatedDocIds.put(categories.get(idx), docIds);
-                    ++idx;
+    /**
+     * Given the related docs from parent findings, this method filters only those related docs which match parent join criteria.
+     */
+    private void searchDocsWithFilterKeys(String detectorType, Map<String, DocSearchCriteria> relatedDocsMap, Map<String, Long> categoryToTimeWindowMap, List<CorrelationRule> correlationRules, Map<String, List<String>> autoCorrelations) {
+        stageCompleted(CorrelationMetrics.FINDINGS_BY_TIMESTAMP);
+        List<SearchRequest> searchRequests = new ArrayList<>();
+        List<String> categories = new ArrayList<>();
+
+        for (Map.Entry<String, DocSearchCriteria> docSearchCriteria: relatedDocsMap.entrySet()) {
+            // a page of related doc ids per search bounds each search to a page of hits
+            for (List<String> docIds: partition(docSearchCriteria.getValue().relatedDocIds, correlationSearchPager.getPageSize())) {
+                BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
+                        .filter(QueryBuilders.termsQuery("_id", docIds));
+
+                for (QueryBuilder query: docSearchCriteria.getValue().queries) {
+                    queryBuilder = queryBuilder.should(query);
+                }
+                queryBuilder.minimumShouldMatch(1).boost(1.0f);
+
+                SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+                searchSourceBuilder.query(queryBuilder);
+                searchSourceBuilder.fetchSource(false);
+                SearchRequest searchRequest = new SearchRequest();
+                searchRequest.indices(docSearchCriteria.getValue().indices.toArray(new String[]{}));
+                searchRequest.source(searchSourceBuilder);
+                searchRequest.preference(Preference.PRIMARY_FIRST.type());
+                searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
+
+                categories.add(docSearchCriteria.getKey());
+                searchRequests.add(searchRequest);
+            }
+        }
+
+        if (!searchRequests.isEmpty()) {
+            Map<String, List<String>> filteredRelatedDocIds = new HashMap<>();
+            correlationSearchPager.multiSearch(detectorType, searchRequests, (idx, hits) -> {
+                List<String> docIds = filteredRelatedDocIds.computeIfAbsent(categories.get(idx), k -> new ArrayList<>());
+                for (SearchHit hit : hits) {
+                    docIds.add(hit.getId());
                 }
+            }, ActionListener.wrap(failures -> {
+                logFailures(failures);
                 getCorrelatedFindings(detectorType, filteredRelatedDocIds, categoryToTimeWindowMap, correlationRules, autoCorrelations);
             }, this::onFailure));
         } else {
@@ -502,16 +623,19 @@ public class JoinEngine {
      * the finding to be correlated.
      */
     private void getCorrelatedFindings(String detectorType, Map<String, List<String>> filteredRelatedDocIds, Map<String, Long> categoryToTimeWindowMap, List<CorrelationRule> correlationRules, Map<String, List<String>> autoCorrelations) {
+        stageCompleted(CorrelationMetrics.DOCS_WITH_FILTER_KEYS);
         long findingTimestamp = request.getFinding().getTimestamp().toEpochMilli();
-        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        List<SearchRequest> searchRequests = new ArrayList<>();
         List<String> categories = new ArrayList<>();
 
         for (Map.Entry<String, List<String>> relatedDocIds: filteredRelatedDocIds.entrySet()) {
+            long timeWindow = categoryToTimeWindowMap.get(relatedDocIds.getKey());
+            String findingsIndices = DetectorMonitorConfig.getAllFindingsIndicesPattern(relatedDocIds.getKey());
             BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
                     .filter(QueryBuilders.rangeQuery("timestamp")
-                            .gte(findingTimestamp - categoryToTimeWindowMap.get(relatedDocIds.getKey()))
-                            .lte(findingTimestamp + categoryToTimeWindowMap.get(relatedDocIds.getKey())))
-                    .must(QueryBuilders.termsQuery("correlated_doc_ids", relatedDocIds.getValue()));
+                            .gte(findingTimestamp - timeWindow)
+                            .lte(findingTimestamp + timeWindow))
+                    .must(termsQuery("correlated_doc_ids", relatedDocIds.getValue(), maxTermsCount(findingsIndices)));
 
             if (relatedDocIds.getKey().equals(detectorType)) {
                 queryBuilder = queryBuilder.mustNot(QueryBuilders.matchQuery("_id", request.getFinding().getId()));
@@ -520,64 +644,51 @@ public class JoinEngine {
             SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
             searchSourceBuilder.query(queryBuilder);
             searchSourceBuilder.fetchSource(false);
-            searchSourceBuilder.size(10000);
+            searchSourceBuilder.sort(FINDING_ID_FIELD, SortOrder.ASC);
             SearchRequest searchRequest = new SearchRequest();
-            searchRequest.indices(DetectorMonitorConfig.getAllFindingsIndicesPattern(relatedDocIds.getKey()));
+            searchRequest.indices(findingsIndices);
             searchRequest.source(searchSourceBuilder);
             searchRequest.preference(Preference.PRIMARY_FIRST.type());
             searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
 
             categories.add(relatedDocIds.getKey());
-            mSearchRequest.add(searchRequest);
+            searchRequests.add(searchRequest);
         }
 
-        if (!mSearchRequest.requests().isEmpty()) {
-            client.multiSearch(mSearchRequest, ActionListener.wrap(items -> {
-                MultiSearchResponse.Item[] responses = items.getResponses();
-                Map<String, List<String>> correlatedFindings = new HashMap<>();
-
-                int idx = 0;
-                for (MultiSearchResponse.Item response : responses) {
-                    if (response.isFailure()) {
-                        log.info(response.getFailureMessage());
-                        ++idx;
-                        continue;
-                    }
-
-                    SearchHit[] hits = response.getResponse().getHits().getHits();
-                    List<String> findings = new ArrayList<>();
-
-                    for (SearchHit hit : hits) {
-                        findings.add(hit.getId());
-                    }
-
-                    if (!findings.isEmpty()) {
-                        correlatedFindings.put(categories.get(idx), findings);
-                    }
-                    ++idx;
-                }
-
-                if (!correlatedFindings.isEmpty()) {
-                     CorrelationRuleScheduler correlationRuleScheduler = new CorrelationRuleScheduler(client, correlationAlertService, notificationService);
-                     correlationRuleScheduler.schedule(correlationRules, correlatedFindings, request.getFinding().getId(), indexTimeout, user);
-                }
-
-                for (Map.Entry<String, List<String>> autoCorrelation: autoCorrelations.entrySet()) {
-                    if (correlatedFindings.containsKey(autoCorrelation.getKey())) {
-                        Set<String> alreadyCorrelatedFindings = new HashSet<>(correlatedFindings.get(autoCorrelation.getKey()));
-                        alreadyCorrelatedFindings.addAll(autoCorrelation.getValue());
-                        correlatedFindings.put(autoCorrelation.getKey(), new ArrayList<>(alreadyCorrelatedFindings));
-                    } else {
-                        correlatedFindings.put(autoCorrelation.getKey(), autoCorrelation.getValue());
-                    }
+        if (!searchRequests.isEmpty()) {
+            Map<String, List<String>> correlatedFindings = new HashMap<>();
+            correlationSearchPager.multiSearch(detectorType, searchRequests, (idx, hits) -> {
+                for (SearchHit hit : hits) {
+                    correlatedFindings.computeIfAbsent(categories.get(idx), k -> new ArrayList<>()).add(hit.getId());
                 }
-                correlateFindingAction.initCorrelationIndex(detectorType, correlatedFindings, correlationRules.stream().map(CorrelationRule::getId).collect(Collectors.toList()));
+            }, ActionListener.wrap(failures -> {
+                logFailures(failures);
+                onCorrelatedFindings(detectorType, correlatedFindings, correlationRules, autoCorrelations);
             }, this::onFailure));
         } else {
             getTimestampFeature(detectorType, correlationRules.stream().map(CorrelationRule::getId).collect(Collectors.toList()), autoCorrelations);
         }
     }
 
+    private void onCorrelatedFindings(String detectorType, Map<String, List<String>> correlatedFindings, List<CorrelationRule> correlationRules, Map<String, List<String>> autoCorrelations) {
+        stageCompleted(CorrelationMetrics.CORRELATED_FINDINGS);
+        if (!correlatedFindings.isEmpty()) {
+            CorrelationRuleScheduler correlationRuleScheduler = new CorrelationRuleScheduler(client, correlationAlertStateTable, notificationService, correlationMetrics);
+            correlationRuleScheduler.schedule(correlationRules, correlatedFindings, request.getFinding().getId(), indexTimeout, user);
+        }
+
+        for (Map.Entry<String, List<String>> autoCorrelation: autoCorrelations.entrySet()) {
+            if (correlatedFindings.containsKey(autoCorrelation.getKey())) {
+                Set<String> alreadyCorrelatedFindings = new HashSet<>(correlatedFindings.get(autoCorrelation.getKey()));
+                alreadyCorrelatedFindings.addAll(autoCorrelation.getValue());
+                correlatedFindings.put(autoCorrelation.getKey(), new ArrayList<>(alreadyCorrelatedFindings));
+            } else {
+                correlatedFindings.put(autoCorrelation.getKey(), autoCorrelation.getValue());
+            }
+        }
+        correlateFindingAction.initCorrelationIndex(detectorType, correlatedFindings, correlationRules.stream().map(CorrelationRule::getId).collect(Collectors.toList()));
+    }
+
     private void getTimestampFeature(String detectorType, List<String> correlationRules, Map<String, List<String>> autoCorrelations) {
         if (!autoCorrelations.isEmpty()) {
             correlateFindingAction.getTimestampFeature(detectorType, autoCorrelations, null, List.of());
@@ -586,16 +697,38 @@ public class JoinEngine {
         }
     }
 
+    private void stageCompleted(String stage) {
+        stageStartNanos = correlationMetrics.record(stage, stageStartNanos);
+    }
+
+    private void logFailures(Exception[] failures) {
+        for (Exception failure: failures) {
+            if (failure != null) {
+                log.info(failure.getMessage());
+            }
+        }
+    }
+
     private void onFailure(Exception e) {
         correlateFindingAction.onFailures(e);
     }
 
+    static class JoinQuery {
+        String index;
+        QueryBuilder query;
+
+        public JoinQuery(String index, QueryBuilder query) {
+            this.index = index;
+            this.query = query;
+        }
+    }
+
     static class DocSearchCriteria {
         List<String> indices;
-        List<String> queries;
+        List<QueryBuilder> queries;
         List<String> relatedDocIds;
 
-        public DocSearchCriteria(List<String> indices, List<String> queries, List<String> relatedDocIds) {
+        public DocSearchCriteria(List<String> indices, List<QueryBuilder> queries, List<String> relatedDocIds) {
             this.indices = indices;
             this.queries = queries;
             this.relatedDocIds = relatedDocIds;
@@ -604,12 +737,13 @@ public class JoinEngine {
 
     static class FilteredCorrelationRule {
         CorrelationRule correlationRule;
-        SearchHit[] filteredDocs;
+        List<Object> joinValues;
         String field;
+        boolean matched = false;
 
-        public FilteredCorrelationRule(CorrelationRule correlationRule, SearchHit[] filteredDocs, String field) {
+        public FilteredCorrelationRule(CorrelationRule correlationRule, List<Object> joinValues, String field) {
             this.correlationRule = correlationRule;
-            this.filteredDocs = filteredDocs;
+            this.joinValues = joinValues;
             this.field = field;
         }
     }
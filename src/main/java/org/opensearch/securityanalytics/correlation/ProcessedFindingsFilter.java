@@ -0,0 +1,190 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.BytesRef;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.support.IndicesOptions;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.routing.Preference;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.hash.MurmurHash3;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Node-level filter of the findings recently correlated, so re-published findings are not correlated again.
+ *
+ * The finding ids are kept in two generations of Bloom filters, the current one and the previous one, rotated once the
+ * current one holds {@link SecurityAnalyticsSettings#CORRELATION_PROCESSED_FINDINGS_FILTER_SIZE} findings or is older
+ * than {@link SecurityAnalyticsSettings#CORRELATION_PROCESSED_FINDINGS_RETENTION}, which bounds both the memory and
+ * the false positive rate. A finding the filter might contain is only skipped once its finding record is found in the
+ * correlation history index.
+ */
+public class ProcessedFindingsFilter {
+
+    private static final Logger log = LogManager.getLogger(ProcessedFindingsFilter.class);
+
+    // ~1% false positives at capacity
+    private static final int BITS_PER_FINDING = 10;
+
+    private static final int NUM_HASHES = 7;
+
+    private final Client client;
+
+    private final ThreadPool threadPool;
+
+    private final CorrelationHistoryWriter correlationHistoryWriter;
+
+    private volatile Generation current;
+
+    private volatile Generation previous;
+
+    private volatile int capacity;
+
+    private volatile long retentionMillis;
+
+    public ProcessedFindingsFilter(Client client, ClusterService clusterService, ThreadPool threadPool, CorrelationHistoryWriter correlationHistoryWriter) {
+        this.client = client;
+        this.threadPool = threadPool;
+        this.correlationHistoryWriter = correlationHistoryWriter;
+
+        this.capacity = SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_FILTER_SIZE.get(clusterService.getSettings());
+        this.retentionMillis = SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_RETENTION.get(clusterService.getSettings()).millis();
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_FILTER_SIZE, it -> capacity = it);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_RETENTION, it -> retentionMillis = it.millis());
+
+        this.current = newGeneration();
+        this.previous = null;
+    }
+
+    /**
+     * Completes the listener with true if the finding was already correlated, false otherwise or if it cannot be told.
+     */
+    public void isProcessed(String findingId, ActionListener<Boolean> listener) {
+        if (capacity == 0 || !mightContain(findingId)) {
+            listener.onResponse(false);
+            return;
+        }
+        // written through this node but possibly not refreshed yet
+        if (correlationHistoryWriter.findingRecord(findingId).isPresent()) {
+            listener.onResponse(true);
+            return;
+        }
+
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery("finding1", findingId))
+                .filter(QueryBuilders.termQuery("recordType", "finding")));
+        searchSourceBuilder.size(0);
+        searchSourceBuilder.terminateAfter(1);
+        searchSourceBuilder.trackTotalHits(true);
+        SearchRequest request = new SearchRequest();
+        request.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
+        request.indicesOptions(IndicesOptions.lenientExpandOpen());
+        request.source(searchSourceBuilder);
+        request.preference(Preference.PRIMARY_FIRST.type());
+        request.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
+
+        client.search(request, ActionListener.wrap(response -> {
+            listener.onResponse(response.getHits().getTotalHits() != null && response.getHits().getTotalHits().value > 0L);
+        }, e -> {
+            log.debug("Failed to check if finding {} was already correlated", findingId, e);
+            listener.onResponse(false);
+        }));
+    }
+
+    /**
+     * Remembers a correlated finding.
+     */
+    public void add(String findingId) {
+        if (capacity == 0) {
+            return;
+        }
+        maybeRotate();
+        current.add(findingId);
+    }
+
+    boolean mightContain(String findingId) {
+        maybeRotate();
+        Generation previous = this.previous;
+        return current.mightContain(findingId) || (previous != null && previous.mightContain(findingId));
+    }
+
+    private void maybeRotate() {
+        Generation generation = current;
+        long now = threadPool.relativeTimeInMillis();
+        if (generation.size.get() < generation.capacity && now - generation.createdAt < retentionMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (current == generation) {
+                // a previous generation older than twice the retention has nothing left to remember
+                previous = now - generation.createdAt < 2 * retentionMillis ? generation : null;
+                current = newGeneration();
+            }
+        }
+    }
+
+    private Generation newGeneration() {
+        return new Generation(Math.max(1, capacity), threadPool.relativeTimeInMillis());
+    }
+
+    private static class Generation {
+        private final int capacity;
+        private final long createdAt;
+        private final AtomicLongArray bits;
+        private final long numBits;
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Generation(int capacity, long createdAt) {
+            this.capacity = capacity;
+            this.createdAt = createdAt;
+            this.bits = new AtomicLongArray((int) ((((long) capacity) * BITS_PER_FINDING + 63L) / 64L));
+            this.numBits = bits.length() * 64L;
+        }
+
+        private void add(String findingId) {
+            MurmurHash3.Hash128 hash = hash(findingId);
+            for (int i = 0; i < NUM_HASHES; ++i) {
+                long bit = bit(hash, i);
+                long mask = 1L << (bit & 63L);
+                bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+            size.incrementAndGet();
+        }
+
+        private boolean mightContain(String findingId) {
+            MurmurHash3.Hash128 hash = hash(findingId);
+            for (int i = 0; i < NUM_HASHES; ++i) {
+                long bit = bit(hash, i);
+                if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63L))) == 0L) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // double hashing, derives the i-th hash from the two halves of the 128 bits hash
+        private long bit(MurmurHash3.Hash128 hash, int i) {
+            return ((hash.h1 + i * hash.h2) & Long.MAX_VALUE) % numBits;
+        }
+
+        private static MurmurHash3.Hash128 hash(String findingId) {
+            BytesRef bytes = new BytesRef(findingId);
+            return MurmurHash3.hash128(bytes.bytes, bytes.offset, bytes.length, 0L, new MurmurHash3.Hash128());
+        }
+    }
+}
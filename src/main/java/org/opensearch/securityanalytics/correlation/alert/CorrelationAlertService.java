@@ -6,6 +6,7 @@ package org.opensearch.securityanalytics.correlation.alert;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
 import org.opensearch.action.bulk.BulkItemResponse;
 import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.bulk.BulkResponse;
@@ -14,6 +15,7 @@ import org.opensearch.action.index.IndexResponse;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.update.UpdateRequest;
+import org.opensearch.action.update.UpdateResponse;
 import org.opensearch.client.Client;
 import org.opensearch.common.lucene.uid.Versions;
 import org.opensearch.commons.alerting.model.Alert;
@@ -25,11 +27,14 @@ import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.core.rest.RestStatus;
 import org.opensearch.core.xcontent.XContentParser;
 import org.opensearch.index.IndexNotFoundException;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
-import org.opensearch.index.query.TermsQueryBuilder;
+import org.opensearch.index.reindex.BulkByScrollResponse;
+import org.opensearch.index.reindex.UpdateByQueryAction;
+import org.opensearch.index.reindex.UpdateByQueryRequest;
 import org.opensearch.script.Script;
 import org.opensearch.script.ScriptType;
 import org.opensearch.search.SearchHit;
@@ -45,7 +50,10 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 public class CorrelationAlertService {
@@ -84,23 +92,7 @@ public class CorrelationAlertService {
      * @param currentTime The current time of the search range
      */
     public void getActiveAlerts(String ruleId, long currentTime, ActionListener<CorrelationAlertsList> listener) {
-        Instant currentTimeDate = Instant.ofEpochMilli(currentTime);
-        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                .must(QueryBuilders.termQuery("correlation_rule_id", ruleId))
-                .must(QueryBuilders.rangeQuery("start_time").lte(currentTimeDate))
-                .must(QueryBuilders.rangeQuery("end_time").gte(currentTimeDate))
-                .must(QueryBuilders.termQuery("state", "ACTIVE"));
-
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
-                .seqNoAndPrimaryTerm(true)
-                .version(true)
-                .size(10000) // set the size to 10,000
-                .query(queryBuilder);
-
-        SearchRequest searchRequest = new SearchRequest(CorrelationIndices.CORRELATION_ALERT_INDEX)
-                .source(searchSourceBuilder);
-
-        client.search(searchRequest, ActionListener.wrap(
+        searchActiveAlerts(List.of(ruleId), currentTime, ActionListener.wrap(
                 searchResponse -> {
                     if (searchResponse.getHits().getTotalHits().equals(0)) {
                         listener.onResponse(new CorrelationAlertsList(Collections.emptyList(), 0));
@@ -119,37 +111,65 @@ public class CorrelationAlertService {
         ));
     }
 
+    /**
+     * Searches for active Alerts of several correlation rules at once. The hits carry their sequence numbers and primary terms.
+     *
+     * @param ruleIds    The correlation rule IDs to filter the alerts
+     * @param currentTime The current time of the search range
+     */
+    public void searchActiveAlerts(Collection<String> ruleIds, long currentTime, ActionListener<SearchResponse> listener) {
+        Instant currentTimeDate = Instant.ofEpochMilli(currentTime);
+        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
+                .must(QueryBuilders.termsQuery("correlation_rule_id", ruleIds))
+                .must(QueryBuilders.rangeQuery("start_time").lte(currentTimeDate))
+                .must(QueryBuilders.rangeQuery("end_time").gte(currentTimeDate))
+                .must(QueryBuilders.termQuery("state", "ACTIVE"));
+
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+                .seqNoAndPrimaryTerm(true)
+                .version(true)
+                .size(10000) // set the size to 10,000
+                .query(queryBuilder);
+
+        SearchRequest searchRequest = new SearchRequest(CorrelationIndices.CORRELATION_ALERT_INDEX)
+                .source(searchSourceBuilder);
+
+        client.search(searchRequest, listener);
+    }
+
     public void indexCorrelationAlert(CorrelationAlert correlationAlert, TimeValue indexTimeout, ActionListener<IndexResponse> listener) {
-        // Convert CorrelationAlert to a map
         try {
-            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-            builder.field("correlated_finding_ids", correlationAlert.getCorrelatedFindingIds());
-            builder.field("correlation_rule_id", correlationAlert.getCorrelationRuleId());
-            builder.field("correlation_rule_name", correlationAlert.getCorrelationRuleName());
-            builder.field("id", correlationAlert.getId());
-            builder.field("user", correlationAlert.getUser()); // Convert User object to map
-            builder.field("schema_version", correlationAlert.getSchemaVersion());
-            builder.field("severity", correlationAlert.getSeverity());
-            builder.field("state", correlationAlert.getState());
-            builder.field("trigger_name", correlationAlert.getTriggerName());
-            builder.field("version", correlationAlert.getVersion());
-            builder.field("start_time", correlationAlert.getStartTime());
-            builder.field("end_time", correlationAlert.getEndTime());
-            builder.field("action_execution_results", correlationAlert.getActionExecutionResults());
-            builder.field("error_message", correlationAlert.getErrorMessage());
-            builder.field("acknowledged_time", correlationAlert.getAcknowledgedTime());
-            builder.endObject();
-            IndexRequest indexRequest = new IndexRequest(CorrelationIndices.CORRELATION_ALERT_INDEX)
-                    .id(correlationAlert.getId())
-                    .source(builder)
-                    .timeout(indexTimeout);
-
-            client.index(indexRequest, listener);
+            client.index(getCorrelationAlertIndexRequest(correlationAlert, indexTimeout), listener);
         } catch (IOException ex) {
             log.error("Exception while adding alerts in .opensearch-sap-correlation-alerts index", ex);
         }
     }
 
+    public IndexRequest getCorrelationAlertIndexRequest(CorrelationAlert correlationAlert, TimeValue indexTimeout) throws IOException {
+        // Convert CorrelationAlert to a map
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        builder.field("correlated_finding_ids", correlationAlert.getCorrelatedFindingIds());
+        builder.field("correlation_rule_id", correlationAlert.getCorrelationRuleId());
+        builder.field("correlation_rule_name", correlationAlert.getCorrelationRuleName());
+        builder.field("id", correlationAlert.getId());
+        builder.field("user", correlationAlert.getUser()); // Convert User object to map
+        builder.field("schema_version", correlationAlert.getSchemaVersion());
+        builder.field("severity", correlationAlert.getSeverity());
+        builder.field("state", correlationAlert.getState());
+        builder.field("trigger_name", correlationAlert.getTriggerName());
+        builder.field("version", correlationAlert.getVersion());
+        builder.field("start_time", correlationAlert.getStartTime());
+        builder.field("end_time", correlationAlert.getEndTime());
+        builder.field("action_execution_results", correlationAlert.getActionExecutionResults());
+        builder.field("error_message", correlationAlert.getErrorMessage());
+        builder.field("acknowledged_time", correlationAlert.getAcknowledgedTime());
+        builder.endObject();
+        return new IndexRequest(CorrelationIndices.CORRELATION_ALERT_INDEX)
+                .id(correlationAlert.getId())
+                .source(builder)
+                .timeout(indexTimeout);
+    }
+
     public void getCorrelationAlerts(String ruleId, Table tableProp, ActionListener<GetCorrelationAlertsResponse> listener) {
         BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery();
         if (ruleId != null) {
@@ -198,108 +218,89 @@ public class CorrelationAlertService {
         ));
     }
 
+    /**
+     * Acknowledges the alerts with partial updates sent in one bulk request. The alerts are read first, which fails if
+     * the alerts index does not exist, and every update is conditional on the sequence number read, so an alert changed
+     * concurrently is reported as failed instead of being overwritten.
+     */
     public void acknowledgeAlerts(List<String> alertIds, ActionListener<AckCorrelationAlertsResponse> listener) {
-        BulkRequest bulkRequest = new BulkRequest();
-        List<CorrelationAlert> acknowledgedAlerts = new ArrayList<>();
-        List<CorrelationAlert> failedAlerts = new ArrayList<>();
-
-        TermsQueryBuilder termsQueryBuilder = QueryBuilders.termsQuery("id", alertIds);
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().query(termsQueryBuilder);
+        Collection<String> distinctAlertIds = new LinkedHashSet<>(alertIds);
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+                .query(QueryBuilders.termsQuery("id", distinctAlertIds))
+                .seqNoAndPrimaryTerm(true)
+                .size(distinctAlertIds.size());
         SearchRequest searchRequest = new SearchRequest(CorrelationIndices.CORRELATION_ALERT_INDEX)
                 .source(searchSourceBuilder);
 
-        // Execute the search request
-        client.search(searchRequest, new ActionListener<SearchResponse>() {
-            @Override
-            public void onResponse(SearchResponse searchResponse) {
-                // Iterate through the search hits
-                for (SearchHit hit : searchResponse.getHits().getHits()) {
-                    // Construct a script to update the document with the new state and acknowledgedTime
-                    // Construct a script to update the document with the new state and acknowledgedTime
-                    Script script = new Script(ScriptType.INLINE, "painless",
-                            "ctx._source.state = params.state; ctx._source.acknowledged_time = params.time",
-                            Map.of("state", Alert.State.ACKNOWLEDGED, "time", Instant.now()));
-                    // Create an update request with the script
-                    UpdateRequest updateRequest = new UpdateRequest(CorrelationIndices.CORRELATION_ALERT_INDEX, hit.getId())
-                            .script(script);
-
-                    // Add the update request to the bulk request
-                    bulkRequest.add(updateRequest);
+        client.search(searchRequest, ActionListener.wrap(searchResponse -> {
+            Map<String, CorrelationAlert> readAlerts = new HashMap<>();
+            BulkRequest bulkRequest = new BulkRequest();
+            Map<String, Object> acknowledged = Map.of(
+                    STATE_FIELD, Alert.State.ACKNOWLEDGED.toString(),
+                    ACKNOWLEDGED_TIME_FIELD, Instant.now().toString());
+            for (SearchHit hit : searchResponse.getHits()) {
+                readAlerts.put(hit.getId(), parseCorrelationAlert(hit));
+                bulkRequest.add(new UpdateRequest(CorrelationIndices.CORRELATION_ALERT_INDEX, hit.getId())
+                        .doc(acknowledged)
+                        .setIfSeqNo(hit.getSeqNo())
+                        .setIfPrimaryTerm(hit.getPrimaryTerm())
+                        .fetchSource(true));
+            }
+            if (bulkRequest.numberOfActions() == 0) {
+                listener.onResponse(new AckCorrelationAlertsResponse(Collections.emptyList(), Collections.emptyList()));
+                return;
+            }
 
-                    // Add the current alert to the acknowledged alerts list
+            client.bulk(bulkRequest, ActionListener.wrap(bulkResponse -> {
+                List<CorrelationAlert> acknowledgedAlerts = new ArrayList<>();
+                List<CorrelationAlert> failedAlerts = new ArrayList<>();
+                for (BulkItemResponse itemResponse : bulkResponse.getItems()) {
+                    if (itemResponse.isFailed()) {
+                        // alerts deleted since they were read are neither acknowledged nor failed
+                        if (itemResponse.status() != RestStatus.NOT_FOUND) {
+                            log.error("Failed to acknowledge correlation alert {}: {}", itemResponse.getId(), itemResponse.getFailureMessage());
+                            failedAlerts.add(readAlerts.get(itemResponse.getId()));
+                        }
+                        continue;
+                    }
+                    UpdateResponse updateResponse = itemResponse.getResponse();
                     try {
-                        acknowledgedAlerts.add(getParsedCorrelationAlert(hit));
+                        acknowledgedAlerts.add(parseCorrelationAlert(updateResponse.getId(), updateResponse.getVersion(),
+                                updateResponse.getGetResult().sourceAsString()));
                     } catch (IOException e) {
                         log.error("Exception while acknowledging alerts: {}", e.toString());
                     }
                 }
-
-                // Check if there are any update requests in the bulk request
-                if (!bulkRequest.requests().isEmpty()) {
-                    // Execute the bulk request asynchronously
-                    client.bulk(bulkRequest, new ActionListener<BulkResponse>() {
-                        @Override
-                        public void onResponse(BulkResponse bulkResponse) {
-                            // Iterate through the bulk response to identify failed updates
-                            for (BulkItemResponse itemResponse : bulkResponse.getItems()) {
-                                if (itemResponse.isFailed()) {
-                                    // If an update failed, add the corresponding alert to the failed alerts list
-                                    failedAlerts.add(acknowledgedAlerts.get(itemResponse.getItemId()));
-                                }
-                            }
-                            // Create and pass the CorrelationAckAlertsResponse to the listener
-                            listener.onResponse(new AckCorrelationAlertsResponse(acknowledgedAlerts, failedAlerts));
-                        }
-
-                        @Override
-                        public void onFailure(Exception e) {
-                            // Handle failure
-                            listener.onFailure(e);
-                        }
-                    });
-                } else {
-                    // If there are no update requests, return an empty response
-                    listener.onResponse(new AckCorrelationAlertsResponse(acknowledgedAlerts, failedAlerts));
-                }
-            }
-
-            @Override
-            public void onFailure(Exception e) {
-                // Handle failure
-                listener.onFailure(e);
-            }
-        });
+                listener.onResponse(new AckCorrelationAlertsResponse(acknowledgedAlerts, failedAlerts));
+            }, listener::onFailure));
+        }, listener::onFailure));
     }
 
+    /**
+     * Moves all alerts of the correlation rule into the ERROR state with a single update by query.
+     */
     public void updateCorrelationAlertsWithError(String correlationRuleId) {
-        BulkRequest bulkRequest = new BulkRequest();
-        BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                .must(QueryBuilders.termQuery("correlation_rule_id", correlationRuleId));
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().query(queryBuilder);
-        SearchRequest searchRequest = new SearchRequest(CorrelationIndices.CORRELATION_ALERT_INDEX)
-                .source(searchSourceBuilder);
-
-        // Execute the search request
-        client.search(searchRequest, new ActionListener<SearchResponse>() {
+        UpdateByQueryRequest updateByQueryRequest = new UpdateByQueryRequest(CorrelationIndices.CORRELATION_ALERT_INDEX)
+                .setQuery(QueryBuilders.termQuery("correlation_rule_id", correlationRuleId))
+                .setScript(new Script(ScriptType.INLINE, "painless",
+                        "ctx._source.state = params.state; ctx._source.error_message = params.error_message",
+                        Map.of("state", Alert.State.ERROR.toString(), "error_message", "The rule associated to this Alert is deleted")))
+                .setAbortOnVersionConflict(false)
+                .setRefresh(true);
+
+        client.execute(UpdateByQueryAction.INSTANCE, updateByQueryRequest, new ActionListener<>() {
             @Override
-            public void onResponse(SearchResponse searchResponse) {
-                // Iterate through the search hits
-                for (SearchHit hit : searchResponse.getHits().getHits()) {
-                    // Construct a script to update the document with the new state and error_message
-                    Script script = new Script(ScriptType.INLINE, "painless",
-                            "ctx._source.state = params.state; ctx._source.error_message = params.error_message",
-                            Map.of("state", Alert.State.ERROR, "error_message", "The rule associated to this Alert is deleted"));
-                    // Create an update request with the script
-                    UpdateRequest updateRequest = new UpdateRequest(CorrelationIndices.CORRELATION_ALERT_INDEX, hit.getId())
-                            .script(script);
-                    // Add the update request to the bulk request
-                    bulkRequest.add(updateRequest);
-                    client.bulk(bulkRequest);
+            public void onResponse(BulkByScrollResponse response) {
+                if (!response.getBulkFailures().isEmpty() || response.getVersionConflicts() > 0) {
+                    log.warn("Failed to update {} alerts of deleted correlation rule {}", response.getBulkFailures().size() + response.getVersionConflicts(), correlationRuleId);
                 }
             }
+
             @Override
             public void onFailure(Exception e) {
-                log.error("Error updating the alerts with Error message for correlation ruleId: {}", correlationRuleId);
+                if (!(ExceptionsHelper.unwrapCause(e) instanceof IndexNotFoundException)) {
+                    log.error("Error updating the alerts with Error message for correlation ruleId: {}", correlationRuleId);
+                }
             }
         });
     }
@@ -308,20 +309,24 @@ public class CorrelationAlertService {
     public List<CorrelationAlert> parseCorrelationAlerts(final SearchResponse response) throws IOException {
         List<CorrelationAlert> alerts = new ArrayList<>();
         for (SearchHit hit : response.getHits()) {
-            CorrelationAlert correlationAlert = getParsedCorrelationAlert(hit);
+            CorrelationAlert correlationAlert = parseCorrelationAlert(hit);
             alerts.add(correlationAlert);
         }
         return alerts;
     }
 
-    private CorrelationAlert getParsedCorrelationAlert(SearchHit hit) throws IOException {
+    public CorrelationAlert parseCorrelationAlert(SearchHit hit) throws IOException {
+        return parseCorrelationAlert(hit.getId(), hit.getVersion(), hit.getSourceAsString());
+    }
+
+    public CorrelationAlert parseCorrelationAlert(String id, long version, String source) throws IOException {
         XContentParser xcp = XContentType.JSON.xContent().createParser(
                 xContentRegistry,
                 LoggingDeprecationHandler.INSTANCE,
-                hit.getSourceAsString()
+                source
         );
         xcp.nextToken();
-        CorrelationAlert correlationAlert = CorrelationAlertsList.parse(xcp, hit.getId(), hit.getVersion());
+        CorrelationAlert correlationAlert = CorrelationAlertsList.parse(xcp, id, version);
         return correlationAlert;
     }
     
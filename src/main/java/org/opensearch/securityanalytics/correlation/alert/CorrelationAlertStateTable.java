@@ -0,0 +1,308 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.alert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.get.MultiGetItemResponse;
+import org.opensearch.action.get.MultiGetRequest;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.client.Client;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.commons.alerting.model.Alert;
+import org.opensearch.commons.alerting.model.CorrelationAlert;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.search.SearchHit;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-local table of the active correlation alerts per correlation rule.
+ *
+ * The alerts of a rule are hydrated from the correlation alerts index with one search for all rules not yet known to
+ * the node, or known without an active alert, and kept up to date with the alerts written through the node. Writes of
+ * existing alerts are conditional on the sequence number the table knows and new alerts are created only if no alert
+ * with their id exists, so an alert changed or created elsewhere (e.g. acknowledged on another node) fails the write.
+ * The conflicting alerts are then read again by id, which unlike a search sees writes not refreshed yet, for the
+ * caller to recompute its writes from.
+ */
+public class CorrelationAlertStateTable {
+
+    private static final Logger log = LogManager.getLogger(CorrelationAlertStateTable.class);
+
+    // bounds how long alerts changed outside of this node can go unnoticed
+    private static final long STATE_RETENTION_MILLIS = TimeValue.timeValueMinutes(1L).millis();
+
+    private final Client client;
+
+    private final CorrelationAlertService correlationAlertService;
+
+    private final ThreadPool threadPool;
+
+    private final Map<String, RuleState> ruleStates = new ConcurrentHashMap<>();
+
+    public CorrelationAlertStateTable(Client client, CorrelationAlertService correlationAlertService, ThreadPool threadPool) {
+        this.client = client;
+        this.correlationAlertService = correlationAlertService;
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * Returns the alerts of the given rules active at the given time, keyed by rule id.
+     */
+    public void getActiveAlerts(Collection<String> ruleIds, long currentTime, ActionListener<Map<String, List<CorrelationAlert>>> listener) {
+        long now = threadPool.relativeTimeInMillis();
+        Set<String> missingRuleIds = new LinkedHashSet<>();
+        for (String ruleId: ruleIds) {
+            RuleState ruleState = ruleStates.get(ruleId);
+            // an alert created elsewhere since the rule was hydrated would go unnoticed, so no active alert is confirmed
+            if (ruleState == null || ruleState.expiresAt < now || activeAlerts(ruleState, currentTime).isEmpty()) {
+                missingRuleIds.add(ruleId);
+            }
+        }
+
+        if (missingRuleIds.isEmpty()) {
+            listener.onResponse(activeAlerts(ruleIds, currentTime));
+            return;
+        }
+
+        correlationAlertService.searchActiveAlerts(missingRuleIds, currentTime, ActionListener.wrap(searchResponse -> {
+            Map<String, RuleState> hydrated = new HashMap<>();
+            for (String ruleId: missingRuleIds) {
+                hydrated.put(ruleId, new RuleState(now + STATE_RETENTION_MILLIS));
+            }
+            for (SearchHit hit: searchResponse.getHits().getHits()) {
+                CorrelationAlert correlationAlert = correlationAlertService.parseCorrelationAlert(hit);
+                RuleState ruleState = hydrated.get(correlationAlert.getCorrelationRuleId());
+                if (ruleState != null) {
+                    ruleState.alerts.put(correlationAlert.getId(), new ActiveAlert(correlationAlert, hit.getSeqNo(), hit.getPrimaryTerm()));
+                }
+            }
+            hydrate(hydrated, now, currentTime);
+            listener.onResponse(activeAlerts(ruleIds, currentTime));
+        }, e -> {
+            if (ExceptionsHelper.unwrapCause(e) instanceof IndexNotFoundException) {
+                Map<String, RuleState> hydrated = new HashMap<>();
+                for (String ruleId: missingRuleIds) {
+                    hydrated.put(ruleId, new RuleState(now + STATE_RETENTION_MILLIS));
+                }
+                hydrate(hydrated, now, currentTime);
+                listener.onResponse(activeAlerts(ruleIds, currentTime));
+            } else {
+                listener.onFailure(e);
+            }
+        }));
+    }
+
+    /**
+     * Writes the created and updated alerts with a single bulk request. New alerts are created, known alerts are
+     * overwritten only if they did not change since the table last saw them. The alerts which conflicted are read again
+     * before the listener completes, so the active alerts of their rules at the current time are up to date.
+     */
+    public void indexAlerts(List<CorrelationAlert> correlationAlerts, long currentTime, TimeValue indexTimeout, ActionListener<IndexedAlerts> listener) {
+        if (correlationAlerts.isEmpty()) {
+            listener.onResponse(new IndexedAlerts(List.of(), List.of()));
+            return;
+        }
+
+        BulkRequest bulkRequest = new BulkRequest().timeout(indexTimeout);
+        try {
+            for (CorrelationAlert correlationAlert: correlationAlerts) {
+                IndexRequest indexRequest = correlationAlertService.getCorrelationAlertIndexRequest(correlationAlert, indexTimeout);
+                ActiveAlert known = knownAlert(correlationAlert);
+                if (known != null) {
+                    indexRequest.setIfSeqNo(known.seqNo).setIfPrimaryTerm(known.primaryTerm);
+                } else {
+                    indexRequest.opType(DocWriteRequest.OpType.CREATE);
+                }
+                bulkRequest.add(indexRequest);
+            }
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+
+        client.bulk(bulkRequest, ActionListener.wrap(bulkResponse -> {
+            List<CorrelationAlert> written = new ArrayList<>();
+            List<CorrelationAlert> conflicted = new ArrayList<>();
+            BulkItemResponse[] items = bulkResponse.getItems();
+            for (int idx = 0; idx < items.length; ++idx) {
+                CorrelationAlert correlationAlert = correlationAlerts.get(idx);
+                String ruleId = correlationAlert.getCorrelationRuleId();
+                if (items[idx].isFailed()) {
+                    if (items[idx].status() == RestStatus.CONFLICT) {
+                        log.debug("Correlation alert {} of correlation rule {} changed concurrently", correlationAlert.getId(), ruleId);
+                        conflicted.add(correlationAlert);
+                    } else {
+                        log.error("Failed to index correlation alert {}: {}", correlationAlert.getId(), items[idx].getFailureMessage());
+                        ruleStates.remove(ruleId);
+                    }
+                } else {
+                    ActiveAlert activeAlert = new ActiveAlert(correlationAlert, items[idx].getResponse().getSeqNo(), items[idx].getResponse().getPrimaryTerm());
+                    ruleStates.computeIfPresent(ruleId, (id, ruleState) -> {
+                        ruleState.alerts.put(correlationAlert.getId(), activeAlert);
+                        return ruleState;
+                    });
+                    written.add(correlationAlert);
+                }
+            }
+
+            if (conflicted.isEmpty()) {
+                listener.onResponse(new IndexedAlerts(written, conflicted));
+                return;
+            }
+            reloadAlerts(conflicted, currentTime, ActionListener.wrap(
+                    reloaded -> listener.onResponse(new IndexedAlerts(written, conflicted)), listener::onFailure));
+        }, listener::onFailure));
+    }
+
+    /**
+     * Reads the alerts again by id and keeps those still active at the current time, with their new sequence numbers.
+     */
+    private void reloadAlerts(List<CorrelationAlert> correlationAlerts, long currentTime, ActionListener<Void> listener) {
+        MultiGetRequest multiGetRequest = new MultiGetRequest();
+        for (CorrelationAlert correlationAlert: correlationAlerts) {
+            multiGetRequest.add(CorrelationIndices.CORRELATION_ALERT_INDEX, correlationAlert.getId());
+        }
+
+        long expiresAt = threadPool.relativeTimeInMillis() + STATE_RETENTION_MILLIS;
+        client.multiGet(multiGetRequest, ActionListener.wrap(multiGetResponse -> {
+            MultiGetItemResponse[] items = multiGetResponse.getResponses();
+            for (int idx = 0; idx < items.length; ++idx) {
+                String ruleId = correlationAlerts.get(idx).getCorrelationRuleId();
+                String alertId = correlationAlerts.get(idx).getId();
+                GetResponse getResponse = items[idx].getResponse();
+                if (items[idx].isFailed() || getResponse == null) {
+                    ruleStates.remove(ruleId);
+                    continue;
+                }
+
+                RuleState ruleState = ruleStates.computeIfAbsent(ruleId, id -> new RuleState(expiresAt));
+                ruleState.alerts.remove(alertId);
+                if (getResponse.isExists()) {
+                    CorrelationAlert correlationAlert = correlationAlertService.parseCorrelationAlert(
+                            getResponse.getId(), getResponse.getVersion(), getResponse.getSourceAsString());
+                    if (correlationAlert.getState() == Alert.State.ACTIVE && isActive(correlationAlert, currentTime)) {
+                        ruleState.alerts.put(alertId, new ActiveAlert(correlationAlert, getResponse.getSeqNo(), getResponse.getPrimaryTerm()));
+                    }
+                }
+            }
+            listener.onResponse(null);
+        }, listener::onFailure));
+    }
+
+    /**
+     * Drops the given alerts from the table, e.g. once they are acknowledged.
+     */
+    public void forgetAlerts(Collection<String> alertIds) {
+        for (RuleState ruleState: ruleStates.values()) {
+            ruleState.alerts.keySet().removeAll(alertIds);
+        }
+    }
+
+    /**
+     * Drops all alerts of the given rule, e.g. once the rule is deleted.
+     */
+    public void forgetRule(String ruleId) {
+        ruleStates.remove(ruleId);
+    }
+
+    private void hydrate(Map<String, RuleState> hydrated, long now, long currentTime) {
+        for (Map.Entry<String, RuleState> entry: hydrated.entrySet()) {
+            // a state with an active alert hydrated or written concurrently is at least as recent as the search results
+            ruleStates.compute(entry.getKey(), (ruleId, current) ->
+                    current == null || current.expiresAt < now || activeAlerts(current, currentTime).isEmpty() ? entry.getValue() : current);
+        }
+    }
+
+    private ActiveAlert knownAlert(CorrelationAlert correlationAlert) {
+        RuleState ruleState = ruleStates.get(correlationAlert.getCorrelationRuleId());
+        return ruleState != null ? ruleState.alerts.get(correlationAlert.getId()) : null;
+    }
+
+    private Map<String, List<CorrelationAlert>> activeAlerts(Collection<String> ruleIds, long currentTime) {
+        Map<String, List<CorrelationAlert>> activeAlerts = new HashMap<>();
+        for (String ruleId: ruleIds) {
+            RuleState ruleState = ruleStates.get(ruleId);
+            activeAlerts.put(ruleId, ruleState != null ? activeAlerts(ruleState, currentTime) : new ArrayList<>());
+        }
+        return activeAlerts;
+    }
+
+    private static List<CorrelationAlert> activeAlerts(RuleState ruleState, long currentTime) {
+        List<CorrelationAlert> ruleAlerts = new ArrayList<>();
+        for (ActiveAlert activeAlert: ruleState.alerts.values()) {
+            if (isActive(activeAlert.correlationAlert, currentTime)) {
+                ruleAlerts.add(activeAlert.correlationAlert);
+            }
+        }
+        return ruleAlerts;
+    }
+
+    private static boolean isActive(CorrelationAlert correlationAlert, long currentTime) {
+        Instant currentTimeDate = Instant.ofEpochMilli(currentTime);
+        return !correlationAlert.getStartTime().isAfter(currentTimeDate) && !correlationAlert.getEndTime().isBefore(currentTimeDate);
+    }
+
+    /**
+     * Outcome of a write of alerts: the alerts written, and the ones which conflicted with a concurrent change and
+     * are to be recomputed from the active alerts of their rules.
+     */
+    public static class IndexedAlerts {
+        private final List<CorrelationAlert> written;
+        private final List<CorrelationAlert> conflicted;
+
+        IndexedAlerts(List<CorrelationAlert> written, List<CorrelationAlert> conflicted) {
+            this.written = written;
+            this.conflicted = conflicted;
+        }
+
+        public List<CorrelationAlert> getWritten() {
+            return written;
+        }
+
+        public List<CorrelationAlert> getConflicted() {
+            return conflicted;
+        }
+    }
+
+    private static class RuleState {
+        private final Map<String, ActiveAlert> alerts = new ConcurrentHashMap<>();
+        private final long expiresAt;
+
+        private RuleState(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class ActiveAlert {
+        private final CorrelationAlert correlationAlert;
+        private final long seqNo;
+        private final long primaryTerm;
+
+        private ActiveAlert(CorrelationAlert correlationAlert, long seqNo, long primaryTerm) {
+            this.correlationAlert = correlationAlert;
+            this.seqNo = seqNo;
+            this.primaryTerm = primaryTerm;
+        }
+    }
+}
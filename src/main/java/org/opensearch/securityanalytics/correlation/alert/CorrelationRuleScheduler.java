@@ -6,41 +6,49 @@ package org.opensearch.securityanalytics.correlation.alert;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.opensearch.action.index.IndexResponse;
 import org.opensearch.client.Client;
 import org.opensearch.common.unit.TimeValue;
 import org.opensearch.commons.alerting.model.Alert;
 import org.opensearch.commons.alerting.model.CorrelationAlert;
 import org.opensearch.commons.authuser.User;
 import org.opensearch.core.action.ActionListener;
+import org.opensearch.securityanalytics.correlation.CorrelationMetrics;
 import org.opensearch.securityanalytics.model.CorrelationQuery;
 import org.opensearch.securityanalytics.model.CorrelationRule;
 import org.opensearch.securityanalytics.model.CorrelationRuleTrigger;
 import org.opensearch.securityanalytics.correlation.alert.notifications.NotificationService;
 import org.opensearch.securityanalytics.correlation.alert.notifications.CorrelationAlertContext;
 import org.opensearch.commons.alerting.model.action.Action;
-import org.opensearch.core.rest.RestStatus;
-import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
 import java.time.Instant;
-import java.util.UUID;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class CorrelationRuleScheduler {
 
     private final Logger log = LogManager.getLogger(CorrelationRuleScheduler.class);
+    // bounds the recomputations of alerts which conflicted with alerts written concurrently
+    private static final int MAX_ATTEMPTS = 3;
     private final Client client;
-    private final CorrelationAlertService correlationAlertService;
+    private final CorrelationAlertStateTable correlationAlertStateTable;
     private final NotificationService notificationService;
+    private final CorrelationMetrics correlationMetrics;
 
-    public CorrelationRuleScheduler(Client client, CorrelationAlertService correlationAlertService, NotificationService notificationService) {
+    public CorrelationRuleScheduler(Client client, CorrelationAlertStateTable correlationAlertStateTable, NotificationService notificationService,
+                                    CorrelationMetrics correlationMetrics) {
         this.client = client;
-        this.correlationAlertService = correlationAlertService;
+        this.correlationAlertStateTable = correlationAlertStateTable;
         this.notificationService = notificationService;
+        this.correlationMetrics = correlationMetrics;
     }
 
     public void schedule(List<CorrelationRule> correlationRules, Map<String, List<String>> correlatedFindings, String sourceFinding, TimeValue indexTimeout, User user) {
+        Map<String, List<String>> findingIdsByRule = new HashMap<>();
+        List<CorrelationRule> triggeredRules = new ArrayList<>();
         for (CorrelationRule rule : correlationRules) {
             CorrelationRuleTrigger trigger = rule.getCorrelationTrigger();
             if (trigger != null) {
@@ -51,140 +59,161 @@ public class CorrelationRuleScheduler {
                         findingIds.addAll(categoryFindingIds);
                     }
                 }
-                scheduleRule(rule, findingIds, indexTimeout, sourceFinding, user);
+                findingIdsByRule.put(rule.getId(), findingIds);
+                triggeredRules.add(rule);
             }
         }
-    }
+        if (triggeredRules.isEmpty()) {
+            return;
+        }
 
-    private void scheduleRule(CorrelationRule correlationRule, List<String> findingIds, TimeValue indexTimeout, String sourceFindingId, User user) {
+        long startNanos = correlationMetrics.startNanos();
         long startTime = Instant.now().toEpochMilli();
-        long endTime = startTime + correlationRule.getCorrTimeWindow();
-        RuleTask ruleTask = new RuleTask(correlationRule, findingIds, startTime, endTime, correlationAlertService, notificationService, indexTimeout, sourceFindingId, user);
-        ruleTask.run();
+        scheduleAlerts(triggeredRules, findingIdsByRule, sourceFinding, startTime, indexTimeout, user, 0, startNanos);
     }
 
-    private class RuleTask implements Runnable {
-        private final CorrelationRule correlationRule;
-        private final long startTime;
-        private final long endTime;
-        private final List<String> correlatedFindingIds;
-        private final CorrelationAlertService correlationAlertService;
-        private final NotificationService notificationService;
-        private final TimeValue indexTimeout;
-        private final String sourceFindingId;
-        private final User user;
-
-        public RuleTask(CorrelationRule correlationRule, List<String> correlatedFindingIds, long startTime, long endTime, CorrelationAlertService correlationAlertService, NotificationService notificationService, TimeValue indexTimeout, String sourceFindingId, User user) {
-            this.correlationRule = correlationRule;
-            this.correlatedFindingIds = correlatedFindingIds;
-            this.startTime = startTime;
-            this.endTime = endTime;
-            this.correlationAlertService = correlationAlertService;
-            this.notificationService = notificationService;
-            this.indexTimeout = indexTimeout;
-            this.sourceFindingId = sourceFindingId;
-            this.user = user;
+    /**
+     * Creates or updates the alerts of the rules, then recomputes the alerts which conflicted with alerts written
+     * concurrently, e.g. by another node, from the alerts of their rules read again. Notifications are sent for the
+     * alerts once created.
+     */
+    private void scheduleAlerts(List<CorrelationRule> rules, Map<String, List<String>> findingIdsByRule, String sourceFinding, long startTime,
+                                TimeValue indexTimeout, User user, int attempt, long startNanos) {
+        Map<String, CorrelationRule> rulesById = new LinkedHashMap<>();
+        for (CorrelationRule rule : rules) {
+            rulesById.put(rule.getId(), rule);
         }
+        correlationAlertStateTable.getActiveAlerts(rulesById.keySet(), startTime, new ActionListener<>() {
+            @Override
+            public void onResponse(Map<String, List<CorrelationAlert>> activeAlerts) {
+                List<CorrelationAlert> correlationAlerts = new ArrayList<>();
+                Set<String> newAlertIds = new HashSet<>();
+                for (CorrelationRule rule : rules) {
+                    List<String> findingIds = findingIdsByRule.get(rule.getId());
+                    long endTime = startTime + rule.getCorrTimeWindow();
+                    List<CorrelationAlert> ruleAlerts = activeAlerts.getOrDefault(rule.getId(), List.of());
+                    if (ruleAlerts.isEmpty()) {
+                        CorrelationAlert correlationAlert = newCorrelationAlert(rule, findingIds, startTime, endTime, user, attempt);
+                        correlationAlerts.add(correlationAlert);
+                        newAlertIds.add(correlationAlert.getId());
+                    } else {
+                        for (CorrelationAlert correlationAlert : ruleAlerts) {
+                            correlationAlerts.add(updatedCorrelationAlert(correlationAlert, rule, findingIds, startTime, endTime));
+                        }
+                    }
+                }
 
-        @Override
-        public void run() {
-            long currentTime = Instant.now().toEpochMilli();
-            if (currentTime >= startTime && currentTime <= endTime) {
-                try {
-                    correlationAlertService.getActiveAlerts(correlationRule.getId(), currentTime, new ActionListener<>() {
-                        @Override
-                        public void onResponse(CorrelationAlertsList correlationAlertsList) {
-                            if (correlationAlertsList.getTotalAlerts() == 0) {
-                                addCorrelationAlertIntoIndex();
-                                List<Action> actions = correlationRule.getCorrelationTrigger().getActions();
-                                for (Action action : actions) {
-                                    String configId = action.getDestinationId();
-                                    CorrelationAlertContext ctx = new CorrelationAlertContext(correlatedFindingIds, correlationRule.getName(), correlationRule.getCorrTimeWindow(), sourceFindingId);
-                                    String transformedSubject = notificationService.compileTemplate(ctx, action.getSubjectTemplate());
-                                    String transformedMessage = notificationService.compileTemplate(ctx, action.getMessageTemplate());
-                                    try {
-                                        notificationService.sendNotification(configId, correlationRule.getCorrelationTrigger().getSeverity(), transformedSubject, transformedMessage);
-                                    } catch (Exception e) {
-                                        log.error("Failed while sending a notification with " + configId + "for correlationRule id " + correlationRule.getId(), e);
-                                        new SecurityAnalyticsException("Failed to send notification", RestStatus.INTERNAL_SERVER_ERROR, e);
-                                    }
-
-                                }
-                            } else {
-                                for (CorrelationAlert correlationAlert: correlationAlertsList.getCorrelationAlertList()) {
-                                    updateCorrelationAlert(correlationAlert);
+                correlationAlertStateTable.indexAlerts(correlationAlerts, startTime, indexTimeout, new ActionListener<>() {
+                    @Override
+                    public void onResponse(CorrelationAlertStateTable.IndexedAlerts indexedAlerts) {
+                        correlationMetrics.add(CorrelationMetrics.ALERTS_INDEXED_COUNT, indexedAlerts.getWritten().size());
+                        for (CorrelationAlert correlationAlert : indexedAlerts.getWritten()) {
+                            if (newAlertIds.contains(correlationAlert.getId())) {
+                                String ruleId = correlationAlert.getCorrelationRuleId();
+                                sendNotifications(rulesById.get(ruleId), findingIdsByRule.get(ruleId), sourceFinding);
+                            }
+                        }
+                        log.debug("Successfully updated the index .opensearch-sap-correlation-alerts with {} alerts", indexedAlerts.getWritten().size());
+
+                        if (indexedAlerts.getConflicted().isEmpty()) {
+                            correlationMetrics.record(CorrelationMetrics.ALERTS_SCHEDULE, startNanos);
+                        } else if (attempt + 1 < MAX_ATTEMPTS) {
+                            List<CorrelationRule> conflictedRules = new ArrayList<>();
+                            for (CorrelationAlert correlationAlert : indexedAlerts.getConflicted()) {
+                                CorrelationRule rule = rulesById.get(correlationAlert.getCorrelationRuleId());
+                                if (!conflictedRules.contains(rule)) {
+                                    conflictedRules.add(rule);
                                 }
                             }
+                            scheduleAlerts(conflictedRules, findingIdsByRule, sourceFinding, startTime, indexTimeout, user, attempt + 1, startNanos);
+                        } else {
+                            correlationMetrics.record(CorrelationMetrics.ALERTS_SCHEDULE, startNanos);
+                            correlationMetrics.increment(CorrelationMetrics.ALERT_FAILURES_COUNT);
+                            log.error("Failed to index {} correlation alerts changed concurrently after {} attempts",
+                                    indexedAlerts.getConflicted().size(), MAX_ATTEMPTS);
                         }
+                    }
 
-                        @Override
-                        public void onFailure(Exception e) {
-                            log.error("Failed to search active correlation alert", e);
-                            new SecurityAnalyticsException("Failed to search active correlation alert", RestStatus.INTERNAL_SERVER_ERROR, e);
-                        }
-                    });
-                } catch (Exception e) {
-                    log.error("Failed to fetch active alerts in the time window", e);
-                    new SecurityAnalyticsException("Failed to get active alerts in the correlationRuletimewindow", RestStatus.INTERNAL_SERVER_ERROR, e);
-                }
+                    @Override
+                    public void onFailure(Exception e) {
+                        correlationMetrics.record(CorrelationMetrics.ALERTS_SCHEDULE, startNanos);
+                        correlationMetrics.increment(CorrelationMetrics.ALERT_FAILURES_COUNT);
+                        log.error("Failed to index correlation alerts", e);
+                    }
+                });
             }
-        }
 
-        private void addCorrelationAlertIntoIndex() {
-            CorrelationAlert correlationAlert = new CorrelationAlert(
-                    correlatedFindingIds,
-                    correlationRule.getId(),
-                    correlationRule.getName(),
-                    UUID.randomUUID().toString(),
-                    1L,
-                    1,
-                    user,
-                    correlationRule.getCorrelationTrigger().getName(),
-                    Alert.State.ACTIVE,
-                    Instant.ofEpochMilli(startTime),
-                    Instant.ofEpochMilli(endTime),
-                    null,
-                    null,
-                    correlationRule.getCorrelationTrigger().getSeverity(),
-                    new ArrayList<>()
-            );
-            insertCorrelationAlert(correlationAlert);
-        }
+            @Override
+            public void onFailure(Exception e) {
+                correlationMetrics.record(CorrelationMetrics.ALERTS_SCHEDULE, startNanos);
+                correlationMetrics.increment(CorrelationMetrics.ALERT_FAILURES_COUNT);
+                log.error("Failed to search active correlation alert", e);
+            }
+        });
+    }
 
-        private void updateCorrelationAlert(CorrelationAlert correlationAlert) {
-            CorrelationAlert newCorrelationAlert = new CorrelationAlert(
-                    correlatedFindingIds,
-                    correlationAlert.getCorrelationRuleId(),
-                    correlationAlert.getCorrelationRuleName(),
-                    correlationAlert.getId(),
-                    1L,
-                    1,
-                    correlationAlert.getUser(),
-                    correlationRule.getCorrelationTrigger().getName(),
-                    Alert.State.ACTIVE,
-                    Instant.ofEpochMilli(startTime),
-                    Instant.ofEpochMilli(endTime),
-                    null,
-                    null,
-                    correlationRule.getCorrelationTrigger().getSeverity(),
-                    new ArrayList<>()
-            );
-           insertCorrelationAlert(newCorrelationAlert);
+    private void sendNotifications(CorrelationRule correlationRule, List<String> correlatedFindingIds, String sourceFindingId) {
+        List<Action> actions = correlationRule.getCorrelationTrigger().getActions();
+        for (Action action : actions) {
+            String configId = action.getDestinationId();
+            CorrelationAlertContext ctx = new CorrelationAlertContext(correlatedFindingIds, correlationRule.getName(), correlationRule.getCorrTimeWindow(), sourceFindingId);
+            String transformedSubject = notificationService.compileTemplate(ctx, action.getSubjectTemplate());
+            String transformedMessage = notificationService.compileTemplate(ctx, action.getMessageTemplate());
+            try {
+                notificationService.sendNotification(configId, correlationRule.getCorrelationTrigger().getSeverity(), transformedSubject, transformedMessage);
+            } catch (Exception e) {
+                log.error("Failed while sending a notification with " + configId + "for correlationRule id " + correlationRule.getId(), e);
+            }
         }
+    }
 
-        private void insertCorrelationAlert(CorrelationAlert correlationAlert) {
-            correlationAlertService.indexCorrelationAlert(correlationAlert, indexTimeout, new ActionListener<>() {
-                @Override
-                public void onResponse(IndexResponse indexResponse) {
-                    log.info("Successfully updated the index .opensearch-sap-correlation-alerts: {}", indexResponse);
-                }
+    /**
+     * The id of a new alert of the rule is the same on every node for a time window, so that nodes creating an alert of
+     * the rule concurrently create only one of them. An alert of that id which is not active anymore, e.g. acknowledged,
+     * is not overwritten: the alert is created again with the id of the next attempt.
+     */
+    static String newCorrelationAlertId(CorrelationRule correlationRule, long startTime, int attempt) {
+        long window = startTime / Math.max(1L, correlationRule.getCorrTimeWindow());
+        return correlationRule.getId() + "-" + window + (attempt > 0 ? "-" + attempt : "");
+    }
 
-                @Override
-                public void onFailure(Exception e) {
-                    log.error("Failed to index correlation alert", e);
-                }
-            });
-        }
+    private CorrelationAlert newCorrelationAlert(CorrelationRule correlationRule, List<String> correlatedFindingIds, long startTime, long endTime, User user, int attempt) {
+        return new CorrelationAlert(
+                correlatedFindingIds,
+                correlationRule.getId(),
+                correlationRule.getName(),
+                newCorrelationAlertId(correlationRule, startTime, attempt),
+                1L,
+                1,
+                user,
+                correlationRule.getCorrelationTrigger().getName(),
+                Alert.State.ACTIVE,
+                Instant.ofEpochMilli(startTime),
+                Instant.ofEpochMilli(endTime),
+                null,
+                null,
+                correlationRule.getCorrelationTrigger().getSeverity(),
+                new ArrayList<>()
+        );
     }
-}
 
+    private CorrelationAlert updatedCorrelationAlert(CorrelationAlert correlationAlert, CorrelationRule correlationRule, List<String> correlatedFindingIds, long startTime, long endTime) {
+        return new CorrelationAlert(
+                correlatedFindingIds,
+                correlationAlert.getCorrelationRuleId(),
+                correlationAlert.getCorrelationRuleName(),
+                correlationAlert.getId(),
+                1L,
+                1,
+                correlationAlert.getUser(),
+                correlationRule.getCorrelationTrigger().getName(),
+                Alert.State.ACTIVE,
+                Instant.ofEpochMilli(startTime),
+                Instant.ofEpochMilli(endTime),
+                null,
+                null,
+                correlationRule.getCorrelationTrigger().getSeverity(),
+                new ArrayList<>()
+        );
+    }
+}
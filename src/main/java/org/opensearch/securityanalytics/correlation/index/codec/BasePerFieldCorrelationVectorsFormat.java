@@ -23,17 +23,32 @@ public abstract class BasePerFieldCorrelationVectorsFormat extends PerFieldKnnVe
     private final int defaultBeamWidth;
     private final Supplier<KnnVectorsFormat> defaultFormatSupplier;
     private final BiFunction<Integer, Integer, KnnVectorsFormat> formatSupplier;
+    private final BiFunction<Integer, Integer, KnnVectorsFormat> quantizedFormatSupplier;
 
     public BasePerFieldCorrelationVectorsFormat(Optional<MapperService> mapperService,
                                                 int defaultMaxConnections,
                                                 int defaultBeamWidth,
                                                 Supplier<KnnVectorsFormat> defaultFormatSupplier,
                                                 BiFunction<Integer, Integer, KnnVectorsFormat> formatSupplier) {
+        this(mapperService, defaultMaxConnections, defaultBeamWidth, defaultFormatSupplier, formatSupplier, null);
+    }
+
+    /**
+     * @param quantizedFormatSupplier format of the fields opting in to quantized vectors, null if the codec stores
+     *                                every field with full precision vectors
+     */
+    public BasePerFieldCorrelationVectorsFormat(Optional<MapperService> mapperService,
+                                                int defaultMaxConnections,
+                                                int defaultBeamWidth,
+                                                Supplier<KnnVectorsFormat> defaultFormatSupplier,
+                                                BiFunction<Integer, Integer, KnnVectorsFormat> formatSupplier,
+                                                BiFunction<Integer, Integer, KnnVectorsFormat> quantizedFormatSupplier) {
         this.mapperService = mapperService;
         this.defaultMaxConnections = defaultMaxConnections;
         this.defaultBeamWidth = defaultBeamWidth;
         this.defaultFormatSupplier = defaultFormatSupplier;
         this.formatSupplier = formatSupplier;
+        this.quantizedFormatSupplier = quantizedFormatSupplier;
     }
 
     @Override
@@ -51,6 +66,9 @@ public abstract class BasePerFieldCorrelationVectorsFormat extends PerFieldKnnVe
         int maxConnections = getMaxConnections(params);
         int beamWidth = getBeamWidth(params);
 
+        if (type.isQuantized() && quantizedFormatSupplier != null) {
+            return quantizedFormatSupplier.apply(maxConnections, beamWidth);
+        }
         return formatSupplier.apply(maxConnections, beamWidth);
     }
 
@@ -12,6 +12,8 @@ import org.opensearch.index.mapper.MapperService;
 import org.opensearch.securityanalytics.correlation.index.codec.correlation950.CorrelationCodec950;
 import org.opensearch.securityanalytics.correlation.index.codec.correlation990.CorrelationCodec990;
 import org.opensearch.securityanalytics.correlation.index.codec.correlation990.PerFieldCorrelationVectorsFormat990;
+import org.opensearch.securityanalytics.correlation.index.codec.correlation991.CorrelationCodec991;
+import org.opensearch.securityanalytics.correlation.index.codec.correlation991.PerFieldCorrelationVectorsFormat991;
 import org.opensearch.securityanalytics.correlation.index.codec.correlation950.PerFieldCorrelationVectorsFormat950;
 
 import java.util.Optional;
@@ -32,9 +34,16 @@ public enum CorrelationCodecVersion {
             new PerFieldCorrelationVectorsFormat990(Optional.empty()),
             (userCodec, mapperService) -> new CorrelationCodec990(userCodec, new PerFieldCorrelationVectorsFormat990(Optional.of(mapperService))),
             CorrelationCodec990::new
+    ),
+    V_9_9_1(
+            "CorrelationCodec991",
+            new Lucene99Codec(),
+            new PerFieldCorrelationVectorsFormat991(Optional.empty()),
+            (userCodec, mapperService) -> new CorrelationCodec991(userCodec, new PerFieldCorrelationVectorsFormat991(Optional.of(mapperService))),
+            CorrelationCodec991::new
     );
 
-    private static final CorrelationCodecVersion CURRENT = V_9_9_0;
+    private static final CorrelationCodecVersion CURRENT = V_9_9_1;
     private final String codecName;
     private final Codec defaultCodecDelegate;
     private final PerFieldKnnVectorsFormat perFieldKnnVectorsFormat;
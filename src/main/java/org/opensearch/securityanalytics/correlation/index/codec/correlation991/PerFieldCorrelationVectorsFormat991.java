@@ -0,0 +1,30 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.codec.correlation991;
+
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.opensearch.index.mapper.MapperService;
+import org.opensearch.securityanalytics.correlation.index.codec.BasePerFieldCorrelationVectorsFormat;
+
+import java.util.Optional;
+
+/**
+ * Stores the vectors of correlation vector fields mapped with the int8 encoding with scalar quantization, and the
+ * vectors of other correlation vector fields with full precision.
+ */
+public class PerFieldCorrelationVectorsFormat991 extends BasePerFieldCorrelationVectorsFormat {
+
+    public PerFieldCorrelationVectorsFormat991(final Optional<MapperService> mapperService) {
+        super(
+                mapperService,
+                Lucene99HnswVectorsFormat.DEFAULT_MAX_CONN,
+                Lucene99HnswVectorsFormat.DEFAULT_BEAM_WIDTH,
+                () -> new Lucene99HnswVectorsFormat(),
+                (maxConn, beamWidth) -> new Lucene99HnswVectorsFormat(maxConn, beamWidth),
+                (maxConn, beamWidth) -> new Lucene99HnswScalarQuantizedVectorsFormat(maxConn, beamWidth)
+        );
+    }
+}
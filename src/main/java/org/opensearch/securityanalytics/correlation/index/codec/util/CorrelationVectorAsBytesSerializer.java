@@ -0,0 +1,59 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.codec.util;
+
+import org.apache.lucene.util.BytesRef;
+
+import java.io.ByteArrayInputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Serializes correlation vectors as their raw little-endian floats.
+ *
+ * Vectors written by {@link CorrelationVectorAsArraySerializer} are still read. Java serialization of a float[] starts
+ * with the stream magic and is 27 bytes longer than its floats, so its length is never a multiple of a float.
+ */
+public class CorrelationVectorAsBytesSerializer implements CorrelationVectorSerializer {
+
+    private static final VarHandle FLOATS = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final CorrelationVectorSerializer LEGACY_SERIALIZER = new CorrelationVectorAsArraySerializer();
+
+    @Override
+    public byte[] floatToByteArray(float[] input) {
+        byte[] bytes = new byte[input.length * Float.BYTES];
+        for (int i = 0; i < input.length; ++i) {
+            FLOATS.set(bytes, i * Float.BYTES, input[i]);
+        }
+        return bytes;
+    }
+
+    @Override
+    public float[] byteToFloatArray(ByteArrayInputStream byteStream) {
+        return byteToFloatArray(new BytesRef(byteStream.readAllBytes()));
+    }
+
+    @Override
+    public float[] byteToFloatArray(BytesRef bytesRef) {
+        if (isJavaSerialized(bytesRef)) {
+            return LEGACY_SERIALIZER.byteToFloatArray(bytesRef);
+        }
+
+        float[] vector = new float[bytesRef.length / Float.BYTES];
+        for (int i = 0; i < vector.length; ++i) {
+            vector[i] = (float) FLOATS.get(bytesRef.bytes, bytesRef.offset + i * Float.BYTES);
+        }
+        return vector;
+    }
+
+    private static boolean isJavaSerialized(BytesRef bytesRef) {
+        return bytesRef.length % Float.BYTES != 0
+                && bytesRef.length >= 2
+                && bytesRef.bytes[bytesRef.offset] == (byte) 0xAC
+                && bytesRef.bytes[bytesRef.offset + 1] == (byte) 0xED;
+    }
+}
@@ -4,6 +4,8 @@
  */
 package org.opensearch.securityanalytics.correlation.index.codec.util;
 
+import org.apache.lucene.util.BytesRef;
+
 import java.io.ByteArrayInputStream;
 
 public interface CorrelationVectorSerializer {
@@ -11,4 +13,8 @@ public interface CorrelationVectorSerializer {
     byte[] floatToByteArray(float[] input);
 
     float[] byteToFloatArray(ByteArrayInputStream byteStream);
-}
\ No newline at end of file
+
+    default float[] byteToFloatArray(BytesRef bytesRef) {
+        return byteToFloatArray(new ByteArrayInputStream(bytesRef.bytes, bytesRef.offset, bytesRef.length));
+    }
+}
@@ -70,6 +70,14 @@ public abstract class CorrelationVectorFieldMapper extends ParametrizedFieldMapp
                 m -> toType(m).correlationParams
         );
 
+        protected final Parameter<String> encoding = Parameter.restrictedStringParam(
+                CorrelationConstants.ENCODING,
+                true,
+                m -> toType(m).encoding,
+                CorrelationConstants.ENCODING_FLOAT,
+                CorrelationConstants.ENCODING_INT8
+        );
+
         protected final Parameter<Map<String, String>> meta = Parameter.metaParam();
 
         public Builder(String name) {
@@ -78,7 +86,7 @@ public abstract class CorrelationVectorFieldMapper extends ParametrizedFieldMapp
 
         @Override
         protected List<Parameter<?>> getParameters() {
-            return Arrays.asList(stored, hasDocValues, dimension, meta, correlationParamsContext);
+            return Arrays.asList(stored, hasDocValues, dimension, meta, correlationParamsContext, encoding);
         }
 
         protected Explicit<Boolean> ignoreMalformed(BuilderContext context) {
@@ -103,7 +111,8 @@ public abstract class CorrelationVectorFieldMapper extends ParametrizedFieldMapp
                     buildFullName(context),
                     metaValue,
                     dimension.getValue(),
-                    correlationParams
+                    correlationParams,
+                    encoding.getValue()
             );
 
             LuceneFieldMapper.CreateLuceneFieldMapperInput createLuceneFieldMapperInput =
@@ -140,15 +149,21 @@ public abstract class CorrelationVectorFieldMapper extends ParametrizedFieldMapp
     public static class CorrelationVectorFieldType extends MappedFieldType {
         int dimension;
         CorrelationParamsContext correlationParams;
+        String encoding;
 
         public CorrelationVectorFieldType(String name, Map<String, String> meta, int dimension) {
             this(name, meta, dimension, null);
         }
 
         public CorrelationVectorFieldType(String name, Map<String, String> meta, int dimension, CorrelationParamsContext correlationParams) {
+            this(name, meta, dimension, correlationParams, CorrelationConstants.ENCODING_FLOAT);
+        }
+
+        public CorrelationVectorFieldType(String name, Map<String, String> meta, int dimension, CorrelationParamsContext correlationParams, String encoding) {
             super(name, false, false, true, TextSearchInfo.NONE, meta);
             this.dimension = dimension;
             this.correlationParams = correlationParams;
+            this.encoding = encoding;
         }
 
         @Override
@@ -181,6 +196,17 @@ public abstract class CorrelationVectorFieldMapper extends ParametrizedFieldMapp
         public CorrelationParamsContext getCorrelationParams() {
             return correlationParams;
         }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * Whether the vectors of the field are stored with scalar int8 quantization by codecs supporting it
+         */
+        public boolean isQuantized() {
+            return CorrelationConstants.ENCODING_INT8.equals(encoding);
+        }
     }
 
     protected Explicit<Boolean> ignoreMalformed;
@@ -188,6 +214,7 @@ public abstract class CorrelationVectorFieldMapper extends ParametrizedFieldMapp
     protected boolean hasDocValues;
     protected Integer dimension;
     protected CorrelationParamsContext correlationParams;
+    protected String encoding;
 
     public CorrelationVectorFieldMapper(
             String simpleName,
@@ -203,6 +230,7 @@ public abstract class CorrelationVectorFieldMapper extends ParametrizedFieldMapp
         this.stored = stored;
         this.hasDocValues = hasDocValues;
         this.dimension = mappedFieldType.getDimension();
+        this.encoding = mappedFieldType.getEncoding();
     }
 
     @Override
@@ -780,7 +780,13 @@ public class LogTypeService {
             return null;
         }
 
-        LogType lt = builtinLogTypeLoader.getLogTypeByName(builtinLogType);
+        return ruleFieldMappings(builtinLogTypeLoader.getLogTypeByName(builtinLogType));
+    }
+
+    /**
+     * @return Map of rawField to ecs field of the builtin log type
+     */
+    public static Map<String, String> ruleFieldMappings(LogType lt) {
         if (lt.getMappings() == null) {
             return Map.of();
         } else {
@@ -7,6 +7,7 @@ package org.opensearch.securityanalytics.model;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.Version;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
 import org.opensearch.core.common.io.stream.Writeable;
@@ -58,6 +59,10 @@ public class Rule implements Writeable, ToXContentObject {
 
     private static final String QUERIES = "queries";
     public static final String QUERY_FIELD_NAMES = "query_field_names";
+    public static final String QUERY_DSL = "query_dsl";
+
+    // nodes before it neither send nor read the query DSL of the rules
+    static final Version QUERY_DSL_VERSION = Version.V_3_0_0;
 
     public static final String RULE = "rule";
 
@@ -105,10 +110,13 @@ public class Rule implements Writeable, ToXContentObject {
 
     private List<Value> aggregationQueries;
 
+    private List<Value> queryDsl;
+
     public Rule(String id, Long version, String title, String category, String logSource,
                 String description, List<Value> references, List<Value> tags, String level,
                 List<Value> falsePositives, String author, String status, Instant date,
-                List<Value> queries, List<Value> queryFieldNames, String rule, List<Value> aggregationQueries) {
+                List<Value> queries, List<Value> queryFieldNames, String rule, List<Value> aggregationQueries,
+                List<Value> queryDsl) {
         this.id = id != null? id: NO_ID;
         this.version = version != null? version: NO_VERSION;
 
@@ -132,10 +140,19 @@ public class Rule implements Writeable, ToXContentObject {
         this.queryFieldNames = queryFieldNames;
         this.rule = rule;
         this.aggregationQueries = aggregationQueries;
+        this.queryDsl = queryDsl;
     }
 
     public Rule(String id, Long version, SigmaRule rule, String category,
                 List<Object> queries, List<String> queryFieldNames, String original) {
+        this(id, version, rule, category, queries, List.of(), queryFieldNames, original);
+    }
+
+    /**
+     * @param queryDsl the query DSL conversion of the rule, see {@link org.opensearch.securityanalytics.rules.backend.OSQueryDslBackend}
+     */
+    public Rule(String id, Long version, SigmaRule rule, String category,
+                List<Object> queries, List<Object> queryDsl, List<String> queryFieldNames, String original) {
         this(
                 id,
                 version,
@@ -156,7 +173,8 @@ public class Rule implements Writeable, ToXContentObject {
                 queryFieldNames.stream().map(Value::new).collect(Collectors.toList()),
                 original,
                 // If one of the queries is AggregationQuery -> the whole rule can be considered as Agg
-                queries.stream().filter(query -> query instanceof AggregationQueries).map(it -> new Value(it.toString())).collect(Collectors.toList()));
+                queries.stream().filter(query -> query instanceof AggregationQueries).map(it -> new Value(it.toString())).collect(Collectors.toList()),
+                queryDsl.stream().filter(query -> !(query instanceof AggregationQueries)).map(query -> new Value(query.toString())).collect(Collectors.toList()));
     }
 
     public Rule(StreamInput sin) throws IOException {
@@ -177,7 +195,8 @@ public class Rule implements Writeable, ToXContentObject {
                 sin.readList(Value::readFrom),
                 sin.readList(Value::readFrom),
                 sin.readString(),
-                sin.readList(Value::readFrom)
+                sin.readList(Value::readFrom),
+                sin.getVersion().onOrAfter(QUERY_DSL_VERSION) ? sin.readList(Value::readFrom) : new ArrayList<>()
         );
     }
 
@@ -206,6 +225,9 @@ public class Rule implements Writeable, ToXContentObject {
 
         out.writeString(rule);
         out.writeCollection(aggregationQueries);
+        if (out.getVersion().onOrAfter(QUERY_DSL_VERSION)) {
+            out.writeCollection(queryDsl);
+        }
     }
 
     @Override
@@ -253,6 +275,12 @@ public class Rule implements Writeable, ToXContentObject {
         aggregationsArray = aggregationQueries.toArray(aggregationsArray);
         builder.field(AGGREGATION_QUERIES, aggregationsArray);
 
+        if (!queryDsl.isEmpty()) {
+            Value[] queryDslArray = new Value[]{};
+            queryDslArray = queryDsl.toArray(queryDslArray);
+            builder.field(QUERY_DSL, queryDslArray);
+        }
+
         builder.field(RULE, rule);
         if (params.paramAsBoolean("with_type", false)) {
             builder.endObject();
@@ -299,6 +327,7 @@ public class Rule implements Writeable, ToXContentObject {
         List<Value> queryFields = new ArrayList<>();
         String original = null;
         List<Value> aggregationQueries = new ArrayList<>();
+        List<Value> queryDsl = new ArrayList<>();
 
         XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, xcp.currentToken(), xcp);
         while (xcp.nextToken() != XContentParser.Token.END_OBJECT) {
@@ -363,6 +392,12 @@ public class Rule implements Writeable, ToXContentObject {
                 case RULE:
                     original = xcp.text();
                     break;
+                case QUERY_DSL:
+                    XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_ARRAY, xcp.currentToken(), xcp);
+                    while (xcp.nextToken() != XContentParser.Token.END_ARRAY) {
+                        queryDsl.add(Value.parse(xcp));
+                    }
+                    break;
                 case AGGREGATION_QUERIES:
                     XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_ARRAY, xcp.currentToken(), xcp);
                     while (xcp.nextToken() != XContentParser.Token.END_ARRAY) {
@@ -390,7 +425,8 @@ public class Rule implements Writeable, ToXContentObject {
                 queries,
                 queryFields,
                 Objects.requireNonNull(original, "Rule String is null"),
-                aggregationQueries
+                aggregationQueries,
+                queryDsl
         );
     }
 
@@ -472,6 +508,15 @@ public class Rule implements Writeable, ToXContentObject {
 
     public List<Value> getAggregationQueries() { return aggregationQueries; }
 
+    /**
+     * The query DSL conversion of the rule, as of when the rule was indexed. It is advisory: the rule is run with its
+     * {@link #getQueries() queries}, and the query DSL is not regenerated when the field mappings of the log type of
+     * the rule change afterwards, so it may refer to fields the log type no longer maps.
+     */
+    public List<Value> getQueryDsl() {
+        return queryDsl;
+    }
+
     public boolean isAggregationRule() {
         return aggregationQueries != null && !aggregationQueries.isEmpty();
     }
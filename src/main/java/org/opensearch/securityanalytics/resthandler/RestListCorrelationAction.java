@@ -7,6 +7,7 @@ package org.opensearch.securityanalytics.resthandler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.client.node.NodeClient;
+import org.opensearch.common.unit.TimeValue;
 import org.opensearch.core.xcontent.ToXContent;
 import org.opensearch.rest.BaseRestHandler;
 import org.opensearch.rest.BytesRestResponse;
@@ -50,7 +51,12 @@ public class RestListCorrelationAction extends BaseRestHandler {
         Long startTimestamp = request.paramAsLong("start_timestamp", defaultTimestamp - 300000L);
         Long endTimestamp = request.paramAsLong("end_timestamp", defaultTimestamp);
 
-        ListCorrelationsRequest correlationsRequest = new ListCorrelationsRequest(startTimestamp, endTimestamp);
+        int size = request.paramAsInt("size", ListCorrelationsRequest.DEFAULT_SIZE);
+        String cursor = request.param("cursor");
+        TimeValue bucketInterval = request.paramAsTime("bucket_interval", null);
+
+        ListCorrelationsRequest correlationsRequest = new ListCorrelationsRequest(startTimestamp, endTimestamp, size, cursor,
+                bucketInterval != null ? bucketInterval.millis() : null);
         return channel -> {
             client.execute(ListCorrelationsAction.INSTANCE, correlationsRequest, new RestListCorrelationAction.RestListCorrelationResponseListener(channel, request));
         };
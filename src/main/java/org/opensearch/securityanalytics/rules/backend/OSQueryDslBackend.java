@@ -0,0 +1,404 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.rules.backend;
+
+import org.apache.commons.lang3.NotImplementedException;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.index.query.RangeQueryBuilder;
+import org.opensearch.securityanalytics.rules.aggregation.AggregationItem;
+import org.opensearch.securityanalytics.rules.backend.OSQueryBackend.AggregationQueries;
+import org.opensearch.securityanalytics.rules.condition.ConditionAND;
+import org.opensearch.securityanalytics.rules.condition.ConditionFieldEqualsValueExpression;
+import org.opensearch.securityanalytics.rules.condition.ConditionItem;
+import org.opensearch.securityanalytics.rules.condition.ConditionNOT;
+import org.opensearch.securityanalytics.rules.condition.ConditionOR;
+import org.opensearch.securityanalytics.rules.condition.ConditionType;
+import org.opensearch.securityanalytics.rules.condition.ConditionValueExpression;
+import org.opensearch.securityanalytics.rules.exceptions.SigmaValueError;
+import org.opensearch.securityanalytics.rules.types.Placeholder;
+import org.opensearch.securityanalytics.rules.types.SigmaBool;
+import org.opensearch.securityanalytics.rules.types.SigmaCIDRExpression;
+import org.opensearch.securityanalytics.rules.types.SigmaCompareExpression;
+import org.opensearch.securityanalytics.rules.types.SigmaNumber;
+import org.opensearch.securityanalytics.rules.types.SigmaRegularExpression;
+import org.opensearch.securityanalytics.rules.types.SigmaString;
+import org.opensearch.securityanalytics.rules.types.SigmaType;
+import org.opensearch.securityanalytics.rules.utils.AnyOneOf;
+import org.opensearch.securityanalytics.rules.utils.Either;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backend converting Sigma rules into typed query DSL trees instead of query_string strings.
+ *
+ * Every condition item becomes a {@link QueryBuilder}: plain strings become match_phrase queries, analyzed the same
+ * way as the field they search, strings with wildcards case insensitive prefix or wildcard queries and regular
+ * expressions regexp queries, both on the {@value #KEYWORD_SUBFIELD} subfield of the field since they match the
+ * whole value rather than its tokens. Numbers and booleans become term queries, comparisons range queries, nulls
+ * exists queries and the boolean operators bool queries. Disjunctions of numbers on a single field are collapsed into
+ * a terms query. Negations are pushed down with De Morgan's laws and negated field items require the field to exist,
+ * the same as {@link OSQueryBackend}, which keeps the query fields of both backends identical.
+ *
+ * Values without a field have no typed equivalent and are still converted to a query_string query searching the
+ * default fields.
+ */
+public class OSQueryDslBackend extends QueryBackend {
+
+    private static final String ESCAPE_CHAR = "\\";
+
+    static final String KEYWORD_SUBFIELD = "keyword";
+
+    private static final String WILDCARD_MULTI = "*";
+
+    private static final String WILDCARD_SINGLE = "?";
+
+    private static final String QUERY_STRING_ESCAPED = "/:\\+-=><!(){}[]^\"~*?";
+
+    private static final String QUERY_STRING_RESERVED = "&& ||";
+
+    private final OSQueryBackend aggregationBackend;
+
+    public OSQueryDslBackend(Map<String, String> fieldMappings, boolean collectErrors, boolean enableFieldMappings) throws IOException {
+        super(fieldMappings, true, enableFieldMappings, true, collectErrors);
+        // aggregations are not expressed as queries, both backends share them
+        this.aggregationBackend = new OSQueryBackend(fieldMappings, collectErrors, enableFieldMappings);
+    }
+
+    @Override
+    public Object convertConditionAsInExpression(Either<ConditionAND, ConditionOR> condition, boolean isConditionNot, boolean applyDeMorgans) {
+        if (condition.isLeft()) {
+            return this.convertConditionAnd(condition.getLeft(), isConditionNot, applyDeMorgans);
+        }
+        return this.convertConditionOr(condition.get(), isConditionNot, applyDeMorgans);
+    }
+
+    @Override
+    public Object convertConditionAnd(ConditionAND condition, boolean isConditionNot, boolean applyDeMorgans) {
+        try {
+            List<QueryBuilder> clauses = this.convertArgs(condition, isConditionNot, applyDeMorgans);
+            // if applyDeMorgans is true, then use OR instead of AND
+            return applyDeMorgans ? this.disjunction(clauses) : this.conjunction(clauses);
+        } catch (Exception ex) {
+            throw new NotImplementedException("Operator 'and' not supported by the backend");
+        }
+    }
+
+    @Override
+    public Object convertConditionOr(ConditionOR condition, boolean isConditionNot, boolean applyDeMorgans) {
+        try {
+            QueryBuilder termsQuery = this.convertAsTermsQuery(condition, applyDeMorgans);
+            if (termsQuery != null) {
+                return termsQuery;
+            }
+            List<QueryBuilder> clauses = this.convertArgs(condition, isConditionNot, applyDeMorgans);
+            // if applyDeMorgans is true, then use AND instead of OR
+            return applyDeMorgans ? this.conjunction(clauses) : this.disjunction(clauses);
+        } catch (Exception ex) {
+            throw new NotImplementedException("Operator 'or' not supported by the backend");
+        }
+    }
+
+    @Override
+    public Object convertConditionNot(ConditionNOT condition, boolean isConditionNot, boolean applyDeMorgans) {
+        Either<AnyOneOf<ConditionItem, ConditionFieldEqualsValueExpression, ConditionValueExpression>, String> arg = condition.getArgs().get(0);
+        try {
+            if (arg.isLeft()) {
+                // a negation nested in a negated group cancels it out
+                return this.convertCondition(this.argType(arg.getLeft()), true, !applyDeMorgans);
+            }
+        } catch (Exception ex) {
+            throw new NotImplementedException("Operator 'not' not supported by the backend");
+        }
+        return null;
+    }
+
+    @Override
+    public Object convertConditionFieldEqValNot(ConditionType conditionType, boolean isConditionNot, boolean applyDeMorgans) throws SigmaValueError {
+        QueryBuilder query = (QueryBuilder) this.convertConditionFieldEqVal(conditionType.getEqualsValueExpression(), isConditionNot, applyDeMorgans);
+        QueryBuilder exists = (QueryBuilder) this.convertExistsField(conditionType.getEqualsValueExpression());
+        return QueryBuilders.boolQuery().must(query).must(exists);
+    }
+
+    @Override
+    public Object convertExistsField(ConditionFieldEqualsValueExpression condition) {
+        return QueryBuilders.existsQuery(this.getMappedField(condition.getField()));
+    }
+
+    @Override
+    public Object convertConditionFieldEqValStr(ConditionFieldEqualsValueExpression condition, boolean applyDeMorgans) {
+        SigmaString value = (SigmaString) condition.getValue();
+        String field = this.getMappedField(condition.getField());
+        ruleQueryFields.put(field, Map.of("type", "text", "analyzer", "rule_analyzer"));
+
+        QueryBuilder query;
+        if (!value.containsWildcard()) {
+            query = QueryBuilders.matchPhraseQuery(field, plainValue(value));
+        } else if (isPrefix(value)) {
+            query = QueryBuilders.prefixQuery(keywordField(field), plainValue(value)).caseInsensitive(true);
+        } else {
+            query = QueryBuilders.wildcardQuery(keywordField(field), wildcardValue(value)).caseInsensitive(true);
+        }
+        return negate(query, applyDeMorgans);
+    }
+
+    @Override
+    public Object convertConditionFieldEqValNum(ConditionFieldEqualsValueExpression condition, boolean applyDeMorgans) {
+        String field = this.getMappedField(condition.getField());
+        SigmaNumber number = (SigmaNumber) condition.getValue();
+        ruleQueryFields.put(field, number.getNumOpt().isLeft()? Collections.singletonMap("type", "integer"): Collections.singletonMap("type", "float"));
+        return negate(QueryBuilders.termQuery(field, numberValue(number)), applyDeMorgans);
+    }
+
+    @Override
+    public Object convertConditionFieldEqValBool(ConditionFieldEqualsValueExpression condition, boolean applyDeMorgans) {
+        String field = this.getMappedField(condition.getField());
+        ruleQueryFields.put(field, Collections.singletonMap("type", "boolean"));
+        return negate(QueryBuilders.termQuery(field, ((SigmaBool) condition.getValue()).isaBoolean()), applyDeMorgans);
+    }
+
+    @Override
+    public Object convertConditionFieldEqValNull(ConditionFieldEqualsValueExpression condition, boolean applyDeMorgans) {
+        String field = this.getMappedField(condition.getField());
+        ruleQueryFields.put(field, Map.of("type", "text", "analyzer", "rule_analyzer"));
+        if (applyDeMorgans) {
+            return QueryBuilders.existsQuery(field);
+        }
+        return QueryBuilders.boolQuery().mustNot(QueryBuilders.existsQuery(field));
+    }
+
+    @Override
+    public Object convertConditionFieldEqValRe(ConditionFieldEqualsValueExpression condition, boolean applyDeMorgans) {
+        String field = this.getMappedField(condition.getField());
+        ruleQueryFields.put(field, Map.of("type", "text", "analyzer", "rule_analyzer"));
+        return negate(QueryBuilders.regexpQuery(keywordField(field), ((SigmaRegularExpression) condition.getValue()).getRegexp()), applyDeMorgans);
+    }
+
+    @Override
+    public Object convertConditionFieldEqValCidr(ConditionFieldEqualsValueExpression condition, boolean applyDeMorgans) {
+        String field = this.getMappedField(condition.getField());
+        ruleQueryFields.put(field, Map.of("type", "text", "analyzer", "rule_analyzer"));
+        return negate(QueryBuilders.termQuery(field, ((SigmaCIDRExpression) condition.getValue()).convert()), applyDeMorgans);
+    }
+
+    @Override
+    public Object convertConditionFieldEqValOpVal(ConditionFieldEqualsValueExpression condition, boolean applyDeMorgans) {
+        SigmaCompareExpression value = (SigmaCompareExpression) condition.getValue();
+        Object number = numberValue(value.getNumber());
+        RangeQueryBuilder query = QueryBuilders.rangeQuery(this.getMappedField(condition.getField()));
+        switch (value.getOp()) {
+            case SigmaCompareExpression.CompareOperators.GT:
+                query.gt(number);
+                break;
+            case SigmaCompareExpression.CompareOperators.GTE:
+                query.gte(number);
+                break;
+            case SigmaCompareExpression.CompareOperators.LT:
+                query.lt(number);
+                break;
+            case SigmaCompareExpression.CompareOperators.LTE:
+                query.lte(number);
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected compare operator in condition parse tree: " + value.getOp());
+        }
+        return negate(query, applyDeMorgans);
+    }
+
+    /**
+     * Method used when structure of Sigma Rule does not have a field associated with the condition item and the value
+     * is a SigmaString type
+     */
+    @Override
+    public Object convertConditionValStr(ConditionValueExpression condition, boolean applyDeMorgans) throws SigmaValueError {
+        SigmaString value = (SigmaString) condition.getValue();
+        String converted = value.convert(ESCAPE_CHAR, WILDCARD_MULTI, WILDCARD_SINGLE, QUERY_STRING_ESCAPED, QUERY_STRING_RESERVED, "");
+        return negate(QueryBuilders.queryStringQuery(value.containsWildcard()? converted: "\"" + converted + "\""), applyDeMorgans);
+    }
+
+    /**
+     * Method used when structure of Sigma Rule does not have a field associated with the condition item and the value
+     * is a SigmaNumber type
+     */
+    @Override
+    public Object convertConditionValNum(ConditionValueExpression condition, boolean applyDeMorgans) {
+        return negate(QueryBuilders.queryStringQuery("\"" + condition.getValue().toString() + "\""), applyDeMorgans);
+    }
+
+    /**
+     * Method used when structure of Sigma Rule does not have a field associated with the condition item and the value
+     * is a SigmaRegularExpression type
+     */
+    @Override
+    public Object convertConditionValRe(ConditionValueExpression condition, boolean applyDeMorgans) {
+        String regexp = ((SigmaRegularExpression) condition.getValue()).escape(List.of("\""), ESCAPE_CHAR);
+        return negate(QueryBuilders.queryStringQuery("/" + regexp + "/"), applyDeMorgans);
+    }
+
+    @Override
+    public AggregationQueries convertAggregation(AggregationItem aggregation) {
+        return aggregationBackend.convertAggregation(aggregation);
+    }
+
+    private List<QueryBuilder> convertArgs(ConditionItem condition, boolean isConditionNot, boolean applyDeMorgans) throws SigmaValueError {
+        List<QueryBuilder> clauses = new ArrayList<>();
+        for (Either<AnyOneOf<ConditionItem, ConditionFieldEqualsValueExpression, ConditionValueExpression>, String> arg: condition.getArgs()) {
+            if (arg.isLeft()) {
+                Object converted = this.convertCondition(this.argType(arg.getLeft()), isConditionNot, applyDeMorgans);
+                if (converted != null) {
+                    clauses.add((QueryBuilder) converted);
+                }
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * Collapses a disjunction of numbers on a single field into one terms query, returns null if the disjunction cannot
+     * be collapsed. Strings are not collapsed, a terms query would not analyze them.
+     */
+    private QueryBuilder convertAsTermsQuery(ConditionOR condition, boolean applyDeMorgans) {
+        if (condition.getArgs().size() < 2) {
+            return null;
+        }
+        String field = null;
+        Map<String, Object> fieldType = null;
+        List<Object> values = new ArrayList<>();
+        for (Either<AnyOneOf<ConditionItem, ConditionFieldEqualsValueExpression, ConditionValueExpression>, String> arg: condition.getArgs()) {
+            if (!arg.isLeft() || !arg.getLeft().isMiddle()) {
+                return null;
+            }
+            ConditionFieldEqualsValueExpression expression = arg.getLeft().getMiddle();
+            String argField = this.getMappedField(expression.getField());
+            if (field != null && !field.equals(argField)) {
+                return null;
+            }
+            field = argField;
+
+            SigmaType value = expression.getValue();
+            Map<String, Object> argFieldType;
+            if (value instanceof SigmaNumber) {
+                values.add(numberValue((SigmaNumber) value));
+                argFieldType = ((SigmaNumber) value).getNumOpt().isLeft()? Collections.singletonMap("type", "integer"): Collections.singletonMap("type", "float");
+            } else {
+                return null;
+            }
+            if (fieldType != null && !fieldType.equals(argFieldType)) {
+                return null;
+            }
+            fieldType = argFieldType;
+        }
+
+        ruleQueryFields.put(field, fieldType);
+        QueryBuilder query = QueryBuilders.termsQuery(field, values);
+        if (applyDeMorgans) {
+            // every negated field item requires the field to exist
+            return QueryBuilders.boolQuery().mustNot(query).must(QueryBuilders.existsQuery(field));
+        }
+        return query;
+    }
+
+    private ConditionType argType(AnyOneOf<ConditionItem, ConditionFieldEqualsValueExpression, ConditionValueExpression> arg) {
+        if (arg.isLeft()) {
+            ConditionItem item = arg.getLeft();
+            if (item instanceof ConditionAND) {
+                return new ConditionType(Either.left(AnyOneOf.leftVal((ConditionAND) item)));
+            } else if (item instanceof ConditionOR) {
+                return new ConditionType(Either.left(AnyOneOf.middleVal((ConditionOR) item)));
+            }
+            return new ConditionType(Either.left(AnyOneOf.rightVal((ConditionNOT) item)));
+        } else if (arg.isMiddle()) {
+            return new ConditionType(Either.right(Either.left(arg.getMiddle())));
+        }
+        return new ConditionType(Either.right(Either.right(arg.get())));
+    }
+
+    private QueryBuilder conjunction(List<QueryBuilder> clauses) {
+        if (clauses.size() == 1) {
+            return clauses.get(0);
+        }
+        BoolQueryBuilder query = QueryBuilders.boolQuery();
+        clauses.forEach(query::must);
+        return query;
+    }
+
+    private QueryBuilder disjunction(List<QueryBuilder> clauses) {
+        if (clauses.size() == 1) {
+            return clauses.get(0);
+        }
+        BoolQueryBuilder query = QueryBuilders.boolQuery();
+        clauses.forEach(query::should);
+        return query;
+    }
+
+    private static QueryBuilder negate(QueryBuilder query, boolean applyDeMorgans) {
+        return applyDeMorgans? QueryBuilders.boolQuery().mustNot(query): query;
+    }
+
+    private static Object numberValue(SigmaNumber number) {
+        return number.getNumOpt().isLeft()? number.getNumOpt().getLeft(): number.getNumOpt().get();
+    }
+
+    /**
+     * The value matched by a term or prefix query, the wildcards are dropped and nothing is escaped.
+     */
+    private static String plainValue(SigmaString value) {
+        StringBuilder s = new StringBuilder();
+        for (AnyOneOf<String, Character, Placeholder> sOptElem: value.getsOpt()) {
+            if (sOptElem.isLeft()) {
+                s.append(sOptElem.getLeft());
+            }
+        }
+        return s.toString();
+    }
+
+    /**
+     * The pattern of a wildcard query, only the wildcard characters and the escape character are escaped.
+     */
+    private static String wildcardValue(SigmaString value) {
+        StringBuilder s = new StringBuilder();
+        for (AnyOneOf<String, Character, Placeholder> sOptElem: value.getsOpt()) {
+            if (sOptElem.isLeft()) {
+                for (char c: sOptElem.getLeft().toCharArray()) {
+                    if (c == SigmaString.SpecialChars.WILDCARD_MULTI || c == SigmaString.SpecialChars.WILDCARD_SINGLE
+                            || c == SigmaString.SpecialChars.ESCAPE_CHAR) {
+                        s.append(ESCAPE_CHAR);
+                    }
+                    s.append(c);
+                }
+            } else if (sOptElem.isMiddle()) {
+                s.append(sOptElem.getMiddle());
+            }
+        }
+        return s.toString();
+    }
+
+    private static boolean isPrefix(SigmaString value) {
+        List<AnyOneOf<String, Character, Placeholder>> sOpt = value.getsOpt();
+        for (int i = 0; i < sOpt.size(); ++i) {
+            AnyOneOf<String, Character, Placeholder> sOptElem = sOpt.get(i);
+            if (sOptElem.isMiddle() && (i < sOpt.size() - 1 || sOptElem.getMiddle() != SigmaString.SpecialChars.WILDCARD_MULTI)) {
+                return false;
+            }
+        }
+        return sOpt.size() > 1;
+    }
+
+    private static String keywordField(String field) {
+        return field + "." + KEYWORD_SUBFIELD;
+    }
+
+    private String getMappedField(String field) {
+        if (this.enableFieldMappings && this.fieldMappings.containsKey(field) && this.fieldMappings.get(field) != null) {
+            return this.fieldMappings.get(field);
+        }
+        return field;
+    }
+}
@@ -31,6 +31,13 @@ import java.util.Objects;
 
 public class SigmaCondition {
 
+    // ANTLR lexers and parsers can be reset for a new input but are not thread-safe, each thread reuses its own
+    private static final ThreadLocal<ConditionParser> CONDITION_PARSER =
+            ThreadLocal.withInitial(() -> new ConditionParser(new CommonTokenStream(new ConditionLexer(CharStreams.fromString("")))));
+
+    private static final ThreadLocal<AggregationParser> AGGREGATION_PARSER =
+            ThreadLocal.withInitial(() -> new AggregationParser(new CommonTokenStream(new AggregationLexer(CharStreams.fromString("")))));
+
     private final String identifier = "[a-zA-Z0-9-_]+";
 
     private final List<String> quantifier = List.of("1", "any", "all");
@@ -47,10 +54,6 @@ public class SigmaCondition {
 
     private SigmaDetections detections;
 
-    private ConditionParser parser;
-
-    private AggregationParser aggParser;
-
     private ConditionTraverseVisitor conditionVisitor;
 
     private AggregationTraverseVisitor aggVisitor;
@@ -66,18 +69,13 @@ public class SigmaCondition {
 
         this.detections = detections;
 
-        ConditionLexer lexer = new ConditionLexer(CharStreams.fromString(this.condition));
-        this.parser = new ConditionParser(new CommonTokenStream(lexer));
         this.conditionVisitor = new ConditionTraverseVisitor(this);
-
-        AggregationLexer aggLexer = new AggregationLexer(CharStreams.fromString(this.aggregation));
-        this.aggParser = new AggregationParser(new CommonTokenStream(aggLexer));
         this.aggVisitor = new AggregationTraverseVisitor();
     }
 
     public Pair<ConditionItem, AggregationItem> parsed() throws SigmaConditionError {
         ConditionItem parsedConditionItem;
-        Either<ConditionItem, String> itemOrCondition = conditionVisitor.visit(parser.start());
+        Either<ConditionItem, String> itemOrCondition = conditionVisitor.visit(conditionParser(condition).start());
         if (itemOrCondition.isLeft()) {
             parsedConditionItem = itemOrCondition.getLeft();
         } else {
@@ -88,7 +86,7 @@ public class SigmaCondition {
 
         AggregationItem parsedAggItem = null;
         if (!this.aggregation.isEmpty()) {
-            aggVisitor.visit(aggParser.comparison_expr());
+            aggVisitor.visit(aggregationParser(aggregation).comparison_expr());
             parsedAggItem = aggVisitor.getAggregationItem();
         }
         return Pair.of(parsedConditionItem, parsedAggItem);
@@ -109,6 +107,22 @@ public class SigmaCondition {
         return newArgs;
     }
 
+    private static ConditionParser conditionParser(String condition) {
+        ConditionParser parser = CONDITION_PARSER.get();
+        ConditionLexer lexer = (ConditionLexer) parser.getTokenStream().getTokenSource();
+        lexer.setInputStream(CharStreams.fromString(condition));
+        parser.setTokenStream(new CommonTokenStream(lexer));
+        return parser;
+    }
+
+    private static AggregationParser aggregationParser(String aggregation) {
+        AggregationParser parser = AGGREGATION_PARSER.get();
+        AggregationLexer lexer = (AggregationLexer) parser.getTokenStream().getTokenSource();
+        lexer.setInputStream(CharStreams.fromString(aggregation));
+        parser.setTokenStream(new CommonTokenStream(lexer));
+        return parser;
+    }
+
     private AnyOneOf<ConditionItem, ConditionFieldEqualsValueExpression, ConditionValueExpression> parsed(String token) throws SigmaConditionError {
         List<String> subTokens = List.of(token.split(" "));
         if (subTokens.size() < 3 && token.matches(identifier)) {
@@ -29,6 +29,14 @@ import java.util.UUID;
 
 public class SigmaRule {
 
+    // Yaml instances are not thread-safe, each thread reuses its own
+    private static final ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(() -> {
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setNestingDepthLimit(10);
+
+        return new Yaml(new SafeConstructor(new LoaderOptions()), new Representer(new DumperOptions()), new DumperOptions(), loaderOptions);
+    });
+
     private String title;
 
     private SigmaLogSource logSource;
@@ -196,11 +204,7 @@ public class SigmaRule {
     }
 
     public static SigmaRule fromYaml(String rule, boolean collectErrors) {
-        LoaderOptions loaderOptions = new LoaderOptions();
-        loaderOptions.setNestingDepthLimit(10);
-
-        Yaml yaml = new Yaml(new SafeConstructor(new LoaderOptions()), new Representer(new DumperOptions()), new DumperOptions(), loaderOptions);
-        Map<String, Object> ruleMap = yaml.load(rule);
+        Map<String, Object> ruleMap = YAML.get().load(rule);
         return fromDict(ruleMap, collectErrors);
     }
 
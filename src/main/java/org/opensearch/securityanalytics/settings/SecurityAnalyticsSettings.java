@@ -12,6 +12,7 @@ import java.util.concurrent.TimeUnit;
 
 public class SecurityAnalyticsSettings {
     public static final String CORRELATION_INDEX = "index.correlation";
+    public static final String CORRELATION_RULES_VERSION = "index.correlation_rules.version";
 
     public static Setting<TimeValue> INDEX_TIMEOUT = Setting.positiveTimeSetting("plugins.security_analytics.index_timeout",
             TimeValue.timeValueSeconds(60),
@@ -55,6 +56,16 @@ public class SecurityAnalyticsSettings {
             Setting.Property.NodeScope, Setting.Property.Dynamic
     );
 
+    /**
+     * Interval at which superseded correlation history records are compacted, zero disables the compaction
+     */
+    public static final Setting<TimeValue> CORRELATION_HISTORY_COMPACTION_INTERVAL = Setting.timeSetting(
+            "plugins.security_analytics.correlation_history_compaction_interval",
+            TimeValue.timeValueHours(6),
+            TimeValue.ZERO,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
     public static final Setting<TimeValue> IOC_FINDING_HISTORY_ROLLOVER_PERIOD = Setting.positiveTimeSetting(
             "plugins.security_analytics.ioc_finding_history_rollover_period",
             TimeValue.timeValueHours(12),
@@ -163,12 +174,183 @@ public class SecurityAnalyticsSettings {
 
     public static final Setting<Boolean> IS_CORRELATION_INDEX_SETTING = Setting.boolSetting(CORRELATION_INDEX, false, Setting.Property.IndexScope);
 
+    /**
+     * Version counter kept on the correlation rule index, bumped on every correlation rule change so that node-local
+     * correlation rule caches are invalidated through the cluster state
+     */
+    public static final Setting<Long> CORRELATION_RULES_VERSION_SETTING = Setting.longSetting(
+            CORRELATION_RULES_VERSION,
+            0L,
+            0L,
+            Setting.Property.IndexScope, Setting.Property.Dynamic
+    );
+
     public static final Setting<TimeValue> CORRELATION_TIME_WINDOW = Setting.positiveTimeSetting(
             "plugins.security_analytics.correlation_time_window",
             new TimeValue(5, TimeUnit.MINUTES),
             Setting.Property.NodeScope, Setting.Property.Dynamic
     );
 
+    /**
+     * Window within which multi-searches of concurrently correlated findings of the same detector type are coalesced.
+     * Zero disables batching
+     */
+    public static final Setting<TimeValue> CORRELATION_BATCH_WINDOW = Setting.timeSetting(
+            "plugins.security_analytics.correlation_batch_window",
+            TimeValue.ZERO,
+            TimeValue.ZERO,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of pending search requests after which a correlation batch is sent before its window elapses
+     */
+    public static final Setting<Integer> CORRELATION_BATCH_SIZE = Setting.intSetting(
+            "plugins.security_analytics.correlation_batch_size",
+            500,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of hits fetched per page by the correlation searches, which page through larger results with a point in
+     * time and search_after
+     */
+    public static final Setting<Integer> CORRELATION_SEARCH_PAGE_SIZE = Setting.intSetting(
+            "plugins.security_analytics.correlation_search_page_size",
+            1000,
+            1,
+            10000,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    public static final Setting<TimeValue> CORRELATION_SEARCH_KEEP_ALIVE = Setting.positiveTimeSetting(
+            "plugins.security_analytics.correlation_search_keep_alive",
+            new TimeValue(1, TimeUnit.MINUTES),
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of hits after which a correlation search stops paging, the rest of its hits are dropped. Zero, the default,
+     * pages through every hit
+     */
+    public static final Setting<Integer> CORRELATION_SEARCH_MAX_HITS = Setting.intSetting(
+            "plugins.security_analytics.correlation_search_max_hits",
+            0,
+            0,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Interval after which buffered correlation history records are written. Zero writes every correlation right away,
+     * still without forcing a refresh
+     */
+    public static final Setting<TimeValue> CORRELATION_WRITER_FLUSH_INTERVAL = Setting.timeSetting(
+            "plugins.security_analytics.correlation_writer_flush_interval",
+            TimeValue.timeValueSeconds(1L),
+            TimeValue.ZERO,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Time, on top of the flush interval, for which correlation history records written through a node stay readable
+     * from its memory, to be comfortably longer than the refresh interval of the correlation history index
+     */
+    public static final Setting<TimeValue> CORRELATION_WRITER_RECENT_RECORDS_RETENTION = Setting.positiveTimeSetting(
+            "plugins.security_analytics.correlation_writer_recent_records_retention",
+            TimeValue.timeValueSeconds(30L),
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of buffered correlation history records after which they are written before the flush interval elapses
+     */
+    public static final Setting<Integer> CORRELATION_WRITER_BATCH_SIZE = Setting.intSetting(
+            "plugins.security_analytics.correlation_writer_batch_size",
+            1000,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of correlation counters every node reserves at once in the correlation metadata index
+     */
+    public static final Setting<Integer> CORRELATION_COUNTER_BLOCK_SIZE = Setting.intSetting(
+            "plugins.security_analytics.correlation_counter_block_size",
+            100,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Interval at which the correlation metadata cached on a node is reconciled with the correlation metadata index
+     */
+    public static final Setting<TimeValue> CORRELATION_METADATA_RECONCILE_INTERVAL = Setting.positiveTimeSetting(
+            "plugins.security_analytics.correlation_metadata_reconcile_interval",
+            TimeValue.timeValueSeconds(1L),
+            Setting.Property.NodeScope
+    );
+
+    /**
+     * Maximum number of findings a node correlates concurrently on the correlation thread pool
+     */
+    public static final Setting<Integer> CORRELATION_MAX_IN_FLIGHT = Setting.intSetting(
+            "plugins.security_analytics.correlation_max_in_flight",
+            1000,
+            1,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Setting which defers the correlation of low severity findings while a node correlates its maximum number of findings,
+     * instead of rejecting them
+     */
+    public static final Setting<Boolean> CORRELATION_LOAD_SHEDDING_ENABLED = Setting.boolSetting(
+            "plugins.security_analytics.correlation_load_shedding_enabled",
+            false,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Time after which the correlation of a deferred finding which has not started is rejected
+     */
+    public static final Setting<TimeValue> CORRELATION_DEFERRAL_TIMEOUT = Setting.positiveTimeSetting(
+            "plugins.security_analytics.correlation_deferral_timeout",
+            new TimeValue(30, TimeUnit.SECONDS),
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of recently correlated findings a node remembers per generation of its processed findings filter, zero
+     * correlates re-published findings again
+     */
+    public static final Setting<Integer> CORRELATION_PROCESSED_FINDINGS_FILTER_SIZE = Setting.intSetting(
+            "plugins.security_analytics.correlation_processed_findings_filter_size",
+            100000,
+            0,
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Age after which a generation of the processed findings filter is rotated, re-published findings are recognized
+     * for at least this long
+     */
+    public static final Setting<TimeValue> CORRELATION_PROCESSED_FINDINGS_RETENTION = Setting.positiveTimeSetting(
+            "plugins.security_analytics.correlation_processed_findings_retention",
+            TimeValue.timeValueHours(1L),
+            Setting.Property.NodeScope, Setting.Property.Dynamic
+    );
+
+    /**
+     * Number of rule conversions a node caches, zero converts every rule again
+     */
+    public static final Setting<Integer> RULE_CONVERSION_CACHE_SIZE = Setting.intSetting(
+            "plugins.security_analytics.rule_conversion_cache_size",
+            10000,
+            0,
+            Setting.Property.NodeScope
+    );
+
     /**
      * Setting which enables auto correlations
      */
@@ -22,6 +22,7 @@ import org.opensearch.securityanalytics.action.AckCorrelationAlertsAction;
 import org.opensearch.securityanalytics.action.AckCorrelationAlertsRequest;
 import org.opensearch.securityanalytics.action.AckCorrelationAlertsResponse;
 import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertService;
+import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertStateTable;
 import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 import org.opensearch.tasks.Task;
 import org.opensearch.threadpool.ThreadPool;
@@ -39,16 +40,19 @@ public class TransportAckCorrelationAlertsAction extends HandledTransportAction<
 
     private final CorrelationAlertService correlationAlertService;
 
+    private final CorrelationAlertStateTable correlationAlertStateTable;
+
     private volatile Boolean filterByEnabled;
 
     private static final Logger log = LogManager.getLogger(TransportGetCorrelationAlertsAction.class);
 
 
     @Inject
-    public TransportAckCorrelationAlertsAction(TransportService transportService, CorrelationAlertService correlationAlertService, ActionFilters actionFilters, ClusterService clusterService, AckCorrelationAlertsAction correlationAckAlertsAction, ThreadPool threadPool, Settings settings, NamedXContentRegistry xContentRegistry, Client client) {
+    public TransportAckCorrelationAlertsAction(TransportService transportService, CorrelationAlertService correlationAlertService, CorrelationAlertStateTable correlationAlertStateTable, ActionFilters actionFilters, ClusterService clusterService, AckCorrelationAlertsAction correlationAckAlertsAction, ThreadPool threadPool, Settings settings, NamedXContentRegistry xContentRegistry, Client client) {
         super(correlationAckAlertsAction.NAME, transportService, actionFilters, AckCorrelationAlertsRequest::new);
         this.xContentRegistry = xContentRegistry;
         this.correlationAlertService = correlationAlertService;
+        this.correlationAlertStateTable = correlationAlertStateTable;
         this.clusterService = clusterService;
         this.threadPool = threadPool;
         this.settings = settings;
@@ -68,6 +72,7 @@ public class TransportAckCorrelationAlertsAction extends HandledTransportAction<
         }
 
         if (!request.getCorrelationAlertIds().isEmpty()) {
+            correlationAlertStateTable.forgetAlerts(request.getCorrelationAlertIds());
             correlationAlertService.acknowledgeAlerts(
                     request.getCorrelationAlertIds(),
                     actionListener
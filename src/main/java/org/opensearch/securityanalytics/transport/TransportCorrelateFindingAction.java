@@ -8,28 +8,29 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.join.ScoreMode;
 import org.opensearch.OpenSearchStatusException;
-import org.opensearch.ResourceNotFoundException;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
 import org.opensearch.cluster.routing.Preference;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.action.ActionRequest;
 import org.opensearch.action.ActionRunnable;
 import org.opensearch.action.admin.indices.create.CreateIndexResponse;
 import org.opensearch.action.bulk.BulkResponse;
-import org.opensearch.action.index.IndexRequest;
 import org.opensearch.action.index.IndexResponse;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.ContextPreservingActionListener;
 import org.opensearch.action.support.HandledTransportAction;
-import org.opensearch.action.support.WriteRequest;
+import org.opensearch.action.support.ThreadedActionListener;
 import org.opensearch.action.support.master.AcknowledgedResponse;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.inject.Inject;
+import org.opensearch.common.lease.Releasable;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.ThreadContext;
 import org.opensearch.common.xcontent.LoggingDeprecationHandler;
-import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.commons.alerting.model.Finding;
 import org.opensearch.commons.alerting.action.PublishFindingsRequest;
@@ -39,7 +40,6 @@ import org.opensearch.commons.authuser.User;
 import org.opensearch.core.common.io.stream.InputStreamStreamInput;
 import org.opensearch.core.common.io.stream.OutputStreamStreamOutput;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
-import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.core.xcontent.XContentParser;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.NestedQueryBuilder;
@@ -48,9 +48,17 @@ import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.securityanalytics.correlation.CorrelationRuleCache;
+import org.opensearch.securityanalytics.correlation.CorrelationAdmissionController;
+import org.opensearch.securityanalytics.correlation.CorrelationCounterAllocator;
+import org.opensearch.securityanalytics.correlation.CorrelationHistoryWriter;
+import org.opensearch.securityanalytics.correlation.CorrelationMetrics;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchBatcher;
+import org.opensearch.securityanalytics.correlation.CorrelationSearchPager;
 import org.opensearch.securityanalytics.correlation.JoinEngine;
+import org.opensearch.securityanalytics.correlation.ProcessedFindingsFilter;
 import org.opensearch.securityanalytics.correlation.VectorEmbeddingsEngine;
-import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertService;
+import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertStateTable;
 import org.opensearch.securityanalytics.correlation.alert.notifications.NotificationService;
 import org.opensearch.securityanalytics.logtype.LogTypeService;
 import org.opensearch.securityanalytics.model.CustomLogType;
@@ -86,6 +94,8 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
 
     private final ClusterService clusterService;
 
+    private final IndexNameExpressionResolver indexNameExpressionResolver;
+
     private final Settings settings;
 
     private final Client client;
@@ -102,10 +112,26 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
 
     private volatile boolean enableAutoCorrelation;
 
-    private final CorrelationAlertService correlationAlertService;
+    private final CorrelationAlertStateTable correlationAlertStateTable;
 
     private final NotificationService notificationService;
 
+    private final CorrelationRuleCache correlationRuleCache;
+
+    private final CorrelationSearchBatcher correlationSearchBatcher;
+
+    private final CorrelationSearchPager correlationSearchPager;
+
+    private final CorrelationHistoryWriter correlationHistoryWriter;
+
+    private final CorrelationCounterAllocator correlationCounterAllocator;
+
+    private final CorrelationAdmissionController correlationAdmissionController;
+
+    private final CorrelationMetrics correlationMetrics;
+
+    private final ProcessedFindingsFilter processedFindingsFilter;
+
     @Inject
     public TransportCorrelateFindingAction(TransportService transportService,
                                            Client client,
@@ -114,8 +140,14 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                                            CorrelationIndices correlationIndices,
                                            LogTypeService logTypeService,
                                            ClusterService clusterService,
+                                           IndexNameExpressionResolver indexNameExpressionResolver,
                                            Settings settings,
-                                           ActionFilters actionFilters, CorrelationAlertService correlationAlertService, NotificationService notificationService) {
+                                           ActionFilters actionFilters, CorrelationAlertStateTable correlationAlertStateTable, NotificationService notificationService,
+                                           CorrelationRuleCache correlationRuleCache, CorrelationSearchBatcher correlationSearchBatcher,
+                                           CorrelationSearchPager correlationSearchPager,
+                                           CorrelationHistoryWriter correlationHistoryWriter, CorrelationCounterAllocator correlationCounterAllocator,
+                                           CorrelationAdmissionController correlationAdmissionController, CorrelationMetrics correlationMetrics,
+                                           ProcessedFindingsFilter processedFindingsFilter) {
         super(AlertingActions.SUBSCRIBE_FINDINGS_ACTION_NAME, transportService, actionFilters, PublishFindingsRequest::new);
         this.client = client;
         this.xContentRegistry = xContentRegistry;
@@ -123,9 +155,18 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
         this.correlationIndices = correlationIndices;
         this.logTypeService = logTypeService;
         this.clusterService = clusterService;
+        this.indexNameExpressionResolver = indexNameExpressionResolver;
         this.settings = settings;
-        this.correlationAlertService = correlationAlertService;
+        this.correlationAlertStateTable = correlationAlertStateTable;
         this.notificationService = notificationService;
+        this.correlationRuleCache = correlationRuleCache;
+        this.correlationSearchBatcher = correlationSearchBatcher;
+        this.correlationSearchPager = correlationSearchPager;
+        this.correlationHistoryWriter = correlationHistoryWriter;
+        this.correlationCounterAllocator = correlationCounterAllocator;
+        this.correlationAdmissionController = correlationAdmissionController;
+        this.correlationMetrics = correlationMetrics;
+        this.processedFindingsFilter = processedFindingsFilter;
         this.threadPool = this.detectorIndices.getThreadPool();
 
         this.indexTimeout = SecurityAnalyticsSettings.INDEX_TIMEOUT.get(this.settings);
@@ -139,9 +180,39 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
 
     @Override
     protected void doExecute(Task task, ActionRequest request, ActionListener<SubscribeFindingsResponse> actionListener) {
+        PublishFindingsRequest transformedRequest;
+        try {
+            transformedRequest = transformRequest(request);
+        } catch (Exception e) {
+            throw new SecurityAnalyticsException("Unknown exception occurred", RestStatus.INTERNAL_SERVER_ERROR, e);
+        }
+        User user = readUserFromThreadContext(this.threadPool);
+
+        // re-published findings, from monitor retries or workflow re-runs, are not correlated again
+        ThreadContext threadContext = this.threadPool.getThreadContext();
+        ActionListener<Boolean> onProcessed = new ContextPreservingActionListener<>(threadContext.newRestorableContext(false), ActionListener.wrap(processed -> {
+            if (processed) {
+                log.debug("Finding {} of monitor {} is already correlated", transformedRequest.getFinding().getId(), transformedRequest.getMonitorId());
+                correlationMetrics.increment(CorrelationMetrics.DUPLICATE_FINDINGS_COUNT);
+                actionListener.onResponse(new SubscribeFindingsResponse(RestStatus.OK));
+                return;
+            }
+
+            correlationAdmissionController.submit(
+                    transformedRequest.getFinding(),
+                    releasable -> correlate(task, transformedRequest, user, releasable, actionListener),
+                    e -> actionListener.onFailure(new OpenSearchStatusException(e.getMessage(), RestStatus.TOO_MANY_REQUESTS, e))
+            );
+        }, actionListener::onFailure));
+        // only the history lookup reads the system index outside of the caller's context
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            processedFindingsFilter.isProcessed(transformedRequest.getFinding().getId(), onProcessed);
+        }
+    }
+
+    private void correlate(Task task, PublishFindingsRequest transformedRequest, User user, Releasable releasable, ActionListener<SubscribeFindingsResponse> actionListener) {
         try {
-            PublishFindingsRequest transformedRequest = transformRequest(request);
-            AsyncCorrelateFindingAction correlateFindingAction = new AsyncCorrelateFindingAction(task, transformedRequest, readUserFromThreadContext(this.threadPool), actionListener);
+            AsyncCorrelateFindingAction correlateFindingAction = new AsyncCorrelateFindingAction(task, transformedRequest, user, releasable, actionListener);
 
             if (!this.correlationIndices.correlationIndexExists()) {
                 try {
@@ -200,7 +271,8 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                 correlateFindingAction.start();
             }
         } catch (Exception e) {
-            throw new SecurityAnalyticsException("Unknown exception occurred", RestStatus.INTERNAL_SERVER_ERROR, e);
+            releasable.close();
+            actionListener.onFailure(new SecurityAnalyticsException("Unknown exception occurred", RestStatus.INTERNAL_SERVER_ERROR, e));
         }
     }
 
@@ -213,14 +285,18 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
         private final AtomicReference<Object> response;
         private final AtomicBoolean counter = new AtomicBoolean();
         private final Task task;
+        private final Releasable releasable;
+        private final long startNanos;
 
-        AsyncCorrelateFindingAction(Task task, PublishFindingsRequest request, User user, ActionListener<SubscribeFindingsResponse> listener) {
+        AsyncCorrelateFindingAction(Task task, PublishFindingsRequest request, User user, Releasable releasable, ActionListener<SubscribeFindingsResponse> listener) {
             this.task = task;
+            this.releasable = releasable;
+            this.startNanos = correlationMetrics.startNanos();
             this.request = request;
             this.listener = listener;
             this.response =new AtomicReference<>();
-            this.joinEngine = new JoinEngine(client, request, xContentRegistry, corrTimeWindow, indexTimeout, this, logTypeService, enableAutoCorrelation, correlationAlertService, notificationService, user);
-            this.vectorEmbeddingsEngine = new VectorEmbeddingsEngine(client, indexTimeout, corrTimeWindow, this);
+            this.joinEngine = new JoinEngine(client, request, xContentRegistry, corrTimeWindow, indexTimeout, this, logTypeService, enableAutoCorrelation, correlationAlertStateTable, notificationService, correlationRuleCache, correlationSearchPager, clusterService, indexNameExpressionResolver, correlationMetrics, user);
+            this.vectorEmbeddingsEngine = new VectorEmbeddingsEngine(client, indexTimeout, corrTimeWindow, correlationSearchPager, correlationHistoryWriter, correlationCounterAllocator, correlationMetrics, this);
         }
 
         void start() {
@@ -249,7 +325,7 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                 searchRequest.preference(Preference.PRIMARY_FIRST.type());
                 searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
 
-                client.search(searchRequest, ActionListener.wrap(response -> {
+                correlationSearchBatcher.search(Detector.DETECTORS_INDEX, searchRequest, onCorrelationThreadPool(ActionListener.wrap(response -> {
                     if (response.isTimedOut()) {
                         onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
                     }
@@ -272,7 +348,7 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                     } else {
                         onFailures(new OpenSearchStatusException("detector not found given monitor id " + request.getMonitorId(), RestStatus.INTERNAL_SERVER_ERROR));
                     }
-                }, this::onFailures));
+                }, this::onFailures)));
             } else {
                 onFailures(new SecurityAnalyticsException(String.format(Locale.getDefault(), "Detector index %s doesnt exist", Detector.DETECTORS_INDEX), RestStatus.INTERNAL_SERVER_ERROR, new RuntimeException()));
             }
@@ -313,64 +389,7 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                                     if (bulkResponse.hasFailures()) {
                                         onFailures(new OpenSearchStatusException(bulkResponse.toString(), RestStatus.INTERNAL_SERVER_ERROR));
                                     }
-
-                                    long findingTimestamp = request.getFinding().getTimestamp().toEpochMilli();
-                                    SearchRequest searchMetadataIndexRequest = getSearchMetadataIndexRequest();
-
-                                    client.search(searchMetadataIndexRequest, ActionListener.wrap(searchMetadataResponse -> {
-                                        if (searchMetadataResponse.getHits().getHits().length == 0) {
-                                            onFailures(new ResourceNotFoundException(
-                                                    "Failed to find hits in metadata index for finding id {}", request.getFinding().getId()));
-                                        }
-
-                                        String id = searchMetadataResponse.getHits().getHits()[0].getId();
-                                        Map<String, Object> hitSource = searchMetadataResponse.getHits().getHits()[0].getSourceAsMap();
-                                        long scoreTimestamp = (long) hitSource.get("scoreTimestamp");
-
-                                        long newScoreTimestamp = findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL;
-                                        if (newScoreTimestamp > scoreTimestamp) {
-                                            try {
-                                                IndexRequest scoreIndexRequest = getCorrelationMetadataIndexRequest(id, newScoreTimestamp);
-
-                                                client.index(scoreIndexRequest, ActionListener.wrap(indexResponse -> {
-                                                    SearchRequest searchRequest = getSearchLogTypeIndexRequest();
-
-                                                    client.search(searchRequest, ActionListener.wrap(searchResponse -> {
-                                                        if (searchResponse.isTimedOut()) {
-                                                            onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                                                        }
-
-                                                        SearchHit[] hits = searchResponse.getHits().getHits();
-                                                        Map<String, CustomLogType> logTypes = new HashMap<>();
-                                                        for (SearchHit hit : hits) {
-                                                            Map<String, Object> sourceMap = hit.getSourceAsMap();
-                                                            logTypes.put(sourceMap.get("name").toString(),
-                                                                    new CustomLogType(sourceMap));
-                                                        }
-
-                                                        if (correlatedFindings != null) {
-                                                            if (correlatedFindings.isEmpty()) {
-                                                                vectorEmbeddingsEngine.insertOrphanFindings(detectorType, request.getFinding(), Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), logTypes);
-                                                            }
-                                                            for (Map.Entry<String, List<String>> correlatedFinding : correlatedFindings.entrySet()) {
-                                                                vectorEmbeddingsEngine.insertCorrelatedFindings(detectorType, request.getFinding(), correlatedFinding.getKey(), correlatedFinding.getValue(),
-                                                                        Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), correlationRules, logTypes);
-                                                            }
-                                                        } else {
-                                                            vectorEmbeddingsEngine.insertOrphanFindings(detectorType, orphanFinding, Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), logTypes);
-                                                        }
-                                                    }, this::onFailures));
-                                                }, this::onFailures));
-                                            } catch (Exception ex) {
-                                                onFailures(ex);
-                                            }
-                                        } else {
-                                            float timestampFeature = Long.valueOf((findingTimestamp - scoreTimestamp) / 1000L).floatValue();
-
-                                            SearchRequest searchRequest =  getSearchLogTypeIndexRequest();
-                                            insertFindings(timestampFeature, searchRequest, correlatedFindings, detectorType, correlationRules, orphanFinding);
-                                        }
-                                    }, this::onFailures));
+                                    getTimestampFeature(detectorType, correlatedFindings, orphanFinding, correlationRules);
                                 }, this::onFailures));
                             } else {
                                 Exception e = new OpenSearchStatusException("Failed to create correlation metadata Index", RestStatus.INTERNAL_SERVER_ERROR);
@@ -379,56 +398,14 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                         }, this::onFailures));
                 } else {
                     long findingTimestamp = this.request.getFinding().getTimestamp().toEpochMilli();
-                    SearchRequest searchMetadataIndexRequest = getSearchMetadataIndexRequest();
 
-                    client.search(searchMetadataIndexRequest, ActionListener.wrap(response -> {
-                        if (response.getHits().getHits().length == 0) {
-                            onFailures(new ResourceNotFoundException(
-                                    "Failed to find hits in metadata index for finding id {}", request.getFinding().getId()));
-                        } else {
-                            String id = response.getHits().getHits()[0].getId();
-                            Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
-                            long scoreTimestamp = (long) hitSource.get("scoreTimestamp");
-
-                            long newScoreTimestamp = findingTimestamp - CorrelationIndices.FIXED_HISTORICAL_INTERVAL;
-                            if (newScoreTimestamp > scoreTimestamp) {
-                                IndexRequest scoreIndexRequest = getCorrelationMetadataIndexRequest(id, newScoreTimestamp);
-
-                                client.index(scoreIndexRequest, ActionListener.wrap(indexResponse -> {
-                                    SearchRequest searchRequest = getSearchLogTypeIndexRequest();
-
-                                    client.search(searchRequest, ActionListener.wrap(searchResponse -> {
-                                        if (searchResponse.isTimedOut()) {
-                                            onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
-                                        }
-
-                                        SearchHit[] hits = searchResponse.getHits().getHits();
-                                        Map<String, CustomLogType> logTypes = new HashMap<>();
-                                        for (SearchHit hit : hits) {
-                                            Map<String, Object> sourceMap = hit.getSourceAsMap();
-                                            logTypes.put(sourceMap.get("name").toString(), new CustomLogType(sourceMap));
-                                        }
+                    long scoreTimestampStartNanos = correlationMetrics.startNanos();
+                    correlationCounterAllocator.scoreTimestamp(findingTimestamp, ActionListener.wrap(scoreTimestamp -> {
+                        correlationMetrics.record(CorrelationMetrics.METADATA_SCORE_TIMESTAMP, scoreTimestampStartNanos);
+                        float timestampFeature = Long.valueOf((findingTimestamp - scoreTimestamp) / 1000L).floatValue();
 
-                                        if (correlatedFindings != null) {
-                                            if (correlatedFindings.isEmpty()) {
-                                                vectorEmbeddingsEngine.insertOrphanFindings(detectorType, request.getFinding(), Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), logTypes);
-                                            }
-                                            for (Map.Entry<String, List<String>> correlatedFinding : correlatedFindings.entrySet()) {
-                                                vectorEmbeddingsEngine.insertCorrelatedFindings(detectorType, request.getFinding(), correlatedFinding.getKey(), correlatedFinding.getValue(),
-                                                        Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), correlationRules, logTypes);
-                                            }
-                                        } else {
-                                            vectorEmbeddingsEngine.insertOrphanFindings(detectorType, orphanFinding, Long.valueOf(CorrelationIndices.FIXED_HISTORICAL_INTERVAL / 1000L).floatValue(), logTypes);
-                                        }
-                                    }, this::onFailures));
-                                }, this::onFailures));
-                            } else {
-                                float timestampFeature = Long.valueOf((findingTimestamp - scoreTimestamp) / 1000L).floatValue();
-
-                                SearchRequest searchRequest = getSearchLogTypeIndexRequest();
-                                insertFindings(timestampFeature, searchRequest, correlatedFindings, detectorType, correlationRules, orphanFinding);
-                            }
-                        }
+                        SearchRequest searchRequest = getSearchLogTypeIndexRequest();
+                        insertFindings(timestampFeature, searchRequest, correlatedFindings, detectorType, correlationRules, orphanFinding);
                     }, this::onFailures));
                 }
             } catch (Exception ex) {
@@ -450,21 +427,8 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
             return searchRequest;
         }
 
-        private IndexRequest getCorrelationMetadataIndexRequest(String id, long newScoreTimestamp) throws IOException {
-            XContentBuilder scoreBuilder = XContentFactory.jsonBuilder().startObject();
-            scoreBuilder.field("scoreTimestamp", newScoreTimestamp);
-            scoreBuilder.field("root", false);
-            scoreBuilder.endObject();
-
-            return new IndexRequest(CorrelationIndices.CORRELATION_METADATA_INDEX)
-                    .id(id)
-                    .source(scoreBuilder)
-                    .timeout(indexTimeout)
-                    .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-        }
-
         private void insertFindings(float timestampFeature, SearchRequest searchRequest, Map<String, List<String>> correlatedFindings, String detectorType, List<String> correlationRules, Finding orphanFinding) {
-            client.search(searchRequest, ActionListener.wrap(response -> {
+            client.search(searchRequest, onCorrelationThreadPool(ActionListener.wrap(response -> {
                 if (response.isTimedOut()) {
                     onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
                 }
@@ -488,23 +452,15 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
                 } else {
                     vectorEmbeddingsEngine.insertOrphanFindings(detectorType, orphanFinding, timestampFeature, logTypes);
                 }
-            }, this::onFailures));
+            }, this::onFailures)));
         }
 
-        private SearchRequest getSearchMetadataIndexRequest() {
-            BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                    .mustNot(QueryBuilders.termQuery("scoreTimestamp", 0L));
-            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-            searchSourceBuilder.query(queryBuilder);
-            searchSourceBuilder.fetchSource(true);
-            searchSourceBuilder.size(1);
-            SearchRequest searchRequest = new SearchRequest();
-            searchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
-            searchRequest.source(searchSourceBuilder);
-            searchRequest.preference(Preference.PRIMARY_FIRST.type());
-            searchRequest.setCancelAfterTimeInterval(TimeValue.timeValueSeconds(30L));
-
-            return searchRequest;
+        /**
+         * Continues an admitted correlation on the correlation thread pool rather than the thread delivering the response.
+         * A continuation rejected by the full pool fails the correlation, which releases its admission.
+         */
+        private <T> ActionListener<T> onCorrelationThreadPool(ActionListener<T> listener) {
+            return new ThreadedActionListener<>(log, threadPool, CorrelationAdmissionController.CORRELATION_THREAD_POOL, listener, false);
         }
 
         public void onOperation() {
@@ -523,6 +479,12 @@ public class TransportCorrelateFindingAction extends HandledTransportAction<Acti
         }
 
         private void finishHim(Exception t) {
+            correlationMetrics.record(CorrelationMetrics.CORRELATION_TOTAL, startNanos);
+            correlationMetrics.increment(t != null ? CorrelationMetrics.CORRELATION_FAILURES_COUNT : CorrelationMetrics.CORRELATIONS_COUNT);
+            if (t == null) {
+                processedFindingsFilter.add(request.getFinding().getId());
+            }
+            releasable.close();
             threadPool.executor(ThreadPool.Names.GENERIC).execute(ActionRunnable.supply(listener, () -> {
                 if (t != null) {
                     if (t instanceof OpenSearchStatusException) {
@@ -0,0 +1,92 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.transport;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.securityanalytics.action.CorrelationNodeStats;
+import org.opensearch.securityanalytics.action.CorrelationStatsAction;
+import org.opensearch.securityanalytics.action.CorrelationStatsRequest;
+import org.opensearch.securityanalytics.action.CorrelationStatsResponse;
+import org.opensearch.securityanalytics.correlation.CorrelationAdmissionController;
+import org.opensearch.securityanalytics.correlation.CorrelationMetrics;
+import org.opensearch.securityanalytics.util.RuleConversionCache;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportRequest;
+import org.opensearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class TransportCorrelationStatsAction extends TransportNodesAction<CorrelationStatsRequest, CorrelationStatsResponse,
+        TransportCorrelationStatsAction.NodeRequest, CorrelationNodeStats> {
+
+    private final CorrelationMetrics correlationMetrics;
+
+    private final CorrelationAdmissionController correlationAdmissionController;
+
+    private final RuleConversionCache ruleConversionCache;
+
+    @Inject
+    public TransportCorrelationStatsAction(ThreadPool threadPool,
+                                           ClusterService clusterService,
+                                           TransportService transportService,
+                                           ActionFilters actionFilters,
+                                           CorrelationMetrics correlationMetrics,
+                                           CorrelationAdmissionController correlationAdmissionController,
+                                           RuleConversionCache ruleConversionCache) {
+        super(CorrelationStatsAction.NAME, threadPool, clusterService, transportService, actionFilters,
+                CorrelationStatsRequest::new, NodeRequest::new, ThreadPool.Names.MANAGEMENT, CorrelationNodeStats.class);
+        this.correlationMetrics = correlationMetrics;
+        this.correlationAdmissionController = correlationAdmissionController;
+        this.ruleConversionCache = ruleConversionCache;
+    }
+
+    @Override
+    protected CorrelationStatsResponse newResponse(CorrelationStatsRequest request, List<CorrelationNodeStats> responses, List<FailedNodeException> failures) {
+        return new CorrelationStatsResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected NodeRequest newNodeRequest(CorrelationStatsRequest request) {
+        return new NodeRequest();
+    }
+
+    @Override
+    protected CorrelationNodeStats newNodeResponse(StreamInput in) throws IOException {
+        return new CorrelationNodeStats(in);
+    }
+
+    @Override
+    protected CorrelationNodeStats nodeOperation(NodeRequest request) {
+        Map<String, Long> counters = correlationMetrics.counters();
+        counters.put("admission.admitted", correlationAdmissionController.getAdmittedCount());
+        counters.put("admission.deferred", correlationAdmissionController.getDeferredCount());
+        counters.put("admission.rejected", correlationAdmissionController.getRejectedCount());
+        counters.put("admission.in_flight", (long) correlationAdmissionController.getInFlight());
+        counters.put("admission.deferred_queue", (long) correlationAdmissionController.getDeferredSize());
+        counters.put("rule_conversion_cache.hits", ruleConversionCache.getHits());
+        counters.put("rule_conversion_cache.misses", ruleConversionCache.getMisses());
+        counters.put("rule_conversion_cache.evictions", ruleConversionCache.getEvictions());
+        counters.put("rule_conversion_cache.size", (long) ruleConversionCache.getSize());
+        return new CorrelationNodeStats(clusterService.localNode(), correlationMetrics.histograms(), counters);
+    }
+
+    public static class NodeRequest extends TransportRequest {
+
+        public NodeRequest() {
+            super();
+        }
+
+        public NodeRequest(StreamInput in) throws IOException {
+            super(in);
+        }
+    }
+}
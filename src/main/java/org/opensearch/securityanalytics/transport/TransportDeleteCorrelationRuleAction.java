@@ -29,7 +29,9 @@ import org.opensearch.core.rest.RestStatus;
 import org.opensearch.securityanalytics.action.DeleteCorrelationRuleAction;
 import org.opensearch.securityanalytics.action.DeleteCorrelationRuleRequest;
 import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertService;
+import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertStateTable;
 import org.opensearch.securityanalytics.model.CorrelationRule;
+import org.opensearch.securityanalytics.util.CorrelationRuleIndices;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
 import org.opensearch.tasks.Task;
 import org.opensearch.transport.TransportService;
@@ -42,17 +44,24 @@ public class TransportDeleteCorrelationRuleAction extends HandledTransportAction
 
     private CorrelationAlertService correlationAlertService;
 
+    private final CorrelationAlertStateTable correlationAlertStateTable;
+
+    private final CorrelationRuleIndices correlationRuleIndices;
 
     @Inject
     public TransportDeleteCorrelationRuleAction(
         TransportService transportService,
         Client client,
         ActionFilters actionFilters,
-        CorrelationAlertService correlationAlertService
+        CorrelationAlertService correlationAlertService,
+        CorrelationAlertStateTable correlationAlertStateTable,
+        CorrelationRuleIndices correlationRuleIndices
     ) {
         super(DeleteCorrelationRuleAction.NAME, transportService, actionFilters, DeleteCorrelationRuleRequest::new);
         this.client = client;
         this.correlationAlertService = correlationAlertService;
+        this.correlationAlertStateTable = correlationAlertStateTable;
+        this.correlationRuleIndices = correlationRuleIndices;
     }
 
     @Override
@@ -82,8 +91,21 @@ public class TransportDeleteCorrelationRuleAction extends HandledTransportAction
                         }
                         // update the alerts assosciated with correlation Rules, with error STATE and errorMessage
                         log.debug("Updating Correlation Alerts with error Message for ruleId: " + correlationRuleId);
+                        correlationAlertStateTable.forgetRule(correlationRuleId);
                         correlationAlertService.updateCorrelationAlertsWithError(correlationRuleId);
-                        listener.onResponse(new AcknowledgedResponse(true));
+                        correlationRuleIndices.bumpCorrelationRulesVersion(new ActionListener<>() {
+                            @Override
+                            public void onResponse(AcknowledgedResponse acknowledgedResponse) {
+                                listener.onResponse(new AcknowledgedResponse(true));
+                            }
+
+                            @Override
+                            public void onFailure(Exception e) {
+                                // without the bump every node keeps serving the deleted correlation rule
+                                log.error("Failed to bump correlation rules version after deleting correlation rule " + correlationRuleId, e);
+                                listener.onFailure(SecurityAnalyticsException.wrap(e));
+                            }
+                        });
                     }
 
                     @Override
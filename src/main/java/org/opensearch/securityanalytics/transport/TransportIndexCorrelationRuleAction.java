@@ -30,6 +30,8 @@ import org.opensearch.core.rest.RestStatus;
 import org.opensearch.securityanalytics.action.IndexCorrelationRuleAction;
 import org.opensearch.securityanalytics.action.IndexCorrelationRuleRequest;
 import org.opensearch.securityanalytics.action.IndexCorrelationRuleResponse;
+import org.opensearch.securityanalytics.correlation.CorrelationQueryCompiler;
+import org.opensearch.securityanalytics.model.CorrelationQuery;
 import org.opensearch.securityanalytics.model.CorrelationRule;
 import org.opensearch.securityanalytics.util.CorrelationRuleIndices;
 import org.opensearch.securityanalytics.util.IndexUtils;
@@ -80,6 +82,13 @@ public class TransportIndexCorrelationRuleAction extends HandledTransportAction<
         }
 
         void start() {
+            try {
+                validateCorrelationQueries();
+            } catch (IllegalArgumentException e) {
+                onFailures(new OpenSearchStatusException(e.getMessage(), RestStatus.BAD_REQUEST));
+                return;
+            }
+
             try {
                 if (!correlationRuleIndices.correlationRuleIndexExists()) {
                     try {
@@ -134,6 +143,16 @@ public class TransportIndexCorrelationRuleAction extends HandledTransportAction<
             }
         }
 
+        /**
+         * Compiles the correlation queries once up front, so malformed queries are rejected instead of failing every
+         * correlation.
+         */
+        private void validateCorrelationQueries() {
+            for (CorrelationQuery query: request.getCorrelationRule().getCorrelationQueries()) {
+                CorrelationQueryCompiler.compile(query.getQuery());
+            }
+        }
+
         void indexCorrelationRule() throws IOException {
             IndexRequest indexRequest;
             if (request.getMethod() == RestRequest.Method.POST) {
@@ -157,7 +176,19 @@ public class TransportIndexCorrelationRuleAction extends HandledTransportAction<
                     if (response.status().equals(RestStatus.CREATED) || response.status().equals(RestStatus.OK)) {
                         CorrelationRule ruleResponse = request.getCorrelationRule();
                         ruleResponse.setId(response.getId());
-                        onOperation(ruleResponse);
+                        correlationRuleIndices.bumpCorrelationRulesVersion(new ActionListener<>() {
+                            @Override
+                            public void onResponse(AcknowledgedResponse acknowledgedResponse) {
+                                onOperation(ruleResponse);
+                            }
+
+                            @Override
+                            public void onFailure(Exception e) {
+                                // without the bump every node keeps serving the previous correlation rules
+                                log.error(String.format(Locale.ROOT, "Failed to bump correlation rules version after indexing correlation rule %s", response.getId()), e);
+                                onFailures(e);
+                            }
+                        });
                     } else {
                         onFailures(new OpenSearchStatusException(response.toString(), RestStatus.INTERNAL_SERVER_ERROR));
                     }
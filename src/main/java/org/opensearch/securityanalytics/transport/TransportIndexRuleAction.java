@@ -48,13 +48,14 @@ import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.FieldMappingDoc;
 import org.opensearch.securityanalytics.model.Rule;
 import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
-import org.opensearch.securityanalytics.rules.backend.QueryBackend;
+import org.opensearch.securityanalytics.rules.backend.OSQueryDslBackend;
 import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
 import org.opensearch.securityanalytics.rules.exceptions.CompositeSigmaErrors;
 import org.opensearch.securityanalytics.rules.objects.SigmaRule;
 import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 import org.opensearch.securityanalytics.util.DetectorIndices;
 import org.opensearch.securityanalytics.util.IndexUtils;
+import org.opensearch.securityanalytics.util.RuleConversionCache;
 import org.opensearch.securityanalytics.util.RuleIndices;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
 import org.opensearch.tasks.Task;
@@ -91,6 +92,8 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
 
     private final LogTypeService logTypeService;
 
+    private final RuleConversionCache ruleConversionCache;
+
     private final Settings settings;
 
     private volatile TimeValue indexTimeout;
@@ -99,7 +102,7 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
     public TransportIndexRuleAction(TransportService transportService, Client client, ActionFilters actionFilters,
                                     ClusterService clusterService, DetectorIndices detectorIndices,
                                     RuleIndices ruleIndices, NamedXContentRegistry xContentRegistry,
-                                    LogTypeService logTypeService, Settings settings) {
+                                    LogTypeService logTypeService, RuleConversionCache ruleConversionCache, Settings settings) {
         super(IndexRuleAction.NAME, transportService, actionFilters, IndexRuleRequest::new);
         this.client = client;
         this.detectorIndices = detectorIndices;
@@ -108,6 +111,7 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
         this.clusterService = clusterService;
         this.xContentRegistry = xContentRegistry;
         this.logTypeService = logTypeService;
+        this.ruleConversionCache = ruleConversionCache;
         this.settings = settings;
 
         this.indexTimeout = SecurityAnalyticsSettings.INDEX_TIMEOUT.get(this.settings);
@@ -206,14 +210,16 @@ public class TransportIndexRuleAction extends HandledTransportAction<IndexRuleRe
                                 onFailures(parsedRule.getErrors());
                                 return;
                             }
-                            QueryBackend backend = new OSQueryBackend(fieldMappings, true, true);
-
-                            List<Object> queries = backend.convertRule(parsedRule);
-                            Set<String> queryFieldNames = backend.getQueryFields().keySet();
+                            RuleConversionCache.Conversion conversion = ruleConversionCache.computeIfAbsent(rule, fieldMappings, () -> RuleConversionCache.convert(
+                                    new OSQueryBackend(fieldMappings, true, true),
+                                    new OSQueryDslBackend(fieldMappings, true, true),
+                                    parsedRule
+                            ));
                             Rule ruleDoc = new Rule(
                                     NO_ID, NO_VERSION, parsedRule, category,
-                                    queries,
-                                    new ArrayList<>(queryFieldNames),
+                                    conversion.getQueries(),
+                                    conversion.getQueryDsl(),
+                                    conversion.getQueryFieldNames(),
                                     rule
                             );
                             indexRule(ruleDoc, fieldMappings);
@@ -7,9 +7,12 @@ package org.opensearch.securityanalytics.transport;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.OpenSearchStatusException;
-import org.opensearch.cluster.routing.Preference;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.action.ActionRunnable;
+import org.opensearch.action.search.CreatePitAction;
+import org.opensearch.action.search.CreatePitRequest;
+import org.opensearch.action.search.DeletePitAction;
+import org.opensearch.action.search.DeletePitRequest;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.ActionFilters;
@@ -18,25 +21,34 @@ import org.opensearch.client.Client;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.inject.Inject;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.SearchHit;
+import org.opensearch.search.aggregations.AggregationBuilders;
+import org.opensearch.search.aggregations.bucket.histogram.Histogram;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.builder.PointInTimeBuilder;
 import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.sort.SortOrder;
 import org.opensearch.securityanalytics.action.ListCorrelationsAction;
+import org.opensearch.securityanalytics.action.ListCorrelationsCursor;
 import org.opensearch.securityanalytics.action.ListCorrelationsRequest;
 import org.opensearch.securityanalytics.action.ListCorrelationsResponse;
 import org.opensearch.securityanalytics.model.CorrelatedFinding;
+import org.opensearch.securityanalytics.model.CorrelationBucket;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 import org.opensearch.securityanalytics.util.CorrelationIndices;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
 import org.opensearch.tasks.Task;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.transport.TransportService;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -56,6 +68,14 @@ public class TransportListCorrelationAction extends HandledTransportAction<ListC
 
     private final ThreadPool threadPool;
 
+    private volatile TimeValue keepAlive;
+
+    private static final String BUCKETS_AGG = "buckets";
+
+    private static final String LOG_TYPES_AGG = "log_types";
+
+    private static final int MAX_LOG_TYPE_PAIRS = 1000;
+
     @Inject
     public TransportListCorrelationAction(TransportService transportService,
                                           Client client,
@@ -69,6 +89,9 @@ public class TransportListCorrelationAction extends HandledTransportAction<ListC
         this.clusterService = clusterService;
         this.settings = settings;
         this.threadPool = this.client.threadPool();
+
+        this.keepAlive = SecurityAnalyticsSettings.CORRELATION_SEARCH_KEEP_ALIVE.get(this.settings);
+        this.clusterService.getClusterSettings().addSettingsUpdateConsumer(SecurityAnalyticsSettings.CORRELATION_SEARCH_KEEP_ALIVE, it -> keepAlive = it);
     }
 
     @Override
@@ -93,10 +116,17 @@ public class TransportListCorrelationAction extends HandledTransportAction<ListC
             this.response =new AtomicReference<>();
         }
 
-        @SuppressWarnings("unchecked")
         void start() {
-            Long startTimestamp = request.getStartTimestamp();
-            Long endTimestamp = request.getEndTimestamp();
+            ListCorrelationsCursor cursor;
+            try {
+                cursor = request.getCursor() != null ? ListCorrelationsCursor.decode(request.getCursor()) : null;
+            } catch (Exception e) {
+                onFailures(new OpenSearchStatusException("Invalid correlations cursor", RestStatus.BAD_REQUEST, e));
+                return;
+            }
+            long startTimestamp = cursor != null ? cursor.getStartTimestamp() : request.getStartTimestamp();
+            long endTimestamp = cursor != null ? cursor.getEndTimestamp() : request.getEndTimestamp();
+            int size = request.getSize();
 
             BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
                     .mustNot(QueryBuilders.matchQuery(
@@ -108,35 +138,79 @@ public class TransportListCorrelationAction extends HandledTransportAction<ListC
                             .lte(endTimestamp));
             SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
             searchSourceBuilder.query(queryBuilder);
-            searchSourceBuilder.fetchSource(true);
-            searchSourceBuilder.size(10000);
+            searchSourceBuilder.fetchSource(new String[]{"finding1", "finding2", "logType", "corrRules"}, null);
+            searchSourceBuilder.size(size);
+            // identical correlations of a finding pair at the same time sort together and are listed once
+            searchSourceBuilder.sort("timestamp", SortOrder.ASC);
+            searchSourceBuilder.sort("finding1", SortOrder.ASC);
+            searchSourceBuilder.sort("finding2", SortOrder.ASC);
+            searchSourceBuilder.trackTotalHits(false);
+
+            if (cursor != null) {
+                searchSourceBuilder.searchAfter(cursor.getSortValues());
+                searchPage(cursor.getPitId(), searchSourceBuilder, startTimestamp, endTimestamp, size);
+                return;
+            }
+
+            // buckets count the whole time range, so they are only aggregated for the first page
+            if (request.getBucketInterval() != null) {
+                searchSourceBuilder.aggregation(AggregationBuilders.histogram(BUCKETS_AGG)
+                        .field("timestamp")
+                        .interval(request.getBucketInterval())
+                        .minDocCount(1L)
+                        .subAggregation(AggregationBuilders.terms(LOG_TYPES_AGG).field("logType").size(MAX_LOG_TYPE_PAIRS)));
+            }
+            searchPage(null, searchSourceBuilder, startTimestamp, endTimestamp, size);
+        }
+
+        /**
+         * Searches a page. The first page searches the correlation history indices, and only a full one opens the point
+         * in time the next pages run on. A failed next page keeps the point in time for the cursor the caller holds to be
+         * retried.
+         */
+        private void searchPage(String pitId, SearchSourceBuilder searchSourceBuilder, long startTimestamp, long endTimestamp, int size) {
             SearchRequest searchRequest = new SearchRequest();
-            searchRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
+            if (pitId != null) {
+                searchSourceBuilder.pointInTimeBuilder(new PointInTimeBuilder(pitId).setKeepAlive(keepAlive));
+            } else {
+                searchRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
+            }
             searchRequest.source(searchSourceBuilder);
-            searchRequest.preference(Preference.PRIMARY_FIRST.type());
 
             client.search(searchRequest, new ActionListener<>() {
                 @Override
                 public void onResponse(SearchResponse response) {
                     if (response.isTimedOut()) {
-                        onFailures(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
+                        onFailure(new OpenSearchStatusException("Search request timed out", RestStatus.REQUEST_TIMEOUT));
+                        return;
                     }
 
-                    Map<String, CorrelatedFinding> correlatedFindings = new HashMap<>();
-                    Iterator<SearchHit> hits = response.getHits().iterator();
-                    while (hits.hasNext()) {
-                        SearchHit hit = hits.next();
-                        Map<String, Object> source = hit.getSourceAsMap();
-
-                        CorrelatedFinding correlatedFinding = new CorrelatedFinding(
-                                source.get("finding1").toString(),
-                                source.get("logType").toString().split("-")[0],
-                                source.get("finding2").toString(),
-                                source.get("logType").toString().split("-")[1],
-                                (List<String>) source.get("corrRules"));
-                        correlatedFindings.put(source.get("finding1").toString() + ":" + source.get("finding2").toString(), correlatedFinding);
+                    try {
+                        SearchHit[] hits = response.getHits().getHits();
+                        List<CorrelatedFinding> correlatedFindings = getCorrelatedFindings(hits);
+                        List<CorrelationBucket> buckets = getBuckets(response);
+
+                        if (size == 0 || hits.length < size) {
+                            if (pitId != null) {
+                                deletePit(pitId);
+                            }
+                            onOperation(new ListCorrelationsResponse(correlatedFindings, null, buckets));
+                            return;
+                        }
+
+                        Object[] sortValues = hits[hits.length - 1].getSortValues();
+                        if (pitId != null) {
+                            onNextCursor(pitId, startTimestamp, endTimestamp, sortValues, correlatedFindings, buckets);
+                            return;
+                        }
+                        // correlations indexed after the first page and sorting after it are still listed by the next pages
+                        CreatePitRequest createPitRequest = new CreatePitRequest(keepAlive, false, CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
+                        client.execute(CreatePitAction.INSTANCE, createPitRequest, ActionListener.wrap(createPitResponse ->
+                                onNextCursor(createPitResponse.getId(), startTimestamp, endTimestamp, sortValues, correlatedFindings, buckets),
+                                this::onFailure));
+                    } catch (Exception e) {
+                        onFailure(e);
                     }
-                    onOperation(new ListCorrelationsResponse(new ArrayList<>(correlatedFindings.values())));
                 }
 
                 @Override
@@ -146,6 +220,52 @@ public class TransportListCorrelationAction extends HandledTransportAction<ListC
             });
         }
 
+        private void onNextCursor(String pitId, long startTimestamp, long endTimestamp, Object[] sortValues,
+                                  List<CorrelatedFinding> correlatedFindings, List<CorrelationBucket> buckets) throws IOException {
+            String nextCursor = new ListCorrelationsCursor(pitId, startTimestamp, endTimestamp, sortValues).encode();
+            onOperation(new ListCorrelationsResponse(correlatedFindings, nextCursor, buckets));
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<CorrelatedFinding> getCorrelatedFindings(SearchHit[] hits) {
+            Map<String, CorrelatedFinding> correlatedFindings = new LinkedHashMap<>();
+            for (SearchHit hit: hits) {
+                Map<String, Object> source = hit.getSourceAsMap();
+
+                CorrelatedFinding correlatedFinding = new CorrelatedFinding(
+                        source.get("finding1").toString(),
+                        source.get("logType").toString().split("-")[0],
+                        source.get("finding2").toString(),
+                        source.get("logType").toString().split("-")[1],
+                        (List<String>) source.get("corrRules"));
+                correlatedFindings.put(source.get("finding1").toString() + ":" + source.get("finding2").toString(), correlatedFinding);
+            }
+            return new ArrayList<>(correlatedFindings.values());
+        }
+
+        private List<CorrelationBucket> getBuckets(SearchResponse response) {
+            if (response.getAggregations() == null || response.getAggregations().get(BUCKETS_AGG) == null) {
+                return null;
+            }
+
+            List<CorrelationBucket> buckets = new ArrayList<>();
+            Histogram histogram = response.getAggregations().get(BUCKETS_AGG);
+            for (Histogram.Bucket bucket: histogram.getBuckets()) {
+                long timestamp = ((Number) bucket.getKey()).longValue();
+                Terms logTypes = bucket.getAggregations().get(LOG_TYPES_AGG);
+                for (Terms.Bucket logType: logTypes.getBuckets()) {
+                    String[] logTypePair = logType.getKeyAsString().split("-");
+                    buckets.add(new CorrelationBucket(timestamp, logTypePair[0], logTypePair[1], logType.getDocCount()));
+                }
+            }
+            return buckets;
+        }
+
+        private void deletePit(String pitId) {
+            client.execute(DeletePitAction.INSTANCE, new DeletePitRequest(List.of(pitId)), ActionListener.wrap(response -> {}, e ->
+                    log.warn("Failed to delete point in time of a correlation listing", e)));
+        }
+
         private void onOperation(ListCorrelationsResponse response) {
             this.response.set(response);
             if (counter.compareAndSet(false, true)) {
@@ -11,10 +11,8 @@ import org.opensearch.OpenSearchStatusException;
 import org.opensearch.cluster.routing.Preference;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.action.ActionRunnable;
-import org.opensearch.action.search.MultiSearchRequest;
-import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.StepListener;
 import org.opensearch.action.search.SearchRequest;
-import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.ActionFilters;
 import org.opensearch.action.support.HandledTransportAction;
 import org.opensearch.client.Client;
@@ -23,16 +21,14 @@ import org.opensearch.common.inject.Inject;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.index.query.BoolQueryBuilder;
-import org.opensearch.index.query.MatchQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.securityanalytics.action.CorrelatedFindingAction;
 import org.opensearch.securityanalytics.action.CorrelatedFindingRequest;
 import org.opensearch.securityanalytics.action.CorrelatedFindingResponse;
-import org.opensearch.securityanalytics.config.monitors.DetectorMonitorConfig;
+import org.opensearch.securityanalytics.correlation.CorrelationCounterAllocator;
 import org.opensearch.securityanalytics.correlation.index.query.CorrelationQueryBuilder;
-import org.opensearch.securityanalytics.model.Detector;
 import org.opensearch.securityanalytics.model.FindingWithScore;
 import org.opensearch.securityanalytics.util.CorrelationIndices;
 import org.opensearch.securityanalytics.util.SecurityAnalyticsException;
@@ -63,19 +59,23 @@ public class TransportSearchCorrelationAction extends HandledTransportAction<Cor
 
     private final ThreadPool threadPool;
 
+    private final CorrelationCounterAllocator correlationCounterAllocator;
+
     @Inject
     public TransportSearchCorrelationAction(TransportService transportService,
                                             Client client,
                                             NamedXContentRegistry xContentRegistry,
                                             ClusterService clusterService,
                                             Settings settings,
-                                            ActionFilters actionFilters) {
+                                            ActionFilters actionFilters,
+                                            CorrelationCounterAllocator correlationCounterAllocator) {
         super(CorrelatedFindingAction.NAME, transportService, actionFilters, CorrelatedFindingRequest::new);
         this.client = client;
         this.xContentRegistry = xContentRegistry;
         this.clusterService = clusterService;
         this.settings = settings;
         this.threadPool = this.client.threadPool();
+        this.correlationCounterAllocator = correlationCounterAllocator;
     }
 
     @Override
@@ -100,183 +100,109 @@ public class TransportSearchCorrelationAction extends HandledTransportAction<Cor
             this.response =new AtomicReference<>();
         }
 
-        @SuppressWarnings("unchecked")
         void start() {
             String findingId = request.getFindingId();
-            String detectorType = request.getDetectorType();
-            long timeWindow = request.getTimeWindow();
-            int noOfNearbyFindings = request.getNoOfNearbyFindings();
 
-            MatchQueryBuilder queryBuilder = QueryBuilders.matchQuery(
-                    "_id", findingId
-            );
+            // the finding record in the correlation history carries the counter and timestamp of the finding, it is
+            // looked up while the score timestamp is read, so only the kNN search of the neighbors follows
+            BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
+                    .must(QueryBuilders.matchQuery(
+                            "finding1", findingId
+                    )).must(QueryBuilders.matchQuery(
+                            "finding2", ""
+                    ));
             SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
             searchSourceBuilder.query(queryBuilder);
             searchSourceBuilder.fetchSource(false);
+            searchSourceBuilder.fetchField("counter");
             searchSourceBuilder.fetchField("timestamp");
             searchSourceBuilder.size(1);
             SearchRequest searchRequest = new SearchRequest();
-            searchRequest.indices(DetectorMonitorConfig.getAllFindingsIndicesPattern(detectorType));
+            searchRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
+            searchRequest.source(searchSourceBuilder);
+            searchRequest.preference(Preference.PRIMARY_FIRST.type());
+
+            StepListener<Long> scoreTimestampListener = new StepListener<>();
+            correlationCounterAllocator.currentScoreTimestamp(scoreTimestampListener);
+            client.search(searchRequest, ActionListener.wrap(response -> {
+                SearchHit[] hits = response.getHits().getHits();
+                if (hits.length == 0) {
+                    onOperation(new CorrelatedFindingResponse(List.of()));
+                    return;
+                }
+
+                long counter = ((Number) hits[0].getFields().get("counter").getValue()).longValue();
+                long findingTimestamp = ((Number) hits[0].getFields().get("timestamp").getValue()).longValue();
+                scoreTimestampListener.whenComplete(scoreTimestamp -> searchNeighbors(counter, findingTimestamp, scoreTimestamp),
+                        this::onFailures);
+            }, this::onFailures));
+        }
+
+        private void searchNeighbors(long counter, long findingTimestamp, long scoreTimestamp) {
+            String findingId = request.getFindingId();
+            long timeWindow = request.getTimeWindow();
+            int noOfNearbyFindings = request.getNoOfNearbyFindings();
+
+            float[] query = new float[3];
+            for (int i = 0; i < 2; ++i) {
+                query[i] = (2.0f * ((float) counter) - 50.0f) / 2.0f;
+            }
+            query[2] = Long.valueOf((findingTimestamp - scoreTimestamp) / 1000L).floatValue();
+
+            CorrelationQueryBuilder correlationQueryBuilder = new CorrelationQueryBuilder("corr_vector", query, noOfNearbyFindings, QueryBuilders.boolQuery()
+                    .mustNot(QueryBuilders.matchQuery(
+                            "finding1", ""
+                    )).mustNot(QueryBuilders.matchQuery(
+                            "finding2", ""
+                    )).filter(QueryBuilders.rangeQuery("timestamp")
+                            .gte(findingTimestamp - timeWindow)
+                            .lte(findingTimestamp + timeWindow)));
+
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(correlationQueryBuilder);
+            searchSourceBuilder.fetchSource(new String[]{"finding1", "finding2", "logType", "corrRules"}, null);
+            searchSourceBuilder.size(noOfNearbyFindings);
+            SearchRequest searchRequest = new SearchRequest();
+            searchRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
             searchRequest.source(searchSourceBuilder);
             searchRequest.preference(Preference.PRIMARY_FIRST.type());
 
-            client.search(searchRequest, new ActionListener<>() {
-                @Override
-                public void onResponse(SearchResponse response) {
-                    SearchHit hit = response.getHits().getAt(0);
-                    long findingTimestamp = hit.getFields().get("timestamp").<Long>getValue();
-
-                    BoolQueryBuilder scoreQueryBuilder = QueryBuilders.boolQuery()
-                            .mustNot(QueryBuilders.termQuery("scoreTimestamp", 0L));
-                    SearchSourceBuilder scoreSearchSourceBuilder = new SearchSourceBuilder();
-                    scoreSearchSourceBuilder.query(scoreQueryBuilder);
-                    scoreSearchSourceBuilder.fetchSource(true);
-                    scoreSearchSourceBuilder.size(1);
-                    SearchRequest scoreSearchRequest = new SearchRequest();
-                    scoreSearchRequest.indices(CorrelationIndices.CORRELATION_METADATA_INDEX);
-                    scoreSearchRequest.source(scoreSearchSourceBuilder);
-                    scoreSearchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-                    client.search(scoreSearchRequest, new ActionListener<>() {
-                        @Override
-                        public void onResponse(SearchResponse response) {
-                            Map<String, Object> hitSource = response.getHits().getHits()[0].getSourceAsMap();
-                            long scoreTimestamp = (long) hitSource.get("scoreTimestamp");
-
-                            BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery()
-                                    .must(QueryBuilders.matchQuery(
-                                            "finding1", findingId
-                                    )).must(QueryBuilders.matchQuery(
-                                            "finding2", ""
-                                    ));
-
-                            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                            searchSourceBuilder.query(queryBuilder);
-                            searchSourceBuilder.fetchSource(false);
-                            searchSourceBuilder.fetchField("counter");
-                            searchSourceBuilder.size(1);
-                            SearchRequest searchRequest = new SearchRequest();
-                            searchRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
-                            searchRequest.source(searchSourceBuilder);
-                            searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-                            client.search(searchRequest, new ActionListener<>() {
-                                @Override
-                                public void onResponse(SearchResponse response) {
-                                    MultiSearchRequest mSearchRequest = new MultiSearchRequest();
-                                    SearchHit[] hits = response.getHits().getHits();
-
-                                    for (SearchHit hit: hits) {
-                                        long counter = hit.getFields().get("counter").<Long>getValue();
-                                        float[] query = new float[3];
-                                        for (int i = 0; i < 2; ++i) {
-                                            query[i] = (2.0f * ((float) counter) - 50.0f) / 2.0f;
-                                        }
-                                        query[2] = Long.valueOf((findingTimestamp - scoreTimestamp) / 1000L).floatValue();
-
-                                        CorrelationQueryBuilder correlationQueryBuilder = new CorrelationQueryBuilder("corr_vector", query, noOfNearbyFindings, QueryBuilders.boolQuery()
-                                                .mustNot(QueryBuilders.matchQuery(
-                                                        "finding1", ""
-                                                )).mustNot(QueryBuilders.matchQuery(
-                                                        "finding2", ""
-                                                )).filter(QueryBuilders.rangeQuery("timestamp")
-                                                        .gte(findingTimestamp - timeWindow)
-                                                        .lte(findingTimestamp + timeWindow)));
-
-                                        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-                                        searchSourceBuilder.query(correlationQueryBuilder);
-                                        searchSourceBuilder.fetchSource(true);
-                                        searchSourceBuilder.size(noOfNearbyFindings);
-                                        SearchRequest searchRequest = new SearchRequest();
-                                        searchRequest.indices(CorrelationIndices.CORRELATION_HISTORY_INDEX_PATTERN_REGEXP);
-                                        searchRequest.source(searchSourceBuilder);
-                                        searchRequest.preference(Preference.PRIMARY_FIRST.type());
-
-                                        mSearchRequest.add(searchRequest);
-                                    }
-
-                                    client.multiSearch(mSearchRequest, new ActionListener<>() {
-                                        @Override
-                                        public void onResponse(MultiSearchResponse items) {
-                                            MultiSearchResponse.Item[] responses = items.getResponses();
-                                            Map<Pair<String, String>, Pair<Double, Set<String>>> correlatedFindings = new HashMap<>();
-
-                                            for (MultiSearchResponse.Item response : responses) {
-                                                if (response.isFailure()) {
-                                                    log.info(response.getFailureMessage());
-                                                    continue;
-                                                }
-
-                                                SearchHit[] hits = response.getResponse().getHits().getHits();
-                                                for (SearchHit hit: hits) {
-                                                    Map<String, Object> source = hit.getSourceAsMap();
-                                                    if (!source.get("finding1").toString().equals(findingId)) {
-                                                        Pair<String, String> findingKey1 = Pair.of(source.get("finding1").toString(), source.get("logType").toString().split("-")[0]);
-
-                                                        if (correlatedFindings.containsKey(findingKey1)) {
-                                                            double score = Math.max(correlatedFindings.get(findingKey1).getLeft(), hit.getScore());
-                                                            Set<String> rules = correlatedFindings.get(findingKey1).getRight();
-                                                            rules.addAll((List<String>) source.get("corrRules"));
-
-                                                            correlatedFindings.put(findingKey1, Pair.of(score, rules));
-                                                        } else {
-                                                            Set<String> rules = new HashSet<>((List<String>) source.get("corrRules"));
-                                                            correlatedFindings.put(findingKey1, Pair.of((double) hit.getScore(), rules));
-                                                        }
-                                                    }
-                                                    if (!source.get("finding2").toString().equals(findingId)) {
-                                                        Pair<String, String> findingKey2 = Pair.of(source.get("finding2").toString(), source.get("logType").toString().split("-")[1]);
-
-                                                        if (correlatedFindings.containsKey(findingKey2)) {
-                                                            double score =  Math.max(correlatedFindings.get(findingKey2).getLeft(), hit.getScore());
-                                                            Set<String> rules = correlatedFindings.get(findingKey2).getRight();
-                                                            rules.addAll((List<String>) source.get("corrRules"));
-
-                                                            correlatedFindings.put(findingKey2, Pair.of(score, rules));
-                                                        } else {
-                                                            Set<String> rules = new HashSet<>((List<String>) source.get("corrRules"));
-                                                            correlatedFindings.put(findingKey2, Pair.of((double) hit.getScore(), rules));
-                                                        }
-                                                    }
-                                                }
-                                            }
-
-                                            List<FindingWithScore> findingWithScores = new ArrayList<>();
-                                            for (Map.Entry<Pair<String, String>, Pair<Double, Set<String>>> correlatedFinding: correlatedFindings.entrySet()) {
-                                                findingWithScores.add(new FindingWithScore(correlatedFinding.getKey().getKey(), correlatedFinding.getKey().getValue(),
-                                                        correlatedFinding.getValue().getLeft(), new ArrayList<>(correlatedFinding.getValue().getRight())));
-                                            }
-
-                                            onOperation(new CorrelatedFindingResponse(findingWithScores));
-                                        }
-
-                                        @Override
-                                        public void onFailure(Exception e) {
-                                            onFailures(e);
-                                        }
-                                    });
-                                }
-
-                                @Override
-                                public void onFailure(Exception e) {
-                                    onFailures(e);
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onFailure(Exception e) {
-                            onFailures(e);
-                        }
-                    });
+            client.search(searchRequest, ActionListener.wrap(response -> {
+                Map<Pair<String, String>, Pair<Double, Set<String>>> correlatedFindings = new HashMap<>();
+
+                for (SearchHit hit: response.getHits().getHits()) {
+                    Map<String, Object> source = hit.getSourceAsMap();
+                    String[] logTypes = source.get("logType").toString().split("-");
+                    @SuppressWarnings("unchecked")
+                    List<String> rules = (List<String>) source.get("corrRules");
+
+                    if (!source.get("finding1").toString().equals(findingId)) {
+                        addCorrelatedFinding(correlatedFindings, Pair.of(source.get("finding1").toString(), logTypes[0]), hit.getScore(), rules);
+                    }
+                    if (!source.get("finding2").toString().equals(findingId)) {
+                        addCorrelatedFinding(correlatedFindings, Pair.of(source.get("finding2").toString(), logTypes[1]), hit.getScore(), rules);
+                    }
                 }
 
-                @Override
-                public void onFailure(Exception e) {
-                    onFailures(e);
+                List<FindingWithScore> findingWithScores = new ArrayList<>();
+                for (Map.Entry<Pair<String, String>, Pair<Double, Set<String>>> correlatedFinding: correlatedFindings.entrySet()) {
+                    findingWithScores.add(new FindingWithScore(correlatedFinding.getKey().getKey(), correlatedFinding.getKey().getValue(),
+                            correlatedFinding.getValue().getLeft(), new ArrayList<>(correlatedFinding.getValue().getRight())));
                 }
-            });
 
+                onOperation(new CorrelatedFindingResponse(findingWithScores));
+            }, this::onFailures));
+        }
+
+        private void addCorrelatedFinding(Map<Pair<String, String>, Pair<Double, Set<String>>> correlatedFindings,
+                                          Pair<String, String> findingKey, double score, List<String> rules) {
+            Pair<Double, Set<String>> existing = correlatedFindings.get(findingKey);
+            if (existing != null) {
+                existing.getRight().addAll(rules);
+                correlatedFindings.put(findingKey, Pair.of(Math.max(existing.getLeft(), score), existing.getRight()));
+            } else {
+                correlatedFindings.put(findingKey, Pair.of(score, new HashSet<>(rules)));
+            }
         }
 
         private void onOperation(CorrelatedFindingResponse response) {
@@ -0,0 +1,104 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable inverted index over the MITRE auto-correlation data, mapping every ATT&CK tag id to the bitset of
+ * intrusion sets which use it. Intrusion sets are addressed by their ordinal in {@link #intrusionSetIds()}.
+ */
+public class AutoCorrelationsIndex {
+
+    private static final BitSet EMPTY = new BitSet(0);
+
+    private final List<String> intrusionSetIds;
+
+    private final Map<String, BitSet> tagToIntrusionSets;
+
+    private final List<Set<String>> intrusionSetTags;
+
+    public AutoCorrelationsIndex(Map<String, Set<String>> autoCorrelations) {
+        List<String> intrusionSetIds = new ArrayList<>(autoCorrelations.keySet());
+        Collections.sort(intrusionSetIds);
+
+        Map<String, BitSet> tagToIntrusionSets = new HashMap<>();
+        List<Set<String>> intrusionSetTags = new ArrayList<>(intrusionSetIds.size());
+        for (int ord = 0; ord < intrusionSetIds.size(); ++ord) {
+            Set<String> tags = autoCorrelations.get(intrusionSetIds.get(ord));
+            for (String tag: tags) {
+                tagToIntrusionSets.computeIfAbsent(tag, k -> new BitSet(intrusionSetIds.size())).set(ord);
+            }
+            intrusionSetTags.add(Set.copyOf(tags));
+        }
+        this.intrusionSetIds = Collections.unmodifiableList(intrusionSetIds);
+        this.tagToIntrusionSets = Collections.unmodifiableMap(tagToIntrusionSets);
+        this.intrusionSetTags = Collections.unmodifiableList(intrusionSetTags);
+    }
+
+    /**
+     * Returns a new bitset of all intrusion sets which use at least one of the given tags.
+     */
+    public BitSet intrusionSets(Collection<String> tags) {
+        BitSet intrusionSets = new BitSet(intrusionSetIds.size());
+        for (String tag: tags) {
+            intrusionSets.or(tagToIntrusionSets.getOrDefault(tag, EMPTY));
+        }
+        return intrusionSets;
+    }
+
+    /**
+     * Checks whether any of the given tags belongs to one of the given intrusion sets, without materializing the
+     * intrusion sets of the tags.
+     */
+    public boolean intersects(Collection<String> tags, BitSet intrusionSets) {
+        if (intrusionSets.isEmpty()) {
+            return false;
+        }
+        for (String tag: tags) {
+            BitSet tagIntrusionSets = tagToIntrusionSets.get(tag);
+            if (tagIntrusionSets != null && tagIntrusionSets.intersects(intrusionSets)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns every tag a finding may carry to be auto-correlated with a finding carrying the given tags, i.e. the
+     * given tags plus all tags of the intrusion sets they belong to.
+     */
+    public Set<String> candidateTags(Collection<String> tags) {
+        Set<String> candidateTags = new HashSet<>(tags);
+        BitSet intrusionSets = intrusionSets(tags);
+        for (int ord = intrusionSets.nextSetBit(0); ord >= 0; ord = intrusionSets.nextSetBit(ord + 1)) {
+            candidateTags.addAll(intrusionSetTags.get(ord));
+        }
+        return candidateTags;
+    }
+
+    /**
+     * Resolves a bitset of intrusion set ordinals back to intrusion set ids.
+     */
+    public Set<String> intrusionSetIds(BitSet intrusionSets) {
+        Set<String> ids = new HashSet<>();
+        for (int ord = intrusionSets.nextSetBit(0); ord >= 0; ord = intrusionSets.nextSetBit(ord + 1)) {
+            ids.add(intrusionSetIds.get(ord));
+        }
+        return ids;
+    }
+
+    public List<String> intrusionSetIds() {
+        return intrusionSetIds;
+    }
+}
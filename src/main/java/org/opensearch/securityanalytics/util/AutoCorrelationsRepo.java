@@ -20,6 +20,8 @@ import java.util.Set;
 
 public class AutoCorrelationsRepo {
 
+    private static volatile AutoCorrelationsIndex autoCorrelationsIndex;
+
     private static String autoCorrelations() throws IOException {
         return new String(Objects.requireNonNull(AutoCorrelationsRepo.class.getClassLoader().getResourceAsStream("correlations/mitre_correlation.json")).readAllBytes(), Charset.defaultCharset());
     }
@@ -48,6 +50,23 @@ public class AutoCorrelationsRepo {
         return autoCorrelations;
     }
 
+    /**
+     * Returns the node-wide auto-correlation index, loading and parsing the bundled MITRE data on first use only.
+     */
+    public static AutoCorrelationsIndex autoCorrelationsIndex() throws IOException {
+        AutoCorrelationsIndex index = autoCorrelationsIndex;
+        if (index == null) {
+            synchronized (AutoCorrelationsRepo.class) {
+                index = autoCorrelationsIndex;
+                if (index == null) {
+                    index = new AutoCorrelationsIndex(autoCorrelationsAsMap());
+                    autoCorrelationsIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     public static Set<String> validIntrusionSets(Map<String, Set<String>> autoCorrelations, Set<String> tags) {
         Set<String> intrusionSets = new HashSet<>();
         for (Map.Entry<String, Set<String>> autoCorrelation: autoCorrelations.entrySet()) {
@@ -102,6 +102,7 @@ public class CorrelationIndices {
             builder.field("logType", "");
             builder.field("timestamp", currentTimestamp);
             builder.field("scoreTimestamp", 0L);
+            builder.field("epoch", 0L);
             builder.endObject();
 
             IndexRequest indexRequest = new IndexRequest(CORRELATION_METADATA_INDEX)
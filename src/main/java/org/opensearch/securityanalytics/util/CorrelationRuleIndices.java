@@ -10,22 +10,31 @@ package org.opensearch.securityanalytics.util;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.OpenSearchStatusException;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.action.admin.indices.create.CreateIndexRequest;
 import org.opensearch.action.admin.indices.create.CreateIndexResponse;
+import org.opensearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.opensearch.action.support.master.AcknowledgedResponse;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.Randomness;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.core.rest.RestStatus;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Objects;
 import org.opensearch.securityanalytics.model.CorrelationRule;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
 
 public class CorrelationRuleIndices {
     private static final Logger log = LogManager.getLogger(CorrelationRuleIndices.class);
 
+    private static final int MAX_VERSION_BUMP_ATTEMPTS = 3;
+
     private final Client client;
 
     private final ClusterService clusterService;
@@ -56,4 +65,48 @@ public class CorrelationRuleIndices {
         ClusterState clusterState = clusterService.state();
         return clusterState.getRoutingTable().hasIndex(CorrelationRule.CORRELATION_RULE_INDEX);
     }
+
+    /**
+     * Returns a token identifying the current state of the correlation rules, or null if the correlation rule index
+     * does not exist. The token changes whenever the index is recreated or {@link #bumpCorrelationRulesVersion} is called.
+     */
+    public String correlationRulesVersion() {
+        IndexMetadata indexMetadata = clusterService.state().metadata().index(CorrelationRule.CORRELATION_RULE_INDEX);
+        if (indexMetadata == null) {
+            return null;
+        }
+        return indexMetadata.getIndexUUID() + ":" + SecurityAnalyticsSettings.CORRELATION_RULES_VERSION_SETTING.get(indexMetadata.getSettings());
+    }
+
+    /**
+     * Bumps the correlation rules version. Index settings cannot be written conditionally, so every bump writes a
+     * version no concurrent bump can write, the version read plus a random increment. The bump is only acknowledged
+     * once the cluster state holds a version other than the one read, and retried otherwise.
+     */
+    public void bumpCorrelationRulesVersion(ActionListener<AcknowledgedResponse> actionListener) {
+        bumpCorrelationRulesVersion(MAX_VERSION_BUMP_ATTEMPTS, actionListener);
+    }
+
+    private void bumpCorrelationRulesVersion(int attempts, ActionListener<AcknowledgedResponse> actionListener) {
+        IndexMetadata indexMetadata = clusterService.state().metadata().index(CorrelationRule.CORRELATION_RULE_INDEX);
+        if (indexMetadata == null) {
+            actionListener.onResponse(new AcknowledgedResponse(true));
+            return;
+        }
+        long version = SecurityAnalyticsSettings.CORRELATION_RULES_VERSION_SETTING.get(indexMetadata.getSettings());
+        long bumpedVersion = version + 1 + Randomness.get().nextInt(Integer.MAX_VALUE);
+        UpdateSettingsRequest updateSettingsRequest = new UpdateSettingsRequest(CorrelationRule.CORRELATION_RULE_INDEX)
+                .settings(Settings.builder().put(SecurityAnalyticsSettings.CORRELATION_RULES_VERSION, bumpedVersion).build());
+        client.admin().indices().updateSettings(updateSettingsRequest, ActionListener.wrap(response -> {
+            IndexMetadata updatedIndexMetadata = clusterService.state().metadata().index(CorrelationRule.CORRELATION_RULE_INDEX);
+            if (response.isAcknowledged() && (updatedIndexMetadata == null ||
+                    SecurityAnalyticsSettings.CORRELATION_RULES_VERSION_SETTING.get(updatedIndexMetadata.getSettings()) != version)) {
+                actionListener.onResponse(response);
+            } else if (attempts > 1) {
+                bumpCorrelationRulesVersion(attempts - 1, actionListener);
+            } else {
+                actionListener.onFailure(new OpenSearchStatusException("Failed to bump the correlation rules version", RestStatus.INTERNAL_SERVER_ERROR));
+            }
+        }, actionListener::onFailure));
+    }
 }
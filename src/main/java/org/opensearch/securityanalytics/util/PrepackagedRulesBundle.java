@@ -0,0 +1,191 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.core.common.io.stream.InputStreamStreamInput;
+import org.opensearch.core.common.io.stream.OutputStreamStreamOutput;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.securityanalytics.logtype.BuiltinLogTypeLoader;
+import org.opensearch.securityanalytics.logtype.LogTypeService;
+import org.opensearch.securityanalytics.model.LogType;
+import org.opensearch.securityanalytics.model.Rule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bundle of the prepackaged rules compiled at build time, see the compilePrepackagedRules task.
+ *
+ * The bundle holds the rule docs of every builtin log type along with a fingerprint of the rules and the field
+ * mappings they were compiled from. At import, the rule docs of a log type are taken from the bundle when its
+ * fingerprint matches the rules and field mappings of the node, the other log types are compiled.
+ */
+public class PrepackagedRulesBundle {
+
+    private static final Logger log = LogManager.getLogger(PrepackagedRulesBundle.class);
+
+    public static final String BUNDLE_RESOURCE = "prepackaged-rules.bin";
+
+    private static final String MAGIC = "opensearch-sap-prepackaged-rules";
+
+    // bump whenever the rule docs serialization or the query backends change
+    static final int FORMAT_VERSION = 1;
+
+    private PrepackagedRulesBundle() {}
+
+    /**
+     * The bundled rule docs of the categories whose rules and field mappings match the bundle, an empty map if there
+     * is no bundle or it cannot be read.
+     */
+    public static Map<String, List<Rule>> load(Map<String, List<String>> categoryToRules, Map<String, Map<String, String>> categoryToFieldMappings) {
+        try (InputStream is = PrepackagedRulesBundle.class.getClassLoader().getResourceAsStream(BUNDLE_RESOURCE)) {
+            if (is == null) {
+                return Map.of();
+            }
+            Map<String, Category> bundle = read(is);
+            Map<String, List<Rule>> rules = new HashMap<>();
+            for (Map.Entry<String, List<String>> category: categoryToRules.entrySet()) {
+                Category bundled = bundle.get(category.getKey());
+                if (bundled != null && bundled.fingerprint.equals(fingerprint(category.getValue(), categoryToFieldMappings.get(category.getKey())))) {
+                    rules.put(category.getKey(), bundled.rules);
+                }
+            }
+            log.debug("Loaded the precompiled rules of {} out of {} log types", rules.size(), categoryToRules.size());
+            return rules;
+        } catch (Exception e) {
+            log.warn("Failed to load the precompiled prepackaged rules", e);
+            return Map.of();
+        }
+    }
+
+    static Map<String, Category> read(InputStream is) throws IOException {
+        try (StreamInput sin = new InputStreamStreamInput(new GZIPInputStream(is))) {
+            if (!MAGIC.equals(sin.readString()) || sin.readVInt() != FORMAT_VERSION) {
+                return Map.of();
+            }
+            int size = sin.readVInt();
+            Map<String, Category> bundle = new LinkedHashMap<>();
+            for (int i = 0; i < size; ++i) {
+                String category = sin.readString();
+                String fingerprint = sin.readString();
+                bundle.put(category, new Category(fingerprint, sin.readList(Rule::readFrom)));
+            }
+            return bundle;
+        }
+    }
+
+    static void write(OutputStream os, Map<String, Category> bundle) throws IOException {
+        try (StreamOutput out = new OutputStreamStreamOutput(new GZIPOutputStream(os))) {
+            out.writeString(MAGIC);
+            out.writeVInt(FORMAT_VERSION);
+            out.writeVInt(bundle.size());
+            for (Map.Entry<String, Category> category: bundle.entrySet()) {
+                out.writeString(category.getKey());
+                out.writeString(category.getValue().fingerprint);
+                out.writeCollection(category.getValue().rules);
+            }
+        }
+    }
+
+    /**
+     * Digest of the rules, in order, and of the field mappings they are compiled with.
+     */
+    static String fingerprint(List<String> rules, Map<String, String> fieldMappings) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Integer.toString(FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+            for (String rule: rules) {
+                digest.update((byte) 0);
+                digest.update(rule.getBytes(StandardCharsets.UTF_8));
+            }
+            if (fieldMappings != null) {
+                for (Map.Entry<String, String> mapping: new TreeMap<>(fieldMappings).entrySet()) {
+                    digest.update((byte) 1);
+                    digest.update(mapping.getKey().getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 2);
+                    digest.update(String.valueOf(mapping.getValue()).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compiles the rules folder given as first argument into the bundle file given as second argument.
+     */
+    public static void main(String[] args) throws IOException {
+        Path rulesPath = Path.of(args[0]);
+        Path bundlePath = Path.of(args[1]);
+
+        BuiltinLogTypeLoader builtinLogTypeLoader = new BuiltinLogTypeLoader();
+        List<Path> folderPaths;
+        try (Stream<Path> folder = Files.list(rulesPath)) {
+            folderPaths = folder.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+
+        Map<String, Category> bundle = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        for (Path folderPath: folderPaths) {
+            String category = folderPath.getFileName().toString();
+            LogType logType = builtinLogTypeLoader.getLogTypeByName(category);
+            if (logType == null) {
+                continue;
+            }
+            Map<String, String> fieldMappings = LogTypeService.ruleFieldMappings(logType);
+            List<String> rules = RuleIndices.getRules(List.of(folderPath));
+
+            List<PrepackagedRulesCompiler.RuleSource> sources = rules.stream()
+                    .map(rule -> new PrepackagedRulesCompiler.RuleSource(category, rule))
+                    .collect(Collectors.toList());
+            List<Rule> compiled = PrepackagedRulesCompiler.compileBatch(sources, Map.of(category, fieldMappings), new RuleConversionCache(0), errors);
+            bundle.put(category, new Category(fingerprint(rules, fieldMappings), compiled));
+        }
+        if (!errors.isEmpty()) {
+            log.warn("Failed to compile {} prepackaged rules: {}", errors.size(), errors);
+        }
+
+        Files.createDirectories(bundlePath.getParent());
+        try (OutputStream os = Files.newOutputStream(bundlePath)) {
+            write(os, bundle);
+        }
+        log.info("Compiled the prepackaged rules of {} log types into {}", bundle.size(), bundlePath);
+    }
+
+    static class Category {
+        private final String fingerprint;
+        private final List<Rule> rules;
+
+        Category(String fingerprint, List<Rule> rules) {
+            this.fingerprint = fingerprint;
+            this.rules = rules;
+        }
+
+        List<Rule> getRules() {
+            return rules;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
+import org.opensearch.securityanalytics.rules.backend.OSQueryDslBackend;
+import org.opensearch.securityanalytics.rules.backend.QueryBackend;
+import org.opensearch.securityanalytics.rules.objects.SigmaRule;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.ScalingExecutorBuilder;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.opensearch.securityanalytics.model.Detector.NO_VERSION;
+
+/**
+ * Compiles the prepackaged Sigma rules into rule docs on the {@link #RULE_COMPILATION_THREAD_POOL}.
+ *
+ * The rules are split into contiguous batches, one per thread, and the compiled batches are concatenated back in
+ * order, so the rule docs come out in the order of the rules whatever the parallelism. A rule failing to compile is
+ * skipped and reported, the other rules are still compiled.
+ */
+public class PrepackagedRulesCompiler {
+
+    private static final Logger log = LogManager.getLogger(PrepackagedRulesCompiler.class);
+
+    public static final String RULE_COMPILATION_THREAD_POOL = "security_analytics_rule_compilation";
+
+    // below this many rules per batch the thread hand-offs cost more than they save
+    private static final int MIN_BATCH_SIZE = 64;
+
+    private final ThreadPool threadPool;
+
+    private final RuleConversionCache ruleConversionCache;
+
+    public PrepackagedRulesCompiler(ThreadPool threadPool, RuleConversionCache ruleConversionCache) {
+        this.threadPool = threadPool;
+        this.ruleConversionCache = ruleConversionCache;
+    }
+
+    /**
+     * The rule compilation thread pool, its threads are only kept while rules are imported.
+     */
+    public static ExecutorBuilder<?> executorBuilder(Settings settings) {
+        return new ScalingExecutorBuilder(
+                RULE_COMPILATION_THREAD_POOL,
+                0,
+                OpenSearchExecutors.allocatedProcessors(settings),
+                TimeValue.timeValueMinutes(5L)
+        );
+    }
+
+    /**
+     * Compiles the rules of every category, in the iteration order of categoryToRules, with the field mappings of
+     * their category.
+     */
+    public void compile(Map<String, List<String>> categoryToRules, Map<String, Map<String, String>> categoryToFieldMappings,
+                        ActionListener<List<Rule>> listener) {
+        List<RuleSource> sources = new ArrayList<>();
+        for (Map.Entry<String, List<String>> category: categoryToRules.entrySet()) {
+            for (String rule: category.getValue()) {
+                sources.add(new RuleSource(category.getKey(), rule));
+            }
+        }
+        if (sources.isEmpty()) {
+            listener.onResponse(List.of());
+            return;
+        }
+
+        int parallelism = Math.max(1, threadPool.info(RULE_COMPILATION_THREAD_POOL).getMax());
+        int batches = Math.max(1, Math.min(parallelism, sources.size() / MIN_BATCH_SIZE));
+        int batchSize = (sources.size() + batches - 1) / batches;
+
+        List<List<RuleSource>> batchSources = new ArrayList<>();
+        for (int from = 0; from < sources.size(); from += batchSize) {
+            batchSources.add(sources.subList(from, Math.min(from + batchSize, sources.size())));
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Rule>[] compiled = new List[batchSources.size()];
+        List<String> errors = new ArrayList<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicInteger remaining = new AtomicInteger(batchSources.size());
+        long startNanos = System.nanoTime();
+        // every batch counts down once whether it compiles, throws or is rejected, the last one completes the listener
+        Runnable onBatchDone = () -> {
+            if (remaining.decrementAndGet() != 0) {
+                return;
+            }
+            if (failure.get() != null) {
+                listener.onFailure(failure.get());
+                return;
+            }
+            List<Rule> rules = new ArrayList<>(sources.size());
+            for (List<Rule> batchRules: compiled) {
+                rules.addAll(batchRules);
+            }
+            if (!errors.isEmpty()) {
+                log.warn("Failed to compile {} prepackaged rules: {}", errors.size(), errors);
+            }
+            log.info("Compiled {} prepackaged rules in {} ms on {} threads", rules.size(),
+                    TimeValue.nsecToMSec(System.nanoTime() - startNanos), batchSources.size());
+            listener.onResponse(rules);
+        };
+        for (int i = 0; i < batchSources.size(); ++i) {
+            int batch = i;
+            try {
+                threadPool.executor(RULE_COMPILATION_THREAD_POOL).execute(() -> {
+                    try {
+                        List<String> batchErrors = new ArrayList<>();
+                        compiled[batch] = compileBatch(batchSources.get(batch), categoryToFieldMappings, ruleConversionCache, batchErrors);
+                        synchronized (errors) {
+                            errors.addAll(batchErrors);
+                        }
+                    } catch (Throwable t) {
+                        // e.g. a StackOverflowError on a deeply nested rule condition
+                        failure.compareAndSet(null, t instanceof Exception ? (Exception) t
+                                : new IllegalStateException("Failed to compile prepackaged rules", t));
+                    } finally {
+                        onBatchDone.run();
+                    }
+                });
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+                onBatchDone.run();
+            }
+        }
+    }
+
+    /**
+     * Compiles a batch of rules on the calling thread, the backends are shared by the rules of a category and only
+     * built for the rules missing from the conversion cache.
+     */
+    static List<Rule> compileBatch(List<RuleSource> batch, Map<String, Map<String, String>> categoryToFieldMappings,
+                                   RuleConversionCache ruleConversionCache, List<String> errors) {
+        Map<String, QueryBackend[]> backends = new HashMap<>();
+        List<Rule> rules = new ArrayList<>(batch.size());
+        for (RuleSource source: batch) {
+            try {
+                Map<String, String> fieldMappings = categoryToFieldMappings.get(source.category);
+                SigmaRule rule = SigmaRule.fromYaml(source.rule, true);
+                // TODO: Check if there are cx errors from the rule created and throw errors
+                RuleConversionCache.Conversion conversion = ruleConversionCache.computeIfAbsent(source.rule, fieldMappings, () -> {
+                    QueryBackend[] categoryBackends = backends.get(source.category);
+                    if (categoryBackends == null) {
+                        categoryBackends = new QueryBackend[]{
+                                new OSQueryBackend(fieldMappings, true, true),
+                                new OSQueryDslBackend(fieldMappings, true, true)
+                        };
+                        backends.put(source.category, categoryBackends);
+                    }
+                    return RuleConversionCache.convert(categoryBackends[0], categoryBackends[1], rule);
+                });
+
+                rules.add(new Rule(
+                        rule.getId().toString(), NO_VERSION, rule, source.category,
+                        conversion.getQueries().stream().map(Object::toString).collect(Collectors.toList()),
+                        conversion.getQueryDsl(),
+                        conversion.getQueryFieldNames(),
+                        source.rule
+                ));
+            } catch (Exception e) {
+                errors.add(String.format(Locale.ROOT, "%s rule %s: %s", source.category, ruleTitle(source.rule), e.getMessage()));
+            }
+        }
+        return rules;
+    }
+
+    private static String ruleTitle(String rule) {
+        for (String line: rule.split("\n", 8)) {
+            if (line.startsWith("title:")) {
+                return line.substring("title:".length()).trim();
+            }
+        }
+        return "<untitled>";
+    }
+
+    static class RuleSource {
+        private final String category;
+        private final String rule;
+
+        RuleSource(String category, String rule) {
+            this.category = category;
+            this.rule = rule;
+        }
+    }
+}
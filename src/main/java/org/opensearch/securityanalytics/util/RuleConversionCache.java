@@ -0,0 +1,147 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.securityanalytics.rules.backend.QueryBackend;
+import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
+import org.opensearch.securityanalytics.rules.objects.SigmaRule;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Node-level LRU cache of the conversion of Sigma rules into queries.
+ *
+ * Conversions are addressed by the digest of the rule yaml, the digest of the field mappings the rule is converted
+ * with and {@link #BACKEND_VERSION}, so the same rule converted with the same field mappings is only converted once,
+ * whoever converts it. The cache holds at most {@link SecurityAnalyticsSettings#RULE_CONVERSION_CACHE_SIZE}
+ * conversions, zero disables it.
+ */
+public class RuleConversionCache {
+
+    // bump whenever the query backends change the conversion of a rule
+    static final int BACKEND_VERSION = 1;
+
+    private final Cache<String, Conversion> cache;
+
+    public RuleConversionCache(Settings settings) {
+        this(SecurityAnalyticsSettings.RULE_CONVERSION_CACHE_SIZE.get(settings));
+    }
+
+    public RuleConversionCache(int size) {
+        this.cache = size > 0 ? CacheBuilder.<String, Conversion>builder().setMaximumWeight(size).build() : null;
+    }
+
+    /**
+     * The conversion of the rule with the field mappings, converted by the converter on a cache miss.
+     */
+    public Conversion computeIfAbsent(String rule, Map<String, String> fieldMappings, Converter converter) throws IOException, SigmaError {
+        if (cache == null) {
+            return converter.convert();
+        }
+        String key = key(rule, fieldMappings);
+        Conversion conversion = cache.get(key);
+        if (conversion == null) {
+            // concurrent misses on the same key convert the rule more than once, the conversions are identical
+            conversion = converter.convert();
+            cache.put(key, conversion);
+        }
+        return conversion;
+    }
+
+    /**
+     * Converts the rule with the query string backend and the query DSL backend.
+     */
+    public static Conversion convert(QueryBackend backend, QueryBackend queryDslBackend, SigmaRule rule) throws SigmaError {
+        backend.resetQueryFields();
+        List<Object> queries = backend.convertRule(rule);
+        List<String> queryFieldNames = new ArrayList<>(backend.getQueryFields().keySet());
+        queryDslBackend.resetQueryFields();
+        List<Object> queryDsl = queryDslBackend.convertRule(rule);
+        return new Conversion(queries, queryDsl, queryFieldNames);
+    }
+
+    public long getHits() {
+        return cache == null ? 0L : cache.stats().getHits();
+    }
+
+    public long getMisses() {
+        return cache == null ? 0L : cache.stats().getMisses();
+    }
+
+    public long getEvictions() {
+        return cache == null ? 0L : cache.stats().getEvictions();
+    }
+
+    public int getSize() {
+        return cache == null ? 0 : cache.count();
+    }
+
+    static String key(String rule, Map<String, String> fieldMappings) {
+        try {
+            MessageDigest ruleDigest = MessageDigest.getInstance("SHA-256");
+            ruleDigest.update(rule.getBytes(StandardCharsets.UTF_8));
+
+            MessageDigest fieldMappingsDigest = MessageDigest.getInstance("SHA-256");
+            if (fieldMappings != null) {
+                for (Map.Entry<String, String> mapping: new TreeMap<>(fieldMappings).entrySet()) {
+                    fieldMappingsDigest.update((byte) 1);
+                    fieldMappingsDigest.update(mapping.getKey().getBytes(StandardCharsets.UTF_8));
+                    fieldMappingsDigest.update((byte) 2);
+                    fieldMappingsDigest.update(String.valueOf(mapping.getValue()).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+            return BACKEND_VERSION + ":" + encoder.encodeToString(ruleDigest.digest()) + ":" + encoder.encodeToString(fieldMappingsDigest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Converter {
+        Conversion convert() throws IOException, SigmaError;
+    }
+
+    /**
+     * The queries, query DSL and query field names a rule is converted into, shared by every reader of the cache.
+     */
+    public static class Conversion {
+        private final List<Object> queries;
+        private final List<Object> queryDsl;
+        private final List<String> queryFieldNames;
+
+        public Conversion(List<Object> queries, List<Object> queryDsl, List<String> queryFieldNames) {
+            this.queries = Collections.unmodifiableList(queries);
+            this.queryDsl = Collections.unmodifiableList(queryDsl);
+            this.queryFieldNames = Collections.unmodifiableList(queryFieldNames);
+        }
+
+        public List<Object> getQueries() {
+            return queries;
+        }
+
+        public List<Object> getQueryDsl() {
+            return queryDsl;
+        }
+
+        public List<String> getQueryFieldNames() {
+            return queryFieldNames;
+        }
+    }
+}
@@ -41,11 +41,7 @@ import org.opensearch.search.SearchHit;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.securityanalytics.logtype.LogTypeService;
 import org.opensearch.securityanalytics.model.Rule;
-import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
-import org.opensearch.securityanalytics.rules.backend.QueryBackend;
 import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
-import org.opensearch.securityanalytics.rules.exceptions.CompositeSigmaErrors;
-import org.opensearch.securityanalytics.rules.objects.SigmaRule;
 import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
@@ -57,8 +53,6 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.opensearch.securityanalytics.model.Detector.NO_VERSION;
-
 public class RuleIndices {
 
     private static final Logger log = LogManager.getLogger(RuleIndices.class);
@@ -71,11 +65,15 @@ public class RuleIndices {
 
     private final LogTypeService logTypeService;
 
-    public RuleIndices(LogTypeService logTypeService, Client client, ClusterService clusterService, ThreadPool threadPool) {
+    private final PrepackagedRulesCompiler prepackagedRulesCompiler;
+
+    public RuleIndices(LogTypeService logTypeService, Client client, ClusterService clusterService, ThreadPool threadPool,
+                       RuleConversionCache ruleConversionCache) {
         this.client = client;
         this.clusterService = clusterService;
         this.threadPool = threadPool;
         this.logTypeService = logTypeService;
+        this.prepackagedRulesCompiler = new PrepackagedRulesCompiler(threadPool, ruleConversionCache);
     }
 
     public static String ruleMappings() throws IOException {
@@ -236,13 +234,13 @@ public class RuleIndices {
         client.search(searchRequest, listener);
     }
 
-    private List<String> getRules(List<Path> listOfRules) {
+    static List<String> getRules(List<Path> listOfRules) {
         List<String> rules = new ArrayList<>();
 
         listOfRules.forEach(path -> {
             try {
                 if (Files.isDirectory(path)) {
-                    rules.addAll(getRules(Files.list(path).collect(Collectors.toList())));
+                    rules.addAll(getRules(Files.list(path).sorted().collect(Collectors.toList())));
                 } else {
                     rules.add(Files.readString(path, Charset.defaultCharset()));
                 }
@@ -256,7 +254,7 @@ public class RuleIndices {
 
     private void loadQueries(Path path, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) throws IOException, SigmaError {
         Stream<Path> folder = Files.list(path);
-        List<Path> folderPaths = folder.collect(Collectors.toList());
+        List<Path> folderPaths = folder.sorted().collect(Collectors.toList());
         Map<String, List<String>> logIndexToRules = new HashMap<>();
 
         for (Path folderPath: folderPaths) {
@@ -271,21 +269,34 @@ public class RuleIndices {
         return folderPath.getFileName().toString();
     }
 
-    private void ingestQueries(Map<String, List<String>> logIndexToRules, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) throws SigmaError, IOException, CompositeSigmaErrors {
-        List<Rule> queries = new ArrayList<>();
-
+    private void ingestQueries(Map<String, List<String>> logIndexToRules, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) {
         // Moving others_cloud to the top so those queries are indexed first and can be overwritten if other categories
         // contain the same rules. Tracking issue: https://github.com/opensearch-project/security-analytics/issues/630
         List<String> categories = new ArrayList<>(logIndexToRules.keySet());
+        Collections.sort(categories);
         if (categories.remove("others_cloud")) {
             categories.add(0, "others_cloud");
         }
+        Map<String, List<String>> categoryToRules = new LinkedHashMap<>();
+        Map<String, Map<String, String>> categoryToFieldMappings = new HashMap<>();
         for (String category: categories) {
-            Map<String, String> fieldMappings = logTypeService.getRuleFieldMappingsForBuiltinLogType(category);
-            final QueryBackend backend = new OSQueryBackend(fieldMappings, true, true);
-            queries.addAll(getQueries(backend, category, logIndexToRules.get(category)));
+            categoryToRules.put(category, logIndexToRules.get(category));
+            categoryToFieldMappings.put(category, logTypeService.getRuleFieldMappingsForBuiltinLogType(category));
         }
-        loadRules(queries, refreshPolicy, indexTimeout, listener, true);
+
+        // only the categories changed since the build are compiled
+        Map<String, List<Rule>> precompiled = PrepackagedRulesBundle.load(categoryToRules, categoryToFieldMappings);
+        Map<String, List<String>> categoryToCompile = new LinkedHashMap<>(categoryToRules);
+        categoryToCompile.keySet().removeAll(precompiled.keySet());
+
+        prepackagedRulesCompiler.compile(categoryToCompile, categoryToFieldMappings, ActionListener.wrap(compiled -> {
+            Map<String, List<Rule>> compiledByCategory = compiled.stream().collect(Collectors.groupingBy(Rule::getCategory));
+            List<Rule> queries = new ArrayList<>();
+            for (String category: categories) {
+                queries.addAll(precompiled.containsKey(category) ? precompiled.get(category) : compiledByCategory.getOrDefault(category, List.of()));
+            }
+            loadRules(queries, refreshPolicy, indexTimeout, listener, true);
+        }, listener::onFailure));
     }
 
     private void loadQueries(String[] paths, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) throws IOException, SigmaError {
@@ -293,26 +304,6 @@ public class RuleIndices {
         loadQueries(path, refreshPolicy, indexTimeout, listener);
     }
 
-    private List<Rule> getQueries(QueryBackend backend, String category, List<String> rules) throws SigmaError, CompositeSigmaErrors {
-        List<Rule> queries = new ArrayList<>();
-        for (String ruleStr: rules) {
-            SigmaRule rule = SigmaRule.fromYaml(ruleStr, true);
-            // TODO: Check if there are cx errors from the rule created and throw errors
-            backend.resetQueryFields();
-            List<Object> ruleQueries = backend.convertRule(rule);
-            Set<String> queryFieldNames = backend.getQueryFields().keySet();
-
-            Rule ruleModel = new Rule(
-                    rule.getId().toString(), NO_VERSION, rule, category,
-                    ruleQueries.stream().map(Object::toString).collect(Collectors.toList()),
-                    new ArrayList<>(queryFieldNames),
-                    ruleStr
-            );
-            queries.add(ruleModel);
-        }
-        return queries;
-    }
-
     private void checkLogTypes(Map<String, List<String>> logIndexToRules, WriteRequest.RefreshPolicy refreshPolicy, TimeValue indexTimeout, ActionListener<BulkResponse> listener) {
         logTypeService.ensureConfigIndexIsInitialized(new ActionListener<>() {
             @Override
@@ -344,7 +335,7 @@ public class RuleIndices {
                                 }
                             }
                             ingestQueries(filteredLogIndexToRules, refreshPolicy, indexTimeout, listener);
-                        } catch (SigmaError | IOException | CompositeSigmaErrors e) {
+                        } catch (Exception e) {
                             onFailure(e);
                         }
                     }
@@ -0,0 +1,95 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.action;
+
+import org.opensearch.Version;
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.securityanalytics.model.CorrelatedFinding;
+import org.opensearch.securityanalytics.model.CorrelationBucket;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.test.VersionUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+public class ListCorrelationsRequestTests extends OpenSearchTestCase {
+
+    public void testStreamInOut() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+
+        ListCorrelationsRequest req = new ListCorrelationsRequest(1000L, 2000L, 500, "cursor", 60000L);
+        req.writeTo(out);
+
+        StreamInput sin = StreamInput.wrap(out.bytes().toBytesRef().bytes);
+        ListCorrelationsRequest newReq = new ListCorrelationsRequest(sin);
+
+        assertEquals(1000L, newReq.getStartTimestamp().longValue());
+        assertEquals(2000L, newReq.getEndTimestamp().longValue());
+        assertEquals(500, newReq.getSize());
+        assertEquals("cursor", newReq.getCursor());
+        assertEquals(60000L, newReq.getBucketInterval().longValue());
+    }
+
+    public void testPagingIsNotStreamedToOlderNodes() throws IOException {
+        Version version = VersionUtils.getPreviousVersion(ListCorrelationsRequest.PAGING_VERSION);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
+        new ListCorrelationsRequest(1000L, 2000L, 500, "cursor", 60000L).writeTo(out);
+        StreamInput sin = out.bytes().streamInput();
+        sin.setVersion(version);
+        ListCorrelationsRequest newReq = new ListCorrelationsRequest(sin);
+
+        assertEquals(2000L, newReq.getEndTimestamp().longValue());
+        assertEquals(ListCorrelationsRequest.MAX_SIZE, newReq.getSize());
+        assertNull(newReq.getCursor());
+        assertNull(newReq.getBucketInterval());
+
+        out = new BytesStreamOutput();
+        out.setVersion(version);
+        new ListCorrelationsResponse(List.of(new CorrelatedFinding("f1", "network", "f2", "windows", List.of("rule"))), "cursor",
+                List.of(new CorrelationBucket(1000L, "network", "windows", 1L))).writeTo(out);
+        sin = out.bytes().streamInput();
+        sin.setVersion(version);
+        ListCorrelationsResponse newResp = new ListCorrelationsResponse(sin);
+
+        assertEquals(1, newResp.getCorrelatedFindings().size());
+        assertNull(newResp.getNextCursor());
+        assertNull(newResp.getBuckets());
+    }
+
+    public void testDefaults() {
+        ListCorrelationsRequest req = new ListCorrelationsRequest(1000L, 2000L);
+        assertEquals(ListCorrelationsRequest.DEFAULT_SIZE, req.getSize());
+        assertNull(req.getCursor());
+        assertNull(req.getBucketInterval());
+        assertNull(req.validate());
+    }
+
+    public void testValidate() {
+        ActionRequestValidationException validate = new ListCorrelationsRequest(1000L, 2000L, 10001, null, null).validate();
+        assertNotNull(validate);
+        validate = new ListCorrelationsRequest(1000L, 2000L, ListCorrelationsRequest.MAX_SIZE, null, null).validate();
+        assertNull(validate);
+        validate = new ListCorrelationsRequest(1000L, 2000L, 10, null, 0L).validate();
+        assertNotNull(validate);
+    }
+
+    public void testCursorRoundTrip() throws IOException {
+        ListCorrelationsCursor cursor = new ListCorrelationsCursor("pit-id", 1000L, 2000L, new Object[]{1500L, "f1", "f2"});
+        ListCorrelationsCursor decoded = ListCorrelationsCursor.decode(cursor.encode());
+
+        assertEquals("pit-id", decoded.getPitId());
+        assertEquals(1000L, decoded.getStartTimestamp());
+        assertEquals(2000L, decoded.getEndTimestamp());
+        assertArrayEquals(new Object[]{1500L, "f1", "f2"}, decoded.getSortValues());
+    }
+
+    public void testInvalidCursor() {
+        expectThrows(IllegalArgumentException.class, () -> ListCorrelationsCursor.decode("not a cursor!"));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
+import org.opensearch.common.util.concurrent.OpenSearchRejectedExecutionException;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.commons.alerting.model.DocLevelQuery;
+import org.opensearch.commons.alerting.model.Finding;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CorrelationAdmissionControllerTests extends OpenSearchTestCase {
+
+    public void testCorrelationsAboveLimitAreRejected() {
+        CorrelationAdmissionController controller = controller(2, false);
+        List<Releasable> running = new ArrayList<>();
+        List<Exception> rejections = new ArrayList<>();
+
+        controller.submit(finding("f1", "high"), running::add, rejections::add);
+        controller.submit(finding("f2", "low"), running::add, rejections::add);
+        controller.submit(finding("f3", "low"), running::add, rejections::add);
+
+        assertEquals(2, running.size());
+        assertEquals(1, rejections.size());
+        assertTrue(rejections.get(0) instanceof OpenSearchRejectedExecutionException);
+        assertEquals(1L, controller.getRejectedCount());
+
+        running.get(0).close();
+        running.get(0).close();
+        assertEquals(1, controller.getInFlight());
+    }
+
+    public void testLowSeverityCorrelationsAreDeferredUnderLoad() {
+        CorrelationAdmissionController controller = controller(2, true);
+        List<Releasable> running = new ArrayList<>();
+        List<Exception> rejections = new ArrayList<>();
+
+        controller.submit(finding("f1", "high"), running::add, rejections::add);
+        controller.submit(finding("f2", "critical"), running::add, rejections::add);
+        controller.submit(finding("f3", "low"), running::add, rejections::add);
+        controller.submit(finding("f4", "high"), running::add, rejections::add);
+
+        assertEquals(2, running.size());
+        assertEquals(1, controller.getDeferredSize());
+        assertEquals(1, rejections.size());
+
+        running.get(0).close();
+        assertEquals(2, running.size());
+        running.get(1).close();
+        assertEquals(3, running.size());
+        assertEquals(0, controller.getDeferredSize());
+        assertEquals(1, controller.getInFlight());
+    }
+
+    public void testDeferredCorrelationRunsInContextOfSubmitter() {
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        CorrelationAdmissionController controller = controller(2, true, threadContext);
+        List<Releasable> running = new ArrayList<>();
+        List<String> users = new ArrayList<>();
+
+        controller.submit(finding("f1", "high"), running::add, e -> fail(e.getMessage()));
+        controller.submit(finding("f2", "high"), running::add, e -> fail(e.getMessage()));
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putTransient("user", "submitter");
+            controller.submit(finding("f3", "low"), releasable -> {
+                users.add(threadContext.getTransient("user"));
+                running.add(releasable);
+            }, e -> fail(e.getMessage()));
+        }
+
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putTransient("user", "releaser");
+            running.get(0).close();
+            running.get(1).close();
+        }
+        assertEquals(List.of("submitter"), users);
+        assertNull(threadContext.getTransient("user"));
+    }
+
+    public void testDeferredCorrelationIsRejectedAfterTimeout() {
+        List<Runnable> timeouts = new ArrayList<>();
+        CorrelationAdmissionController controller = controller(2, true, new ThreadContext(Settings.EMPTY), timeouts);
+        List<Releasable> running = new ArrayList<>();
+        List<Exception> rejections = new ArrayList<>();
+
+        controller.submit(finding("f1", "high"), running::add, rejections::add);
+        controller.submit(finding("f2", "high"), running::add, rejections::add);
+        controller.submit(finding("f3", "low"), running::add, rejections::add);
+        assertEquals(1, controller.getDeferredSize());
+        assertEquals(1, timeouts.size());
+
+        timeouts.get(0).run();
+        assertEquals(1, rejections.size());
+        assertTrue(rejections.get(0) instanceof OpenSearchRejectedExecutionException);
+        assertEquals(0, controller.getDeferredSize());
+        assertEquals(1L, controller.getRejectedCount());
+
+        running.get(0).close();
+        running.get(1).close();
+        assertEquals(2, running.size());
+        assertEquals(0, controller.getInFlight());
+
+        // a timeout firing after the correlation started is a no-op
+        controller.submit(finding("f4", "high"), running::add, rejections::add);
+        controller.submit(finding("f5", "high"), running::add, rejections::add);
+        controller.submit(finding("f6", "low"), running::add, rejections::add);
+        running.get(2).close();
+        running.get(3).close();
+        assertEquals(5, running.size());
+        timeouts.get(1).run();
+        assertEquals(1, rejections.size());
+    }
+
+    private static Finding finding(String id, String level) {
+        return new Finding(
+                id,
+                List.of(),
+                List.of("doc1"),
+                "monitor_id",
+                "monitor_name",
+                "test_index",
+                List.of(new DocLevelQuery("1", "r1", List.of(), "test_field:\"us-west-2\"", List.of(level, "windows"))),
+                Instant.now(),
+                "1234"
+        );
+    }
+
+    private static CorrelationAdmissionController controller(int maxInFlight, boolean loadShedding) {
+        return controller(maxInFlight, loadShedding, new ThreadContext(Settings.EMPTY));
+    }
+
+    private static CorrelationAdmissionController controller(int maxInFlight, boolean loadShedding, ThreadContext threadContext) {
+        return controller(maxInFlight, loadShedding, threadContext, new ArrayList<>());
+    }
+
+    private static CorrelationAdmissionController controller(int maxInFlight, boolean loadShedding, ThreadContext threadContext,
+                                                             List<Runnable> timeouts) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_MAX_IN_FLIGHT.getKey(), maxInFlight)
+                .put(SecurityAnalyticsSettings.CORRELATION_LOAD_SHEDDING_ENABLED.getKey(), loadShedding)
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.CORRELATION_MAX_IN_FLIGHT,
+                SecurityAnalyticsSettings.CORRELATION_LOAD_SHEDDING_ENABLED,
+                SecurityAnalyticsSettings.CORRELATION_DEFERRAL_TIMEOUT)));
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.executor(CorrelationAdmissionController.CORRELATION_THREAD_POOL)).thenReturn(OpenSearchExecutors.newDirectExecutorService());
+        when(threadPool.getThreadContext()).thenReturn(threadContext);
+        when(threadPool.schedule(any(Runnable.class), any(TimeValue.class), eq(ThreadPool.Names.GENERIC))).thenAnswer(invocation -> {
+            timeouts.add(invocation.getArgument(0));
+            return mock(Scheduler.ScheduledCancellable.class);
+        });
+        return new CorrelationAdmissionController(clusterService, threadPool);
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.lucene.search.TotalHits;
+import org.opensearch.action.get.GetRequest;
+import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.index.IndexResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.index.engine.VersionConflictEngineException;
+import org.opensearch.index.shard.ShardId;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CorrelationCounterAllocatorTests extends OpenSearchTestCase {
+
+    public void testCountersAreHandedOutFromReservedBlock() {
+        Client client = mock(Client.class);
+        Map<String, Object> root = rootDocument(100L, 1000L);
+        mockRootSearch(client, root);
+        mockGet(client, root);
+        List<IndexRequest> writes = mockIndex(client, root, 0);
+
+        CorrelationCounterAllocator allocator = allocator(client);
+        List<Long> counters = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            allocator.next(2000L, ActionListener.wrap(counters::add, e -> fail(e.getMessage())));
+        }
+
+        assertEquals(List.of(150L, 200L, 250L, 300L), counters);
+        assertEquals(2, writes.size());
+        assertEquals(250L, ((Number) writes.get(0).sourceAsMap().get("counter")).longValue());
+        assertEquals(400L, ((Number) writes.get(1).sourceAsMap().get("counter")).longValue());
+        assertEquals(1L, writes.get(0).ifSeqNo());
+    }
+
+    public void testReconcilerRunsOnlyWhileBlockIsHeld() {
+        Client client = mock(Client.class);
+        Map<String, Object> root = rootDocument(100L, 1000L);
+        mockRootSearch(client, root);
+        mockGet(client, root);
+        mockIndex(client, root, 0);
+        ThreadPool threadPool = mock(ThreadPool.class);
+        Scheduler.ScheduledCancellable scheduledReconcile = mock(Scheduler.ScheduledCancellable.class);
+        List<Runnable> reconciles = mockSchedule(threadPool, scheduledReconcile);
+
+        CorrelationCounterAllocator allocator = allocator(client, threadPool);
+        allocator.start();
+        assertTrue(reconciles.isEmpty());
+
+        allocator.next(2000L, ActionListener.wrap(it -> {}, e -> fail(e.getMessage())));
+        assertEquals(1, reconciles.size());
+        verify(threadPool, times(1)).schedule(any(), any(), eq(ThreadPool.Names.GENERIC));
+
+        // used since the last run, reconciled and scheduled again
+        reconciles.remove(0).run();
+        verify(client, times(2)).get(any(GetRequest.class), any());
+        assertEquals(1, reconciles.size());
+
+        // unused for a whole interval, released without reading the metadata index
+        reconciles.remove(0).run();
+        verify(client, times(2)).get(any(GetRequest.class), any());
+        assertTrue(reconciles.isEmpty());
+
+        allocator.next(2000L, ActionListener.wrap(it -> {}, e -> fail(e.getMessage())));
+        allocator.close();
+        verify(scheduledReconcile, times(1)).cancel();
+    }
+
+    public void testReconcilerOnlyDropsBlockWhenCountersWereStartedOver() {
+        Client client = mock(Client.class);
+        Map<String, Object> root = rootDocument(100L, 1000L);
+        mockRootSearch(client, root);
+        mockGet(client, root);
+        List<IndexRequest> writes = mockIndex(client, root, 0);
+        ThreadPool threadPool = mock(ThreadPool.class);
+        List<Runnable> reconciles = mockSchedule(threadPool, mock(Scheduler.ScheduledCancellable.class));
+
+        CorrelationCounterAllocator allocator = allocator(client, threadPool);
+        allocator.start();
+        List<Long> counters = new ArrayList<>();
+        allocator.next(2000L, ActionListener.wrap(counters::add, e -> fail(e.getMessage())));
+
+        // another node reserved the next block
+        root.put("counter", 400L);
+        root.put("timestamp", 3000L);
+        reconciles.remove(0).run();
+        allocator.next(2000L, ActionListener.wrap(counters::add, e -> fail(e.getMessage())));
+        List<Long> timestamps = new ArrayList<>();
+        allocator.current(ActionListener.wrap(state -> timestamps.add(state.getTimestamp()), e -> fail(e.getMessage())));
+        assertEquals(1, writes.size());
+
+        // another node started the counters over
+        root.put("counter", 50L);
+        root.put("epoch", 1L);
+        reconciles.remove(0).run();
+        allocator.next(2000L, ActionListener.wrap(counters::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of(150L, 200L, 100L), counters);
+        assertEquals(List.of(3000L), timestamps);
+        assertEquals(2, writes.size());
+        assertEquals(1L, ((Number) writes.get(1).sourceAsMap().get("epoch")).longValue());
+    }
+
+    public void testReservationIsRetriedOnVersionConflict() {
+        Client client = mock(Client.class);
+        Map<String, Object> root = rootDocument(100L, 1000L);
+        mockRootSearch(client, root);
+        mockGet(client, root);
+        List<IndexRequest> writes = mockIndex(client, root, 1);
+
+        List<Long> counters = new ArrayList<>();
+        allocator(client).next(2000L, ActionListener.wrap(counters::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of(150L), counters);
+        assertEquals(2, writes.size());
+    }
+
+    public void testResetStartsOverOutsideTimeWindow() {
+        Client client = mock(Client.class);
+        Map<String, Object> root = rootDocument(1000L, 1000L);
+        mockRootSearch(client, root);
+        mockGet(client, root);
+        List<IndexRequest> writes = mockIndex(client, root, 0);
+
+        CorrelationCounterAllocator allocator = allocator(client);
+        List<Long> counters = new ArrayList<>();
+        allocator.reset(1000L + 500L, 100L, ActionListener.wrap(counters::add, e -> fail(e.getMessage())));
+        allocator.reset(1000L + 550L, 100L, ActionListener.wrap(counters::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of(50L, 200L), counters);
+        // only starting over moves to the next epoch
+        assertEquals(1L, ((Number) writes.get(0).sourceAsMap().get("epoch")).longValue());
+        assertEquals(1L, ((Number) writes.get(1).sourceAsMap().get("epoch")).longValue());
+    }
+
+    public void testScoreTimestampOnlyMovesForward() {
+        Client client = mock(Client.class);
+        mockRootSearch(client, Map.of("scoreTimestamp", 500L, "root", false));
+
+        CorrelationCounterAllocator allocator = allocator(client);
+        List<Long> scoreTimestamps = new ArrayList<>();
+        long interval = CorrelationIndices.FIXED_HISTORICAL_INTERVAL;
+        allocator.scoreTimestamp(interval + 1000L, ActionListener.wrap(scoreTimestamps::add, e -> fail(e.getMessage())));
+        allocator.scoreTimestamp(interval + 700L, ActionListener.wrap(scoreTimestamps::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of(1000L, 1000L), scoreTimestamps);
+    }
+
+    public void testCurrentScoreTimestampIsReadFromMetadataIndex() {
+        Client client = mock(Client.class);
+        Map<String, Object> scoreDocument = new HashMap<>(Map.of("scoreTimestamp", 500L, "root", false));
+        mockRootSearch(client, scoreDocument);
+
+        CorrelationCounterAllocator allocator = allocator(client);
+        List<Long> scoreTimestamps = new ArrayList<>();
+        allocator.currentScoreTimestamp(ActionListener.wrap(scoreTimestamps::add, e -> fail(e.getMessage())));
+
+        // advanced on this node, not persisted yet
+        allocator.scoreTimestamp(CorrelationIndices.FIXED_HISTORICAL_INTERVAL + 1000L, ActionListener.wrap(it -> {}, e -> fail(e.getMessage())));
+        allocator.currentScoreTimestamp(ActionListener.wrap(scoreTimestamps::add, e -> fail(e.getMessage())));
+
+        // advanced and persisted by another node
+        scoreDocument.put("scoreTimestamp", 2000L);
+        allocator.currentScoreTimestamp(ActionListener.wrap(scoreTimestamps::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of(500L, 1000L, 2000L), scoreTimestamps);
+    }
+
+    private static Map<String, Object> rootDocument(long counter, long timestamp) {
+        Map<String, Object> source = new HashMap<>();
+        source.put("root", true);
+        source.put("counter", counter);
+        source.put("timestamp", timestamp);
+        source.put("seqNo", 1L);
+        return source;
+    }
+
+    private static void mockRootSearch(Client client, Map<String, Object> source) {
+        doAnswer(invocation -> {
+            SearchHit hit = new SearchHit(0, "root", Map.of(), Map.of());
+            hit.sourceRef(BytesReference.bytes(XContentFactory.jsonBuilder().map(source)));
+            SearchResponse response = mock(SearchResponse.class);
+            when(response.getHits()).thenReturn(new SearchHits(new SearchHit[]{hit}, new TotalHits(1L, TotalHits.Relation.EQUAL_TO), 1.0f));
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any());
+    }
+
+    private static void mockGet(Client client, Map<String, Object> source) {
+        doAnswer(invocation -> {
+            GetResponse response = mock(GetResponse.class);
+            when(response.isExists()).thenReturn(true);
+            when(response.getSourceAsMap()).thenReturn(new HashMap<>(source));
+            when(response.getSeqNo()).thenReturn(((Number) source.get("seqNo")).longValue());
+            when(response.getPrimaryTerm()).thenReturn(1L);
+            ActionListener<GetResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).get(any(GetRequest.class), any());
+    }
+
+    private static List<IndexRequest> mockIndex(Client client, Map<String, Object> source, int conflicts) {
+        List<IndexRequest> writes = new ArrayList<>();
+        AtomicInteger remainingConflicts = new AtomicInteger(conflicts);
+        doAnswer(invocation -> {
+            IndexRequest request = invocation.getArgument(0);
+            writes.add(request);
+            ActionListener<IndexResponse> listener = invocation.getArgument(1);
+            if (remainingConflicts.getAndDecrement() > 0) {
+                listener.onFailure(new VersionConflictEngineException(new ShardId("metadata", "_na_", 0), "root", "conflict"));
+                return null;
+            }
+            Map<String, Object> written = request.sourceAsMap();
+            source.put("counter", written.get("counter"));
+            source.put("timestamp", written.get("timestamp"));
+            source.put("epoch", written.get("epoch"));
+            source.put("seqNo", ((Number) source.get("seqNo")).longValue() + 1L);
+            listener.onResponse(mock(IndexResponse.class));
+            return null;
+        }).when(client).index(any(IndexRequest.class), any());
+        return writes;
+    }
+
+    private static List<Runnable> mockSchedule(ThreadPool threadPool, Scheduler.ScheduledCancellable scheduledReconcile) {
+        List<Runnable> scheduled = new ArrayList<>();
+        when(threadPool.schedule(any(), any(), any())).thenAnswer(invocation -> {
+            scheduled.add(invocation.getArgument(0));
+            return scheduledReconcile;
+        });
+        return scheduled;
+    }
+
+    private static CorrelationCounterAllocator allocator(Client client) {
+        return allocator(client, mock(ThreadPool.class));
+    }
+
+    private static CorrelationCounterAllocator allocator(Client client, ThreadPool threadPool) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_COUNTER_BLOCK_SIZE.getKey(), 3)
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.INDEX_TIMEOUT,
+                SecurityAnalyticsSettings.CORRELATION_COUNTER_BLOCK_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_METADATA_RECONCILE_INTERVAL)));
+        return new CorrelationCounterAllocator(client, clusterService, threadPool);
+    }
+}
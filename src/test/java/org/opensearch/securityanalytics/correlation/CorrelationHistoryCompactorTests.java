@@ -0,0 +1,222 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.Version;
+import org.opensearch.action.OriginalIndices;
+import org.opensearch.action.admin.indices.forcemerge.ForceMergeRequest;
+import org.opensearch.action.admin.indices.forcemerge.ForceMergeResponse;
+import org.opensearch.action.admin.indices.stats.CommonStats;
+import org.opensearch.action.admin.indices.stats.IndicesStatsRequest;
+import org.opensearch.action.admin.indices.stats.IndicesStatsResponse;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.search.CreatePitAction;
+import org.opensearch.action.search.CreatePitResponse;
+import org.opensearch.action.search.DeletePitAction;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.AdminClient;
+import org.opensearch.client.Client;
+import org.opensearch.client.IndicesAdminClient;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.AliasMetadata;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.index.store.StoreStats;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.search.SearchShardTarget;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CorrelationHistoryCompactorTests extends OpenSearchTestCase {
+
+    public void testFirstRecordOfEveryFindingPairLogTypeAndRuleSetIsKept() {
+        CorrelationHistoryCompactor.SupersededRecords supersededRecords = new CorrelationHistoryCompactor.SupersededRecords();
+        List<String> superseded = new ArrayList<>();
+
+        // finding records of f1, one per log type
+        superseded.addAll(ids(supersededRecords.add(record("r1", "f1", "", "1", List.of(), 10L))));
+        superseded.addAll(ids(supersededRecords.add(record("r2", "f1", "", "1", List.of(), 9L))));
+        superseded.addAll(ids(supersededRecords.add(record("r3", "f1", "", "2", List.of(), 8L))));
+        // edges of f1 and f2
+        superseded.addAll(ids(supersededRecords.add(record("e1", "f1", "f2", "t-a", List.of("r1", "r2"), 50L))));
+        superseded.addAll(ids(supersededRecords.add(record("e2", "f1", "f2", "t-a", List.of("r2", "r1"), 50L))));
+        superseded.addAll(ids(supersededRecords.add(record("e3", "f1", "f2", "t-a", List.of("r1"), 50L))));
+        superseded.addAll(ids(supersededRecords.add(record("e4", "f1", "f2", "t-b", List.of("r1"), 50L))));
+        superseded.addAll(ids(supersededRecords.add(record("e5", "f1", "f3", "t-a", List.of("r1"), 50L))));
+        // the reverse edge is kept
+        superseded.addAll(ids(supersededRecords.add(record("e6", "f2", "f1", "t-a", List.of("r1", "r2"), 50L))));
+        superseded.addAll(ids(supersededRecords.add(record("e7", "f2", "f1", "t-a", List.of("r1", "r2"), 50L))));
+        superseded.addAll(ids(supersededRecords.flush()));
+
+        assertEquals(List.of("e2", "r2", "e7"), superseded);
+    }
+
+    public void testOrphanPlaceholderOfCorrelatedFindingIsSuperseded() {
+        CorrelationHistoryCompactor.SupersededRecords supersededRecords = new CorrelationHistoryCompactor.SupersededRecords();
+        List<String> superseded = new ArrayList<>();
+
+        // the placeholder written when f1 was an orphan is the latest, the correlated record has the edge's counter
+        superseded.addAll(ids(supersededRecords.add(record("orphan", "f1", "", "1", List.of(), 100L))));
+        superseded.addAll(ids(supersededRecords.add(record("correlated", "f1", "", "1", List.of(), 60L))));
+        superseded.addAll(ids(supersededRecords.add(record("edge", "f1", "f2", "t-a", List.of("r1"), 35L))));
+        // f2 was never correlated, its latest placeholder is kept
+        superseded.addAll(ids(supersededRecords.add(record("orphan2", "f2", "", "1", List.of(), 70L))));
+        superseded.addAll(ids(supersededRecords.add(record("orphan3", "f2", "", "1", List.of(), 40L))));
+        superseded.addAll(ids(supersededRecords.flush()));
+
+        assertEquals(List.of("orphan", "orphan3"), superseded);
+    }
+
+    public void testCompactionDeletesSupersededRecordsAndMergesRolledOverIndices() {
+        Client client = mock(Client.class);
+        doAnswer(invocation -> {
+            CreatePitResponse response = mock(CreatePitResponse.class);
+            when(response.getId()).thenReturn("pit");
+            ActionListener<CreatePitResponse> listener = invocation.getArgument(2);
+            listener.onResponse(response);
+            return null;
+        }).when(client).execute(eq(CreatePitAction.INSTANCE), any(), any());
+
+        SearchHit[] hits = new SearchHit[] {
+                hit("history-1", "orphan", "f1", "", "1", 100L),
+                hit("history-1", "correlated", "f1", "", "1", 60L),
+                hit("history-1", "edge", "f1", "f2", "t-a", 35L),
+                hit("history-2", "duplicate", "f1", "f2", "t-a", 35L),
+                hit("history-2", "f2", "f2", "", "1", 70L)
+        };
+        List<SearchRequest> searches = new ArrayList<>();
+        doAnswer(invocation -> {
+            searches.add(invocation.getArgument(0));
+            SearchResponse response = mock(SearchResponse.class);
+            when(response.getHits()).thenReturn(new SearchHits(hits, null, 1.0f));
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any());
+
+        List<BulkRequest> bulks = new ArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            bulks.add(request);
+            BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; ++i) {
+                items[i] = mock(BulkItemResponse.class);
+                when(items[i].getIndex()).thenReturn(request.requests().get(i).index());
+            }
+            BulkResponse response = mock(BulkResponse.class);
+            when(response.getItems()).thenReturn(items);
+            ActionListener<BulkResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).bulk(any(BulkRequest.class), any());
+
+        IndicesAdminClient indicesAdminClient = mock(IndicesAdminClient.class);
+        AdminClient adminClient = mock(AdminClient.class);
+        when(client.admin()).thenReturn(adminClient);
+        when(adminClient.indices()).thenReturn(indicesAdminClient);
+        List<Long> storeSizes = new ArrayList<>(List.of(1000L, 400L));
+        doAnswer(invocation -> {
+            StoreStats store = mock(StoreStats.class);
+            when(store.getSizeInBytes()).thenReturn(storeSizes.remove(0));
+            CommonStats total = mock(CommonStats.class);
+            when(total.getStore()).thenReturn(store);
+            IndicesStatsResponse response = mock(IndicesStatsResponse.class);
+            when(response.getTotal()).thenReturn(total);
+            ActionListener<IndicesStatsResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(indicesAdminClient).stats(any(IndicesStatsRequest.class), any());
+        List<ForceMergeRequest> forceMerges = new ArrayList<>();
+        doAnswer(invocation -> {
+            forceMerges.add(invocation.getArgument(0));
+            ActionListener<ForceMergeResponse> listener = invocation.getArgument(1);
+            listener.onResponse(mock(ForceMergeResponse.class));
+            return null;
+        }).when(indicesAdminClient).forceMerge(any(ForceMergeRequest.class), any());
+
+        CorrelationMetrics correlationMetrics = mock(CorrelationMetrics.class);
+        CorrelationHistoryCompactor compactor = new CorrelationHistoryCompactor(client, clusterService(), mock(ThreadPool.class), correlationMetrics);
+        List<Void> responses = new ArrayList<>();
+        compactor.compact(ActionListener.wrap(responses::add, e -> fail(e.getMessage())));
+
+        assertEquals(1, responses.size());
+        assertEquals("pit", searches.get(0).source().pointInTimeBuilder().getId());
+        assertEquals(1, bulks.size());
+        assertEquals(Set.of("orphan", "duplicate"), bulks.get(0).requests().stream().map(it -> it.id()).collect(Collectors.toSet()));
+        // the write index is not merged
+        assertEquals(1, forceMerges.size());
+        assertArrayEquals(new String[] { "history-1" }, forceMerges.get(0).indices());
+        assertTrue(forceMerges.get(0).onlyExpungeDeletes());
+        verify(correlationMetrics).add(CorrelationMetrics.COMPACTION_DELETED_RECORDS_COUNT, 2L);
+        verify(correlationMetrics).add(CorrelationMetrics.COMPACTION_RECLAIMED_BYTES_COUNT, 600L);
+        verify(client).execute(eq(DeletePitAction.INSTANCE), any(), any());
+    }
+
+    private static ClusterService clusterService() {
+        ClusterState state = ClusterState.builder(new ClusterName("test"))
+                .metadata(Metadata.builder()
+                        .put(historyIndex("history-1", false), false)
+                        .put(historyIndex("history-2", true), false))
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(Settings.EMPTY);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(Settings.EMPTY,
+                Set.of(SecurityAnalyticsSettings.CORRELATION_HISTORY_COMPACTION_INTERVAL)));
+        when(clusterService.state()).thenReturn(state);
+        return clusterService;
+    }
+
+    private static IndexMetadata historyIndex(String name, boolean writeIndex) {
+        return IndexMetadata.builder(name)
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .putAlias(AliasMetadata.builder(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX).writeIndex(writeIndex))
+                .build();
+    }
+
+    private static SearchHit hit(String index, String id, String finding1, String finding2, String logType, long counter) {
+        SearchHit hit = new SearchHit(0, id, Collections.emptyMap(), Collections.emptyMap());
+        hit.sourceRef(new BytesArray("{\"finding1\":\"" + finding1 + "\",\"finding2\":\"" + finding2 + "\",\"logType\":\"" + logType +
+                "\",\"counter\":" + counter + (finding2.isEmpty() ? "" : ",\"corrRules\":[\"r1\"]") + "}"));
+        hit.shard(new SearchShardTarget("node", new ShardId(index, "_na_", 0), null, OriginalIndices.NONE));
+        return hit;
+    }
+
+    private static CorrelationHistoryCompactor.Record record(String id, String finding1, String finding2, String logType,
+                                                             List<String> rules, long counter) {
+        return new CorrelationHistoryCompactor.Record("history", id, finding1, finding2, logType, rules, counter);
+    }
+
+    private static List<String> ids(List<CorrelationHistoryCompactor.Record> records) {
+        return records.stream().map(CorrelationHistoryCompactor.Record::getId).collect(Collectors.toList());
+    }
+}
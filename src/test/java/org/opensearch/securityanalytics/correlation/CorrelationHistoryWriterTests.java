@@ -0,0 +1,114 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.support.WriteRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CorrelationHistoryWriterTests extends OpenSearchTestCase {
+
+    public void testRecordsAreWrittenInBatchesWithoutForcedRefresh() {
+        Client client = mock(Client.class);
+        List<BulkRequest> sent = new ArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            sent.add(request);
+            BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; ++i) {
+                items[i] = mock(BulkItemResponse.class);
+                when(items[i].isFailed()).thenReturn(i == 2);
+            }
+            BulkResponse response = mock(BulkResponse.class);
+            when(response.getItems()).thenReturn(items);
+            ActionListener<BulkResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).bulk(any(BulkRequest.class), any());
+
+        CorrelationHistoryWriter writer = new CorrelationHistoryWriter(client, clusterService(3), mock(ThreadPool.class));
+
+        List<String> results = new ArrayList<>();
+        writer.index(List.of(record("finding", "f1"), record("finding-finding", "f1")), ActionListener.wrap(
+                response -> results.add("first"), e -> results.add("first failed")));
+        assertTrue(sent.isEmpty());
+        writer.index(List.of(record("finding", "f2")), ActionListener.wrap(
+                response -> results.add("second"), e -> results.add("second failed")));
+
+        assertEquals(1, sent.size());
+        assertEquals(3, sent.get(0).numberOfActions());
+        assertEquals(WriteRequest.RefreshPolicy.NONE, sent.get(0).getRefreshPolicy());
+        assertEquals(List.of("first", "second failed"), results);
+    }
+
+    public void testRecentFindingRecordsAreReadable() {
+        CorrelationHistoryWriter writer = new CorrelationHistoryWriter(mock(Client.class), clusterService(10), mock(ThreadPool.class));
+        writer.index(List.of(record("finding", "f1"), record("finding-finding", "f2")), ActionListener.wrap(response -> {}, e -> {}));
+
+        assertTrue(writer.findingRecord("f1").isPresent());
+        assertEquals(42, writer.findingRecord("f1").get().get("counter"));
+        assertFalse(writer.findingRecord("f2").isPresent());
+        assertTrue(writer.correlationRecord(42L).isPresent());
+        assertEquals("f2", writer.correlationRecord(42L).get().get("finding1"));
+        assertFalse(writer.correlationRecord(43L).isPresent());
+    }
+
+    public void testRecentRecordsExpireAfterFlushIntervalAndRetention() {
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.relativeTimeInMillis()).thenReturn(0L);
+        CorrelationHistoryWriter writer = new CorrelationHistoryWriter(mock(Client.class), clusterService(10), threadPool);
+        writer.index(List.of(record("finding", "f1"), record("finding-finding", "f2")), ActionListener.wrap(response -> {}, e -> {}));
+
+        // flush interval of 1m and retention of 10s
+        when(threadPool.relativeTimeInMillis()).thenReturn(70_000L);
+        assertTrue(writer.findingRecord("f1").isPresent());
+        assertTrue(writer.correlationRecord(42L).isPresent());
+
+        when(threadPool.relativeTimeInMillis()).thenReturn(70_001L);
+        assertFalse(writer.findingRecord("f1").isPresent());
+        assertFalse(writer.correlationRecord(42L).isPresent());
+    }
+
+    private static IndexRequest record(String recordType, String finding1) {
+        return new IndexRequest(CorrelationIndices.CORRELATION_HISTORY_WRITE_INDEX)
+                .source(Map.of("recordType", recordType, "finding1", finding1, "finding2", "", "counter", 42));
+    }
+
+    private static ClusterService clusterService(int batchSize) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_WRITER_FLUSH_INTERVAL.getKey(), "1m")
+                .put(SecurityAnalyticsSettings.CORRELATION_WRITER_BATCH_SIZE.getKey(), batchSize)
+                .put(SecurityAnalyticsSettings.CORRELATION_WRITER_RECENT_RECORDS_RETENTION.getKey(), "10s")
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.CORRELATION_WRITER_FLUSH_INTERVAL,
+                SecurityAnalyticsSettings.CORRELATION_WRITER_BATCH_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_WRITER_RECENT_RECORDS_RETENTION)));
+        return clusterService;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.HdrHistogram.Histogram;
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.securityanalytics.action.CorrelationNodeStats;
+import org.opensearch.securityanalytics.action.CorrelationStatsResponse;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class CorrelationMetricsTests extends OpenSearchTestCase {
+
+    public void testStageLatenciesAreCumulative() {
+        CorrelationMetrics metrics = new CorrelationMetrics();
+        long start = metrics.startNanos() - TimeUnit.MILLISECONDS.toNanos(5L);
+        long next = metrics.record(CorrelationMetrics.RULES_LOOKUP, start);
+        metrics.record(CorrelationMetrics.VALID_DOCUMENTS, next);
+
+        assertEquals(1L, metrics.histograms().get(CorrelationMetrics.RULES_LOOKUP).getTotalCount());
+        metrics.record(CorrelationMetrics.RULES_LOOKUP, start);
+
+        Histogram rulesLookup = metrics.histograms().get(CorrelationMetrics.RULES_LOOKUP);
+        assertEquals(2L, rulesLookup.getTotalCount());
+        assertTrue(rulesLookup.getMinValue() >= 4900L);
+        assertEquals(1L, metrics.histograms().get(CorrelationMetrics.VALID_DOCUMENTS).getTotalCount());
+    }
+
+    public void testLatenciesAboveHighestTrackableValueAreCapped() {
+        CorrelationMetrics metrics = new CorrelationMetrics();
+        metrics.record(CorrelationMetrics.CORRELATION_TOTAL, metrics.startNanos() - TimeUnit.HOURS.toNanos(1L));
+
+        Histogram total = metrics.histograms().get(CorrelationMetrics.CORRELATION_TOTAL);
+        assertEquals(1L, total.getTotalCount());
+        assertTrue(total.valuesAreEquivalent(CorrelationMetrics.HIGHEST_TRACKABLE_MICROS, total.getMaxValue()));
+    }
+
+    public void testNodeStatsAreSerializedAndMerged() throws Exception {
+        CorrelationMetrics metrics = new CorrelationMetrics();
+        metrics.record(CorrelationMetrics.VECTOR_INSERT, metrics.startNanos() - TimeUnit.MILLISECONDS.toNanos(20L));
+        metrics.increment(CorrelationMetrics.CORRELATIONS_COUNT);
+        metrics.add(CorrelationMetrics.ALERTS_INDEXED_COUNT, 3L);
+
+        DiscoveryNode node = new DiscoveryNode("node1", buildNewFakeTransportAddress(), Version.CURRENT);
+        CorrelationNodeStats nodeStats = new CorrelationNodeStats(node, metrics.histograms(), metrics.counters());
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        nodeStats.writeTo(out);
+        StreamInput sin = out.bytes().streamInput();
+        CorrelationNodeStats read = new CorrelationNodeStats(sin);
+
+        assertEquals(Map.of(CorrelationMetrics.CORRELATIONS_COUNT, 1L, CorrelationMetrics.ALERTS_INDEXED_COUNT, 3L), read.getCounters());
+        assertEquals(1L, read.getHistograms().get(CorrelationMetrics.VECTOR_INSERT).getTotalCount());
+
+        CorrelationStatsResponse response = new CorrelationStatsResponse(new ClusterName("test"), List.of(nodeStats, read), List.of());
+        assertEquals(2L, response.getClusterHistograms().get(CorrelationMetrics.VECTOR_INSERT).getTotalCount());
+        assertEquals(Long.valueOf(6L), response.getClusterCounters().get(CorrelationMetrics.ALERTS_INDEXED_COUNT));
+    }
+}
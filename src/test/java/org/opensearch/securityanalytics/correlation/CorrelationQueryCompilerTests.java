@@ -0,0 +1,50 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.MatchPhraseQueryBuilder;
+import org.opensearch.index.query.MatchQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryStringQueryBuilder;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class CorrelationQueryCompilerTests extends OpenSearchTestCase {
+
+    public void testFieldClauseIsCompiledToMatchQuery() {
+        QueryBuilder query = CorrelationQueryCompiler.compile("aws.cloudtrail.eventName:ReplicateObject");
+
+        assertTrue(query instanceof MatchQueryBuilder);
+        assertEquals("aws.cloudtrail.eventName", ((MatchQueryBuilder) query).fieldName());
+        assertEquals("ReplicateObject", ((MatchQueryBuilder) query).value());
+    }
+
+    public void testBooleanGroupsAreCompiled() {
+        QueryBuilder query = CorrelationQueryCompiler.compile("EventName:CreateUser AND NOT (user:admin OR user:\"root user\")");
+
+        assertTrue(query instanceof BoolQueryBuilder);
+        BoolQueryBuilder boolQuery = (BoolQueryBuilder) query;
+        assertEquals(1, boolQuery.must().size());
+        assertEquals(1, boolQuery.mustNot().size());
+        BoolQueryBuilder negated = (BoolQueryBuilder) boolQuery.mustNot().get(0);
+        assertEquals(2, negated.should().size());
+        assertTrue(negated.should().get(1) instanceof MatchPhraseQueryBuilder);
+    }
+
+    public void testUnsupportedSyntaxKeepsQueryString() {
+        assertTrue(CorrelationQueryCompiler.compile("Domain:NTAUTHORI*") instanceof QueryStringQueryBuilder);
+        assertTrue(CorrelationQueryCompiler.compile("endpoint:\\/customer_records.txt") instanceof QueryStringQueryBuilder);
+        assertTrue(CorrelationQueryCompiler.compile("a:1 AND b:2 OR c:3") instanceof QueryStringQueryBuilder);
+        assertTrue(CorrelationQueryCompiler.compile("ReplicateObject") instanceof QueryStringQueryBuilder);
+    }
+
+    public void testMalformedQueriesAreRejected() {
+        expectThrows(IllegalArgumentException.class, () -> CorrelationQueryCompiler.compile("(a:1 AND b:2"));
+        expectThrows(IllegalArgumentException.class, () -> CorrelationQueryCompiler.compile("a:1 AND"));
+        expectThrows(IllegalArgumentException.class, () -> CorrelationQueryCompiler.compile("a:\"unterminated"));
+        expectThrows(IllegalArgumentException.class, () -> CorrelationQueryCompiler.compile(" "));
+        assertNull(CorrelationQueryCompiler.compile(null));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CorrelationSearchBatcherTests extends OpenSearchTestCase {
+
+    public void testBatchIsSplitBackPerCaller() {
+        Client client = mock(Client.class);
+        List<MultiSearchRequest> sent = new ArrayList<>();
+        doAnswer(invocation -> {
+            MultiSearchRequest request = invocation.getArgument(0);
+            sent.add(request);
+            MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[request.requests().size()];
+            for (int i = 0; i < items.length; ++i) {
+                items[i] = new MultiSearchResponse.Item(null, new Exception(request.requests().get(i).indices()[0]));
+            }
+            ActionListener<MultiSearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(new MultiSearchResponse(items, 1L));
+            return null;
+        }).when(client).multiSearch(any(MultiSearchRequest.class), any());
+
+        CorrelationSearchBatcher batcher = new CorrelationSearchBatcher(client, clusterService("1s", 3), threadPool());
+
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        batcher.multiSearch("network", multiSearchRequest("a", "b"), ActionListener.wrap(
+                response -> collect(response, first), e -> fail(e.getMessage())));
+        assertTrue(sent.isEmpty());
+        batcher.multiSearch("network", multiSearchRequest("c"), ActionListener.wrap(
+                response -> collect(response, second), e -> fail(e.getMessage())));
+
+        assertEquals(1, sent.size());
+        assertEquals(List.of("a", "b"), first);
+        assertEquals(List.of("c"), second);
+    }
+
+    public void testBatchingDisabledByDefault() {
+        Client client = mock(Client.class);
+        CorrelationSearchBatcher batcher = new CorrelationSearchBatcher(client, clusterService("0s", 3), threadPool());
+
+        batcher.multiSearch("network", multiSearchRequest("a"), ActionListener.wrap(response -> {}, e -> {}));
+        batcher.multiSearch("network", multiSearchRequest("b"), ActionListener.wrap(response -> {}, e -> {}));
+
+        verify(client, times(2)).multiSearch(any(MultiSearchRequest.class), any());
+    }
+
+    public void testCallersKeepTheirThreadContext() {
+        ThreadPool threadPool = threadPool();
+        ThreadContext threadContext = threadPool.getThreadContext();
+        Client client = mock(Client.class);
+        List<String> sendingUsers = new ArrayList<>();
+        doAnswer(invocation -> {
+            sendingUsers.add(threadContext.getHeader("user"));
+            MultiSearchRequest request = invocation.getArgument(0);
+            ActionListener<MultiSearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(new MultiSearchResponse(new MultiSearchResponse.Item[request.requests().size()], 1L));
+            return null;
+        }).when(client).multiSearch(any(MultiSearchRequest.class), any());
+
+        CorrelationSearchBatcher batcher = new CorrelationSearchBatcher(client, clusterService("1s", 2), threadPool);
+
+        List<String> listenerUsers = new ArrayList<>();
+        for (String user: List.of("alice", "bob")) {
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("user", user);
+                batcher.multiSearch("network", multiSearchRequest("a"), ActionListener.wrap(
+                        response -> listenerUsers.add(threadContext.getHeader("user")), e -> fail(e.getMessage())));
+            }
+        }
+
+        assertEquals(Collections.singletonList(null), sendingUsers);
+        assertEquals(List.of("alice", "bob"), listenerUsers);
+        assertNull(threadContext.getHeader("user"));
+    }
+
+    private static ThreadPool threadPool() {
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.getThreadContext()).thenReturn(new ThreadContext(Settings.EMPTY));
+        return threadPool;
+    }
+
+    private static void collect(MultiSearchResponse response, List<String> indices) {
+        for (MultiSearchResponse.Item item: response.getResponses()) {
+            indices.add(item.getFailure().getMessage());
+        }
+    }
+
+    private static MultiSearchRequest multiSearchRequest(String... indices) {
+        MultiSearchRequest mSearchRequest = new MultiSearchRequest();
+        for (String index: indices) {
+            mSearchRequest.add(new SearchRequest(index));
+        }
+        return mSearchRequest;
+    }
+
+    private static ClusterService clusterService(String batchWindow, int batchSize) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_BATCH_WINDOW.getKey(), batchWindow)
+                .put(SecurityAnalyticsSettings.CORRELATION_BATCH_SIZE.getKey(), batchSize)
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings,
+                Set.of(SecurityAnalyticsSettings.CORRELATION_BATCH_WINDOW, SecurityAnalyticsSettings.CORRELATION_BATCH_SIZE)));
+        return clusterService;
+    }
+}
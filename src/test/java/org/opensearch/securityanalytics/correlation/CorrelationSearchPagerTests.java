@@ -0,0 +1,217 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.lucene.search.TotalHits;
+import org.opensearch.action.search.CreatePitAction;
+import org.opensearch.action.search.CreatePitResponse;
+import org.opensearch.action.search.DeletePitAction;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.DocValueFormat;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.sort.SortOrder;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CorrelationSearchPagerTests extends OpenSearchTestCase {
+
+    public void testSortedSearchPagesOnPointInTime() {
+        Client client = mock(Client.class);
+        mockFirstPage(client, "a", "b");
+        mockCreatePit(client);
+        doAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            assertEquals("pit", request.source().pointInTimeBuilder().getId());
+            assertArrayEquals(new Object[]{"b"}, request.source().searchAfter());
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(searchResponse("c"));
+            return null;
+        }).when(client).search(any(SearchRequest.class), any());
+
+        List<String> ids = new ArrayList<>();
+        List<Exception[]> results = new ArrayList<>();
+        pager(client, 0).multiSearch("network", List.of(searchRequest(true)), (idx, hits) -> {
+            for (SearchHit hit: hits) {
+                ids.add(hit.getId());
+            }
+        }, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of("a", "b", "c"), ids);
+        assertEquals(1, results.size());
+        assertNull(results.get(0)[0]);
+        verify(client, times(1)).execute(eq(CreatePitAction.INSTANCE), any(), any());
+        verify(client, times(1)).execute(eq(DeletePitAction.INSTANCE), any(), any());
+    }
+
+    public void testSortedSearchFittingInFirstPageOpensNoPointInTime() {
+        Client client = mock(Client.class);
+        mockFirstPage(client, "a");
+
+        List<String> ids = new ArrayList<>();
+        pager(client, 0).multiSearch("network", List.of(searchRequest(true)), (idx, hits) -> {
+            for (SearchHit hit: hits) {
+                ids.add(hit.getId());
+            }
+        }, ActionListener.wrap(failures -> assertNull(failures[0]), e -> fail(e.getMessage())));
+
+        assertEquals(List.of("a"), ids);
+        verify(client, never()).execute(eq(CreatePitAction.INSTANCE), any(), any());
+        verify(client, never()).search(any(SearchRequest.class), any());
+    }
+
+    public void testUnsortedPageIsNotContinued() {
+        Client client = mock(Client.class);
+        mockFirstPage(client, "a", "b");
+
+        List<String> ids = new ArrayList<>();
+        pager(client, 10).multiSearch("network", List.of(searchRequest(false)), (idx, hits) -> {
+            for (SearchHit hit: hits) {
+                ids.add(hit.getId());
+            }
+        }, ActionListener.wrap(failures -> {}, e -> fail(e.getMessage())));
+
+        assertEquals(List.of("a", "b"), ids);
+        verify(client, never()).execute(eq(CreatePitAction.INSTANCE), any(), any());
+    }
+
+    public void testSearchStopsAtMaxHits() {
+        Client client = mock(Client.class);
+        mockFirstPage(client, "a", "b");
+        mockCreatePit(client);
+        doAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            assertEquals(1, request.source().size());
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(searchResponse("c"));
+            return null;
+        }).when(client).search(any(SearchRequest.class), any());
+
+        List<String> ids = new ArrayList<>();
+        pager(client, 3).multiSearch("network", List.of(searchRequest(true)), (idx, hits) -> {
+            for (SearchHit hit: hits) {
+                ids.add(hit.getId());
+            }
+        }, ActionListener.wrap(failures -> assertNull(failures[0]), e -> fail(e.getMessage())));
+
+        assertEquals(List.of("a", "b", "c"), ids);
+        verify(client, times(1)).search(any(SearchRequest.class), any());
+        verify(client, times(1)).execute(eq(DeletePitAction.INSTANCE), any(), any());
+    }
+
+    public void testFailedPointInTimeFailsOnlyItsSearch() {
+        Client client = mock(Client.class);
+        mockFirstPage(client, "a", "b");
+        doAnswer(invocation -> {
+            ActionListener<CreatePitResponse> listener = invocation.getArgument(2);
+            listener.onFailure(new IllegalStateException("no pit"));
+            return null;
+        }).when(client).execute(eq(CreatePitAction.INSTANCE), any(), any());
+
+        List<String> ids = new ArrayList<>();
+        List<Exception[]> results = new ArrayList<>();
+        pager(client, 10).multiSearch("network", List.of(searchRequest(true), searchRequest(false)), (idx, hits) -> {
+            for (SearchHit hit: hits) {
+                ids.add(idx + hit.getId());
+            }
+        }, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of("0a", "0b", "1a", "1b"), ids);
+        assertEquals("no pit", results.get(0)[0].getMessage());
+        assertNull(results.get(0)[1]);
+        verify(client, never()).search(any(SearchRequest.class), any());
+        verify(client, never()).execute(eq(DeletePitAction.INSTANCE), any(), any());
+    }
+
+    private static void mockCreatePit(Client client) {
+        doAnswer(invocation -> {
+            CreatePitResponse createPitResponse = mock(CreatePitResponse.class);
+            when(createPitResponse.getId()).thenReturn("pit");
+            ActionListener<CreatePitResponse> listener = invocation.getArgument(2);
+            listener.onResponse(createPitResponse);
+            return null;
+        }).when(client).execute(eq(CreatePitAction.INSTANCE), any(), any());
+    }
+
+    private static void mockFirstPage(Client client, String... ids) {
+        doAnswer(invocation -> {
+            MultiSearchRequest request = invocation.getArgument(0);
+            MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[request.requests().size()];
+            for (int i = 0; i < items.length; ++i) {
+                // every search starts on its indices, a point in time is only opened to continue it
+                SearchRequest searchRequest = request.requests().get(i);
+                assertNull(searchRequest.source().pointInTimeBuilder());
+                assertEquals(1, searchRequest.indices().length);
+                assertEquals(2, searchRequest.source().size());
+                items[i] = new MultiSearchResponse.Item(searchResponse(ids), null);
+            }
+            ActionListener<MultiSearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(new MultiSearchResponse(items, 1L));
+            return null;
+        }).when(client).multiSearch(any(MultiSearchRequest.class), any());
+    }
+
+    private static SearchResponse searchResponse(String... ids) {
+        SearchHit[] hits = new SearchHit[ids.length];
+        for (int i = 0; i < ids.length; ++i) {
+            hits[i] = new SearchHit(i, ids[i], Map.of(), Map.of());
+            hits[i].sortValues(new Object[]{ids[i]}, new DocValueFormat[]{DocValueFormat.RAW});
+        }
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getHits()).thenReturn(new SearchHits(hits, new TotalHits(ids.length, TotalHits.Relation.EQUAL_TO), 1.0f));
+        return response;
+    }
+
+    private static SearchRequest searchRequest(boolean sorted) {
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        if (sorted) {
+            searchSourceBuilder.sort("id", SortOrder.ASC);
+        }
+        SearchRequest searchRequest = new SearchRequest("findings");
+        searchRequest.source(searchSourceBuilder);
+        return searchRequest;
+    }
+
+    private static CorrelationSearchPager pager(Client client, int maxHits) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_SEARCH_PAGE_SIZE.getKey(), 2)
+                .put(SecurityAnalyticsSettings.CORRELATION_SEARCH_MAX_HITS.getKey(), maxHits)
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.CORRELATION_BATCH_WINDOW,
+                SecurityAnalyticsSettings.CORRELATION_BATCH_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_SEARCH_PAGE_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_SEARCH_MAX_HITS,
+                SecurityAnalyticsSettings.CORRELATION_SEARCH_KEEP_ALIVE)));
+        CorrelationSearchBatcher batcher = new CorrelationSearchBatcher(client, clusterService, mock(ThreadPool.class));
+        return new CorrelationSearchPager(client, clusterService, batcher);
+    }
+}
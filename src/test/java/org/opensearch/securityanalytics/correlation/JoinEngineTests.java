@@ -0,0 +1,121 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.List;
+
+public class JoinEngineTests extends OpenSearchTestCase {
+
+    public void testTermsQueryIsSplitAtMaxTermsCount() {
+        List<Object> values = List.of("a", "b", "c", "d", "e", "f", "g");
+
+        assertEquals(QueryBuilders.termsQuery("field", values), JoinEngine.termsQuery("field", values, 7));
+
+        QueryBuilder query = JoinEngine.termsQuery("field", values, 3);
+        assertTrue(query instanceof BoolQueryBuilder);
+        BoolQueryBuilder boolQuery = (BoolQueryBuilder) query;
+        assertEquals("1", boolQuery.minimumShouldMatch());
+        assertEquals(List.of(
+                QueryBuilders.termsQuery("field", List.of("a", "b", "c")),
+                QueryBuilders.termsQuery("field", List.of("d", "e", "f")),
+                QueryBuilders.termsQuery("field", List.of("g"))
+        ), boolQuery.should());
+    }
+
+    public void testFieldJoinQueryFiltersOnChunkedTerms() {
+        QueryBuilder query = JoinEngine.fieldJoinQuery(JoinEngine.termsQuery("field", List.of("a", "b"), 1), QueryBuilders.matchAllQuery());
+
+        BoolQueryBuilder expected = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.boolQuery().minimumShouldMatch(1)
+                        .should(QueryBuilders.termsQuery("field", List.of("a")))
+                        .should(QueryBuilders.termsQuery("field", List.of("b"))))
+                .must(QueryBuilders.matchAllQuery());
+        assertEquals(expected, query);
+    }
+
+    public void testJoinValuesQueryMatchesTextFieldsOnKeywordSubField() throws IOException {
+        ClusterState state = ClusterState.builder(new ClusterName("test"))
+                .metadata(Metadata.builder()
+                        .put(index("logs-1", "{\"properties\":{\"user\":{\"properties\":{\"name\":{\"type\":\"text\"," +
+                                "\"fields\":{\"keyword\":{\"type\":\"keyword\"}}}}},\"user_name\":{\"type\":\"alias\",\"path\":\"user.name\"}," +
+                                "\"host\":{\"type\":\"keyword\"}}}"), false))
+                .build();
+        IndexNameExpressionResolver indexNameExpressionResolver = new IndexNameExpressionResolver(new ThreadContext(Settings.EMPTY));
+        List<Object> values = List.of("John Doe", "Jane");
+
+        assertEquals(QueryBuilders.termsQuery("user.name.keyword", values),
+                JoinEngine.joinValuesQuery(state, indexNameExpressionResolver, "logs-*", "user.name", values, 10));
+        assertEquals(QueryBuilders.termsQuery("user_name.keyword", values),
+                JoinEngine.joinValuesQuery(state, indexNameExpressionResolver, "logs-*", "user_name", values, 10));
+        assertEquals(QueryBuilders.termsQuery("host", values),
+                JoinEngine.joinValuesQuery(state, indexNameExpressionResolver, "logs-*", "host", values, 10));
+        assertEquals(QueryBuilders.termsQuery("unmapped", values),
+                JoinEngine.joinValuesQuery(state, indexNameExpressionResolver, "logs-*", "unmapped", values, 10));
+    }
+
+    public void testJoinValuesQueryMatchesTextFieldsWithoutKeywordSubField() throws IOException {
+        ClusterState state = ClusterState.builder(new ClusterName("test"))
+                .metadata(Metadata.builder()
+                        .put(index("logs-1", "{\"properties\":{\"message\":{\"type\":\"text\",\"fields\":{\"keyword\":{\"type\":\"keyword\"}}}}}"), false)
+                        .put(index("logs-2", "{\"properties\":{\"message\":{\"type\":\"text\"}}}"), false))
+                .build();
+        IndexNameExpressionResolver indexNameExpressionResolver = new IndexNameExpressionResolver(new ThreadContext(Settings.EMPTY));
+
+        BoolQueryBuilder expected = QueryBuilders.boolQuery().minimumShouldMatch(1)
+                .should(QueryBuilders.matchQuery("message", "Failed Login"))
+                .should(QueryBuilders.matchQuery("message", "denied"));
+        assertEquals(expected, JoinEngine.joinValuesQuery(state, indexNameExpressionResolver, "logs-*", "message",
+                List.of("Failed Login", "denied"), 10));
+        assertEquals(QueryBuilders.termsQuery("message.keyword", List.of("denied")),
+                JoinEngine.joinValuesQuery(state, indexNameExpressionResolver, "logs-1", "message", List.of("denied"), 10));
+    }
+
+    public void testMaxTermsCountIsSmallestOfResolvedIndices() {
+        ClusterState state = ClusterState.builder(new ClusterName("test"))
+                .metadata(Metadata.builder()
+                        .put(index("logs-1", 100), false)
+                        .put(index("logs-2", 50), false)
+                        .put(index("other", 10), false))
+                .build();
+        IndexNameExpressionResolver indexNameExpressionResolver = new IndexNameExpressionResolver(new ThreadContext(Settings.EMPTY));
+
+        assertEquals(50, JoinEngine.maxTermsCount(state, indexNameExpressionResolver, "logs-*"));
+        assertEquals(100, JoinEngine.maxTermsCount(state, indexNameExpressionResolver, "logs-1"));
+        assertEquals(IndexSettings.MAX_TERMS_COUNT_SETTING.getDefault(Settings.EMPTY).intValue(),
+                JoinEngine.maxTermsCount(state, indexNameExpressionResolver, "missing-*"));
+    }
+
+    private static IndexMetadata index(String name, String mapping) throws IOException {
+        return IndexMetadata.builder(name)
+                .settings(settings(Version.CURRENT))
+                .putMapping(mapping)
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+    }
+
+    private static IndexMetadata index(String name, int maxTermsCount) {
+        return IndexMetadata.builder(name)
+                .settings(settings(Version.CURRENT).put(IndexSettings.MAX_TERMS_COUNT_SETTING.getKey(), maxTermsCount))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation;
+
+import org.apache.lucene.search.TotalHits;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.settings.SecurityAnalyticsSettings;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProcessedFindingsFilterTests extends OpenSearchTestCase {
+
+    private final AtomicLong now = new AtomicLong(1000L);
+
+    public void testUnknownFindingsAreNotLookedUp() {
+        Client client = mock(Client.class);
+        List<SearchRequest> searches = mockSearch(client, 1L);
+        ProcessedFindingsFilter filter = filter(client, 100);
+
+        filter.add("f1");
+        List<Boolean> results = new ArrayList<>();
+        filter.isProcessed("f2", ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of(false), results);
+        assertTrue(searches.isEmpty());
+    }
+
+    public void testPossiblePositivesAreConfirmedInCorrelationHistory() {
+        Client client = mock(Client.class);
+        List<SearchRequest> searches = mockSearch(client, 1L);
+        ProcessedFindingsFilter filter = filter(client, 100);
+
+        filter.add("f1");
+        List<Boolean> results = new ArrayList<>();
+        filter.isProcessed("f1", ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+
+        assertEquals(List.of(true), results);
+        assertEquals(1, searches.size());
+
+        Client emptyHistory = mock(Client.class);
+        mockSearch(emptyHistory, 0L);
+        ProcessedFindingsFilter falsePositive = filter(emptyHistory, 100);
+        falsePositive.add("f1");
+        falsePositive.isProcessed("f1", ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        assertEquals(List.of(true, false), results);
+    }
+
+    public void testFindingsAreForgottenAfterTwoGenerations() {
+        ProcessedFindingsFilter filter = filter(mock(Client.class), 100);
+
+        filter.add("f1");
+        now.addAndGet(60_001L);
+        assertTrue(filter.mightContain("f1"));
+        now.addAndGet(60_001L);
+        assertFalse(filter.mightContain("f1"));
+    }
+
+    public void testGenerationIsRotatedAtCapacity() {
+        ProcessedFindingsFilter filter = filter(mock(Client.class), 2);
+
+        filter.add("f1");
+        filter.add("f2");
+        filter.add("f3");
+        filter.add("f4");
+        filter.add("f5");
+
+        assertFalse(filter.mightContain("f1"));
+        assertTrue(filter.mightContain("f3"));
+        assertTrue(filter.mightContain("f5"));
+    }
+
+    private ProcessedFindingsFilter filter(Client client, int capacity) {
+        Settings settings = Settings.builder()
+                .put(SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_FILTER_SIZE.getKey(), capacity)
+                .put(SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_RETENTION.getKey(), "1m")
+                .build();
+        ClusterService clusterService = mock(ClusterService.class);
+        when(clusterService.getSettings()).thenReturn(settings);
+        when(clusterService.getClusterSettings()).thenReturn(new ClusterSettings(settings, Set.of(
+                SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_FILTER_SIZE,
+                SecurityAnalyticsSettings.CORRELATION_PROCESSED_FINDINGS_RETENTION)));
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.relativeTimeInMillis()).thenAnswer(invocation -> now.get());
+        CorrelationHistoryWriter correlationHistoryWriter = mock(CorrelationHistoryWriter.class);
+        when(correlationHistoryWriter.findingRecord(any())).thenReturn(Optional.empty());
+        return new ProcessedFindingsFilter(client, clusterService, threadPool, correlationHistoryWriter);
+    }
+
+    private static List<SearchRequest> mockSearch(Client client, long totalHits) {
+        List<SearchRequest> searches = new ArrayList<>();
+        doAnswer(invocation -> {
+            searches.add(invocation.getArgument(0));
+            SearchResponse response = mock(SearchResponse.class);
+            when(response.getHits()).thenReturn(new SearchHits(new SearchHit[0], new TotalHits(totalHits, TotalHits.Relation.EQUAL_TO), 0.0f));
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any());
+        return searches;
+    }
+}
@@ -4,13 +4,30 @@
  */
 package org.opensearch.securityanalytics.correlation.alerts;
 
+import org.apache.lucene.search.TotalHits;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.update.UpdateRequest;
+import org.opensearch.action.update.UpdateResponse;
 import org.opensearch.client.Client;
 import org.opensearch.commons.alerting.model.Alert;
 import org.opensearch.commons.alerting.model.CorrelationAlert;
 import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.rest.RestStatus;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.get.GetResult;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.action.AckCorrelationAlertsResponse;
 import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertService;
 import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertsList;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
 import org.opensearch.test.OpenSearchTestCase;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -18,8 +35,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class CorrelationAlertServiceTests  extends OpenSearchTestCase {
 
@@ -76,4 +99,94 @@ public class CorrelationAlertServiceTests  extends OpenSearchTestCase {
             }
         });
     }
+
+    public void testAcknowledgeAlertsWithConditionalPartialUpdates() {
+        Client client = mock(Client.class);
+        mockSearch(client, "a1", "a2", "a3");
+        List<BulkRequest> bulks = new ArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            bulks.add(request);
+            BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; ++i) {
+                String alertId = request.requests().get(i).id();
+                items[i] = mock(BulkItemResponse.class);
+                when(items[i].getId()).thenReturn(alertId);
+                if ("a3".equals(alertId)) {
+                    when(items[i].isFailed()).thenReturn(true);
+                    when(items[i].status()).thenReturn(RestStatus.CONFLICT);
+                    continue;
+                }
+                UpdateResponse updateResponse = mock(UpdateResponse.class);
+                when(updateResponse.getId()).thenReturn(alertId);
+                when(updateResponse.getVersion()).thenReturn(2L);
+                when(updateResponse.getGetResult()).thenReturn(new GetResult(CorrelationIndices.CORRELATION_ALERT_INDEX, alertId, 1L, 1L, 2L, true,
+                        new BytesArray(source(alertId, Alert.State.ACKNOWLEDGED)), Collections.emptyMap(), Collections.emptyMap()));
+                doReturn(updateResponse).when(items[i]).getResponse();
+            }
+            BulkResponse response = mock(BulkResponse.class);
+            when(response.getItems()).thenReturn(items);
+            ActionListener<BulkResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).bulk(any(BulkRequest.class), any());
+
+        CorrelationAlertService alertsService = new CorrelationAlertService(client, mock(NamedXContentRegistry.class));
+        List<AckCorrelationAlertsResponse> responses = new ArrayList<>();
+        alertsService.acknowledgeAlerts(List.of("a1", "a2", "a3", "missing"), ActionListener.wrap(responses::add, e -> fail(e.getMessage())));
+
+        assertEquals(1, bulks.size());
+        assertEquals(3, bulks.get(0).numberOfActions());
+        for (DocWriteRequest<?> request: bulks.get(0).requests()) {
+            assertTrue(request instanceof UpdateRequest);
+            assertNull(((UpdateRequest) request).script());
+            assertEquals(5L, request.ifSeqNo());
+            assertEquals(1L, request.ifPrimaryTerm());
+        }
+        assertEquals(1, responses.size());
+        assertEquals(2, responses.get(0).getAcknowledged().size());
+        assertEquals(Alert.State.ACKNOWLEDGED, responses.get(0).getAcknowledged().get(0).getState());
+        assertEquals(1, responses.get(0).getFailed().size());
+        assertEquals("a3", responses.get(0).getFailed().get(0).getId());
+    }
+
+    public void testAcknowledgeAlertsFailsWithoutAlertsIndex() {
+        Client client = mock(Client.class);
+        doAnswer(invocation -> {
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onFailure(new IndexNotFoundException(CorrelationIndices.CORRELATION_ALERT_INDEX));
+            return null;
+        }).when(client).search(any(SearchRequest.class), any());
+
+        CorrelationAlertService alertsService = new CorrelationAlertService(client, mock(NamedXContentRegistry.class));
+        List<Exception> failures = new ArrayList<>();
+        alertsService.acknowledgeAlerts(List.of("a1"), ActionListener.wrap(r -> fail(), failures::add));
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof IndexNotFoundException);
+        verify(client, never()).bulk(any(BulkRequest.class), any());
+    }
+
+    private static void mockSearch(Client client, String... alertIds) {
+        doAnswer(invocation -> {
+            SearchHit[] hits = new SearchHit[alertIds.length];
+            for (int i = 0; i < alertIds.length; ++i) {
+                hits[i] = new SearchHit(i, alertIds[i], Collections.emptyMap(), Collections.emptyMap());
+                hits[i].sourceRef(new BytesArray(source(alertIds[i], Alert.State.ACTIVE)));
+                hits[i].setSeqNo(5L);
+                hits[i].setPrimaryTerm(1L);
+            }
+            SearchResponse response = mock(SearchResponse.class);
+            when(response.getHits()).thenReturn(new SearchHits(hits, new TotalHits(hits.length, TotalHits.Relation.EQUAL_TO), 1.0f));
+            ActionListener<SearchResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).search(any(SearchRequest.class), any());
+    }
+
+    private static String source(String alertId, Alert.State state) {
+        return "{\"id\":\"" + alertId + "\",\"correlation_rule_id\":\"r1\",\"state\":\"" + state + "\"," +
+                "\"start_time\":\"2024-01-01T00:00:00Z\",\"end_time\":\"2024-01-01T00:05:00Z\"," +
+                "\"acknowledged_time\":\"2024-01-01T00:01:00Z\"}";
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.alerts;
+
+import org.apache.lucene.search.TotalHits;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.get.MultiGetItemResponse;
+import org.opensearch.action.get.MultiGetRequest;
+import org.opensearch.action.get.MultiGetResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.index.IndexResponse;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.client.Client;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.commons.alerting.model.Alert;
+import org.opensearch.commons.alerting.model.CorrelationAlert;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertService;
+import org.opensearch.securityanalytics.correlation.alert.CorrelationAlertStateTable;
+import org.opensearch.securityanalytics.util.CorrelationIndices;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CorrelationAlertStateTableTests extends OpenSearchTestCase {
+
+    private static final long NOW = 10_000L;
+
+    public void testActiveAlertsOfAllRulesAreHydratedWithOneSearch() throws Exception {
+        CorrelationAlertService alertService = mock(CorrelationAlertService.class);
+        List<Collection<String>> searches = mockSearch(alertService, List.of(alert("a1", "r1")));
+
+        CorrelationAlertStateTable table = new CorrelationAlertStateTable(mock(Client.class), alertService, mock(ThreadPool.class));
+        List<Map<String, List<CorrelationAlert>>> results = new ArrayList<>();
+        table.getActiveAlerts(List.of("r1", "r2", "r3"), NOW, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        table.getActiveAlerts(List.of("r1", "r2"), NOW, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+
+        // r2 had no active alert, which is confirmed against the index in case another node created one since
+        assertEquals(2, searches.size());
+        assertEquals(List.of("r1", "r2", "r3"), new ArrayList<>(searches.get(0)));
+        assertEquals(List.of("r2"), new ArrayList<>(searches.get(1)));
+        assertEquals("a1", results.get(1).get("r1").get(0).getId());
+        assertTrue(results.get(1).get("r2").isEmpty());
+    }
+
+    public void testAlertsAreWrittenWithOneConditionalBulk() throws Exception {
+        CorrelationAlertService alertService = mock(CorrelationAlertService.class);
+        mockSearch(alertService, List.of(alert("a1", "r1")));
+        Client client = mock(Client.class);
+        List<BulkRequest> bulks = mockBulk(client, false);
+
+        CorrelationAlertStateTable table = new CorrelationAlertStateTable(client, alertService, mock(ThreadPool.class));
+        table.getActiveAlerts(List.of("r1", "r2"), NOW, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        List<CorrelationAlertStateTable.IndexedAlerts> indexed = new ArrayList<>();
+        table.indexAlerts(List.of(alert("a1", "r1"), alert("a2", "r2")), NOW, TimeValue.timeValueSeconds(60L), ActionListener.wrap(indexed::add, e -> fail(e.getMessage())));
+
+        assertEquals(2, indexed.get(0).getWritten().size());
+        assertTrue(indexed.get(0).getConflicted().isEmpty());
+        assertEquals(1, bulks.size());
+        IndexRequest update = (IndexRequest) bulks.get(0).requests().get(0);
+        IndexRequest create = (IndexRequest) bulks.get(0).requests().get(1);
+        assertEquals(5L, update.ifSeqNo());
+        assertEquals(DocWriteRequest.OpType.CREATE, create.opType());
+
+        List<Map<String, List<CorrelationAlert>>> results = new ArrayList<>();
+        table.getActiveAlerts(List.of("r2"), NOW, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        assertEquals("a2", results.get(0).get("r2").get(0).getId());
+    }
+
+    public void testConflictingAlertIsReadAgain() throws Exception {
+        CorrelationAlertService alertService = mock(CorrelationAlertService.class);
+        List<Collection<String>> searches = mockSearch(alertService, List.of(alert("a1", "r1")));
+        Client client = mock(Client.class);
+        List<BulkRequest> bulks = mockBulk(client, true);
+        List<MultiGetRequest> gets = mockMultiGet(client, alertService, alert("a1", "r1"));
+
+        CorrelationAlertStateTable table = new CorrelationAlertStateTable(client, alertService, mock(ThreadPool.class));
+        table.getActiveAlerts(List.of("r1"), NOW, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        List<CorrelationAlertStateTable.IndexedAlerts> indexed = new ArrayList<>();
+        table.indexAlerts(List.of(alert("a1", "r1")), NOW, TimeValue.timeValueSeconds(60L), ActionListener.wrap(indexed::add, e -> fail(e.getMessage())));
+
+        assertTrue(indexed.get(0).getWritten().isEmpty());
+        assertEquals("a1", indexed.get(0).getConflicted().get(0).getId());
+        assertEquals(1, gets.size());
+        assertEquals("a1", gets.get(0).getItems().get(0).id());
+
+        List<Map<String, List<CorrelationAlert>>> results = new ArrayList<>();
+        table.getActiveAlerts(List.of("r1"), NOW, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        assertEquals(1, searches.size());
+        assertEquals("a1", results.get(0).get("r1").get(0).getId());
+
+        table.indexAlerts(List.of(alert("a1", "r1")), NOW, TimeValue.timeValueSeconds(60L), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        assertEquals(7L, ((IndexRequest) bulks.get(1).requests().get(0)).ifSeqNo());
+    }
+
+    public void testConflictingAlertNotActiveAnymoreIsDropped() throws Exception {
+        CorrelationAlertService alertService = mock(CorrelationAlertService.class);
+        mockSearch(alertService, List.of());
+        Client client = mock(Client.class);
+        mockBulk(client, true);
+        CorrelationAlert acknowledged = new CorrelationAlert(List.of("f1"), "r1", "mock-rule", "a1", 2L, 1, null, "mock-trigger",
+                Alert.State.ACKNOWLEDGED, Instant.ofEpochMilli(NOW - 1000L), Instant.ofEpochMilli(NOW + 1000L), Instant.ofEpochMilli(NOW),
+                null, "high", new ArrayList<>());
+        mockMultiGet(client, alertService, acknowledged);
+
+        CorrelationAlertStateTable table = new CorrelationAlertStateTable(client, alertService, mock(ThreadPool.class));
+        table.getActiveAlerts(List.of("r1"), NOW, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        table.indexAlerts(List.of(alert("a1", "r1")), NOW, TimeValue.timeValueSeconds(60L), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+
+        List<Map<String, List<CorrelationAlert>>> results = new ArrayList<>();
+        table.getActiveAlerts(List.of("r1"), NOW, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        assertTrue(results.get(0).get("r1").isEmpty());
+    }
+
+    private static List<Collection<String>> mockSearch(CorrelationAlertService alertService, List<CorrelationAlert> alerts) throws Exception {
+        List<Collection<String>> searches = new ArrayList<>();
+        doAnswer(invocation -> {
+            Collection<String> ruleIds = invocation.getArgument(0);
+            searches.add(new ArrayList<>(ruleIds));
+            List<SearchHit> hits = new ArrayList<>();
+            for (CorrelationAlert alert: alerts) {
+                if (ruleIds.contains(alert.getCorrelationRuleId())) {
+                    SearchHit hit = new SearchHit(hits.size(), alert.getId(), Map.of(), Map.of());
+                    hit.setSeqNo(5L);
+                    hit.setPrimaryTerm(1L);
+                    hits.add(hit);
+                }
+            }
+            SearchResponse response = mock(SearchResponse.class);
+            when(response.getHits()).thenReturn(new SearchHits(hits.toArray(new SearchHit[0]), new TotalHits(hits.size(), TotalHits.Relation.EQUAL_TO), 1.0f));
+            ActionListener<SearchResponse> listener = invocation.getArgument(2);
+            listener.onResponse(response);
+            return null;
+        }).when(alertService).searchActiveAlerts(any(), anyLong(), any());
+        when(alertService.parseCorrelationAlert(any(SearchHit.class))).thenAnswer(invocation -> {
+            SearchHit hit = invocation.getArgument(0);
+            return alerts.stream().filter(it -> it.getId().equals(hit.getId())).findFirst().orElseThrow();
+        });
+        when(alertService.getCorrelationAlertIndexRequest(any(), any())).thenAnswer(invocation -> {
+            CorrelationAlert alert = invocation.getArgument(0);
+            return new IndexRequest(CorrelationIndices.CORRELATION_ALERT_INDEX).id(alert.getId()).source(Map.of("id", alert.getId()));
+        });
+        return searches;
+    }
+
+    private static List<BulkRequest> mockBulk(Client client, boolean conflict) {
+        List<BulkRequest> bulks = new ArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            bulks.add(request);
+            BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; ++i) {
+                items[i] = mock(BulkItemResponse.class);
+                when(items[i].isFailed()).thenReturn(conflict);
+                when(items[i].status()).thenReturn(conflict ? RestStatus.CONFLICT : RestStatus.CREATED);
+                IndexResponse indexResponse = mock(IndexResponse.class);
+                when(indexResponse.getSeqNo()).thenReturn(6L);
+                when(indexResponse.getPrimaryTerm()).thenReturn(1L);
+                doReturn(indexResponse).when(items[i]).getResponse();
+            }
+            BulkResponse response = mock(BulkResponse.class);
+            when(response.getItems()).thenReturn(items);
+            ActionListener<BulkResponse> listener = invocation.getArgument(1);
+            listener.onResponse(response);
+            return null;
+        }).when(client).bulk(any(BulkRequest.class), any());
+        return bulks;
+    }
+
+    private static List<MultiGetRequest> mockMultiGet(Client client, CorrelationAlertService alertService, CorrelationAlert alert) throws Exception {
+        List<MultiGetRequest> gets = new ArrayList<>();
+        doAnswer(invocation -> {
+            MultiGetRequest request = invocation.getArgument(0);
+            gets.add(request);
+            GetResponse getResponse = mock(GetResponse.class);
+            when(getResponse.isExists()).thenReturn(true);
+            when(getResponse.getId()).thenReturn(alert.getId());
+            when(getResponse.getSeqNo()).thenReturn(7L);
+            when(getResponse.getPrimaryTerm()).thenReturn(1L);
+            ActionListener<MultiGetResponse> listener = invocation.getArgument(1);
+            listener.onResponse(new MultiGetResponse(new MultiGetItemResponse[] { new MultiGetItemResponse(getResponse, null) }));
+            return null;
+        }).when(client).multiGet(any(MultiGetRequest.class), any());
+        when(alertService.parseCorrelationAlert(any(), anyLong(), any())).thenReturn(alert);
+        return gets;
+    }
+
+    private static CorrelationAlert alert(String id, String ruleId) {
+        return new CorrelationAlert(
+                List.of("f1"),
+                ruleId,
+                "mock-rule",
+                id,
+                1L,
+                1,
+                null,
+                "mock-trigger",
+                Alert.State.ACTIVE,
+                Instant.ofEpochMilli(NOW - 1000L),
+                Instant.ofEpochMilli(NOW + 1000L),
+                null,
+                null,
+                "high",
+                new ArrayList<>()
+        );
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.codec;
+
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.opensearch.index.mapper.MapperService;
+import org.opensearch.securityanalytics.correlation.CorrelationConstants;
+import org.opensearch.securityanalytics.correlation.index.CorrelationParamsContext;
+import org.opensearch.securityanalytics.correlation.index.codec.correlation990.PerFieldCorrelationVectorsFormat990;
+import org.opensearch.securityanalytics.correlation.index.codec.correlation991.PerFieldCorrelationVectorsFormat991;
+import org.opensearch.securityanalytics.correlation.index.mapper.CorrelationVectorFieldMapper;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PerFieldCorrelationVectorsFormatTests extends OpenSearchTestCase {
+
+    public void testInt8EncodedFieldIsQuantized() {
+        MapperService mapperService = mapperService(CorrelationConstants.ENCODING_INT8);
+
+        assertTrue(new PerFieldCorrelationVectorsFormat991(Optional.of(mapperService)).getKnnVectorsFormatForField("corr_vector")
+                instanceof Lucene99HnswScalarQuantizedVectorsFormat);
+    }
+
+    public void testFloatEncodedFieldIsNotQuantized() {
+        MapperService mapperService = mapperService(CorrelationConstants.ENCODING_FLOAT);
+
+        assertTrue(new PerFieldCorrelationVectorsFormat991(Optional.of(mapperService)).getKnnVectorsFormatForField("corr_vector")
+                instanceof Lucene99HnswVectorsFormat);
+    }
+
+    public void testPreviousCodecVersionIgnoresEncoding() {
+        MapperService mapperService = mapperService(CorrelationConstants.ENCODING_INT8);
+
+        assertTrue(new PerFieldCorrelationVectorsFormat990(Optional.of(mapperService)).getKnnVectorsFormatForField("corr_vector")
+                instanceof Lucene99HnswVectorsFormat);
+    }
+
+    private static MapperService mapperService(String encoding) {
+        CorrelationParamsContext correlationParams = new CorrelationParamsContext(VectorSimilarityFunction.EUCLIDEAN,
+                Map.of(CorrelationConstants.METHOD_PARAMETER_M, 16, CorrelationConstants.METHOD_PARAMETER_EF_CONSTRUCTION, 128));
+        MapperService mapperService = mock(MapperService.class);
+        when(mapperService.fieldType("corr_vector")).thenReturn(
+                new CorrelationVectorFieldMapper.CorrelationVectorFieldType("corr_vector", Map.of(), 3, correlationParams, encoding));
+        return mapperService;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.correlation.index.codec.util;
+
+import org.apache.lucene.util.BytesRef;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class CorrelationVectorAsBytesSerializerTests extends OpenSearchTestCase {
+
+    private final CorrelationVectorSerializer serializer = new CorrelationVectorAsBytesSerializer();
+
+    public void testRoundTrip() {
+        float[] vector = new float[]{150.0f, 100.0f, 86400.5f};
+
+        byte[] bytes = serializer.floatToByteArray(vector);
+
+        assertEquals(vector.length * Float.BYTES, bytes.length);
+        assertArrayEquals(vector, serializer.byteToFloatArray(new BytesRef(bytes)), 0.0f);
+    }
+
+    public void testDecodesSliceWithoutCopy() {
+        byte[] encoded = serializer.floatToByteArray(new float[]{1.0f, -2.0f, 3.5f});
+        byte[] padded = new byte[encoded.length + 7];
+        System.arraycopy(encoded, 0, padded, 5, encoded.length);
+
+        assertArrayEquals(new float[]{1.0f, -2.0f, 3.5f}, serializer.byteToFloatArray(new BytesRef(padded, 5, encoded.length)), 0.0f);
+    }
+
+    public void testReadsJavaSerializedVectors() {
+        float[] vector = new float[]{50.0f, 0.0f, 1728000.0f};
+        byte[] legacy = new CorrelationVectorAsArraySerializer().floatToByteArray(vector);
+
+        assertArrayEquals(vector, serializer.byteToFloatArray(new BytesRef(legacy)), 0.0f);
+    }
+}
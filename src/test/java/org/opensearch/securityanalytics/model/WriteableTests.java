@@ -5,16 +5,24 @@
 package org.opensearch.securityanalytics.model;
 
 import org.junit.Assert;
+import org.opensearch.Version;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.commons.authuser.User;
+import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
+import org.opensearch.securityanalytics.rules.backend.OSQueryDslBackend;
+import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
+import org.opensearch.securityanalytics.rules.objects.SigmaRule;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.test.VersionUtils;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 import static org.opensearch.securityanalytics.TestHelpers.parser;
 import static org.opensearch.securityanalytics.TestHelpers.randomDetector;
+import static org.opensearch.securityanalytics.TestHelpers.randomRule;
 import static org.opensearch.securityanalytics.TestHelpers.randomUser;
 import static org.opensearch.securityanalytics.TestHelpers.randomUserEmpty;
 import static org.opensearch.securityanalytics.TestHelpers.toJsonStringWithUser;
@@ -56,6 +64,29 @@ public class WriteableTests extends OpenSearchTestCase {
         Assert.assertEquals("Round tripping Detector doesn't work", detector, newDetector);
     }
 
+    public void testRuleQueryDslIsNotStreamedToOlderNodes() throws IOException, SigmaError {
+        SigmaRule sigmaRule = SigmaRule.fromYaml(randomRule(), true);
+        Rule rule = new Rule("rule-id", 1L, sigmaRule, "windows",
+                new OSQueryBackend(Map.of(), true, true).convertRule(sigmaRule),
+                new OSQueryDslBackend(Map.of(), true, true).convertRule(sigmaRule),
+                List.of("EventID"), randomRule());
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        rule.writeTo(out);
+        Rule newRule = new Rule(out.bytes().streamInput());
+        Assert.assertEquals(rule.getQueryDsl().get(0).getValue(), newRule.getQueryDsl().get(0).getValue());
+
+        Version version = VersionUtils.getPreviousVersion(Rule.QUERY_DSL_VERSION);
+        out = new BytesStreamOutput();
+        out.setVersion(version);
+        rule.writeTo(out);
+        StreamInput sin = out.bytes().streamInput();
+        sin.setVersion(version);
+        newRule = new Rule(sin);
+        Assert.assertEquals(rule.getQueries().get(0).getValue(), newRule.getQueries().get(0).getValue());
+        Assert.assertTrue(newRule.getQueryDsl().isEmpty());
+    }
+
     public void testUserAsStream() throws IOException {
         User user = randomUser();
         BytesStreamOutput out = new BytesStreamOutput();
@@ -0,0 +1,155 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.rules.backend;
+
+import org.junit.Assert;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.securityanalytics.rules.exceptions.CompositeSigmaErrors;
+import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
+import org.opensearch.securityanalytics.rules.objects.SigmaRule;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class OSQueryDslBackendTests extends OpenSearchTestCase {
+
+    private static final Map<String, String> testFieldMapping = Map.of(
+        "fieldB", "mappedB",
+        "EventID", "event_uid"
+    );
+
+    public void testFieldValuesAreMatchPhraseAndTermQueries() throws IOException, SigmaError, CompositeSigmaErrors {
+        OSQueryDslBackend queryBackend = testBackend();
+        List<Object> queries = queryBackend.convertRule(SigmaRule.fromYaml(rule(
+                "                sel:\n" +
+                "                    fieldA: valueA\n" +
+                "                    fieldB: value B\n" +
+                "                    EventID: 4624\n" +
+                "                condition: sel"), false));
+
+        QueryBuilder expected = QueryBuilders.boolQuery()
+                .must(QueryBuilders.matchPhraseQuery("fieldA", "valueA"))
+                .must(QueryBuilders.matchPhraseQuery("mappedB", "value B"))
+                .must(QueryBuilders.termQuery("event_uid", 4624));
+        Assert.assertEquals(expected, queries.get(0));
+        Assert.assertEquals(Map.of("type", "integer"), queryBackend.getQueryFields().get("event_uid"));
+    }
+
+    public void testWildcardsArePrefixAndWildcardQueriesOnKeywordSubfields() throws IOException, SigmaError, CompositeSigmaErrors {
+        OSQueryDslBackend queryBackend = testBackend();
+        List<Object> queries = queryBackend.convertRule(SigmaRule.fromYaml(rule(
+                "                sel:\n" +
+                "                    fieldA|startswith: cmd\n" +
+                "                    fieldB|contains: cmd?exe\n" +
+                "                condition: sel"), false));
+
+        QueryBuilder expected = QueryBuilders.boolQuery()
+                .must(QueryBuilders.prefixQuery("fieldA.keyword", "cmd").caseInsensitive(true))
+                .must(QueryBuilders.wildcardQuery("mappedB.keyword", "*cmd?exe*").caseInsensitive(true));
+        Assert.assertEquals(expected, queries.get(0));
+    }
+
+    public void testNumbersOfOneFieldAreCollapsedIntoTermsQuery() throws IOException, SigmaError, CompositeSigmaErrors {
+        OSQueryDslBackend queryBackend = testBackend();
+        List<Object> queries = queryBackend.convertRule(SigmaRule.fromYaml(rule(
+                "                sel:\n" +
+                "                    EventID:\n" +
+                "                        - 4624\n" +
+                "                        - 4625\n" +
+                "                condition: sel"), false));
+
+        Assert.assertEquals(QueryBuilders.termsQuery("event_uid", List.of(4624, 4625)), queries.get(0));
+    }
+
+    public void testStringsOfOneFieldAreNotCollapsed() throws IOException, SigmaError, CompositeSigmaErrors {
+        OSQueryDslBackend queryBackend = testBackend();
+        List<Object> queries = queryBackend.convertRule(SigmaRule.fromYaml(rule(
+                "                sel:\n" +
+                "                    fieldA:\n" +
+                "                        - valueA1\n" +
+                "                        - valueA2\n" +
+                "                condition: sel"), false));
+
+        QueryBuilder expected = QueryBuilders.boolQuery()
+                .should(QueryBuilders.matchPhraseQuery("fieldA", "valueA1"))
+                .should(QueryBuilders.matchPhraseQuery("fieldA", "valueA2"));
+        Assert.assertEquals(expected, queries.get(0));
+    }
+
+    public void testNegationIsPushedDown() throws IOException, SigmaError, CompositeSigmaErrors {
+        OSQueryDslBackend queryBackend = testBackend();
+        List<Object> queries = queryBackend.convertRule(SigmaRule.fromYaml(rule(
+                "                sel:\n" +
+                "                    fieldA: valueA\n" +
+                "                    fieldB: valueB\n" +
+                "                condition: not sel"), false));
+
+        QueryBuilder expected = QueryBuilders.boolQuery()
+                .should(QueryBuilders.boolQuery()
+                        .must(QueryBuilders.boolQuery().mustNot(QueryBuilders.matchPhraseQuery("fieldA", "valueA")))
+                        .must(QueryBuilders.existsQuery("fieldA")))
+                .should(QueryBuilders.boolQuery()
+                        .must(QueryBuilders.boolQuery().mustNot(QueryBuilders.matchPhraseQuery("mappedB", "valueB")))
+                        .must(QueryBuilders.existsQuery("mappedB")));
+        Assert.assertEquals(expected, queries.get(0));
+    }
+
+    public void testComparisonsAndRegularExpressions() throws IOException, SigmaError, CompositeSigmaErrors {
+        OSQueryDslBackend queryBackend = testBackend();
+        List<Object> queries = queryBackend.convertRule(SigmaRule.fromYaml(rule(
+                "                sel:\n" +
+                "                    fieldA|gte: 10\n" +
+                "                    fieldB|re: 'a.*b'\n" +
+                "                    fieldC: null\n" +
+                "                condition: sel"), false));
+
+        QueryBuilder expected = QueryBuilders.boolQuery()
+                .must(QueryBuilders.rangeQuery("fieldA").gte(10))
+                .must(QueryBuilders.regexpQuery("mappedB.keyword", "a.*b"))
+                .must(QueryBuilders.boolQuery().mustNot(QueryBuilders.existsQuery("fieldC")));
+        Assert.assertEquals(expected, queries.get(0));
+    }
+
+    public void testQueryFieldsMatchQueryStringBackend() throws IOException, SigmaError, CompositeSigmaErrors {
+        String rule = rule(
+                "                sel:\n" +
+                "                    fieldA: valueA\n" +
+                "                    fieldB|endswith: valueB\n" +
+                "                    EventID:\n" +
+                "                        - 4624\n" +
+                "                        - 4625\n" +
+                "                filter:\n" +
+                "                    fieldC: true\n" +
+                "                condition: sel and not filter");
+        OSQueryDslBackend queryDslBackend = testBackend();
+        queryDslBackend.convertRule(SigmaRule.fromYaml(rule, false));
+        OSQueryBackend queryBackend = new OSQueryBackend(testFieldMapping, false, true);
+        queryBackend.convertRule(SigmaRule.fromYaml(rule, false));
+
+        Assert.assertEquals(queryBackend.getQueryFields(), queryDslBackend.getQueryFields());
+    }
+
+    private OSQueryDslBackend testBackend() throws IOException {
+        return new OSQueryDslBackend(testFieldMapping, false, true);
+    }
+
+    private static String rule(String detection) {
+        return "            title: Test\n" +
+                "            id: 39f919f3-980b-4e6f-a975-8af7e507ef2b\n" +
+                "            status: test\n" +
+                "            level: critical\n" +
+                "            description: Detects QuarksPwDump clearing access history in hive\n" +
+                "            author: Florian Roth\n" +
+                "            date: 2017/05/15\n" +
+                "            logsource:\n" +
+                "                category: test_category\n" +
+                "                product: test_product\n" +
+                "            detection:\n" +
+                detection;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class AutoCorrelationsIndexTests extends OpenSearchTestCase {
+
+    private static final Map<String, Set<String>> AUTO_CORRELATIONS = Map.of(
+            "intrusion-set--a", Set.of("attack.t1021.005", "attack.t1560"),
+            "intrusion-set--b", Set.of("attack.t1560", "attack.t1140"),
+            "intrusion-set--c", Set.of("attack.t1007")
+    );
+
+    public void testIntrusionSetsMatchRepoLookup() {
+        AutoCorrelationsIndex index = new AutoCorrelationsIndex(AUTO_CORRELATIONS);
+
+        for (Set<String> tags: List.of(Set.of("attack.t1560"), Set.of("attack.t1007", "attack.t1140"), Set.<String>of("attack.t9999"))) {
+            assertEquals(AutoCorrelationsRepo.validIntrusionSets(AUTO_CORRELATIONS, tags),
+                    index.intrusionSetIds(index.intrusionSets(tags)));
+        }
+    }
+
+    public void testIntersects() {
+        AutoCorrelationsIndex index = new AutoCorrelationsIndex(AUTO_CORRELATIONS);
+        BitSet intrusionSets = index.intrusionSets(Set.of("attack.t1021.005"));
+
+        assertTrue(index.intersects(Set.of("attack.t1560"), intrusionSets));
+        assertFalse(index.intersects(Set.of("attack.t1140", "attack.t1007"), intrusionSets));
+        assertFalse(index.intersects(Set.of("attack.t1560"), new BitSet()));
+    }
+
+    public void testCandidateTags() {
+        AutoCorrelationsIndex index = new AutoCorrelationsIndex(AUTO_CORRELATIONS);
+
+        assertEquals(Set.of("attack.t1021.005", "attack.t1560"), index.candidateTags(Set.of("attack.t1021.005")));
+        assertEquals(Set.of("attack.t1021.005", "attack.t1560", "attack.t1140"), index.candidateTags(Set.of("attack.t1560")));
+        assertEquals(Set.of("attack.t9999"), index.candidateTags(Set.of("attack.t9999")));
+        assertTrue(index.candidateTags(Set.of()).isEmpty());
+    }
+
+    public void testBundledIndexIsLoadedOnce() throws IOException {
+        AutoCorrelationsIndex index = AutoCorrelationsRepo.autoCorrelationsIndex();
+        assertSame(index, AutoCorrelationsRepo.autoCorrelationsIndex());
+        assertEquals(AutoCorrelationsRepo.autoCorrelationsAsMap().size(), index.intrusionSetIds().size());
+    }
+}
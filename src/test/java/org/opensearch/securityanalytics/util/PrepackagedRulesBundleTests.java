@@ -0,0 +1,91 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.opensearch.core.common.io.stream.OutputStreamStreamOutput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+public class PrepackagedRulesBundleTests extends OpenSearchTestCase {
+
+    public void testBundleRoundTrip() throws IOException {
+        List<String> rules = List.of(rule(UUID.randomUUID().toString(), "fieldA"), rule(UUID.randomUUID().toString(), "fieldB"));
+        Map<String, String> fieldMappings = Map.of("fieldA", "mappedA");
+        List<String> errors = new ArrayList<>();
+        List<Rule> compiled = PrepackagedRulesCompiler.compileBatch(
+                rules.stream().map(rule -> new PrepackagedRulesCompiler.RuleSource("linux", rule)).collect(Collectors.toList()),
+                Map.of("linux", fieldMappings),
+                new RuleConversionCache(0),
+                errors
+        );
+        assertTrue(errors.isEmpty());
+
+        Map<String, PrepackagedRulesBundle.Category> bundle = new LinkedHashMap<>();
+        bundle.put("linux", new PrepackagedRulesBundle.Category(PrepackagedRulesBundle.fingerprint(rules, fieldMappings), compiled));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrepackagedRulesBundle.write(out, bundle);
+
+        Map<String, PrepackagedRulesBundle.Category> read = PrepackagedRulesBundle.read(new ByteArrayInputStream(out.toByteArray()));
+        List<Rule> readRules = read.get("linux").getRules();
+        assertEquals(2, readRules.size());
+        for (int i = 0; i < compiled.size(); ++i) {
+            assertEquals(compiled.get(i).getId(), readRules.get(i).getId());
+            assertEquals(compiled.get(i).getCategory(), readRules.get(i).getCategory());
+            assertEquals(compiled.get(i).getRule(), readRules.get(i).getRule());
+            assertEquals(compiled.get(i).getQueries().get(0).getValue(), readRules.get(i).getQueries().get(0).getValue());
+            assertEquals(compiled.get(i).getQueryDsl().get(0).getValue(), readRules.get(i).getQueryDsl().get(0).getValue());
+        }
+    }
+
+    public void testFingerprintChangesWithRulesAndFieldMappings() {
+        List<String> rules = List.of(rule("a7e4e0bb-2b8b-4bd6-a4e6-4b0b1e2e6c1d", "fieldA"));
+        String fingerprint = PrepackagedRulesBundle.fingerprint(rules, Map.of("fieldA", "mappedA"));
+
+        assertEquals(fingerprint, PrepackagedRulesBundle.fingerprint(List.copyOf(rules), Map.of("fieldA", "mappedA")));
+        assertNotEquals(fingerprint, PrepackagedRulesBundle.fingerprint(
+                List.of(rule("a7e4e0bb-2b8b-4bd6-a4e6-4b0b1e2e6c1d", "fieldB")), Map.of("fieldA", "mappedA")));
+        assertNotEquals(fingerprint, PrepackagedRulesBundle.fingerprint(rules, Map.of("fieldA", "mappedB")));
+        assertNotEquals(fingerprint, PrepackagedRulesBundle.fingerprint(rules, Map.of()));
+    }
+
+    public void testBundleOfAnotherFormatIsIgnored() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamOutput sout = new OutputStreamStreamOutput(new GZIPOutputStream(out))) {
+            sout.writeString("opensearch-sap-prepackaged-rules");
+            sout.writeVInt(PrepackagedRulesBundle.FORMAT_VERSION + 1);
+            sout.writeVInt(0);
+        }
+        assertTrue(PrepackagedRulesBundle.read(new ByteArrayInputStream(out.toByteArray())).isEmpty());
+    }
+
+    private static String rule(String id, String field) {
+        return "title: Test " + field + "\n" +
+                "id: " + id + "\n" +
+                "status: test\n" +
+                "level: critical\n" +
+                "description: Test rule\n" +
+                "author: Test\n" +
+                "date: 2017/05/15\n" +
+                "logsource:\n" +
+                "    category: test_category\n" +
+                "    product: test_product\n" +
+                "detection:\n" +
+                "    sel:\n" +
+                "        " + field + ": value\n" +
+                "    condition: sel\n";
+    }
+}
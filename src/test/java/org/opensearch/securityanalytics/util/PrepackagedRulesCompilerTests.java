@@ -0,0 +1,110 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.securityanalytics.model.Rule;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class PrepackagedRulesCompilerTests extends OpenSearchTestCase {
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName(), PrepackagedRulesCompiler.executorBuilder(Settings.builder().put("node.processors", 4).build()));
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        super.tearDown();
+    }
+
+    public void testRulesAreCompiledInOrder() {
+        Map<String, List<String>> categoryToRules = new LinkedHashMap<>();
+        List<String> expectedIds = new ArrayList<>();
+        for (String category: List.of("others_cloud", "linux", "windows")) {
+            List<String> rules = new ArrayList<>();
+            for (int i = 0; i < 150; ++i) {
+                String id = UUID.randomUUID().toString();
+                expectedIds.add(id);
+                rules.add(rule(id, "field" + i));
+            }
+            categoryToRules.put(category, rules);
+        }
+        Map<String, Map<String, String>> fieldMappings = Map.of("others_cloud", Map.of(), "linux", Map.of(), "windows", Map.of("field1", "mapped1"));
+
+        PlainActionFuture<List<Rule>> future = new PlainActionFuture<>();
+        new PrepackagedRulesCompiler(threadPool, new RuleConversionCache(100)).compile(categoryToRules, fieldMappings, future);
+        List<Rule> rules = future.actionGet();
+
+        assertEquals(expectedIds, rules.stream().map(Rule::getId).collect(Collectors.toList()));
+        assertEquals("windows", rules.get(301).getCategory());
+        assertTrue(rules.get(301).getQueries().get(0).getValue().contains("mapped1"));
+        assertEquals(1, rules.get(301).getQueryDsl().size());
+    }
+
+    public void testFailingRulesAreSkipped() {
+        String valid = UUID.randomUUID().toString();
+        Map<String, List<String>> categoryToRules = Map.of("linux", List.of(
+                "title: broken\ndetection: [\n",
+                rule(valid, "fieldA")
+        ));
+
+        PlainActionFuture<List<Rule>> future = new PlainActionFuture<>();
+        new PrepackagedRulesCompiler(threadPool, new RuleConversionCache(100)).compile(categoryToRules, Map.of("linux", Map.of()), future);
+        List<Rule> rules = future.actionGet();
+
+        assertEquals(1, rules.size());
+        assertEquals(valid, rules.get(0).getId());
+    }
+
+    public void testThrowingBatchFailsCompilation() {
+        Map<String, List<String>> categoryToRules = Map.of("linux", List.of(rule(UUID.randomUUID().toString(), "fieldA")));
+        Map<String, Map<String, String>> fieldMappings = new HashMap<>() {
+            @Override
+            public Map<String, String> get(Object key) {
+                throw new StackOverflowError();
+            }
+        };
+
+        PlainActionFuture<List<Rule>> future = new PlainActionFuture<>();
+        new PrepackagedRulesCompiler(threadPool, new RuleConversionCache(100)).compile(categoryToRules, fieldMappings, future);
+
+        IllegalStateException e = expectThrows(IllegalStateException.class, () -> future.actionGet(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof StackOverflowError);
+    }
+
+    private static String rule(String id, String field) {
+        return "title: Test " + field + "\n" +
+                "id: " + id + "\n" +
+                "status: test\n" +
+                "level: critical\n" +
+                "description: Test rule\n" +
+                "author: Test\n" +
+                "date: 2017/05/15\n" +
+                "logsource:\n" +
+                "    category: test_category\n" +
+                "    product: test_product\n" +
+                "detection:\n" +
+                "    sel:\n" +
+                "        " + field + ": value\n" +
+                "    condition: sel\n";
+    }
+}
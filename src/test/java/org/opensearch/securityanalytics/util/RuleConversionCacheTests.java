@@ -0,0 +1,97 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.opensearch.securityanalytics.util;
+
+import org.opensearch.securityanalytics.rules.backend.OSQueryBackend;
+import org.opensearch.securityanalytics.rules.backend.OSQueryDslBackend;
+import org.opensearch.securityanalytics.rules.exceptions.SigmaError;
+import org.opensearch.securityanalytics.rules.objects.SigmaRule;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RuleConversionCacheTests extends OpenSearchTestCase {
+
+    private static final String RULE = "title: Test\n" +
+            "id: 39f919f3-980b-4e6f-a975-8af7e507ef2b\n" +
+            "status: test\n" +
+            "level: critical\n" +
+            "description: Test rule\n" +
+            "author: Test\n" +
+            "date: 2017/05/15\n" +
+            "logsource:\n" +
+            "    category: test_category\n" +
+            "    product: test_product\n" +
+            "detection:\n" +
+            "    sel:\n" +
+            "        fieldA: valueA\n" +
+            "    condition: sel\n";
+
+    public void testConversionIsCachedPerRuleAndFieldMappings() throws IOException, SigmaError {
+        RuleConversionCache cache = new RuleConversionCache(10);
+        AtomicInteger conversions = new AtomicInteger();
+
+        RuleConversionCache.Conversion first = convert(cache, Map.of("fieldA", "mappedA"), conversions);
+        RuleConversionCache.Conversion second = convert(cache, Map.of("fieldA", "mappedA"), conversions);
+        RuleConversionCache.Conversion other = convert(cache, Map.of("fieldA", "otherA"), conversions);
+
+        assertSame(first, second);
+        assertEquals(2, conversions.get());
+        assertEquals(List.of("mappedA"), first.getQueryFieldNames());
+        assertEquals(List.of("otherA"), other.getQueryFieldNames());
+        assertEquals(1L, cache.getHits());
+        assertEquals(2L, cache.getMisses());
+        assertEquals(2, cache.getSize());
+    }
+
+    public void testLeastRecentlyUsedConversionIsEvicted() throws IOException, SigmaError {
+        RuleConversionCache cache = new RuleConversionCache(1);
+        AtomicInteger conversions = new AtomicInteger();
+
+        convert(cache, Map.of("fieldA", "mappedA"), conversions);
+        convert(cache, Map.of("fieldA", "otherA"), conversions);
+        convert(cache, Map.of("fieldA", "mappedA"), conversions);
+
+        assertEquals(3, conversions.get());
+        assertEquals(2L, cache.getEvictions());
+        assertEquals(1, cache.getSize());
+    }
+
+    public void testZeroSizeDisablesCache() throws IOException, SigmaError {
+        RuleConversionCache cache = new RuleConversionCache(0);
+        AtomicInteger conversions = new AtomicInteger();
+
+        convert(cache, Map.of("fieldA", "mappedA"), conversions);
+        convert(cache, Map.of("fieldA", "mappedA"), conversions);
+
+        assertEquals(2, conversions.get());
+        assertEquals(0L, cache.getHits());
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testKeyDependsOnRuleAndFieldMappings() {
+        String key = RuleConversionCache.key(RULE, Map.of("fieldA", "mappedA", "fieldB", "mappedB"));
+
+        assertEquals(key, RuleConversionCache.key(RULE, Map.of("fieldB", "mappedB", "fieldA", "mappedA")));
+        assertNotEquals(key, RuleConversionCache.key(RULE.replace("valueA", "valueB"), Map.of("fieldA", "mappedA", "fieldB", "mappedB")));
+        assertNotEquals(key, RuleConversionCache.key(RULE, Map.of("fieldA", "mappedA")));
+        assertTrue(key.startsWith(RuleConversionCache.BACKEND_VERSION + ":"));
+    }
+
+    private static RuleConversionCache.Conversion convert(RuleConversionCache cache, Map<String, String> fieldMappings,
+                                                          AtomicInteger conversions) throws IOException, SigmaError {
+        return cache.computeIfAbsent(RULE, fieldMappings, () -> {
+            conversions.incrementAndGet();
+            return RuleConversionCache.convert(
+                    new OSQueryBackend(fieldMappings, true, true),
+                    new OSQueryDslBackend(fieldMappings, true, true),
+                    SigmaRule.fromYaml(RULE, true)
+            );
+        });
+    }
+}